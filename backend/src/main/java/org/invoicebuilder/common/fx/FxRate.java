@@ -0,0 +1,46 @@
+package org.invoicebuilder.common.fx;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Entity
+@Table(name = "fx_rates")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FxRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "fx_rate_id")
+    private UUID id;
+
+    @Column(name = "fx_base_currency", nullable = false, length = 3)
+    private String baseCurrency;
+
+    @Column(name = "fx_quote_currency", nullable = false, length = 3)
+    private String quoteCurrency;
+
+    @Column(name = "fx_rate_date", nullable = false)
+    private LocalDate rateDate;
+
+    @Column(name = "fx_rate", nullable = false, precision = 19, scale = 10)
+    private BigDecimal rate;
+
+    @Column(name = "fx_rate_source", length = 50)
+    private String source;
+
+    @CreationTimestamp
+    @Column(name = "fx_rate_created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,36 @@
+package org.invoicebuilder.common.fx;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Holds the current {@link FxRateTable} snapshot. Readers never lock; a reload builds a new
+ * table off to the side and swaps the reference.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FxRateCache {
+
+    private final FxRateRepository fxRateRepository;
+
+    private volatile FxRateTable table = FxRateTable.empty();
+
+    @Transactional(readOnly = true)
+    public void reload() {
+        FxRateTable reloaded = FxRateTable.from(fxRateRepository.findAll());
+        this.table = reloaded;
+        log.info("Loaded {} FX rate points into cache", reloaded.size());
+    }
+
+    /**
+     * @see FxRateTable#rate(String, String, LocalDate)
+     */
+    public long rate(String baseCurrency, String quoteCurrency, LocalDate date) {
+        return table.rate(baseCurrency, quoteCurrency, date);
+    }
+}
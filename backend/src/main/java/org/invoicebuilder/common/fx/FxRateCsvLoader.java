@@ -0,0 +1,112 @@
+package org.invoicebuilder.common.fx;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Imports FX rates from a local CSV file ({@code rate_date,base_currency,quote_currency,rate})
+ * into the fx_rates table and refreshes the in-memory cache. Rows already present for the
+ * same pair and date are left untouched; the insert skips them with {@code ON CONFLICT}, so
+ * several instances starting at once can import the same file without failing on
+ * {@code uk_fx_rate_pair_date}. Non-positive rates are skipped, as they cannot be inverted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FxRateCsvLoader {
+
+    private static final String SOURCE = "csv";
+
+    private static final String INSERT_RATE = """
+        INSERT INTO fx_rates (fx_rate_id, fx_base_currency, fx_quote_currency, fx_rate_date, fx_rate, fx_rate_source)
+        VALUES (?, ?, ?, ?, ?, ?)
+        ON CONFLICT (fx_base_currency, fx_quote_currency, fx_rate_date) DO NOTHING
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FxRateCache fxRateCache;
+    private final ResourceLoader resourceLoader;
+    private final AppProperties appProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        AppProperties.Fx fx = appProperties.getFx();
+        if (fx.isImportOnStartup() && fx.getRatesFile() != null && !fx.getRatesFile().isBlank()) {
+            importFrom(resourceLoader.getResource(fx.getRatesFile()));
+        }
+        fxRateCache.reload();
+    }
+
+    public int importFrom(Resource resource) {
+        if (!resource.exists()) {
+            log.warn("FX rates file {} not found, skipping import", resource.getDescription());
+            return 0;
+        }
+
+        List<FxRate> parsed = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 || line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                if (columns.length < 4) {
+                    log.warn("Skipping malformed FX rate line {}: {}", lineNumber, line);
+                    continue;
+                }
+                FxRate rate = FxRate.builder()
+                        .rateDate(LocalDate.parse(columns[0].trim()))
+                        .baseCurrency(columns[1].trim().toUpperCase())
+                        .quoteCurrency(columns[2].trim().toUpperCase())
+                        .rate(new BigDecimal(columns[3].trim()))
+                        .source(SOURCE)
+                        .build();
+                if (rate.getRate().signum() <= 0) {
+                    log.warn("Skipping non-positive FX rate on line {}: {}", lineNumber, line);
+                    continue;
+                }
+                parsed.add(rate);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read FX rates from " + resource.getDescription(), e);
+        }
+
+        int imported = 0;
+        for (int[] counts : jdbcTemplate.batchUpdate(INSERT_RATE, parsed, 500, (statement, rate) -> {
+            statement.setObject(1, UUID.randomUUID());
+            statement.setString(2, rate.getBaseCurrency());
+            statement.setString(3, rate.getQuoteCurrency());
+            statement.setDate(4, Date.valueOf(rate.getRateDate()));
+            statement.setBigDecimal(5, rate.getRate());
+            statement.setString(6, rate.getSource());
+        })) {
+            for (int count : counts) {
+                // The driver may report SUCCESS_NO_INFO (-2) for rewritten batches.
+                imported += Math.max(count, 0);
+            }
+        }
+        log.info("Imported {} new FX rates from {}", imported, resource.getDescription());
+        return imported;
+    }
+}
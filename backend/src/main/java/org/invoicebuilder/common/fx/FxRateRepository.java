@@ -0,0 +1,10 @@
+package org.invoicebuilder.common.fx;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface FxRateRepository extends JpaRepository<FxRate, UUID> {
+}
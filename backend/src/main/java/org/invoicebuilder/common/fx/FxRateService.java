@@ -0,0 +1,62 @@
+package org.invoicebuilder.common.fx;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.invoices.domain.Invoice;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Converts invoice amounts into the account's reporting currency. Conversion happens when an
+ * invoice is issued, and again if an issued invoice's totals change, so reporting queries can
+ * aggregate the stamped base columns without joining rates or converting at read time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FxRateService {
+
+    private static final int AMOUNT_SCALE = 4;
+
+    private final FxRateCache fxRateCache;
+    private final AppProperties appProperties;
+
+    public void stampBaseAmounts(Invoice invoice) {
+        String reportingCurrency = reportingCurrencyFor(invoice);
+        LocalDate rateDate = invoice.getIssueDate() != null ? invoice.getIssueDate() : LocalDate.now();
+        long rate = fxRateCache.rate(invoice.getCurrency(), reportingCurrency, rateDate);
+
+        if (rate == FxRateTable.MISSING) {
+            log.warn("No FX rate for {}/{} on {}, base amounts for invoice {} left empty",
+                    invoice.getCurrency(), reportingCurrency, rateDate, invoice.getInvoiceNumber());
+            invoice.setBaseCurrency(null);
+            invoice.setFxRate(null);
+            invoice.setBaseSubtotal(null);
+            invoice.setBaseTaxAmount(null);
+            invoice.setBaseTotalAmount(null);
+            return;
+        }
+
+        BigDecimal fxRate = BigDecimal.valueOf(rate, FxRateTable.RATE_SCALE);
+        invoice.setBaseCurrency(reportingCurrency);
+        invoice.setFxRate(fxRate);
+        invoice.setBaseSubtotal(convert(invoice.getSubtotal(), fxRate));
+        invoice.setBaseTaxAmount(convert(invoice.getTaxAmount(), fxRate));
+        invoice.setBaseTotalAmount(convert(invoice.getTotalAmount(), fxRate));
+    }
+
+    private String reportingCurrencyFor(Invoice invoice) {
+        if (invoice.getAccount() != null && invoice.getAccount().getReportingCurrency() != null) {
+            return invoice.getAccount().getReportingCurrency();
+        }
+        return appProperties.getFx().getReportingCurrency();
+    }
+
+    private static BigDecimal convert(BigDecimal amount, BigDecimal fxRate) {
+        return amount == null ? null : amount.multiply(fxRate).setScale(AMOUNT_SCALE, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,181 @@
+package org.invoicebuilder.common.fx;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable, primitive-backed snapshot of FX rates.
+ * Currency codes are mapped to a dense index through a fixed 26^3 lookup table and each
+ * currency pair holds parallel arrays of epoch days and rates, so a lookup is two array
+ * reads plus a binary search and never allocates.
+ */
+public final class FxRateTable {
+
+    /** Scale of the unscaled rates returned by {@link #rate}. Matches the DECIMAL(19,10) column. */
+    public static final int RATE_SCALE = 10;
+
+    /** Returned by {@link #rate} when no rate is known for the pair on or before the date. */
+    public static final long MISSING = -1L;
+
+    private static final long ONE = BigDecimal.ONE.movePointRight(RATE_SCALE).longValueExact();
+    private static final int CODE_SPACE = 26 * 26 * 26;
+    private static final int[] EMPTY_DAYS = new int[0];
+    private static final long[] EMPTY_RATES = new long[0];
+
+    private final short[] currencyIndex;
+    private final int currencyCount;
+    private final int[][] epochDays;
+    private final long[][] rates;
+
+    private FxRateTable(short[] currencyIndex, int currencyCount, int[][] epochDays, long[][] rates) {
+        this.currencyIndex = currencyIndex;
+        this.currencyCount = currencyCount;
+        this.epochDays = epochDays;
+        this.rates = rates;
+    }
+
+    public static FxRateTable empty() {
+        return new FxRateTable(new short[CODE_SPACE], 0, new int[0][], new long[0][]);
+    }
+
+    /**
+     * Looks up the most recent rate on or before the given date.
+     *
+     * @return the rate unscaled at {@link #RATE_SCALE}, or {@link #MISSING}
+     */
+    public long rate(String baseCurrency, String quoteCurrency, LocalDate date) {
+        int base = indexOf(baseCurrency);
+        int quote = indexOf(quoteCurrency);
+        if (base < 0 || quote < 0) {
+            return MISSING;
+        }
+        if (base == quote) {
+            return ONE;
+        }
+        int pair = base * currencyCount + quote;
+        int[] days = epochDays[pair];
+        int position = Arrays.binarySearch(days, (int) date.toEpochDay());
+        if (position < 0) {
+            position = -position - 2;
+            if (position < 0) {
+                return MISSING;
+            }
+        }
+        return rates[pair][position];
+    }
+
+    public int size() {
+        int size = 0;
+        for (int[] days : epochDays) {
+            size += days.length;
+        }
+        return size;
+    }
+
+    private int indexOf(String currency) {
+        int code = codeOf(currency);
+        return code < 0 ? -1 : currencyIndex[code] - 1;
+    }
+
+    private static int codeOf(String currency) {
+        if (currency == null || currency.length() != 3) {
+            return -1;
+        }
+        int code = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = Character.toUpperCase(currency.charAt(i)) - 'A';
+            if (letter < 0 || letter >= 26) {
+                return -1;
+            }
+            code = code * 26 + letter;
+        }
+        return code;
+    }
+
+    /**
+     * Builds a table from persisted rates. Inverse pairs are derived for any date that has
+     * no explicit quote in the opposite direction. Non-positive rates are ignored.
+     */
+    public static FxRateTable from(List<FxRate> fxRates) {
+        Map<String, Integer> indexes = new HashMap<>();
+        Map<Long, TreeMap<Integer, Long>> series = new HashMap<>();
+
+        for (FxRate fxRate : fxRates) {
+            if (fxRate.getRate().signum() <= 0) {
+                continue;
+            }
+            int base = indexes.computeIfAbsent(fxRate.getBaseCurrency().toUpperCase(), code -> indexes.size());
+            int quote = indexes.computeIfAbsent(fxRate.getQuoteCurrency().toUpperCase(), code -> indexes.size());
+            int day = (int) fxRate.getRateDate().toEpochDay();
+            long rate = fxRate.getRate().setScale(RATE_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+            series.computeIfAbsent(pairKey(base, quote), key -> new TreeMap<>()).put(day, rate);
+        }
+
+        for (Map.Entry<Long, TreeMap<Integer, Long>> entry : new ArrayList<>(series.entrySet())) {
+            int base = (int) (entry.getKey() >>> 32);
+            int quote = entry.getKey().intValue();
+            TreeMap<Integer, Long> inverse = series.computeIfAbsent(pairKey(quote, base), key -> new TreeMap<>());
+            entry.getValue().forEach((day, rate) -> {
+                long inverted = invert(rate);
+                if (inverted != MISSING) {
+                    inverse.putIfAbsent(day, inverted);
+                }
+            });
+        }
+
+        int count = indexes.size();
+        short[] currencyIndex = new short[CODE_SPACE];
+        indexes.forEach((currency, index) -> {
+            int code = codeOf(currency);
+            if (code >= 0) {
+                currencyIndex[code] = (short) (index + 1);
+            }
+        });
+
+        int[][] epochDays = new int[count * count][];
+        long[][] rates = new long[count * count][];
+        Arrays.fill(epochDays, EMPTY_DAYS);
+        Arrays.fill(rates, EMPTY_RATES);
+        series.forEach((key, byDay) -> {
+            int pair = (int) (key >>> 32) * count + key.intValue();
+            int[] days = new int[byDay.size()];
+            long[] values = new long[byDay.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Long> point : byDay.entrySet()) {
+                days[i] = point.getKey();
+                values[i] = point.getValue();
+                i++;
+            }
+            epochDays[pair] = days;
+            rates[pair] = values;
+        });
+        return new FxRateTable(currencyIndex, count, epochDays, rates);
+    }
+
+    private static long pairKey(int base, int quote) {
+        return ((long) base << 32) | (quote & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return the inverse rate, or {@link #MISSING} if the rate is not positive or its inverse
+     *         does not fit the unscaled representation
+     */
+    static long invert(long rate) {
+        if (rate <= 0) {
+            return MISSING;
+        }
+        BigDecimal inverse = BigDecimal.ONE
+                .divide(BigDecimal.valueOf(rate, RATE_SCALE), RATE_SCALE, RoundingMode.HALF_EVEN);
+        if (inverse.signum() == 0 || inverse.unscaledValue().bitLength() > 63) {
+            return MISSING;
+        }
+        return inverse.unscaledValue().longValue();
+    }
+}
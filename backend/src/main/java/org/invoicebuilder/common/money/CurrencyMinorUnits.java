@@ -0,0 +1,56 @@
+package org.invoicebuilder.common.money;
+
+import java.util.Currency;
+
+/**
+ * ISO-4217 minor digit metadata, resolved once per currency code and kept in a flat
+ * lookup table indexed by the three-letter code.
+ */
+public final class CurrencyMinorUnits {
+
+    /** Digits used for codes without an ISO minor unit (e.g. XAU); matches the DECIMAL(19,4) columns. */
+    static final int FALLBACK_DIGITS = Money.STORAGE_SCALE;
+
+    private static final int CODE_SPACE = 26 * 26 * 26;
+    private static final byte UNRESOLVED = -1;
+    private static final byte[] DIGITS = new byte[CODE_SPACE];
+
+    static {
+        java.util.Arrays.fill(DIGITS, UNRESOLVED);
+    }
+
+    private CurrencyMinorUnits() {
+        // Utility class
+    }
+
+    /**
+     * Returns the number of minor digits for the given ISO-4217 code (2 for USD, 0 for JPY, 3 for KWD).
+     *
+     * @throws IllegalArgumentException if the code is not a known ISO-4217 currency
+     */
+    public static int digitsOf(String currencyCode) {
+        int code = codeOf(currencyCode);
+        byte digits = DIGITS[code];
+        if (digits == UNRESOLVED) {
+            int fractionDigits = Currency.getInstance(currencyCode.toUpperCase()).getDefaultFractionDigits();
+            digits = (byte) (fractionDigits < 0 || fractionDigits > Money.STORAGE_SCALE ? FALLBACK_DIGITS : fractionDigits);
+            DIGITS[code] = digits;
+        }
+        return digits;
+    }
+
+    private static int codeOf(String currencyCode) {
+        if (currencyCode == null || currencyCode.length() != 3) {
+            throw new IllegalArgumentException("Invalid currency code: " + currencyCode);
+        }
+        int code = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = Character.toUpperCase(currencyCode.charAt(i)) - 'A';
+            if (letter < 0 || letter >= 26) {
+                throw new IllegalArgumentException("Invalid currency code: " + currencyCode);
+            }
+            code = code * 26 + letter;
+        }
+        return code;
+    }
+}
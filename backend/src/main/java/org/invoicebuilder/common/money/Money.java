@@ -0,0 +1,239 @@
+package org.invoicebuilder.common.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Immutable monetary amount stored as a {@code long} count of the currency's minor units
+ * (cents for USD, whole yen for JPY). All arithmetic is exact integer arithmetic; the only
+ * places where rounding happens take an explicit {@link RoundingMode}.
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Scale of the DECIMAL(19,4) amount columns. */
+    public static final int STORAGE_SCALE = 4;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+            10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private final long minorUnits;
+    private final String currency;
+    private final int minorDigits;
+
+    private Money(long minorUnits, String currency, int minorDigits) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+        this.minorDigits = minorDigits;
+    }
+
+    public static Money zero(String currency) {
+        return ofMinor(0L, currency);
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        String code = currency.toUpperCase();
+        return new Money(minorUnits, code, CurrencyMinorUnits.digitsOf(code));
+    }
+
+    /**
+     * Converts a decimal amount, rounding to the currency's minor digits.
+     */
+    public static Money of(BigDecimal amount, String currency, RoundingMode rounding) {
+        return ofProduct(amount, 1L, currency, rounding);
+    }
+
+    /**
+     * Converts a decimal amount that is already expressed in whole minor units, such as a value
+     * read back from a DECIMAL(19,4) column that was written by {@link #toBigDecimal()}.
+     *
+     * @throws ArithmeticException if the amount has more precision than the currency allows
+     */
+    public static Money ofExact(BigDecimal amount, String currency) {
+        return of(amount, currency, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Computes {@code unitPrice * quantity} and rounds the product once, so line totals match
+     * rounding the exact decimal product rather than rounding the unit price first.
+     */
+    public static Money ofProduct(BigDecimal unitPrice, long quantity, String currency, RoundingMode rounding) {
+        String code = currency.toUpperCase();
+        int digits = CurrencyMinorUnits.digitsOf(code);
+        return new Money(scaledProduct(unitPrice, quantity, digits, rounding), code, digits);
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency, minorDigits);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency, minorDigits);
+    }
+
+    public Money times(long multiplier) {
+        return new Money(Math.multiplyExact(minorUnits, multiplier), currency, minorDigits);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency, minorDigits);
+    }
+
+    /**
+     * Applies a percentage (e.g. {@code 7.25} for 7.25%) using the full precision of the rate.
+     */
+    public Money percentage(BigDecimal percent, RoundingMode rounding) {
+        return new Money(percentageOf(minorUnits, percent, rounding), currency, minorDigits);
+    }
+
+    /**
+     * Applies a percentage to an amount held in minor units. Exposed for callers that
+     * accumulate totals in primitive arrays and only materialise {@code Money} at the end.
+     */
+    public static long percentageOf(long minorUnits, BigDecimal percent, RoundingMode rounding) {
+        int scale = percent.scale();
+        long unscaled;
+        try {
+            unscaled = percent.unscaledValue().longValueExact();
+            if (scale < 0) {
+                unscaled = Math.multiplyExact(unscaled, pow10(-scale));
+                scale = 0;
+            }
+            if (scale + 2 < POWERS_OF_TEN.length) {
+                return divide(Math.multiplyExact(minorUnits, unscaled), pow10(scale + 2), rounding);
+            }
+        } catch (ArithmeticException overflow) {
+            // fall through to the decimal path
+        }
+        return BigDecimal.valueOf(minorUnits)
+                .multiply(percent)
+                .movePointLeft(2)
+                .setScale(0, rounding)
+                .longValueExact();
+    }
+
+    /**
+     * Divides with the given rounding mode, matching {@link BigDecimal#setScale(int, RoundingMode)}.
+     */
+    public static long divide(long dividend, long divisor, RoundingMode rounding) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int signum = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        long absRemainder = Math.abs(remainder);
+        long absDivisor = Math.abs(divisor);
+        int half = Long.compare(absRemainder, absDivisor - absRemainder);
+        boolean increment = switch (rounding) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> signum > 0;
+            case FLOOR -> signum < 0;
+            case HALF_UP -> half >= 0;
+            case HALF_DOWN -> half > 0;
+            case HALF_EVEN -> half > 0 || (half == 0 && (quotient & 1L) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return increment ? quotient + signum : quotient;
+    }
+
+    /**
+     * Computes {@code value * multiplier / divisor} with a single rounding step, falling back
+     * to decimal arithmetic when the intermediate product does not fit in a long.
+     */
+    public static long multiplyDivide(long value, long multiplier, long divisor, RoundingMode rounding) {
+        long product;
+        try {
+            product = Math.multiplyExact(value, multiplier);
+        } catch (ArithmeticException overflow) {
+            return BigDecimal.valueOf(value)
+                    .multiply(BigDecimal.valueOf(multiplier))
+                    .divide(BigDecimal.valueOf(divisor), 0, rounding)
+                    .longValueExact();
+        }
+        return divide(product, divisor, rounding);
+    }
+
+    /**
+     * Exact conversion for the DECIMAL(19,4) amount columns.
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, minorDigits).setScale(STORAGE_SCALE);
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public String currency() {
+        return currency;
+    }
+
+    public int minorDigits() {
+        return minorDigits;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money money)) return false;
+        return minorUnits == money.minorUnits && currency.equals(money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minorUnits, currency);
+    }
+
+    @Override
+    public String toString() {
+        return BigDecimal.valueOf(minorUnits, minorDigits).toPlainString() + " " + currency;
+    }
+
+    private static long scaledProduct(BigDecimal amount, long quantity, int digits, RoundingMode rounding) {
+        int scale = amount.scale();
+        try {
+            long product = Math.multiplyExact(amount.unscaledValue().longValueExact(), quantity);
+            if (scale <= digits) {
+                if (digits - scale < POWERS_OF_TEN.length) {
+                    return Math.multiplyExact(product, pow10(digits - scale));
+                }
+            } else if (scale - digits < POWERS_OF_TEN.length) {
+                return divide(product, pow10(scale - digits), rounding);
+            }
+        } catch (ArithmeticException overflow) {
+            // fall through to the decimal path, which also reports UNNECESSARY violations
+        }
+        return amount.multiply(BigDecimal.valueOf(quantity))
+                .setScale(digits, rounding)
+                .unscaledValue()
+                .longValueExact();
+    }
+
+    private static long pow10(int exponent) {
+        return POWERS_OF_TEN[exponent];
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+}
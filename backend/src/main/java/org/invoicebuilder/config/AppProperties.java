@@ -2,9 +2,20 @@ package org.invoicebuilder.config;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.invoicebuilder.events.WaitStrategy;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Configuration properties for application settings.
  */
@@ -16,6 +27,27 @@ public class AppProperties {
     
     private Frontend frontend;
     private Roles roles;
+    private Fx fx = new Fx();
+    private Recurring recurring = new Recurring();
+    private Discounts discounts = new Discounts();
+    private Overdue overdue = new Overdue();
+    private Scheduler scheduler = new Scheduler();
+    private Reminders reminders = new Reminders();
+    private Outbox outbox = new Outbox();
+    private Email email = new Email();
+    private NotificationRouting notificationRouting = new NotificationRouting();
+    private EmailTemplates emailTemplates = new EmailTemplates();
+    private Digest digest = new Digest();
+    private EventBus eventBus = new EventBus();
+    private Webhooks webhooks = new Webhooks();
+    private Jwt jwt = new Jwt();
+    private Passwords passwords = new Passwords();
+    private LoginThrottle loginThrottle = new LoginThrottle();
+    private RefreshTokens refreshTokens = new RefreshTokens();
+    private TokenPurge tokenPurge = new TokenPurge();
+    private UserActivity userActivity = new UserActivity();
+    private Registration registration = new Registration();
+    private Provisioning provisioning = new Provisioning();
 
     @Getter
     @Setter
@@ -23,6 +55,258 @@ public class AppProperties {
         private String url;
     }
 
+    @Getter
+    @Setter
+    public static class Fx {
+        private String ratesFile = "classpath:fx/fx-rates.csv";
+        private String reportingCurrency = "USD";
+        private boolean importOnStartup = true;
+    }
+
+    @Getter
+    @Setter
+    public static class Recurring {
+        private boolean enabled = true;
+        private String cron = "0 5 0 * * *";
+        private int batchSize = 500;
+        private int workers = 4;
+        private int maxPeriodsPerRun = 12;
+    }
+
+    @Getter
+    @Setter
+    public static class Discounts {
+        /** How long compiled rules are reused before reloading; bounds staleness on other instances. */
+        private Duration cacheTtl = Duration.ofSeconds(60);
+    }
+
+    @Getter
+    @Setter
+    public static class Overdue {
+        private boolean enabled = true;
+        private String cron = "0 */15 * * * *";
+        private int chunkSize = 1000;
+        private Duration maxDuration = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Scheduler {
+        private boolean enabled = true;
+        private Duration tick = Duration.ofMillis(100);
+        private int wheelBits = 9;
+        private int levels = 4;
+        private Duration window = Duration.ofMinutes(15);
+        private Duration loadInterval = Duration.ofMinutes(1);
+        private int loadFetchSize = 10_000;
+        private int batchSize = 200;
+        private int workers = 4;
+        private int maxAttempts = 5;
+        private Duration retryBackoff = Duration.ofSeconds(30);
+        private Duration recoveryInterval = Duration.ofMinutes(1);
+        private Duration recoveryGrace = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Reminders {
+        private boolean enabled = true;
+        private List<Integer> offsetDays = List.of(-3, 1, 7, 14);
+        private LocalTime sendTime = LocalTime.of(9, 0);
+        private ZoneId zone = ZoneOffset.UTC;
+    }
+
+    @Getter
+    @Setter
+    public static class Outbox {
+        private boolean enabled = true;
+        private Duration pollInterval = Duration.ofSeconds(1);
+        private int batchSize = 500;
+        private Duration maxDuration = Duration.ofSeconds(30);
+        private int maxAttempts = 10;
+        private Duration retryBackoff = Duration.ofSeconds(5);
+        private Duration retention = Duration.ofDays(7);
+        private String purgeCron = "0 30 * * * *";
+        private int purgeChunkSize = 5000;
+    }
+
+    @Getter
+    @Setter
+    public static class Jwt {
+        /** Skips signature verification for access tokens already verified, until they expire. */
+        private boolean cacheEnabled = true;
+        private int cacheMaxEntries = 10_000;
+        /**
+         * RS256 signs with the {@code rsa} keys; ES256 needs both EC keys and still accepts RS256
+         * tokens. ES256 gives shorter tokens and cheaper signing, but verifying it costs more than
+         * RS256, so the cache, not the algorithm, is what saves time per request.
+         */
+        private SignatureAlgorithm signingAlgorithm = SignatureAlgorithm.RS256;
+        /** PEM-encoded P-256 keys (X.509 public, PKCS#8 private). */
+        private Resource ecPublicKey;
+        private Resource ecPrivateKey;
+    }
+
+    @Getter
+    @Setter
+    public static class Passwords {
+        /** Algorithm for new hashes, bcrypt or argon2 (Argon2id); hashes in the other one are replaced at login. */
+        private String algorithm = "bcrypt";
+        private int bcryptStrength = 12;
+        private int argon2MemoryKib = 19_456;
+        private int argon2Iterations = 2;
+        private int argon2Parallelism = 1;
+        /** Hashing threads; 0 means half the available processors. */
+        private int threads = 0;
+        /** Hashes waiting for a thread; callers beyond this are rejected at once. */
+        private int queueCapacity = 32;
+        /** Longest a caller waits for its hash, queueing included, before being rejected. */
+        private Duration maxWait = Duration.ofSeconds(2);
+    }
+
+    @Getter
+    @Setter
+    public static class LoginThrottle {
+        private boolean enabled = true;
+        private Duration window = Duration.ofMinutes(15);
+        private int slots = 15;
+        /** Failed logins per email in the window; reaching it also locks the user in the database. */
+        private int maxFailuresPerEmail = 5;
+        private int maxFailuresPerIp = 50;
+        private Duration lockoutDuration = Duration.ofMinutes(15);
+        /** Emails and IPs tracked at once; beyond this a new key evicts the oldest tracked one. */
+        private int maxTrackedKeys = 100_000;
+        private Duration compactInterval = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class RefreshTokens {
+        /** How often the in-memory set of revoked refresh tokens is rebuilt from the database. */
+        private Duration revocationReloadInterval = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class TokenPurge {
+        private boolean enabled = true;
+        private String cron = "0 20 * * * *";
+        private int chunkSize = 5000;
+        private Duration maxDuration = Duration.ofMinutes(2);
+    }
+
+    @Getter
+    @Setter
+    public static class UserActivity {
+        private Duration flushInterval = Duration.ofSeconds(10);
+        /** Pending users that trigger a flush before the interval is up. */
+        private int flushSize = 500;
+        /** Pending users beyond which further updates are dropped, e.g. while the database is down. */
+        private int maxPending = 50_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Registration {
+        /** Minimum number of emails the registered-email filter is sized for. */
+        private long expectedEmails = 1_000_000;
+        private double emailFilterFalsePositiveRate = 0.01;
+    }
+
+    @Getter
+    @Setter
+    public static class Provisioning {
+        /** Rows written per transaction, and per progress update when streaming results. */
+        private int chunkSize = 500;
+        private int maxRows = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Email {
+        private int queueCapacity = 10_000;
+        private int workers = 4;
+        private int batchSize = 50;
+        private Duration offerTimeout = Duration.ofSeconds(2);
+        private int maxAttempts = 6;
+        private Duration retryBackoff = Duration.ofSeconds(2);
+        private Duration maxBackoff = Duration.ofMinutes(5);
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class EmailTemplates {
+        private String location = "classpath:/email-templates/";
+        private boolean hotReload = false;
+        private int maxRetainedBufferChars = 64 * 1024;
+        /**
+         * SendGrid dynamic template ids by local template name, e.g. {@code invoice-issued} or
+         * {@code invoice-issued_fr}; messages from these templates are sent as template data.
+         */
+        private Map<String, String> sendgridTemplateIds = new HashMap<>();
+    }
+
+    @Getter
+    @Setter
+    public static class Digest {
+        private boolean enabled = true;
+        private Duration window = Duration.ofMinutes(2);
+        private int maxEvents = 200;
+        private List<String> eventTypes = List.of("INVOICE_ISSUED", "INVOICE_REMINDER", "INVOICE_OVERDUE");
+        private Duration pollInterval = Duration.ofSeconds(5);
+        private Duration maxDuration = Duration.ofSeconds(30);
+        private Duration failureBackoff = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class EventBus {
+        /** Must be a power of two. */
+        private int bufferSize = 8192;
+        private WaitStrategy.Kind waitStrategy = WaitStrategy.Kind.BLOCKING;
+        private Duration publishTimeout = Duration.ofMillis(50);
+        private Duration shutdownTimeout = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Webhooks {
+        private boolean enabled = true;
+        private Duration pollInterval = Duration.ofMillis(500);
+        private int batchSize = 500;
+        /** Deliveries held per endpoint, in flight or waiting; also the per-endpoint share of a claim. */
+        private int laneCapacity = 64;
+        /** Concurrent requests per endpoint unless the endpoint sets its own limit. */
+        private int defaultMaxConcurrency = 4;
+        private Duration requestTimeout = Duration.ofSeconds(10);
+        private Duration lease = Duration.ofMinutes(5);
+        private int maxAttempts = 8;
+        private Duration retryBackoff = Duration.ofSeconds(10);
+        private Duration maxBackoff = Duration.ofHours(1);
+        private Duration retention = Duration.ofDays(7);
+        private String purgeCron = "0 45 * * * *";
+        private int purgeChunkSize = 5000;
+    }
+
+    @Getter
+    @Setter
+    public static class NotificationRouting {
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private double primaryWeight = 4.0;
+        private double ewmaAlpha = 0.2;
+        private Duration maxWait = Duration.ofSeconds(5);
+        private Map<String, ProviderLimit> providers = new HashMap<>();
+
+        @Getter
+        @Setter
+        public static class ProviderLimit {
+            private double ratePerSecond = 10;
+            private int burst = 50;
+        }
+    }
+
     @Getter
     @Setter
     public static class Roles {
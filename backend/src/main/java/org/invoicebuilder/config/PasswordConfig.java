@@ -1,10 +1,17 @@
 package org.invoicebuilder.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.invoicebuilder.users.security.PasswordHashingService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Configuration for password encoding and security utilities.
  * Separated from SecurityConfig to avoid circular dependencies.
@@ -13,7 +20,28 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class PasswordConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordHashingService passwordEncoder(AppProperties appProperties, MeterRegistry meterRegistry) {
+        AppProperties.Passwords settings = appProperties.getPasswords();
+        return new PasswordHashingService(delegatingEncoder(settings), settings, meterRegistry);
+    }
+
+    /**
+     * New hashes are stored as {@code {algorithm}hash}. Hashes without a prefix predate it and
+     * are plain BCrypt; like hashes in another algorithm or with a lower cost, they report
+     * {@code upgradeEncoding} and are replaced on the next successful login.
+     */
+    public static PasswordEncoder delegatingEncoder(AppProperties.Passwords settings) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(settings.getBcryptStrength());
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("argon2", new Argon2PasswordEncoder(16, 32, settings.getArgon2Parallelism(),
+                settings.getArgon2MemoryKib(), settings.getArgon2Iterations()));
+        if (!encoders.containsKey(settings.getAlgorithm())) {
+            throw new IllegalStateException("Unsupported password algorithm '" + settings.getAlgorithm()
+                    + "', expected one of " + encoders.keySet());
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(settings.getAlgorithm(), encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 }
@@ -1,15 +1,24 @@
 package org.invoicebuilder.config;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
 import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.users.security.AuthenticatedPrincipal;
+import org.invoicebuilder.users.security.CachingJwtDecoder;
 import org.invoicebuilder.users.service.JpaUserDetailsService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -19,14 +28,31 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
@@ -38,6 +64,7 @@ public class SecurityConfig {
     private final JpaUserDetailsService jpaUserDetailsService;
     private final RsaKeyProperties rsaKeys;
     private final PasswordEncoder passwordEncoder;
+    private final AppProperties appProperties;
 
 
     @Bean
@@ -68,6 +95,8 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider(){
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(jpaUserDetailsService);
         provider.setPasswordEncoder(passwordEncoder);
+        // Re-hashes the password on login when its stored hash uses an outdated algorithm or cost.
+        provider.setUserDetailsPasswordService(jpaUserDetailsService);
         return provider;
     }
 
@@ -76,16 +105,89 @@ public class SecurityConfig {
         return configuration.getAuthenticationManager();
     }
 
+    /**
+     * Verifies RS256 tokens, and ES256 tokens too once an EC key is configured, so tokens signed
+     * before a change of {@code app.jwt.signing-algorithm} stay valid until they expire.
+     */
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(rsaKeys.publicKey()).build();
+    public JwtDecoder jwtDecoder(MeterRegistry meterRegistry) {
+        AppProperties.Jwt settings = appProperties.getJwt();
+        JwtDecoder decoder;
+        if (settings.getEcPublicKey() == null) {
+            decoder = NimbusJwtDecoder.withPublicKey(rsaKeys.publicKey()).build();
+        } else {
+            JWKSet keys = new JWKSet(List.of(new RSAKey.Builder(rsaKeys.publicKey()).build(),
+                    new ECKey.Builder(Curve.P_256, ecPublicKey()).build()));
+            DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+            processor.setJWSKeySelector(new JWSVerificationKeySelector<>(Set.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256),
+                    new ImmutableJWKSet<>(keys)));
+            // Claims are checked by the decoder's validators, as withPublicKey does.
+            processor.setJWTClaimsSetVerifier((claims, context) -> { });
+            decoder = new NimbusJwtDecoder(processor);
+        }
+        return settings.isCacheEnabled()
+                ? new CachingJwtDecoder(decoder, settings.getCacheMaxEntries(), meterRegistry)
+                : decoder;
+    }
+
+    /**
+     * Authorities come from the token's {@code roles} claim, as {@code ROLE_<name>}, so
+     * role checks on API requests need no database lookup.
+     */
+    @Bean
+    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        authoritiesConverter.setAuthoritiesClaimName(AuthenticatedPrincipal.ROLES_CLAIM);
+        authoritiesConverter.setAuthorityPrefix("ROLE_");
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+        return converter;
     }
 
     @Bean
     public JwtEncoder jwtEncoder() {
-        JWK jwk = new RSAKey.Builder(rsaKeys.publicKey()).privateKey(rsaKeys.privateKey()).build();
+        SignatureAlgorithm algorithm = appProperties.getJwt().getSigningAlgorithm();
+        JWK jwk = switch (algorithm) {
+            case RS256 -> new RSAKey.Builder(rsaKeys.publicKey()).privateKey(rsaKeys.privateKey()).build();
+            case ES256 -> new ECKey.Builder(Curve.P_256, ecPublicKey()).privateKey(ecPrivateKey()).build();
+            default -> throw new IllegalStateException("Unsupported JWT signing algorithm " + algorithm);
+        };
         JWKSource<SecurityContext> jwks = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwks);
+        NimbusJwtEncoder encoder = new NimbusJwtEncoder(jwks);
+        // The encoder defaults to an RS256 header, which would find no key when signing with EC.
+        JwsHeader header = JwsHeader.with(algorithm).build();
+        return parameters -> encoder.encode(parameters.getJwsHeader() != null ? parameters
+                : JwtEncoderParameters.from(header, parameters.getClaims()));
+    }
+
+    private ECPublicKey ecPublicKey() {
+        try {
+            return (ECPublicKey) KeyFactory.getInstance("EC")
+                    .generatePublic(new X509EncodedKeySpec(readPem(appProperties.getJwt().getEcPublicKey())));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid EC public key in app.jwt.ec-public-key", e);
+        }
+    }
+
+    private ECPrivateKey ecPrivateKey() {
+        try {
+            return (ECPrivateKey) KeyFactory.getInstance("EC")
+                    .generatePrivate(new PKCS8EncodedKeySpec(readPem(appProperties.getJwt().getEcPrivateKey())));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid EC private key in app.jwt.ec-private-key", e);
+        }
+    }
+
+    private static byte[] readPem(Resource resource) {
+        if (resource == null) {
+            throw new IllegalStateException("ES256 signing needs app.jwt.ec-public-key and app.jwt.ec-private-key");
+        }
+        try (InputStream in = resource.getInputStream()) {
+            String pem = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            return Base64.getMimeDecoder().decode(pem.replaceAll("-----[A-Z ]+-----", ""));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read key " + resource, e);
+        }
     }
 
 }
@@ -11,4 +11,5 @@ public class TokenProperties {
     
     private Duration refreshTokenTtl = Duration.ofDays(7);
     private Duration accessTokenTtl = Duration.ofMinutes(15);
+    private Duration emailVerificationTtl = Duration.ofHours(24);
 }
@@ -2,15 +2,20 @@ package org.invoicebuilder.config;
 
 import lombok.RequiredArgsConstructor;
 import org.invoicebuilder.interceptor.ApiVersionInterceptor;
+import org.invoicebuilder.users.security.AuthenticatedPrincipalArgumentResolver;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 @RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
     
     private final ApiVersionInterceptor apiVersionInterceptor;
+    private final AuthenticatedPrincipalArgumentResolver authenticatedPrincipalArgumentResolver;
     
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
@@ -18,4 +23,9 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .addPathPatterns("/api/**")
                 .excludePathPatterns("/api/versions", "/api/health");
     }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(authenticatedPrincipalArgumentResolver);
+    }
 }
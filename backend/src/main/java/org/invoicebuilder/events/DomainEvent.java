@@ -0,0 +1,20 @@
+package org.invoicebuilder.events;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Something that happened in the domain, published on the {@link DomainEventBus} after the
+ * transaction that caused it commits. Events are immutable and shared by every subscriber.
+ */
+public sealed interface DomainEvent permits InvoiceCreated, InvoiceStatusChanged, UserRegistered {
+
+    /**
+     * Stable name of the event, e.g. {@code invoice.created}.
+     */
+    String type();
+
+    UUID accountId();
+
+    Instant occurredAt();
+}
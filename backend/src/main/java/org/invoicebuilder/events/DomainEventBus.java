@@ -0,0 +1,209 @@
+package org.invoicebuilder.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process bus for {@link DomainEvent}s, built on a preallocated {@link RingBuffer}.
+ * <p>
+ * Publishing stores one reference in the ring and returns; it never runs subscriber code.
+ * Every {@link DomainEventSubscriber} gets its own thread and sequence, reads all events
+ * published since its last batch in one go, and only then releases those slots. When the
+ * slowest subscriber is a full ring behind, publishers wait up to {@code publish-timeout} and
+ * then drop the event, so a stuck subscriber cannot stall requests. Events are not persisted;
+ * anything that must survive a restart belongs in the outbox, or in a {@link DomainEventRecorder},
+ * which writes the events of {@link #publishAfterCommit} in the publishing transaction.
+ */
+@Component
+@Slf4j
+public class DomainEventBus {
+
+    private static final long PUBLISH_RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final RingBuffer<DomainEvent> ringBuffer;
+    private final WaitStrategy waitStrategy;
+    private final AppProperties.EventBus settings;
+    private final List<SubscriberLoop> loops = new ArrayList<>();
+    private final List<DomainEventRecorder> recorders;
+
+    private final Counter published;
+    private final Counter dropped;
+
+    private volatile boolean stopping;
+
+    public DomainEventBus(List<DomainEventSubscriber> subscribers, List<DomainEventRecorder> recorders,
+                          AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.recorders = List.copyOf(recorders);
+        this.settings = appProperties.getEventBus();
+        this.waitStrategy = WaitStrategy.create(settings.getWaitStrategy());
+        this.ringBuffer = new RingBuffer<>(settings.getBufferSize(), waitStrategy);
+        this.published = meterRegistry.counter("domain.events.published");
+        this.dropped = meterRegistry.counter("domain.events.dropped");
+        // Gating sequences exist before the first publish, so no subscriber misses an event.
+        for (DomainEventSubscriber subscriber : subscribers) {
+            loops.add(new SubscriberLoop(subscriber, ringBuffer.addGatingSequence(), meterRegistry));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (SubscriberLoop loop : loops) {
+            Thread thread = new Thread(loop, "domain-events-" + loop.subscriber.name());
+            thread.setDaemon(true);
+            loop.thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Lets subscribers finish what is already in the ring, waiting at most {@code shutdown-timeout}.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopping = true;
+        waitStrategy.signalAllWhenBlocking();
+        long deadline = System.nanoTime() + settings.getShutdownTimeout().toNanos();
+        for (SubscriberLoop loop : loops) {
+            if (loop.thread != null) {
+                loop.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            }
+        }
+    }
+
+    /**
+     * Hands the event to the {@link DomainEventRecorder}s before the surrounding transaction
+     * commits and publishes it once it has committed; outside a transaction does both right away.
+     * Events of one transaction are recorded in one call and published in order.
+     */
+    public void publishAfterCommit(DomainEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(List.of(event));
+            publish(event);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<DomainEvent> pending = (List<DomainEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<DomainEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    record(events);
+                }
+
+                @Override
+                public void afterCommit() {
+                    events.forEach(DomainEventBus.this::publish);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DomainEventBus.this);
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    private void record(List<DomainEvent> events) {
+        for (DomainEventRecorder recorder : recorders) {
+            recorder.record(events);
+        }
+    }
+
+    /**
+     * @return {@code false} if the event was dropped because the ring stayed full
+     */
+    public boolean publish(DomainEvent event) {
+        if (ringBuffer.tryPublish(event)) {
+            published.increment();
+            return true;
+        }
+        long deadline = System.nanoTime() + settings.getPublishTimeout().toNanos();
+        while (System.nanoTime() < deadline && !stopping) {
+            LockSupport.parkNanos(PUBLISH_RETRY_NANOS);
+            if (ringBuffer.tryPublish(event)) {
+                published.increment();
+                return true;
+            }
+        }
+        dropped.increment();
+        log.warn("Domain event bus is full, dropped {} for account {}", event.type(), event.accountId());
+        return false;
+    }
+
+    private final class SubscriberLoop implements Runnable {
+
+        private final DomainEventSubscriber subscriber;
+        private final AtomicLong sequence;
+        private final Counter handled;
+        private final Counter failed;
+        private final DistributionSummary batchSize;
+        private volatile Thread thread;
+
+        SubscriberLoop(DomainEventSubscriber subscriber, AtomicLong sequence, MeterRegistry meterRegistry) {
+            this.subscriber = subscriber;
+            this.sequence = sequence;
+            String name = subscriber.name();
+            this.handled = meterRegistry.counter("domain.events.handled", "subscriber", name, "result", "ok");
+            this.failed = meterRegistry.counter("domain.events.handled", "subscriber", name, "result", "failed");
+            this.batchSize = meterRegistry.summary("domain.events.batch.size", "subscriber", name);
+            Gauge.builder("domain.events.lag", this, loop -> ringBuffer.cursor().get() - loop.sequence.get())
+                    .tag("subscriber", name)
+                    .description("Events published but not yet handled by the subscriber")
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void run() {
+            long next = sequence.get() + 1;
+            while (true) {
+                long available = waitStrategy.waitFor(next, ringBuffer.cursor(), () -> stopping);
+                long highest = ringBuffer.highestPublished(next, available);
+                if (highest < next) {
+                    if (stopping && available < next) {
+                        return;
+                    }
+                    // Claimed but still being written.
+                    Thread.onSpinWait();
+                    continue;
+                }
+                long failures = 0;
+                for (long current = next; current <= highest; current++) {
+                    try {
+                        subscriber.onEvent(ringBuffer.get(current), current, current == highest);
+                    } catch (RuntimeException e) {
+                        failures++;
+                        log.error("Subscriber {} failed on domain event {}", subscriber.name(), current, e);
+                    }
+                }
+                long batch = highest - next + 1;
+                handled.increment(batch - failures);
+                if (failures > 0) {
+                    failed.increment(failures);
+                }
+                batchSize.record(batch);
+                sequence.lazySet(highest);
+                next = highest + 1;
+            }
+        }
+    }
+}
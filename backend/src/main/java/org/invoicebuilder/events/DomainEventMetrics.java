@@ -0,0 +1,39 @@
+package org.invoicebuilder.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts domain events by type ({@code invoice.created}, {@code invoice.paid}, ...) as
+ * {@code domain.events.observed}. Counts are summed per batch and added to the counters once
+ * at the end of it.
+ */
+@Component
+@RequiredArgsConstructor
+public class DomainEventMetrics implements DomainEventSubscriber {
+
+    private final MeterRegistry meterRegistry;
+
+    // Only touched from this subscriber's thread.
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final Map<String, long[]> pending = new HashMap<>();
+
+    @Override
+    public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+        pending.computeIfAbsent(event.type(), type -> new long[1])[0]++;
+        if (endOfBatch) {
+            pending.forEach((type, count) -> {
+                if (count[0] > 0) {
+                    counters.computeIfAbsent(type, key -> meterRegistry.counter("domain.events.observed", "type", key))
+                            .increment(count[0]);
+                    count[0] = 0;
+                }
+            });
+        }
+    }
+}
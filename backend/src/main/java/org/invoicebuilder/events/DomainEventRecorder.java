@@ -0,0 +1,19 @@
+package org.invoicebuilder.events;
+
+import java.util.List;
+
+/**
+ * Stores events published with {@link DomainEventBus#publishAfterCommit} in the publishing
+ * transaction, just before it commits, so they are kept exactly when the change that raised them
+ * is. For consumers that must not lose events; {@link DomainEventSubscriber}s see them only once
+ * the transaction has committed, and not at all if the bus drops them.
+ * <p>
+ * A recorder that throws rolls the publishing transaction back.
+ */
+public interface DomainEventRecorder {
+
+    /**
+     * @param events the transaction's events in publish order; a single event outside a transaction
+     */
+    void record(List<DomainEvent> events);
+}
@@ -0,0 +1,22 @@
+package org.invoicebuilder.events;
+
+/**
+ * Receives every event published on the {@link DomainEventBus}, in publish order, on a thread
+ * of its own. Subscribers that write somewhere can buffer until {@code endOfBatch} and flush
+ * once per batch.
+ */
+public interface DomainEventSubscriber {
+
+    /**
+     * @param sequence   position of the event in the bus
+     * @param endOfBatch {@code true} for the last event currently available to this subscriber
+     */
+    void onEvent(DomainEvent event, long sequence, boolean endOfBatch);
+
+    /**
+     * Used for the subscriber's thread name and the {@code subscriber} metric tag.
+     */
+    default String name() {
+        return getClass().getSimpleName();
+    }
+}
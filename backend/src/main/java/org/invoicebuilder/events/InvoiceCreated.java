@@ -0,0 +1,13 @@
+package org.invoicebuilder.events;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record InvoiceCreated(UUID invoiceId, UUID accountId, String invoiceNumber, Instant occurredAt)
+        implements DomainEvent {
+
+    @Override
+    public String type() {
+        return "invoice.created";
+    }
+}
@@ -0,0 +1,20 @@
+package org.invoicebuilder.events;
+
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
+
+public record InvoiceStatusChanged(UUID invoiceId, UUID accountId, String invoiceNumber,
+                                   InvoiceStatus from, InvoiceStatus to, Instant occurredAt)
+        implements DomainEvent {
+
+    /**
+     * {@code invoice.issued}, {@code invoice.paid} and so on, named after the new status.
+     */
+    @Override
+    public String type() {
+        return "invoice." + to.name().toLowerCase(Locale.ROOT);
+    }
+}
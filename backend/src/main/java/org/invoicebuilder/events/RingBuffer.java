@@ -0,0 +1,118 @@
+package org.invoicebuilder.events;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size, multi-producer ring of event references, preallocated once.
+ * <p>
+ * Producers claim a sequence with a CAS on {@code cursor}, store the event in slot
+ * {@code sequence & mask} and then mark the slot published with the sequence's lap number.
+ * Consumers read up to the highest contiguously published sequence, so a slow producer never
+ * exposes an unwritten slot. A slot may be reused only once every gating sequence (one per
+ * subscriber) has moved past it; until then {@link #tryPublish} reports the ring as full.
+ */
+final class RingBuffer<E> {
+
+    private final Object[] entries;
+    private final int mask;
+    private final int lapShift;
+    private final AtomicIntegerArray publishedLaps;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final AtomicLong gatingCache = new AtomicLong(-1);
+    private final WaitStrategy waitStrategy;
+    private volatile AtomicLong[] gatingSequences = new AtomicLong[0];
+
+    RingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.entries = new Object[capacity];
+        this.mask = capacity - 1;
+        this.lapShift = Integer.numberOfTrailingZeros(capacity);
+        this.publishedLaps = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            publishedLaps.set(i, -1);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * Registers a consumer's sequence; the ring will not overwrite slots it has not passed.
+     * The sequence starts at the current cursor, so the consumer sees only later events.
+     */
+    synchronized AtomicLong addGatingSequence() {
+        AtomicLong sequence = new AtomicLong(cursor.get());
+        AtomicLong[] current = gatingSequences;
+        AtomicLong[] updated = new AtomicLong[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = sequence;
+        gatingSequences = updated;
+        return sequence;
+    }
+
+    /**
+     * @return {@code false} without waiting when the slowest consumer is a full ring behind
+     */
+    boolean tryPublish(E event) {
+        long next;
+        while (true) {
+            long current = cursor.get();
+            next = current + 1;
+            long wrapPoint = next - entries.length;
+            if (wrapPoint > gatingCache.get()) {
+                long slowest = minimumGatingSequence(current);
+                gatingCache.set(slowest);
+                if (wrapPoint > slowest) {
+                    return false;
+                }
+            }
+            if (cursor.compareAndSet(current, next)) {
+                break;
+            }
+        }
+        int index = (int) next & mask;
+        entries[index] = event;
+        // Release store: a consumer that reads the lap also sees the entry written above.
+        publishedLaps.lazySet(index, (int) (next >>> lapShift));
+        waitStrategy.signalAllWhenBlocking();
+        return true;
+    }
+
+    /**
+     * Highest claimed sequence. Sequences up to it may still be in the middle of a publish.
+     */
+    AtomicLong cursor() {
+        return cursor;
+    }
+
+    /**
+     * @return the highest sequence from {@code lowerBound} up to {@code available} with every
+     *         slot in between published, or {@code lowerBound - 1} if the first is not yet
+     */
+    long highestPublished(long lowerBound, long available) {
+        for (long sequence = lowerBound; sequence <= available; sequence++) {
+            if (publishedLaps.get((int) sequence & mask) != (int) (sequence >>> lapShift)) {
+                return sequence - 1;
+            }
+        }
+        return available;
+    }
+
+    @SuppressWarnings("unchecked")
+    E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    private long minimumGatingSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (AtomicLong sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+}
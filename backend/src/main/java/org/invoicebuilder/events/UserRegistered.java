@@ -0,0 +1,12 @@
+package org.invoicebuilder.events;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record UserRegistered(UUID userId, UUID accountId, Instant occurredAt) implements DomainEvent {
+
+    @Override
+    public String type() {
+        return "user.registered";
+    }
+}
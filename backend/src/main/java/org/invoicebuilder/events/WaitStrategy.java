@@ -0,0 +1,156 @@
+package org.invoicebuilder.events;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * How a subscriber waits for the next event. The choice trades latency against CPU: busy
+ * spinning reacts fastest but burns a core per subscriber, blocking costs a wake-up but
+ * leaves idle subscribers parked.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Waits until {@code cursor} reaches {@code sequence} or {@code stopping} turns true.
+     *
+     * @return the cursor value last seen; below {@code sequence} only when stopping
+     */
+    long waitFor(long sequence, AtomicLong cursor, BooleanSupplier stopping);
+
+    /**
+     * Called after each publish and on shutdown to wake subscribers that are parked.
+     */
+    void signalAllWhenBlocking();
+
+    static WaitStrategy create(Kind kind) {
+        return switch (kind) {
+            case BLOCKING -> new Blocking();
+            case SLEEPING -> new Sleeping();
+            case YIELDING -> new Yielding();
+            case BUSY_SPIN -> new BusySpin();
+        };
+    }
+
+    enum Kind {
+        /** Parks on a condition; publishers take the lock only when someone is waiting. */
+        BLOCKING,
+        /** Spins, then yields, then parks for short intervals. */
+        SLEEPING,
+        /** Spins, then yields the CPU between checks. */
+        YIELDING,
+        /** Spins on the cursor; only for cores dedicated to the subscriber. */
+        BUSY_SPIN
+    }
+
+    final class Blocking implements WaitStrategy {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+        private final AtomicBoolean signalNeeded = new AtomicBoolean();
+
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor, BooleanSupplier stopping) {
+            long available = cursor.get();
+            if (available >= sequence) {
+                return available;
+            }
+            lock.lock();
+            try {
+                while (true) {
+                    // Raise the flag before re-reading the cursor: a publisher either sees it or we see its claim.
+                    signalNeeded.set(true);
+                    available = cursor.get();
+                    if (available >= sequence || stopping.getAsBoolean()) {
+                        return available;
+                    }
+                    published.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            if (signalNeeded.getAndSet(false)) {
+                lock.lock();
+                try {
+                    published.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    final class Sleeping implements WaitStrategy {
+
+        private static final int SPIN_TRIES = 100;
+        private static final int YIELD_TRIES = 100;
+        private static final long PARK_NANOS = 100_000;
+
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor, BooleanSupplier stopping) {
+            int tries = 0;
+            long available;
+            while ((available = cursor.get()) < sequence && !stopping.getAsBoolean()) {
+                if (tries < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                tries++;
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+
+    final class Yielding implements WaitStrategy {
+
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor, BooleanSupplier stopping) {
+            int tries = 0;
+            long available;
+            while ((available = cursor.get()) < sequence && !stopping.getAsBoolean()) {
+                if (tries++ < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+
+    final class BusySpin implements WaitStrategy {
+
+        @Override
+        public long waitFor(long sequence, AtomicLong cursor, BooleanSupplier stopping) {
+            long available;
+            while ((available = cursor.get()) < sequence && !stopping.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+        }
+    }
+}
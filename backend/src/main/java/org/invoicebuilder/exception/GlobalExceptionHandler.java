@@ -1,12 +1,17 @@
 package org.invoicebuilder.exception;
 
+import org.invoicebuilder.exception.common.InvalidRequestException;
 import org.invoicebuilder.exception.common.ResourceNotFoundException;
+import org.invoicebuilder.exception.common.TooManyRequestsException;
 import org.invoicebuilder.exception.common.UnsupportedApiVersionException;
+import org.invoicebuilder.exception.users.InvalidTokenException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.validation.BindException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
@@ -26,6 +31,7 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -91,6 +97,97 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(apiError, headers, apiError.getStatus());
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ApiError> handleInvalidRequestException(InvalidRequestException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.BAD_REQUEST,
+                ErrorType.ERROR,
+                "Invalid request",
+                Collections.singletonList(ex.getMessage())
+        );
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("API_ERROR_TYPE", ex.getClass().getSimpleName());
+
+        return new ResponseEntity<>(apiError, headers, apiError.getStatus());
+    }
+
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<ApiError> handleInvalidTokenException(InvalidTokenException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.UNAUTHORIZED,
+                ErrorType.ERROR,
+                "Invalid token",
+                Collections.singletonList(ex.getMessage())
+        );
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("API_ERROR_TYPE", "InvalidTokenException");
+
+        return new ResponseEntity<>(apiError, headers, apiError.getStatus());
+    }
+
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ApiError> handleAuthenticationException(AuthenticationException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.UNAUTHORIZED,
+                ErrorType.ERROR,
+                "Authentication failed",
+                Collections.singletonList("Invalid email or password")
+        );
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("API_ERROR_TYPE", "AuthenticationException");
+
+        return new ResponseEntity<>(apiError, headers, apiError.getStatus());
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ApiError> handleAccessDeniedException(AccessDeniedException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.FORBIDDEN,
+                ErrorType.ERROR,
+                "Access denied",
+                Collections.singletonList(ex.getMessage())
+        );
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("API_ERROR_TYPE", "AccessDeniedException");
+
+        return new ResponseEntity<>(apiError, headers, apiError.getStatus());
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiError> handleRejectedExecutionException(RejectedExecutionException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ErrorType.ERROR,
+                "Service busy",
+                Collections.singletonList(ex.getMessage())
+        );
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("API_ERROR_TYPE", "RejectedExecutionException");
+
+        return new ResponseEntity<>(apiError, headers, apiError.getStatus());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequestsException(TooManyRequestsException ex) {
+        ApiError apiError = new ApiError(
+                HttpStatus.TOO_MANY_REQUESTS,
+                ErrorType.ERROR,
+                "Too many requests",
+                Collections.singletonList(ex.getMessage())
+        );
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("API_ERROR_TYPE", "TooManyRequestsException");
+        headers.add(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, ex.getRetryAfter().toSeconds())));
+
+        return new ResponseEntity<>(apiError, headers, apiError.getStatus());
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<ApiError> handleEntityNotFoundException(EntityNotFoundException ex) {
         ApiError apiError = new ApiError(
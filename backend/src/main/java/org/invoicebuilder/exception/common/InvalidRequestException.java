@@ -0,0 +1,11 @@
+package org.invoicebuilder.exception.common;
+
+/**
+ * A request that is well-formed but cannot be applied, e.g. it refers to a code that does not
+ * exist. Answered with 400 and the message, which should name the offending field.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package org.invoicebuilder.exception.invoices;
+
+import org.invoicebuilder.exception.common.InvalidRequestException;
+
+/**
+ * A discount rule request that lacks the fields its type needs.
+ */
+public class InvalidDiscountRuleException extends InvalidRequestException {
+    public InvalidDiscountRuleException(String message) {
+        super(message);
+    }
+}
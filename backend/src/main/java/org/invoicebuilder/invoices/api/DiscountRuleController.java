@@ -0,0 +1,88 @@
+package org.invoicebuilder.invoices.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.common.api_version.ApiVersionController;
+import org.invoicebuilder.invoices.dto.request.discount.DiscountRuleRequest;
+import org.invoicebuilder.invoices.dto.response.discount.DiscountRuleResponse;
+import org.invoicebuilder.invoices.service.DiscountRuleService;
+import org.invoicebuilder.users.security.AuthenticatedPrincipal;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Tag(name = "Discount Rules", description = "APIs for managing the discount rules applied when invoice totals are calculated")
+@RestController
+@RequestMapping("/api/v1/discount-rules")
+@RequiredArgsConstructor
+public class DiscountRuleController extends ApiVersionController {
+    private final DiscountRuleService discountRuleService;
+
+    @Operation(summary = "List discount rules", description = "Retrieves every discount rule of the caller's account in evaluation order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rules retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = List.class)))
+    })
+    @GetMapping
+    public ResponseEntity<List<DiscountRuleResponse>> listRules(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal) {
+        return ResponseEntity.ok(discountRuleService.list(principal.accountId()));
+    }
+
+    @Operation(summary = "Create a discount rule", description = "Creates a discount rule; it applies to invoices whose totals are calculated afterwards")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Rule created successfully",
+                    content = @Content(schema = @Schema(implementation = DiscountRuleResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @PostMapping
+    public ResponseEntity<DiscountRuleResponse> createRule(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Discount rule details", required = true)
+            @Valid @RequestBody DiscountRuleRequest request) {
+        return new ResponseEntity<>(discountRuleService.create(principal.accountId(), request), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Update a discount rule", description = "Replaces the settings of an existing discount rule")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rule updated successfully",
+                    content = @Content(schema = @Schema(implementation = DiscountRuleResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Rule not found",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @PutMapping("/{id}")
+    public ResponseEntity<DiscountRuleResponse> updateRule(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Rule unique identifier", example = "550e8400-e29b-41d4-a716-446655440001")
+            @PathVariable UUID id,
+            @Parameter(description = "Updated discount rule details", required = true)
+            @Valid @RequestBody DiscountRuleRequest request) {
+        return ResponseEntity.ok(discountRuleService.update(principal.accountId(), id, request));
+    }
+
+    @Operation(summary = "Delete a discount rule", description = "Deletes a discount rule of the caller's account")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Rule deleted successfully"),
+            @ApiResponse(responseCode = "404", description = "Rule not found",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRule(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Rule unique identifier", example = "550e8400-e29b-41d4-a716-446655440001")
+            @PathVariable UUID id) {
+        discountRuleService.delete(principal.accountId(), id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -9,18 +9,29 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.invoicebuilder.common.api_version.ApiVersionController;
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
 import org.invoicebuilder.invoices.dto.request.invoice.CreateInvoiceRequest;
+import org.invoicebuilder.invoices.dto.request.invoice.ScheduleInvoiceSendRequest;
+import org.invoicebuilder.invoices.dto.request.invoice.UpdateInvoiceStatusRequest;
 import org.invoicebuilder.invoices.dto.response.invoice.InvoiceListResponse;
 import org.invoicebuilder.invoices.dto.response.invoice.InvoiceLineItemResponse;
+import org.invoicebuilder.invoices.dto.response.invoice.InvoiceRecalculationResponse;
+import org.invoicebuilder.invoices.dto.response.invoice.InvoiceReportingTotalsResponse;
+import org.invoicebuilder.invoices.dto.response.invoice.ScheduledInvoiceSendResponse;
+import org.invoicebuilder.invoices.service.InvoiceSendAtService;
 import org.invoicebuilder.invoices.service.InvoiceService;
+import org.invoicebuilder.invoices.service.InvoiceTotalsRecalculationService;
+import org.invoicebuilder.users.security.AuthenticatedPrincipal;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,6 +41,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class InvoiceController extends ApiVersionController {
     private final InvoiceService invoiceService;
+    private final InvoiceTotalsRecalculationService invoiceTotalsRecalculationService;
+    private final InvoiceSendAtService invoiceSendAtService;
 
     @Operation(summary = "Create a new invoice", description = "Creates a new invoice with line items and calculates totals")
     @ApiResponses(value = {
@@ -42,25 +55,27 @@ public class InvoiceController extends ApiVersionController {
     })
     @PostMapping
     public ResponseEntity<InvoiceListResponse> createInvoice(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
             @Parameter(description = "Invoice details with line items", required = true)
             @Valid @RequestBody CreateInvoiceRequest request) {
-        InvoiceListResponse response = invoiceService.create(request);
+        InvoiceListResponse response = invoiceService.create(principal.accountId(), request);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "List all invoices", description = "Retrieves a paginated list of all invoices")
+    @Operation(summary = "List invoices", description = "Retrieves a paginated list of the caller's account invoices")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Invoices retrieved successfully",
                     content = @Content(schema = @Schema(implementation = Page.class)))
     })
     @GetMapping
     public ResponseEntity<Page<InvoiceListResponse>> listInvoices(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
             @Parameter(description = "Page number (0-based)", example = "0")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Number of items per page", example = "10")
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<InvoiceListResponse> invoices = invoiceService.list(pageable);
+        Page<InvoiceListResponse> invoices = invoiceService.list(principal.accountId(), pageable);
         return ResponseEntity.ok(invoices);
     }
 
@@ -98,6 +113,44 @@ public class InvoiceController extends ApiVersionController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Update invoice status", description = "Moves an invoice to a new status; OVERDUE is set only by the overdue sweep")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status updated successfully",
+                    content = @Content(schema = @Schema(implementation = InvoiceListResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Transition not allowed",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Invoice not found",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<InvoiceListResponse> updateInvoiceStatus(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Invoice unique identifier", example = "550e8400-e29b-41d4-a716-446655440000")
+            @PathVariable UUID id,
+            @Parameter(description = "New invoice status", required = true)
+            @Valid @RequestBody UpdateInvoiceStatusRequest request) {
+        return ResponseEntity.ok(invoiceService.updateStatus(principal.accountId(), id, request.status()));
+    }
+
+    @Operation(summary = "Schedule invoice send", description = "Issues a draft invoice and sends it to the customer at the given time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Send scheduled",
+                    content = @Content(schema = @Schema(implementation = ScheduledInvoiceSendResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invoice is not a draft or the time is not in the future",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Invoice not found",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @PostMapping("/{id}/send-at")
+    public ResponseEntity<ScheduledInvoiceSendResponse> scheduleInvoiceSend(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Invoice unique identifier", example = "550e8400-e29b-41d4-a716-446655440000")
+            @PathVariable UUID id,
+            @Parameter(description = "Time to issue and send the invoice", required = true)
+            @Valid @RequestBody ScheduleInvoiceSendRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(invoiceSendAtService.scheduleSend(principal.accountId(), id, request.sendAt()));
+    }
+
     @Operation(summary = "Delete invoice", description = "Deletes an invoice by their unique identifier")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Invoice deleted successfully"),
@@ -126,4 +179,34 @@ public class InvoiceController extends ApiVersionController {
         List<InvoiceLineItemResponse> lineItems = invoiceService.getInvoiceLineItems(id);
         return ResponseEntity.ok(lineItems);
     }
+
+    @Operation(summary = "Get reporting totals", description = "Aggregates invoice totals in the account's reporting currency using the base amounts stamped when totals were calculated")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Totals retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = InvoiceReportingTotalsResponse.class)))
+    })
+    @GetMapping("/reports/totals")
+    public ResponseEntity<List<InvoiceReportingTotalsResponse>> getReportingTotals(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "First issue date included (inclusive)", example = "2024-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last issue date included (inclusive)", example = "2024-12-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(invoiceService.getReportingTotals(principal.accountId(), from, to));
+    }
+
+    @Operation(summary = "Recalculate invoice totals", description = "Reloads tax rates and recalculates line and invoice totals for every invoice of the caller's account in the given status")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Totals recalculated successfully",
+                    content = @Content(schema = @Schema(implementation = InvoiceRecalculationResponse.class))),
+            @ApiResponse(responseCode = "400", description = "A line item references an unknown tax code",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @PostMapping("/recalculate-totals")
+    public ResponseEntity<InvoiceRecalculationResponse> recalculateTotals(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Only invoices in this status are recalculated", example = "DRAFT")
+            @RequestParam(defaultValue = "DRAFT") InvoiceStatus status) {
+        return ResponseEntity.ok(invoiceTotalsRecalculationService.recalculate(principal.accountId(), status));
+    }
 }
@@ -0,0 +1,91 @@
+package org.invoicebuilder.invoices.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.common.api_version.ApiVersionController;
+import org.invoicebuilder.invoices.dto.request.recurring.CreateRecurringInvoiceScheduleRequest;
+import org.invoicebuilder.invoices.dto.response.recurring.RecurringInvoiceScheduleResponse;
+import org.invoicebuilder.invoices.recurring.RecurringScheduleStatus;
+import org.invoicebuilder.invoices.service.RecurringInvoiceScheduleService;
+import org.invoicebuilder.users.security.AuthenticatedPrincipal;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Tag(name = "Recurring Invoices", description = "APIs for managing recurring invoice schedules")
+@RestController
+@RequestMapping("/api/v1/recurring-invoices")
+@RequiredArgsConstructor
+public class RecurringInvoiceScheduleController extends ApiVersionController {
+    private final RecurringInvoiceScheduleService scheduleService;
+
+    @Operation(summary = "Create a recurring schedule", description = "Creates a schedule that generates an invoice from a template on every cadence date")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Schedule created successfully",
+                    content = @Content(schema = @Schema(implementation = RecurringInvoiceScheduleResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Customer not found",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @PostMapping
+    public ResponseEntity<RecurringInvoiceScheduleResponse> createSchedule(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Schedule details with the invoice template", required = true)
+            @Valid @RequestBody CreateRecurringInvoiceScheduleRequest request) {
+        return new ResponseEntity<>(scheduleService.create(principal.accountId(), request), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "List recurring schedules", description = "Retrieves the schedules of the caller's account ordered by next run date")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Schedules retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = List.class)))
+    })
+    @GetMapping
+    public ResponseEntity<List<RecurringInvoiceScheduleResponse>> listSchedules(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal) {
+        return ResponseEntity.ok(scheduleService.list(principal.accountId()));
+    }
+
+    @Operation(summary = "Pause or resume a schedule", description = "Sets a schedule to ACTIVE or PAUSED; missed periods are generated when it is resumed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Schedule updated successfully",
+                    content = @Content(schema = @Schema(implementation = RecurringInvoiceScheduleResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Schedule not found",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<RecurringInvoiceScheduleResponse> updateScheduleStatus(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Schedule unique identifier", example = "550e8400-e29b-41d4-a716-446655440001")
+            @PathVariable UUID id,
+            @Parameter(description = "New status", example = "PAUSED")
+            @RequestParam RecurringScheduleStatus status) {
+        return ResponseEntity.ok(scheduleService.updateStatus(principal.accountId(), id, status));
+    }
+
+    @Operation(summary = "Delete a schedule", description = "Deletes a schedule, or ends it if it already generated invoices")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Schedule deleted successfully"),
+            @ApiResponse(responseCode = "404", description = "Schedule not found",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSchedule(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Schedule unique identifier", example = "550e8400-e29b-41d4-a716-446655440001")
+            @PathVariable UUID id) {
+        scheduleService.delete(principal.accountId(), id);
+        return ResponseEntity.noContent().build();
+    }
+}
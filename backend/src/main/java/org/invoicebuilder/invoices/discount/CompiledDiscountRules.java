@@ -0,0 +1,58 @@
+package org.invoicebuilder.invoices.discount;
+
+import org.invoicebuilder.common.money.Money;
+
+import java.time.LocalDate;
+
+/**
+ * The discount rules of one account/customer pair, compiled into an ordered array of
+ * evaluators. Immutable and safe to share between threads.
+ */
+public final class CompiledDiscountRules {
+
+    public static final CompiledDiscountRules NONE = new CompiledDiscountRules(new LineDiscountEvaluator[0], 0L, 0);
+
+    private final LineDiscountEvaluator[] evaluators;
+    private final long earlyPaymentRate;
+    private final int earlyPaymentDays;
+
+    CompiledDiscountRules(LineDiscountEvaluator[] evaluators, long earlyPaymentRate, int earlyPaymentDays) {
+        this.evaluators = evaluators;
+        this.earlyPaymentRate = earlyPaymentRate;
+        this.earlyPaymentDays = earlyPaymentDays;
+    }
+
+    /**
+     * Runs every line rule in priority order, each on the amount left by the previous one.
+     */
+    public long lineDiscount(long amountMinor, int quantity, String description) {
+        long remaining = amountMinor;
+        for (LineDiscountEvaluator evaluator : evaluators) {
+            remaining -= evaluator.discount(remaining, quantity, description);
+        }
+        return amountMinor - remaining;
+    }
+
+    public boolean hasLineRules() {
+        return evaluators.length > 0;
+    }
+
+    public boolean hasEarlyPayment() {
+        return earlyPaymentRate > 0;
+    }
+
+    /**
+     * Early-payment discount on {@code totalMinor}, or zero when no early-payment rule applies.
+     */
+    public long earlyPaymentDiscount(long totalMinor) {
+        if (earlyPaymentRate == 0 || totalMinor <= 0) {
+            return 0L;
+        }
+        return Money.multiplyDivide(totalMinor, earlyPaymentRate, DiscountRuleCompiler.RATE_ONE,
+                DiscountRuleCompiler.DISCOUNT_ROUNDING);
+    }
+
+    public LocalDate earlyPaymentDueDate(LocalDate issueDate) {
+        return issueDate.plusDays(earlyPaymentDays);
+    }
+}
@@ -0,0 +1,73 @@
+package org.invoicebuilder.invoices.discount;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A discount rule owned by an account. Rules without a customer apply to every invoice of
+ * the account; customer rules apply in addition to them. Rules run in {@code priority} order,
+ * each one on the amount left by the previous ones.
+ */
+@Entity
+@Table(name = "discount_rules")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiscountRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "discount_rule_id")
+    private UUID id;
+
+    @Column(name = "discount_rule_account_id", nullable = false)
+    private UUID accountId;
+
+    @Column(name = "discount_rule_customer_id")
+    private UUID customerId;
+
+    @Column(name = "discount_rule_name", nullable = false, length = 100)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "discount_rule_type", nullable = false, length = 20)
+    private DiscountRuleType type;
+
+    @Column(name = "discount_rule_percent", nullable = false, precision = 9, scale = 6)
+    private BigDecimal percent;
+
+    @Column(name = "discount_rule_min_quantity")
+    private Integer minQuantity;
+
+    @Column(name = "discount_rule_line_match", length = 100)
+    private String lineMatch;
+
+    @Column(name = "discount_rule_days")
+    private Integer days;
+
+    @Builder.Default
+    @Column(name = "discount_rule_priority", nullable = false)
+    private int priority = 0;
+
+    @Builder.Default
+    @Column(name = "discount_rule_active", nullable = false)
+    private boolean active = true;
+
+    @CreationTimestamp
+    @Column(name = "discount_rule_created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "discount_rule_updated_at")
+    private Instant updatedAt;
+}
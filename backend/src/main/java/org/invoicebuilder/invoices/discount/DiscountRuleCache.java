@@ -0,0 +1,87 @@
+package org.invoicebuilder.invoices.discount;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.config.AppProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled discount rules per account, loaded on first use and evicted whenever the
+ * account's rules change. Eviction only reaches this instance, so entries also expire after
+ * {@code app.discounts.cache-ttl}; other instances pick up a change within that time.
+ */
+@Component
+@RequiredArgsConstructor
+public class DiscountRuleCache {
+
+    private final DiscountRuleRepository discountRuleRepository;
+    private final AppProperties appProperties;
+    private final Map<UUID, AccountRules> rulesByAccount = new ConcurrentHashMap<>();
+
+    public CompiledDiscountRules rulesFor(UUID accountId, UUID customerId) {
+        if (accountId == null) {
+            return CompiledDiscountRules.NONE;
+        }
+        long now = System.nanoTime();
+        AccountRules rules = rulesByAccount.get(accountId);
+        if (rules == null || rules.expiresAt() - now <= 0) {
+            rules = rulesByAccount.compute(accountId, (id, cached) ->
+                    cached != null && cached.expiresAt() - now > 0 ? cached : load(id, now));
+        }
+        return rules.forCustomer(customerId);
+    }
+
+    /**
+     * Evicts the account's compiled rules once the current transaction commits, so a
+     * concurrent reader cannot re-cache the rules as they were before the change.
+     */
+    public void evictAfterCommit(UUID accountId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rulesByAccount.remove(accountId);
+                }
+            });
+        } else {
+            rulesByAccount.remove(accountId);
+        }
+    }
+
+    private AccountRules load(UUID accountId, long now) {
+        List<DiscountRule> accountWide = new ArrayList<>();
+        Map<UUID, List<DiscountRule>> byCustomer = new HashMap<>();
+        for (DiscountRule rule : discountRuleRepository.findByAccountIdAndActiveTrue(accountId)) {
+            if (rule.getCustomerId() == null) {
+                accountWide.add(rule);
+            } else {
+                byCustomer.computeIfAbsent(rule.getCustomerId(), id -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        Map<UUID, CompiledDiscountRules> compiledByCustomer = new HashMap<>();
+        byCustomer.forEach((customerId, rules) -> {
+            List<DiscountRule> combined = new ArrayList<>(accountWide);
+            combined.addAll(rules);
+            compiledByCustomer.put(customerId, DiscountRuleCompiler.compile(combined));
+        });
+        return new AccountRules(DiscountRuleCompiler.compile(accountWide), compiledByCustomer,
+                now + appProperties.getDiscounts().getCacheTtl().toNanos());
+    }
+
+    private record AccountRules(CompiledDiscountRules accountWide, Map<UUID, CompiledDiscountRules> byCustomer,
+                                long expiresAt) {
+        CompiledDiscountRules forCustomer(UUID customerId) {
+            return customerId == null ? accountWide : Objects.requireNonNullElse(byCustomer.get(customerId), accountWide);
+        }
+    }
+}
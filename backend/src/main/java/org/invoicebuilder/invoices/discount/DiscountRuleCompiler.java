@@ -0,0 +1,129 @@
+package org.invoicebuilder.invoices.discount;
+
+import org.invoicebuilder.common.money.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Turns discount rule rows into {@link CompiledDiscountRules}. Percentages are converted to
+ * fractions unscaled at {@link #RATE_SCALE}, tiers are sorted and match text is prepared once,
+ * so evaluating a line does no parsing and no allocation.
+ */
+public final class DiscountRuleCompiler {
+
+    static final int RATE_SCALE = 8;
+    static final long RATE_ONE = 100_000_000L;
+
+    /** Discounts are rounded down so a rule never gives away more than its percentage. */
+    static final RoundingMode DISCOUNT_ROUNDING = RoundingMode.DOWN;
+
+    private DiscountRuleCompiler() {
+        // Utility class
+    }
+
+    public static CompiledDiscountRules compile(List<DiscountRule> rules) {
+        List<DiscountRule> active = rules.stream()
+                .filter(DiscountRule::isActive)
+                .sorted(Comparator.comparingInt(DiscountRule::getPriority))
+                .toList();
+        if (active.isEmpty()) {
+            return CompiledDiscountRules.NONE;
+        }
+
+        List<LineDiscountEvaluator> evaluators = new ArrayList<>();
+        List<DiscountRule> tiers = active.stream()
+                .filter(rule -> rule.getType() == DiscountRuleType.TIERED_VOLUME)
+                .sorted(Comparator.comparingInt(DiscountRule::getMinQuantity))
+                .toList();
+        boolean tiersAdded = false;
+        long earlyPaymentRate = 0L;
+        int earlyPaymentDays = 0;
+
+        for (DiscountRule rule : active) {
+            long rate = toRate(rule.getPercent());
+            switch (rule.getType()) {
+                case PERCENTAGE -> evaluators.add(new PercentageEvaluator(rate));
+                case PER_LINE -> evaluators.add(rule.getLineMatch() == null || rule.getLineMatch().isBlank()
+                        ? new PercentageEvaluator(rate)
+                        : new LineMatchEvaluator(rule.getLineMatch(), rate));
+                case TIERED_VOLUME -> {
+                    // All tiers form one evaluator, placed at the priority of the first tier
+                    if (!tiersAdded) {
+                        evaluators.add(TieredVolumeEvaluator.of(tiers));
+                        tiersAdded = true;
+                    }
+                }
+                case EARLY_PAYMENT -> {
+                    if (rate > earlyPaymentRate) {
+                        earlyPaymentRate = rate;
+                        earlyPaymentDays = rule.getDays();
+                    }
+                }
+            }
+        }
+
+        return new CompiledDiscountRules(evaluators.toArray(new LineDiscountEvaluator[0]),
+                earlyPaymentRate, earlyPaymentDays);
+    }
+
+    static long toRate(BigDecimal percent) {
+        return percent.movePointRight(RATE_SCALE - 2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static long percentOf(long amountMinor, long rate) {
+        return Money.multiplyDivide(amountMinor, rate, RATE_ONE, DISCOUNT_ROUNDING);
+    }
+
+    private record PercentageEvaluator(long rate) implements LineDiscountEvaluator {
+        @Override
+        public long discount(long amountMinor, int quantity, String description) {
+            return percentOf(amountMinor, rate);
+        }
+    }
+
+    private record TieredVolumeEvaluator(int[] minQuantities, long[] rates) implements LineDiscountEvaluator {
+
+        static TieredVolumeEvaluator of(List<DiscountRule> tiers) {
+            int[] minQuantities = new int[tiers.size()];
+            long[] rates = new long[tiers.size()];
+            for (int i = 0; i < tiers.size(); i++) {
+                minQuantities[i] = tiers.get(i).getMinQuantity();
+                rates[i] = toRate(tiers.get(i).getPercent());
+            }
+            return new TieredVolumeEvaluator(minQuantities, rates);
+        }
+
+        @Override
+        public long discount(long amountMinor, int quantity, String description) {
+            long rate = 0L;
+            for (int i = 0; i < minQuantities.length && minQuantities[i] <= quantity; i++) {
+                rate = rates[i];
+            }
+            return rate == 0L ? 0L : percentOf(amountMinor, rate);
+        }
+    }
+
+    private record LineMatchEvaluator(String match, long rate) implements LineDiscountEvaluator {
+        @Override
+        public long discount(long amountMinor, int quantity, String description) {
+            return containsIgnoreCase(description, match) ? percentOf(amountMinor, rate) : 0L;
+        }
+
+        private static boolean containsIgnoreCase(String text, String match) {
+            if (text == null) {
+                return false;
+            }
+            int last = text.length() - match.length();
+            for (int i = 0; i <= last; i++) {
+                if (text.regionMatches(true, i, match, 0, match.length())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
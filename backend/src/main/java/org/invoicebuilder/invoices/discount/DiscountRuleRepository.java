@@ -0,0 +1,16 @@
+package org.invoicebuilder.invoices.discount;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface DiscountRuleRepository extends JpaRepository<DiscountRule, UUID> {
+
+    List<DiscountRule> findByAccountIdOrderByPriorityAsc(UUID accountId);
+
+    List<DiscountRule> findByAccountIdAndActiveTrue(UUID accountId);
+
+    Optional<DiscountRule> findByIdAndAccountId(UUID id, UUID accountId);
+}
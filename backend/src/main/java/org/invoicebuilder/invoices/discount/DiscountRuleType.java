@@ -0,0 +1,12 @@
+package org.invoicebuilder.invoices.discount;
+
+public enum DiscountRuleType {
+    /** Percentage off every line. */
+    PERCENTAGE,
+    /** Percentage off a line chosen by the highest tier whose minimum quantity the line reaches. */
+    TIERED_VOLUME,
+    /** Percentage off lines whose description contains the rule's match text. */
+    PER_LINE,
+    /** Percentage off the total if paid within a number of days; recorded on the invoice, not deducted. */
+    EARLY_PAYMENT
+}
@@ -0,0 +1,14 @@
+package org.invoicebuilder.invoices.discount;
+
+/**
+ * A compiled line-level discount rule.
+ */
+@FunctionalInterface
+interface LineDiscountEvaluator {
+
+    /**
+     * @param amountMinor the line amount left after earlier rules, in minor units
+     * @return the discount in minor units, never more than {@code amountMinor}
+     */
+    long discount(long amountMinor, int quantity, String description);
+}
@@ -60,6 +60,18 @@ public class Invoice {
     @Column(name = "invoice_discount", nullable = false)
     private BigDecimal discount;
 
+    @Column(name = "invoice_prices_include_tax", nullable = false)
+    private boolean pricesIncludeTax;
+
+    @Column(name = "invoice_rule_discount")
+    private BigDecimal ruleDiscount;
+
+    @Column(name = "invoice_early_payment_discount")
+    private BigDecimal earlyPaymentDiscount;
+
+    @Column(name = "invoice_early_payment_due_date")
+    private LocalDate earlyPaymentDueDate;
+
     @Column(name = "invoice_notes", length = 1000)
     private String notes;
 
@@ -72,4 +84,25 @@ public class Invoice {
     @Column(name = "invoice_total_amount")
     private BigDecimal totalAmount;
 
+    @Column(name = "invoice_base_currency", length = 3)
+    private String baseCurrency;
+
+    @Column(name = "invoice_fx_rate", precision = 19, scale = 10)
+    private BigDecimal fxRate;
+
+    @Column(name = "invoice_base_subtotal")
+    private BigDecimal baseSubtotal;
+
+    @Column(name = "invoice_base_tax_amount")
+    private BigDecimal baseTaxAmount;
+
+    @Column(name = "invoice_base_total_amount")
+    private BigDecimal baseTotalAmount;
+
+    @Column(name = "invoice_schedule_id", updatable = false)
+    private UUID scheduleId;
+
+    @Column(name = "invoice_schedule_period", updatable = false)
+    private LocalDate schedulePeriod;
+
 }
@@ -30,4 +30,13 @@ public class InvoiceLineItem {
 
     @Column(name = "line_item_total")
     private BigDecimal lineTotal;
+
+    @Column(name = "line_item_discount_amount")
+    private BigDecimal discountAmount;
+
+    @Column(name = "line_item_tax_code", length = 32)
+    private String taxCode;
+
+    @Column(name = "line_item_tax_amount")
+    private BigDecimal taxAmount;
 }
@@ -1,8 +1,27 @@
 package org.invoicebuilder.invoices.domain;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum InvoiceStatus {
     DRAFT,
     ISSUED,
+    OVERDUE,
     PAID,
-    CANCELLED
+    CANCELLED;
+
+    /**
+     * Transitions a user may request. ISSUED to OVERDUE is made only by the overdue sweep.
+     */
+    public boolean canTransitionTo(InvoiceStatus target) {
+        return allowedTargets().contains(target);
+    }
+
+    private Set<InvoiceStatus> allowedTargets() {
+        return switch (this) {
+            case DRAFT -> EnumSet.of(ISSUED, CANCELLED);
+            case ISSUED, OVERDUE -> EnumSet.of(PAID, CANCELLED);
+            case PAID, CANCELLED -> EnumSet.noneOf(InvoiceStatus.class);
+        };
+    }
 }
@@ -0,0 +1,53 @@
+package org.invoicebuilder.invoices.dto.request.discount;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.*;
+import org.invoicebuilder.invoices.discount.DiscountRuleType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Schema(description = "Request object for creating or updating a discount rule")
+public record DiscountRuleRequest(
+        @Schema(description = "Display name of the rule", example = "Retainer clients 5%", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotBlank(message = "Rule name is required")
+        @Size(max = 100, message = "Rule name cannot exceed 100 characters")
+        String name,
+
+        @Schema(description = "Rule type", example = "PERCENTAGE", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Rule type is required")
+        DiscountRuleType type,
+
+        @Schema(description = "Customer the rule is limited to; omit for every customer of the account", example = "550e8400-e29b-41d4-a716-446655440000", name = "customer_id")
+        @JsonProperty("customer_id")
+        UUID customerId,
+
+        @Schema(description = "Discount percentage", example = "5.00", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Discount percentage is required")
+        @DecimalMin(value = "0.0", inclusive = false, message = "Discount percentage must be positive")
+        @DecimalMax(value = "100.0", message = "Discount percentage cannot exceed 100")
+        @Digits(integer = 3, fraction = 6, message = "Discount percentage supports up to 6 decimal places")
+        BigDecimal percent,
+
+        @Schema(description = "Minimum line quantity for a TIERED_VOLUME tier", example = "100", name = "min_quantity")
+        @Positive(message = "Minimum quantity must be positive")
+        @JsonProperty("min_quantity")
+        Integer minQuantity,
+
+        @Schema(description = "Text a line description must contain for a PER_LINE rule", example = "hosting", name = "line_match")
+        @Size(max = 100, message = "Line match cannot exceed 100 characters")
+        @JsonProperty("line_match")
+        String lineMatch,
+
+        @Schema(description = "Days after the issue date within which an EARLY_PAYMENT discount applies", example = "10")
+        @Positive(message = "Days must be positive")
+        Integer days,
+
+        @Schema(description = "Evaluation order; lower runs first", example = "0")
+        Integer priority,
+
+        @Schema(description = "Whether the rule is applied", example = "true")
+        Boolean active
+) {
+}
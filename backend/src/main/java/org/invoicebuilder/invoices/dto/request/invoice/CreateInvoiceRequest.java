@@ -55,6 +55,10 @@ public record CreateInvoiceRequest(
         @DecimalMin(value = "0.0", message = "Discount cannot be negative")
         BigDecimal discount,
 
+        @Schema(description = "Whether unit prices already include tax", example = "false", name = "prices_include_tax")
+        @JsonProperty("prices_include_tax")
+        Boolean pricesIncludeTax,
+
         @Schema(description = "Additional notes or comments for the invoice", example = "Payment due within 30 days")
         @Size(max = 1000, message = "Notes cannot exceed 1000 characters")
         String notes,
@@ -73,6 +77,7 @@ public record CreateInvoiceRequest(
         invoice.setDueDate(request.dueDate);
         invoice.setTaxRate(request.taxRate);
         invoice.setDiscount(request.discount);
+        invoice.setPricesIncludeTax(Boolean.TRUE.equals(request.pricesIncludeTax));
         invoice.setNotes(request.notes);
         return invoice;
     }
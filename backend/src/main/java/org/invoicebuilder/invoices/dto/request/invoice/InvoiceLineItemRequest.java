@@ -6,6 +6,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
 import org.invoicebuilder.invoices.domain.InvoiceLineItem;
@@ -24,13 +25,19 @@ public record InvoiceLineItemRequest(
         @Schema(description = "Unit price per item", example = "100.50", requiredMode = Schema.RequiredMode.REQUIRED, name = "unit_price")
         @DecimalMin(value = "0.0", message = "Unit price cannot be negative")
         @JsonProperty("unit_price")
-        BigDecimal unitPrice
+        BigDecimal unitPrice,
+
+        @Schema(description = "Tax code for this line; lines without one use the invoice tax rate", example = "KE-VAT", name = "tax_code")
+        @Size(max = 32, message = "Tax code cannot exceed 32 characters")
+        @JsonProperty("tax_code")
+        String taxCode
 ) {
     public static InvoiceLineItem fromLineItemRequest(InvoiceLineItemRequest request) {
         InvoiceLineItem lineItem = new InvoiceLineItem();
         lineItem.setDescription(request.description);
         lineItem.setQuantity(request.quantity);
         lineItem.setUnitPrice(request.unitPrice);
+        lineItem.setTaxCode(request.taxCode);
         lineItem.setLineTotal(request.unitPrice.multiply(BigDecimal.valueOf(request.quantity)));
         return lineItem;
     }
@@ -0,0 +1,18 @@
+package org.invoicebuilder.invoices.dto.request.invoice;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+
+@Schema(description = "Request object for scheduling a draft invoice to be issued and sent")
+public record ScheduleInvoiceSendRequest(
+        @Schema(description = "Time at which the invoice is issued and sent", example = "2024-02-01T09:00:00Z", requiredMode = Schema.RequiredMode.REQUIRED, name = "send_at")
+        @NotNull(message = "Send time is required")
+        @Future(message = "Send time must be in the future")
+        @JsonProperty("send_at")
+        Instant sendAt
+) {
+}
@@ -1,4 +1,13 @@
 package org.invoicebuilder.invoices.dto.request.invoice;
 
-public record UpdateInvoiceStatusRequest() {
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
+
+@Schema(description = "Request object for changing the status of an invoice")
+public record UpdateInvoiceStatusRequest(
+        @Schema(description = "New status of the invoice", example = "ISSUED", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Status is required")
+        InvoiceStatus status
+) {
 }
@@ -0,0 +1,111 @@
+package org.invoicebuilder.invoices.dto.request.recurring;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import org.invoicebuilder.invoices.dto.request.invoice.InvoiceLineItemRequest;
+import org.invoicebuilder.invoices.recurring.RecurringCadence;
+import org.invoicebuilder.invoices.recurring.RecurringInvoiceSchedule;
+import org.invoicebuilder.invoices.recurring.RecurringInvoiceTemplate;
+import org.invoicebuilder.validation.ISOCurrency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Request object for creating a recurring invoice schedule")
+public record CreateRecurringInvoiceScheduleRequest(
+        @Schema(description = "User recorded as the author of the generated invoices", example = "550e8400-e29b-41d4-a716-446655440002", requiredMode = Schema.RequiredMode.REQUIRED, name = "user_id")
+        @NotNull(message = "User ID is required")
+        @JsonProperty("user_id")
+        UUID userId,
+
+        @Schema(description = "Customer billed by the schedule", example = "550e8400-e29b-41d4-a716-446655440003", requiredMode = Schema.RequiredMode.REQUIRED, name = "customer_id")
+        @NotNull(message = "Customer ID is required")
+        @JsonProperty("customer_id")
+        UUID customerId,
+
+        @Schema(description = "Sender printed on the generated invoices", example = "550e8400-e29b-41d4-a716-446655440004", name = "sender_id")
+        @JsonProperty("sender_id")
+        UUID senderId,
+
+        @Schema(description = "How often an invoice is generated", example = "MONTHLY", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Cadence is required")
+        RecurringCadence cadence,
+
+        @Schema(description = "Number of cadence units between invoices", example = "1", name = "interval_count")
+        @Positive(message = "Interval count must be positive")
+        @JsonProperty("interval_count")
+        Integer intervalCount,
+
+        @Schema(description = "Issue date of the first invoice", example = "2024-02-01", requiredMode = Schema.RequiredMode.REQUIRED, name = "start_date")
+        @NotNull(message = "Start date is required")
+        @JsonProperty("start_date")
+        LocalDate startDate,
+
+        @Schema(description = "Last date an invoice may be issued", example = "2024-12-31", name = "end_date")
+        @JsonProperty("end_date")
+        LocalDate endDate,
+
+        @Schema(description = "Days between issue date and due date", example = "30", requiredMode = Schema.RequiredMode.REQUIRED, name = "payment_terms_days")
+        @NotNull(message = "Payment terms are required")
+        @PositiveOrZero(message = "Payment terms cannot be negative")
+        @JsonProperty("payment_terms_days")
+        Integer paymentTermsDays,
+
+        @Schema(description = "Currency code in ISO-4217 format (3 uppercase letters)", example = "USD", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotBlank(message = "Currency is required")
+        @ISOCurrency(message = "Invalid currency code. Valid examples: USD, EUR, GBP, KES, JPY")
+        String currency,
+
+        @Schema(description = "Tax rate as a percentage", example = "10.00", name = "tax_rate")
+        @DecimalMin(value = "0.0", message = "Tax rate cannot be negative")
+        @JsonProperty("tax_rate")
+        BigDecimal taxRate,
+
+        @Schema(description = "Discount amount", example = "0.00")
+        @DecimalMin(value = "0.0", message = "Discount cannot be negative")
+        BigDecimal discount,
+
+        @Schema(description = "Notes copied onto every generated invoice", example = "Monthly retainer")
+        @Size(max = 1000, message = "Notes cannot exceed 1000 characters")
+        String notes,
+
+        @Schema(description = "Whether unit prices already include tax", example = "false", name = "prices_include_tax")
+        @JsonProperty("prices_include_tax")
+        Boolean pricesIncludeTax,
+
+        @Schema(description = "Line items copied onto every generated invoice", requiredMode = Schema.RequiredMode.REQUIRED, name = "line_items")
+        @NotEmpty(message = "At least one line item is required")
+        @JsonProperty("line_items")
+        List<@Valid InvoiceLineItemRequest> lineItems
+) {
+    public static RecurringInvoiceSchedule fromRequest(UUID accountId, CreateRecurringInvoiceScheduleRequest request) {
+        List<RecurringInvoiceTemplate.Line> lines = request.lineItems.stream()
+                .map(line -> new RecurringInvoiceTemplate.Line(line.description(), line.quantity(), line.unitPrice(), line.taxCode()))
+                .toList();
+        RecurringInvoiceTemplate template = new RecurringInvoiceTemplate(
+                request.currency,
+                request.taxRate,
+                request.discount,
+                request.notes,
+                Boolean.TRUE.equals(request.pricesIncludeTax),
+                request.paymentTermsDays,
+                lines
+        );
+        return RecurringInvoiceSchedule.builder()
+                .accountId(accountId)
+                .userId(request.userId)
+                .customerId(request.customerId)
+                .senderId(request.senderId)
+                .cadence(request.cadence)
+                .intervalCount(request.intervalCount != null ? request.intervalCount : 1)
+                .startDate(request.startDate)
+                .endDate(request.endDate)
+                .nextRunDate(request.startDate)
+                .template(template)
+                .build();
+    }
+}
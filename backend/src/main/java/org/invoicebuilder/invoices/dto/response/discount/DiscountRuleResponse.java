@@ -0,0 +1,35 @@
+package org.invoicebuilder.invoices.dto.response.discount;
+
+import org.invoicebuilder.invoices.discount.DiscountRule;
+import org.invoicebuilder.invoices.discount.DiscountRuleType;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record DiscountRuleResponse(
+        UUID id,
+        String name,
+        DiscountRuleType type,
+        UUID customer_id,
+        BigDecimal percent,
+        Integer min_quantity,
+        String line_match,
+        Integer days,
+        int priority,
+        boolean active
+) {
+    public static DiscountRuleResponse from(DiscountRule rule) {
+        return new DiscountRuleResponse(
+                rule.getId(),
+                rule.getName(),
+                rule.getType(),
+                rule.getCustomerId(),
+                rule.getPercent(),
+                rule.getMinQuantity(),
+                rule.getLineMatch(),
+                rule.getDays(),
+                rule.getPriority(),
+                rule.isActive()
+        );
+    }
+}
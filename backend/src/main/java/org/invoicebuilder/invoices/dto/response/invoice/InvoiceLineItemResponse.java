@@ -10,7 +10,10 @@ public record InvoiceLineItemResponse(
         String description,
         int quantity,
         BigDecimal unit_price,
-        BigDecimal line_total
+        BigDecimal discount_amount,
+        BigDecimal line_total,
+        String tax_code,
+        BigDecimal tax_amount
 ) {
     public static InvoiceLineItemResponse from(InvoiceLineItem item) {
         return new InvoiceLineItemResponse(
@@ -18,7 +21,10 @@ public record InvoiceLineItemResponse(
                 item.getDescription(),
                 item.getQuantity(),
                 item.getUnitPrice(),
-                item.getLineTotal()
+                item.getDiscountAmount(),
+                item.getLineTotal(),
+                item.getTaxCode(),
+                item.getTaxAmount()
         );
     }
 
@@ -0,0 +1,7 @@
+package org.invoicebuilder.invoices.dto.response.invoice;
+
+public record InvoiceRecalculationResponse(
+        long invoice_count,
+        long tax_table_version
+) {
+}
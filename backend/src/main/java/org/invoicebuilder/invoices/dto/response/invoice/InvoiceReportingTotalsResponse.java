@@ -0,0 +1,23 @@
+package org.invoicebuilder.invoices.dto.response.invoice;
+
+import org.invoicebuilder.invoices.repository.InvoiceReportingTotalsProjection;
+
+import java.math.BigDecimal;
+
+public record InvoiceReportingTotalsResponse(
+        String base_currency,
+        long invoice_count,
+        BigDecimal subtotal,
+        BigDecimal tax_amount,
+        BigDecimal total_amount
+) {
+    public static InvoiceReportingTotalsResponse from(InvoiceReportingTotalsProjection projection) {
+        return new InvoiceReportingTotalsResponse(
+                projection.getBaseCurrency(),
+                projection.getInvoiceCount(),
+                projection.getSubtotal(),
+                projection.getTaxAmount(),
+                projection.getTotalAmount()
+        );
+    }
+}
@@ -0,0 +1,10 @@
+package org.invoicebuilder.invoices.dto.response.invoice;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ScheduledInvoiceSendResponse(
+        UUID invoice_id,
+        Instant send_at
+) {
+}
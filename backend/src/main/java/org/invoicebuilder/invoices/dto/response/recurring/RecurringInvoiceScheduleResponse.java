@@ -0,0 +1,42 @@
+package org.invoicebuilder.invoices.dto.response.recurring;
+
+import org.invoicebuilder.invoices.recurring.RecurringCadence;
+import org.invoicebuilder.invoices.recurring.RecurringInvoiceSchedule;
+import org.invoicebuilder.invoices.recurring.RecurringInvoiceTemplate;
+import org.invoicebuilder.invoices.recurring.RecurringScheduleStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record RecurringInvoiceScheduleResponse(
+        UUID id,
+        UUID customer_id,
+        RecurringCadence cadence,
+        int interval_count,
+        LocalDate start_date,
+        LocalDate end_date,
+        LocalDate next_run_date,
+        int generated_count,
+        RecurringScheduleStatus status,
+        Instant last_run_at,
+        String last_error,
+        RecurringInvoiceTemplate template
+) {
+    public static RecurringInvoiceScheduleResponse from(RecurringInvoiceSchedule schedule) {
+        return new RecurringInvoiceScheduleResponse(
+                schedule.getId(),
+                schedule.getCustomerId(),
+                schedule.getCadence(),
+                schedule.getIntervalCount(),
+                schedule.getStartDate(),
+                schedule.getEndDate(),
+                schedule.getNextRunDate(),
+                schedule.getGeneratedCount(),
+                schedule.getStatus(),
+                schedule.getLastRunAt(),
+                schedule.getLastError(),
+                schedule.getTemplate()
+        );
+    }
+}
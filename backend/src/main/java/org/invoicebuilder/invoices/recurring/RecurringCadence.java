@@ -0,0 +1,24 @@
+package org.invoicebuilder.invoices.recurring;
+
+import java.time.LocalDate;
+
+public enum RecurringCadence {
+    WEEKLY,
+    MONTHLY,
+    QUARTERLY,
+    YEARLY;
+
+    /**
+     * Date of the {@code period}-th invoice (0-based) of a schedule. Always computed from the
+     * start date so month-end anchors do not drift (31 Jan, 29 Feb, 31 Mar, ...).
+     */
+    public LocalDate periodStart(LocalDate startDate, int intervalCount, int period) {
+        long steps = (long) intervalCount * period;
+        return switch (this) {
+            case WEEKLY -> startDate.plusWeeks(steps);
+            case MONTHLY -> startDate.plusMonths(steps);
+            case QUARTERLY -> startDate.plusMonths(steps * 3);
+            case YEARLY -> startDate.plusYears(steps);
+        };
+    }
+}
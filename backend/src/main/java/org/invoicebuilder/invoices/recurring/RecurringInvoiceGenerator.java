@@ -0,0 +1,203 @@
+package org.invoicebuilder.invoices.recurring;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.invoices.domain.Customer;
+import org.invoicebuilder.invoices.domain.Invoice;
+import org.invoicebuilder.invoices.domain.InvoiceLineItem;
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
+import org.invoicebuilder.invoices.recurring.RecurringInvoiceWriter.GeneratedInvoice;
+import org.invoicebuilder.invoices.service.InvoiceNumberAllocator;
+import org.invoicebuilder.invoices.service.InvoiceTotalsCalculator;
+import org.invoicebuilder.invoices.tax.TaxRateCache;
+import org.invoicebuilder.invoices.tax.TaxRateTable;
+import org.invoicebuilder.users.domain.Account;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Generates the invoices of one batch of due schedules in a single transaction: claim the
+ * schedules with {@code FOR UPDATE SKIP LOCKED}, build and price every due period, batch-insert
+ * the invoices and line items, then advance each schedule. A crash rolls the whole batch back
+ * and the schedules are simply claimed again by the next run.
+ * <p>
+ * One bad schedule must not hold back the rest, which would otherwise happen on every run since
+ * claims follow {@code next_run_date} order. A schedule whose invoices cannot be built or priced,
+ * e.g. because its template names an unknown tax code, is marked {@link RecurringScheduleStatus#FAILED}
+ * with the reason and left out of the batch. If the batch insert itself fails, the claimed
+ * schedules are retried one per transaction, and a schedule that fails on its own for a
+ * non-transient reason is marked failed as well. Failed schedules are not claimed again until
+ * the account resumes them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringInvoiceGenerator {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final RecurringInvoiceScheduleRepository scheduleRepository;
+    private final RecurringInvoiceWriter recurringInvoiceWriter;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final InvoiceTotalsCalculator invoiceTotalsCalculator;
+    private final TaxRateCache taxRateCache;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties appProperties;
+
+    /**
+     * @return the number of schedules claimed; zero means nothing is due any more
+     */
+    public int generateBatch(LocalDate today) {
+        int batchSize = appProperties.getRecurring().getBatchSize();
+        List<UUID> claimed = new ArrayList<>();
+        try {
+            Integer count = transactionTemplate.execute(status -> {
+                List<RecurringInvoiceSchedule> schedules = scheduleRepository.claimDue(today, batchSize);
+                schedules.forEach(schedule -> claimed.add(schedule.getId()));
+                generate(schedules, today);
+                return schedules.size();
+            });
+            return count == null ? 0 : count;
+        } catch (DataAccessException e) {
+            if (claimed.isEmpty()) {
+                throw e;
+            }
+            log.warn("Recurring invoice batch of {} schedules failed, retrying them one at a time", claimed.size(), e);
+            claimed.forEach(id -> generateAlone(id, today));
+            return claimed.size();
+        }
+    }
+
+    private void generateAlone(UUID scheduleId, LocalDate today) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> scheduleRepository.claimDueById(scheduleId, today)
+                    .ifPresent(schedule -> generate(List.of(schedule), today)));
+        } catch (NonTransientDataAccessException e) {
+            transactionTemplate.executeWithoutResult(status -> scheduleRepository.findById(scheduleId)
+                    .ifPresent(schedule -> {
+                        markFailed(schedule, e);
+                        scheduleRepository.save(schedule);
+                    }));
+        }
+    }
+
+    private void generate(List<RecurringInvoiceSchedule> schedules, LocalDate today) {
+        if (schedules.isEmpty()) {
+            return;
+        }
+        AppProperties.Recurring settings = appProperties.getRecurring();
+        TaxRateTable taxRates = taxRateCache.current();
+        Instant now = Instant.now();
+
+        List<GeneratedInvoice> generated = new ArrayList<>();
+        for (RecurringInvoiceSchedule schedule : schedules) {
+            try {
+                generated.addAll(generateDue(schedule, today, settings.getMaxPeriodsPerRun(), taxRates));
+            } catch (RuntimeException e) {
+                markFailed(schedule, e);
+            }
+            schedule.setLastRunAt(now);
+        }
+
+        List<Invoice> invoices = generated.stream().map(GeneratedInvoice::invoice).toList();
+        Iterator<String> numbers = invoiceNumberAllocator.allocate(today, invoices.size()).iterator();
+        invoices.forEach(invoice -> invoice.setInvoiceNumber(numbers.next()));
+
+        recurringInvoiceWriter.insert(generated);
+        scheduleRepository.saveAll(schedules);
+
+        log.debug("Generated {} invoices for {} recurring schedules", generated.size(), schedules.size());
+    }
+
+    /**
+     * Builds and prices the schedule's due periods and advances it past them. On failure the
+     * schedule is left as it was.
+     */
+    private List<GeneratedInvoice> generateDue(RecurringInvoiceSchedule schedule, LocalDate today, int maxPeriods,
+                                               TaxRateTable taxRates) {
+        LocalDate nextRunDate = schedule.getNextRunDate();
+        int generatedCount = schedule.getGeneratedCount();
+        try {
+            List<GeneratedInvoice> generated = new ArrayList<>();
+            while (generated.size() < maxPeriods && isDue(schedule, today)) {
+                generated.add(build(schedule, schedule.getNextRunDate()));
+                advance(schedule);
+            }
+            List<Invoice> invoices = generated.stream().map(GeneratedInvoice::invoice).toList();
+            invoiceTotalsCalculator.applyAll(invoices, taxRates);
+            if (schedule.getEndDate() != null && schedule.getNextRunDate().isAfter(schedule.getEndDate())) {
+                schedule.setStatus(RecurringScheduleStatus.ENDED);
+            }
+            return generated;
+        } catch (RuntimeException e) {
+            schedule.setNextRunDate(nextRunDate);
+            schedule.setGeneratedCount(generatedCount);
+            throw e;
+        }
+    }
+
+    private static void markFailed(RecurringInvoiceSchedule schedule, Exception e) {
+        log.warn("Recurring schedule {} failed and is paused until resumed: {}", schedule.getId(), e.getMessage());
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        schedule.setStatus(RecurringScheduleStatus.FAILED);
+        schedule.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+    }
+
+    private static boolean isDue(RecurringInvoiceSchedule schedule, LocalDate today) {
+        LocalDate next = schedule.getNextRunDate();
+        return !next.isAfter(today) && (schedule.getEndDate() == null || !next.isAfter(schedule.getEndDate()));
+    }
+
+    private static void advance(RecurringInvoiceSchedule schedule) {
+        int generatedCount = schedule.getGeneratedCount() + 1;
+        schedule.setGeneratedCount(generatedCount);
+        schedule.setNextRunDate(schedule.getCadence()
+                .periodStart(schedule.getStartDate(), schedule.getIntervalCount(), generatedCount));
+    }
+
+    private GeneratedInvoice build(RecurringInvoiceSchedule schedule, LocalDate period) {
+        RecurringInvoiceTemplate template = schedule.getTemplate();
+
+        Invoice invoice = new Invoice();
+        invoice.setCurrency(template.currency());
+        invoice.setStatus(InvoiceStatus.DRAFT);
+        invoice.setIssueDate(period);
+        invoice.setDueDate(period.plusDays(template.paymentTermsDays()));
+        invoice.setTaxRate(template.taxRate() != null ? template.taxRate() : BigDecimal.ZERO);
+        invoice.setDiscount(template.discount() != null ? template.discount() : BigDecimal.ZERO);
+        invoice.setNotes(template.notes());
+        invoice.setPricesIncludeTax(template.pricesIncludeTax());
+        invoice.setAccount(entityManager.getReference(Account.class, schedule.getAccountId()));
+        invoice.setCustomer(entityManager.getReference(Customer.class, schedule.getCustomerId()));
+        invoice.setScheduleId(schedule.getId());
+        invoice.setSchedulePeriod(period);
+
+        List<InvoiceLineItem> lineItems = new ArrayList<>(template.lineItems().size());
+        for (RecurringInvoiceTemplate.Line line : template.lineItems()) {
+            InvoiceLineItem lineItem = new InvoiceLineItem();
+            lineItem.setInvoice(invoice);
+            lineItem.setDescription(line.description());
+            lineItem.setQuantity(line.quantity());
+            lineItem.setUnitPrice(line.unitPrice());
+            lineItem.setTaxCode(line.taxCode());
+            lineItems.add(lineItem);
+        }
+        invoice.setLineItems(lineItems);
+
+        return new GeneratedInvoice(invoice, schedule.getAccountId(), schedule.getUserId(),
+                schedule.getCustomerId(), schedule.getSenderId());
+    }
+}
@@ -0,0 +1,76 @@
+package org.invoicebuilder.invoices.recurring;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the recurring invoice generator on every node. Each node starts several workers that
+ * keep claiming batches until no schedule is due; {@code SKIP LOCKED} keeps workers on this
+ * and other nodes on disjoint schedules.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringInvoiceJob {
+
+    private final RecurringInvoiceGenerator recurringInvoiceGenerator;
+    private final AppProperties appProperties;
+
+    @Scheduled(cron = "${app.recurring.cron:0 5 0 * * *}")
+    public void run() {
+        AppProperties.Recurring settings = appProperties.getRecurring();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        runUntilDrained(LocalDate.now(), settings.getWorkers());
+    }
+
+    /**
+     * @return the number of schedules processed by this node
+     */
+    public long runUntilDrained(LocalDate today, int workers) {
+        long started = System.nanoTime();
+        AtomicLong processed = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "recurring-invoices");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    int claimed;
+                    while ((claimed = recurringInvoiceGenerator.generateBatch(today)) > 0) {
+                        processed.addAndGet(claimed);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Recurring invoice generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("Recurring invoice run for {} processed {} schedules in {} ms",
+                today, processed.get(), (System.nanoTime() - started) / 1_000_000);
+        return processed.get();
+    }
+}
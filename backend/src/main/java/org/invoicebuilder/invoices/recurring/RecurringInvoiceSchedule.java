@@ -0,0 +1,91 @@
+package org.invoicebuilder.invoices.recurring;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * A template plus cadence that produces one invoice per period. {@code generatedCount} and
+ * {@code nextRunDate} are advanced in the same transaction that inserts the invoices, and the
+ * (schedule, period) pair is unique on invoices, so a crashed run never produces duplicates.
+ */
+@Entity
+@Table(name = "recurring_invoice_schedules")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringInvoiceSchedule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "schedule_id")
+    private UUID id;
+
+    @Column(name = "schedule_account_id", nullable = false)
+    private UUID accountId;
+
+    @Column(name = "schedule_user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "schedule_customer_id", nullable = false)
+    private UUID customerId;
+
+    @Column(name = "schedule_sender_id")
+    private UUID senderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "schedule_cadence", nullable = false, length = 20)
+    private RecurringCadence cadence;
+
+    @Builder.Default
+    @Column(name = "schedule_interval_count", nullable = false)
+    private int intervalCount = 1;
+
+    @Column(name = "schedule_start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "schedule_end_date")
+    private LocalDate endDate;
+
+    @Column(name = "schedule_next_run_date", nullable = false)
+    private LocalDate nextRunDate;
+
+    @Builder.Default
+    @Column(name = "schedule_generated_count", nullable = false)
+    private int generatedCount = 0;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(name = "schedule_status", nullable = false, length = 20)
+    private RecurringScheduleStatus status = RecurringScheduleStatus.ACTIVE;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "schedule_template", nullable = false, columnDefinition = "jsonb")
+    private RecurringInvoiceTemplate template;
+
+    @Column(name = "schedule_last_run_at")
+    private Instant lastRunAt;
+
+    /** Why generation last failed; set together with {@link RecurringScheduleStatus#FAILED}. */
+    @Column(name = "schedule_last_error", length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "schedule_created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "schedule_updated_at")
+    private Instant updatedAt;
+}
@@ -0,0 +1,45 @@
+package org.invoicebuilder.invoices.recurring;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RecurringInvoiceScheduleRepository extends JpaRepository<RecurringInvoiceSchedule, UUID> {
+
+    /**
+     * Claims up to {@code limit} due schedules for the current transaction. Rows locked by
+     * another node are skipped rather than waited on, so every node works on a disjoint batch.
+     */
+    @Query(value = """
+        SELECT *
+        FROM recurring_invoice_schedules
+        WHERE schedule_status = 'ACTIVE'
+          AND schedule_next_run_date <= :today
+        ORDER BY schedule_next_run_date
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<RecurringInvoiceSchedule> claimDue(@Param("today") LocalDate today, @Param("limit") int limit);
+
+    /**
+     * Claims one schedule if it is still due and not locked by another worker.
+     */
+    @Query(value = """
+        SELECT *
+        FROM recurring_invoice_schedules
+        WHERE schedule_id = :id
+          AND schedule_status = 'ACTIVE'
+          AND schedule_next_run_date <= :today
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    Optional<RecurringInvoiceSchedule> claimDueById(@Param("id") UUID id, @Param("today") LocalDate today);
+
+    List<RecurringInvoiceSchedule> findByAccountIdOrderByNextRunDateAsc(UUID accountId);
+
+    Optional<RecurringInvoiceSchedule> findByIdAndAccountId(UUID id, UUID accountId);
+}
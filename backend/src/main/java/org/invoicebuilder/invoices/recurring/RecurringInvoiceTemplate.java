@@ -0,0 +1,27 @@
+package org.invoicebuilder.invoices.recurring;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The invoice content copied onto every generated invoice. Stored as JSON on the schedule.
+ */
+public record RecurringInvoiceTemplate(
+        String currency,
+        @JsonProperty("tax_rate") BigDecimal taxRate,
+        BigDecimal discount,
+        String notes,
+        @JsonProperty("prices_include_tax") boolean pricesIncludeTax,
+        @JsonProperty("payment_terms_days") int paymentTermsDays,
+        @JsonProperty("line_items") List<Line> lineItems
+) {
+    public record Line(
+            String description,
+            int quantity,
+            @JsonProperty("unit_price") BigDecimal unitPrice,
+            @JsonProperty("tax_code") String taxCode
+    ) {
+    }
+}
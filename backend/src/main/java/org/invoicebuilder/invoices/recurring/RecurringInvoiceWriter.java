@@ -0,0 +1,120 @@
+package org.invoicebuilder.invoices.recurring;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.invoices.domain.Invoice;
+import org.invoicebuilder.invoices.domain.InvoiceLineItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inserts generated invoices and their line items with JDBC batch statements, bypassing the
+ * persistence context. Ids are assigned here so line items can reference their invoice.
+ */
+@Component
+@RequiredArgsConstructor
+class RecurringInvoiceWriter {
+
+    private static final String INSERT_INVOICE = """
+        INSERT INTO invoices (id, invoice_number, invoice_currency, invoice_status,
+                              invoice_customer_id, invoice_sender_id, user_id, account_id,
+                              invoice_issue_date, invoice_due_date, invoice_tax_rate, invoice_discount,
+                              invoice_notes, invoice_subtotal, invoice_tax_amount, invoice_total_amount,
+                              invoice_base_currency, invoice_fx_rate, invoice_base_subtotal,
+                              invoice_base_tax_amount, invoice_base_total_amount, invoice_prices_include_tax,
+                              invoice_rule_discount, invoice_early_payment_discount,
+                              invoice_early_payment_due_date, invoice_schedule_id, invoice_schedule_period)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String INSERT_LINE_ITEM = """
+        INSERT INTO invoice_line_items (id, line_item_invoice_id, line_item_description, line_item_quantity,
+                                        line_item_unit_price, line_item_total, line_item_discount_amount,
+                                        line_item_tax_code, line_item_tax_amount)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    void insert(List<GeneratedInvoice> generated) {
+        if (generated.isEmpty()) {
+            return;
+        }
+        List<InvoiceLineItem> lineItems = new ArrayList<>();
+        for (GeneratedInvoice item : generated) {
+            item.invoice().setId(UUID.randomUUID());
+            for (InvoiceLineItem lineItem : item.invoice().getLineItems()) {
+                lineItem.setId(UUID.randomUUID());
+                lineItems.add(lineItem);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_INVOICE, generated, generated.size(), this::bindInvoice);
+        jdbcTemplate.batchUpdate(INSERT_LINE_ITEM, lineItems, lineItems.size(), this::bindLineItem);
+    }
+
+    private void bindInvoice(PreparedStatement ps, GeneratedInvoice item) throws SQLException {
+        Invoice invoice = item.invoice();
+        ps.setObject(1, invoice.getId());
+        ps.setString(2, invoice.getInvoiceNumber());
+        ps.setString(3, invoice.getCurrency());
+        ps.setString(4, invoice.getStatus().name());
+        ps.setObject(5, item.customerId());
+        ps.setObject(6, item.senderId());
+        ps.setObject(7, item.userId());
+        ps.setObject(8, item.accountId());
+        setDate(ps, 9, invoice.getIssueDate());
+        setDate(ps, 10, invoice.getDueDate());
+        ps.setBigDecimal(11, invoice.getTaxRate());
+        ps.setBigDecimal(12, invoice.getDiscount());
+        ps.setString(13, invoice.getNotes());
+        ps.setBigDecimal(14, invoice.getSubtotal());
+        ps.setBigDecimal(15, invoice.getTaxAmount());
+        ps.setBigDecimal(16, invoice.getTotalAmount());
+        ps.setString(17, invoice.getBaseCurrency());
+        ps.setBigDecimal(18, invoice.getFxRate());
+        ps.setBigDecimal(19, invoice.getBaseSubtotal());
+        ps.setBigDecimal(20, invoice.getBaseTaxAmount());
+        ps.setBigDecimal(21, invoice.getBaseTotalAmount());
+        ps.setBoolean(22, invoice.isPricesIncludeTax());
+        ps.setBigDecimal(23, invoice.getRuleDiscount());
+        ps.setBigDecimal(24, invoice.getEarlyPaymentDiscount());
+        setDate(ps, 25, invoice.getEarlyPaymentDueDate());
+        ps.setObject(26, invoice.getScheduleId());
+        setDate(ps, 27, invoice.getSchedulePeriod());
+    }
+
+    private void bindLineItem(PreparedStatement ps, InvoiceLineItem lineItem) throws SQLException {
+        ps.setObject(1, lineItem.getId());
+        ps.setObject(2, lineItem.getInvoice().getId());
+        ps.setString(3, lineItem.getDescription());
+        ps.setInt(4, lineItem.getQuantity());
+        ps.setBigDecimal(5, lineItem.getUnitPrice());
+        ps.setBigDecimal(6, lineItem.getLineTotal());
+        ps.setBigDecimal(7, lineItem.getDiscountAmount());
+        ps.setString(8, lineItem.getTaxCode());
+        ps.setBigDecimal(9, lineItem.getTaxAmount());
+    }
+
+    private static void setDate(PreparedStatement ps, int index, LocalDate date) throws SQLException {
+        if (date == null) {
+            ps.setNull(index, Types.DATE);
+        } else {
+            ps.setDate(index, Date.valueOf(date));
+        }
+    }
+
+    /**
+     * An invoice built from a schedule, with the foreign keys the entity only holds as references.
+     */
+    record GeneratedInvoice(Invoice invoice, UUID accountId, UUID userId, UUID customerId, UUID senderId) {
+    }
+}
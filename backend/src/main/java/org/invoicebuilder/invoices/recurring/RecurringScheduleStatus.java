@@ -0,0 +1,9 @@
+package org.invoicebuilder.invoices.recurring;
+
+public enum RecurringScheduleStatus {
+    ACTIVE,
+    PAUSED,
+    ENDED,
+    /** Generation failed, e.g. the template refers to a tax code that no longer exists; resume after fixing it. */
+    FAILED
+}
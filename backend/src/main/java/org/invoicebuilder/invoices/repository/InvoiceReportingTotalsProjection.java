@@ -0,0 +1,11 @@
+package org.invoicebuilder.invoices.repository;
+
+import java.math.BigDecimal;
+
+public interface InvoiceReportingTotalsProjection {
+    String getBaseCurrency();
+    Long getInvoiceCount();
+    BigDecimal getSubtotal();
+    BigDecimal getTaxAmount();
+    BigDecimal getTotalAmount();
+}
@@ -1,12 +1,19 @@
 package org.invoicebuilder.invoices.repository;
 
 import org.invoicebuilder.invoices.domain.Invoice;
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
@@ -26,6 +33,64 @@ public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
         JOIN i.customer c
         """)
     Page<InvoiceProjection> findInvoiceList(Pageable pageable);
+
+    @Query("""
+        SELECT i.id as id,
+               i.invoiceNumber as invoiceNumber,
+               c.name as customerName,
+               i.currency as currency,
+               i.totalAmount as totalAmount,
+               i.status as status,
+               i.issueDate as issueDate
+        FROM Invoice i
+        JOIN i.customer c
+        WHERE i.account.accountId = :accountId
+        """)
+    Page<InvoiceProjection> findInvoiceListByAccount(@Param("accountId") UUID accountId, Pageable pageable);
+
+    @Query("""
+        SELECT i
+        FROM Invoice i
+        WHERE i.id = :id
+          AND i.account.accountId = :accountId
+        """)
+    Optional<Invoice> findByIdAndAccountId(@Param("id") UUID id, @Param("accountId") UUID accountId);
+
+    @Query("""
+        SELECT i.baseCurrency as baseCurrency,
+               COUNT(i) as invoiceCount,
+               SUM(i.baseSubtotal) as subtotal,
+               SUM(i.baseTaxAmount) as taxAmount,
+               SUM(i.baseTotalAmount) as totalAmount
+        FROM Invoice i
+        WHERE i.account.accountId = :accountId
+          AND i.status IN (org.invoicebuilder.invoices.domain.InvoiceStatus.ISSUED,
+                           org.invoicebuilder.invoices.domain.InvoiceStatus.OVERDUE,
+                           org.invoicebuilder.invoices.domain.InvoiceStatus.PAID)
+          AND i.issueDate BETWEEN :from AND :to
+          AND i.baseCurrency IS NOT NULL
+        GROUP BY i.baseCurrency
+        """)
+    List<InvoiceReportingTotalsProjection> sumBaseTotalsByAccount(@Param("accountId") UUID accountId,
+                                                                   @Param("from") LocalDate from,
+                                                                   @Param("to") LocalDate to);
+    
+    @Query("""
+        SELECT i.id
+        FROM Invoice i
+        WHERE i.account.accountId = :accountId
+          AND i.status = :status
+        ORDER BY i.id
+        """)
+    Slice<UUID> findIdsByAccountAndStatus(@Param("accountId") UUID accountId,
+                                          @Param("status") InvoiceStatus status,
+                                          Pageable pageable);
+
+    @EntityGraph(attributePaths = {"lineItems"})
+    List<Invoice> findWithLineItemsByIdIn(Collection<UUID> ids);
+
+    @EntityGraph(attributePaths = {"customer"})
+    List<Invoice> findWithCustomerByIdIn(Collection<UUID> ids);
     
     long count();
 }
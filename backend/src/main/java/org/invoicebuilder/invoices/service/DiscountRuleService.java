@@ -0,0 +1,89 @@
+package org.invoicebuilder.invoices.service;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.exception.common.ResourceNotFoundException;
+import org.invoicebuilder.exception.invoices.InvalidDiscountRuleException;
+import org.invoicebuilder.invoices.discount.DiscountRule;
+import org.invoicebuilder.invoices.discount.DiscountRuleCache;
+import org.invoicebuilder.invoices.discount.DiscountRuleRepository;
+import org.invoicebuilder.invoices.dto.request.discount.DiscountRuleRequest;
+import org.invoicebuilder.invoices.dto.response.discount.DiscountRuleResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class DiscountRuleService {
+    private final DiscountRuleRepository discountRuleRepository;
+    private final DiscountRuleCache discountRuleCache;
+
+    public List<DiscountRuleResponse> list(UUID accountId) {
+        return discountRuleRepository.findByAccountIdOrderByPriorityAsc(accountId).stream()
+                .map(DiscountRuleResponse::from)
+                .toList();
+    }
+
+    @Transactional
+    public DiscountRuleResponse create(UUID accountId, DiscountRuleRequest request) {
+        DiscountRule rule = new DiscountRule();
+        rule.setAccountId(accountId);
+        apply(rule, request);
+        discountRuleRepository.save(rule);
+        discountRuleCache.evictAfterCommit(accountId);
+        return DiscountRuleResponse.from(rule);
+    }
+
+    @Transactional
+    public DiscountRuleResponse update(UUID accountId, UUID id, DiscountRuleRequest request) {
+        DiscountRule rule = discountRuleRepository.findByIdAndAccountId(id, accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Discount rule", "id", id));
+        apply(rule, request);
+        discountRuleRepository.save(rule);
+        discountRuleCache.evictAfterCommit(accountId);
+        return DiscountRuleResponse.from(rule);
+    }
+
+    @Transactional
+    public void delete(UUID accountId, UUID id) {
+        DiscountRule rule = discountRuleRepository.findByIdAndAccountId(id, accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Discount rule", "id", id));
+        discountRuleRepository.delete(rule);
+        discountRuleCache.evictAfterCommit(accountId);
+    }
+
+    private void apply(DiscountRule rule, DiscountRuleRequest request) {
+        switch (request.type()) {
+            case TIERED_VOLUME -> {
+                if (request.minQuantity() == null) {
+                    throw new InvalidDiscountRuleException("min_quantity is required for TIERED_VOLUME rules");
+                }
+            }
+            case PER_LINE -> {
+                if (request.lineMatch() == null || request.lineMatch().isBlank()) {
+                    throw new InvalidDiscountRuleException("line_match is required for PER_LINE rules");
+                }
+            }
+            case EARLY_PAYMENT -> {
+                if (request.days() == null) {
+                    throw new InvalidDiscountRuleException("days is required for EARLY_PAYMENT rules");
+                }
+            }
+            case PERCENTAGE -> {
+                // No extra fields
+            }
+        }
+
+        rule.setName(request.name().trim());
+        rule.setType(request.type());
+        rule.setCustomerId(request.customerId());
+        rule.setPercent(request.percent());
+        rule.setMinQuantity(request.minQuantity());
+        rule.setLineMatch(request.lineMatch() != null ? request.lineMatch().trim() : null);
+        rule.setDays(request.days());
+        rule.setPriority(request.priority() != null ? request.priority() : 0);
+        rule.setActive(request.active() == null || request.active());
+    }
+}
@@ -0,0 +1,47 @@
+package org.invoicebuilder.invoices.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocates invoice numbers from the {@code invoice_number_seq} database sequence, so numbers
+ * stay unique across restarts and nodes. Sequence gaps after rollbacks are expected.
+ */
+@Component
+@RequiredArgsConstructor
+public class InvoiceNumberAllocator {
+
+    private static final DateTimeFormatter DATE_PREFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public String next(LocalDate date) {
+        Long sequence = jdbcTemplate.queryForObject("SELECT nextval('invoice_number_seq')", Long.class);
+        return format(date, sequence);
+    }
+
+    /**
+     * Allocates {@code count} numbers in a single round trip.
+     */
+    public List<String> allocate(LocalDate date, int count) {
+        List<String> numbers = new ArrayList<>(count);
+        if (count == 0) {
+            return numbers;
+        }
+        jdbcTemplate.query("SELECT nextval('invoice_number_seq') FROM generate_series(1, ?)",
+                rs -> {
+                    numbers.add(format(date, rs.getLong(1)));
+                }, count);
+        return numbers;
+    }
+
+    private static String format(LocalDate date, long sequence) {
+        return String.format("INV-%s-%04d", date.format(DATE_PREFIX), sequence);
+    }
+}
@@ -0,0 +1,122 @@
+package org.invoicebuilder.invoices.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.events.DomainEventBus;
+import org.invoicebuilder.events.InvoiceStatusChanged;
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
+import org.invoicebuilder.notifications.event.EmailEventPublisher;
+import org.invoicebuilder.notifications.event.InvoiceOverdueEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves ISSUED invoices past their due date to OVERDUE.
+ * <p>
+ * Each chunk is one statement: a CTE picks up to {@code chunk-size} candidates through the
+ * partial index on {@code invoice_due_date WHERE invoice_status = 'ISSUED'}, locks them with
+ * {@code SKIP LOCKED} so concurrent sweeps on other nodes take different rows, and the UPDATE
+ * returns exactly the rows it changed. Reminder events for those rows go to the outbox in the
+ * same transaction, and status changes go to the domain event bus once it commits. The sweep
+ * stops when a chunk comes back short or the time budget runs out; the next run continues
+ * where it left off.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceOverdueSweeper {
+
+    private static final String MARK_OVERDUE = """
+        WITH due AS (
+            SELECT id
+            FROM invoices
+            WHERE invoice_status = 'ISSUED'
+              AND invoice_due_date < ?
+            ORDER BY invoice_due_date
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        )
+        UPDATE invoices i
+        SET invoice_status = 'OVERDUE'
+        FROM due, customers c
+        WHERE i.id = due.id
+          AND c.id = i.invoice_customer_id
+        RETURNING i.id, i.account_id, i.invoice_number, i.invoice_currency, i.invoice_total_amount,
+                  i.invoice_due_date, c.customer_email, c.customer_name
+        """;
+
+    private static final RowMapper<InvoiceOverdueEvent> EVENT_MAPPER = (rs, rowNum) -> InvoiceOverdueEvent.builder()
+            .invoiceId(rs.getObject("id", UUID.class))
+            .accountId(rs.getObject("account_id", UUID.class))
+            .invoiceNumber(rs.getString("invoice_number"))
+            .currency(rs.getString("invoice_currency"))
+            .totalAmount(rs.getBigDecimal("invoice_total_amount"))
+            .dueDate(rs.getObject("invoice_due_date", LocalDate.class))
+            .userEmail(rs.getString("customer_email"))
+            .userName(rs.getString("customer_name"))
+            .message("Invoice " + rs.getString("invoice_number") + " is overdue")
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailEventPublisher emailEventPublisher;
+    private final DomainEventBus domainEventBus;
+    private final AppProperties appProperties;
+
+    @Scheduled(cron = "${app.overdue.cron:0 */15 * * * *}")
+    public void run() {
+        if (appProperties.getOverdue().isEnabled()) {
+            sweep(LocalDate.now());
+        }
+    }
+
+    /**
+     * @return the number of invoices this call moved to OVERDUE
+     */
+    public long sweep(LocalDate today) {
+        AppProperties.Overdue settings = appProperties.getOverdue();
+        int chunkSize = settings.getChunkSize();
+        long deadline = System.nanoTime() + settings.getMaxDuration().toNanos();
+        long transitioned = 0;
+
+        while (true) {
+            List<InvoiceOverdueEvent> events = transactionTemplate.execute(status -> {
+                List<InvoiceOverdueEvent> chunk = jdbcTemplate.query(MARK_OVERDUE, EVENT_MAPPER, Date.valueOf(today), chunkSize);
+                Instant now = Instant.now();
+                for (InvoiceOverdueEvent event : chunk) {
+                    emailEventPublisher.publishEmailEvent(event);
+                    domainEventBus.publishAfterCommit(new InvoiceStatusChanged(event.getInvoiceId(), event.getAccountId(),
+                            event.getInvoiceNumber(), InvoiceStatus.ISSUED, InvoiceStatus.OVERDUE, now));
+                }
+                return chunk;
+            });
+            if (events == null || events.isEmpty()) {
+                break;
+            }
+            transitioned += events.size();
+
+            if (events.size() < chunkSize) {
+                break;
+            }
+            if (System.nanoTime() > deadline) {
+                log.info("Overdue sweep stopped at its time budget after {} invoices", transitioned);
+                break;
+            }
+        }
+
+        if (transitioned > 0) {
+            log.info("Overdue sweep moved {} invoices to OVERDUE", transitioned);
+        }
+        return transitioned;
+    }
+}
@@ -0,0 +1,94 @@
+package org.invoicebuilder.invoices.service;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.invoices.domain.Invoice;
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
+import org.invoicebuilder.invoices.repository.InvoiceRepository;
+import org.invoicebuilder.notifications.event.EmailEventPublisher;
+import org.invoicebuilder.notifications.event.InvoiceReminderEvent;
+import org.invoicebuilder.scheduling.ScheduledTask;
+import org.invoicebuilder.scheduling.ScheduledTaskHandler;
+import org.invoicebuilder.scheduling.ScheduledTaskType;
+import org.invoicebuilder.scheduling.TimingWheelScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Schedules payment reminders at the configured offsets from an invoice's due date and sends
+ * them when they fire. Reminders for invoices that were paid or cancelled in the meantime are
+ * dropped.
+ */
+@Service
+@RequiredArgsConstructor
+public class InvoiceReminderService implements ScheduledTaskHandler {
+
+    private final TimingWheelScheduler timingWheelScheduler;
+    private final InvoiceRepository invoiceRepository;
+    private final EmailEventPublisher emailEventPublisher;
+    private final AppProperties appProperties;
+
+    @Override
+    public ScheduledTaskType type() {
+        return ScheduledTaskType.PAYMENT_REMINDER;
+    }
+
+    public void scheduleReminders(Invoice invoice) {
+        AppProperties.Reminders settings = appProperties.getReminders();
+        if (!settings.isEnabled() || invoice.getDueDate() == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        for (int offset : settings.getOffsetDays()) {
+            Instant fireAt = invoice.getDueDate().plusDays(offset)
+                    .atTime(settings.getSendTime())
+                    .atZone(settings.getZone())
+                    .toInstant();
+            if (fireAt.isAfter(now)) {
+                timingWheelScheduler.schedule(ScheduledTaskType.PAYMENT_REMINDER, invoice.getId(), fireAt,
+                        Integer.toString(offset));
+            }
+        }
+    }
+
+    public void cancelReminders(UUID invoiceId) {
+        timingWheelScheduler.cancel(ScheduledTaskType.PAYMENT_REMINDER, invoiceId);
+    }
+
+    @Override
+    public void handle(List<ScheduledTask> tasks) {
+        Map<UUID, Invoice> invoices = invoiceRepository.findWithCustomerByIdIn(
+                        tasks.stream().map(ScheduledTask::referenceId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Invoice::getId, Function.identity()));
+
+        for (ScheduledTask task : tasks) {
+            Invoice invoice = invoices.get(task.referenceId());
+            if (invoice == null || !isAwaitingPayment(invoice.getStatus())) {
+                continue;
+            }
+            emailEventPublisher.publishEmailEvent(InvoiceReminderEvent.builder()
+                    .invoiceId(invoice.getId())
+                    .accountId(invoice.getAccount().getAccountId())
+                    .invoiceNumber(invoice.getInvoiceNumber())
+                    .currency(invoice.getCurrency())
+                    .totalAmount(invoice.getTotalAmount())
+                    .dueDate(invoice.getDueDate())
+                    .offsetDays(Integer.parseInt(task.payload()))
+                    .userEmail(invoice.getCustomer().getEmail())
+                    .userName(invoice.getCustomer().getName())
+                    .message("Payment reminder for invoice " + invoice.getInvoiceNumber())
+                    .build());
+        }
+    }
+
+    private static boolean isAwaitingPayment(InvoiceStatus status) {
+        return status == InvoiceStatus.ISSUED || status == InvoiceStatus.OVERDUE;
+    }
+}
@@ -0,0 +1,104 @@
+package org.invoicebuilder.invoices.service;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.common.fx.FxRateService;
+import org.invoicebuilder.events.DomainEventBus;
+import org.invoicebuilder.events.InvoiceStatusChanged;
+import org.invoicebuilder.exception.common.InvalidRequestException;
+import org.invoicebuilder.exception.common.ResourceNotFoundException;
+import org.invoicebuilder.invoices.domain.Invoice;
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
+import org.invoicebuilder.invoices.dto.response.invoice.ScheduledInvoiceSendResponse;
+import org.invoicebuilder.invoices.repository.InvoiceRepository;
+import org.invoicebuilder.notifications.event.EmailEventPublisher;
+import org.invoicebuilder.notifications.event.InvoiceIssuedEvent;
+import org.invoicebuilder.scheduling.ScheduledTask;
+import org.invoicebuilder.scheduling.ScheduledTaskHandler;
+import org.invoicebuilder.scheduling.ScheduledTaskType;
+import org.invoicebuilder.scheduling.TimingWheelScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Issues draft invoices and sends them to the customer at a chosen time.
+ */
+@Service
+@RequiredArgsConstructor
+public class InvoiceSendAtService implements ScheduledTaskHandler {
+
+    private final TimingWheelScheduler timingWheelScheduler;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceReminderService invoiceReminderService;
+    private final EmailEventPublisher emailEventPublisher;
+    private final DomainEventBus domainEventBus;
+    private final FxRateService fxRateService;
+
+    @Override
+    public ScheduledTaskType type() {
+        return ScheduledTaskType.INVOICE_SEND_AT;
+    }
+
+    /**
+     * Schedules one of the account's draft invoices to be issued and sent at {@code sendAt},
+     * replacing any earlier send time. An invoice of another account is reported as not found.
+     */
+    @Transactional
+    public ScheduledInvoiceSendResponse scheduleSend(UUID accountId, UUID invoiceId, Instant sendAt) {
+        Invoice invoice = invoiceRepository.findByIdAndAccountId(invoiceId, accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice", "id", invoiceId));
+        if (invoice.getStatus() != InvoiceStatus.DRAFT) {
+            throw new InvalidRequestException("Only draft invoices can be scheduled for sending");
+        }
+        timingWheelScheduler.cancel(ScheduledTaskType.INVOICE_SEND_AT, invoiceId);
+        timingWheelScheduler.schedule(ScheduledTaskType.INVOICE_SEND_AT, invoiceId, sendAt, null);
+        return new ScheduledInvoiceSendResponse(invoiceId, sendAt);
+    }
+
+    public void cancelSend(UUID invoiceId) {
+        timingWheelScheduler.cancel(ScheduledTaskType.INVOICE_SEND_AT, invoiceId);
+    }
+
+    @Override
+    public void handle(List<ScheduledTask> tasks) {
+        List<Invoice> invoices = invoiceRepository.findWithCustomerByIdIn(
+                tasks.stream().map(ScheduledTask::referenceId).collect(Collectors.toSet()));
+        for (Invoice invoice : invoices) {
+            if (invoice.getStatus() == InvoiceStatus.DRAFT) {
+                issue(invoice);
+                domainEventBus.publishAfterCommit(new InvoiceStatusChanged(invoice.getId(),
+                        invoice.getAccount().getAccountId(), invoice.getInvoiceNumber(),
+                        InvoiceStatus.DRAFT, InvoiceStatus.ISSUED, Instant.now()));
+            }
+        }
+    }
+
+    /**
+     * Issues the invoice now: restamps its base amounts at the issue date's rate, schedules its
+     * payment reminders and queues the email to the customer in the caller's transaction.
+     */
+    public void issue(Invoice invoice) {
+        invoice.setStatus(InvoiceStatus.ISSUED);
+        if (invoice.getIssueDate() == null) {
+            invoice.setIssueDate(LocalDate.now());
+        }
+        fxRateService.stampBaseAmounts(invoice);
+        invoiceReminderService.scheduleReminders(invoice);
+        emailEventPublisher.publishEmailEvent(InvoiceIssuedEvent.builder()
+                .invoiceId(invoice.getId())
+                .accountId(invoice.getAccount().getAccountId())
+                .invoiceNumber(invoice.getInvoiceNumber())
+                .currency(invoice.getCurrency())
+                .totalAmount(invoice.getTotalAmount())
+                .dueDate(invoice.getDueDate())
+                .userEmail(invoice.getCustomer().getEmail())
+                .userName(invoice.getCustomer().getName())
+                .message("Invoice " + invoice.getInvoiceNumber() + " has been issued")
+                .build());
+    }
+}
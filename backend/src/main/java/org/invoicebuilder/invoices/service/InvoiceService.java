@@ -1,29 +1,36 @@
 package org.invoicebuilder.invoices.service;
 
 import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.common.fx.FxRateService;
+import org.invoicebuilder.events.DomainEventBus;
+import org.invoicebuilder.events.InvoiceCreated;
+import org.invoicebuilder.events.InvoiceStatusChanged;
+import org.invoicebuilder.exception.common.InvalidRequestException;
 import org.invoicebuilder.exception.common.ResourceNotFoundException;
 import org.invoicebuilder.invoices.domain.Invoice;
 import org.invoicebuilder.invoices.domain.InvoiceLineItem;
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
 import org.invoicebuilder.invoices.dto.request.invoice.CreateInvoiceRequest;
 import org.invoicebuilder.invoices.dto.request.invoice.InvoiceLineItemRequest;
 import org.invoicebuilder.invoices.dto.response.invoice.InvoiceListResponse;
 import org.invoicebuilder.invoices.dto.response.invoice.InvoiceLineItemResponse;
+import org.invoicebuilder.invoices.dto.response.invoice.InvoiceReportingTotalsResponse;
 import org.invoicebuilder.invoices.repository.InvoiceRepository;
 import org.invoicebuilder.invoices.repository.InvoiceLineItemRepository;
 import org.invoicebuilder.invoices.repository.CustomerRepository;
 import org.invoicebuilder.invoices.repository.SenderRepository;
+import org.invoicebuilder.users.domain.Account;
+import org.invoicebuilder.users.repository.AccountRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
@@ -32,20 +39,37 @@ public class InvoiceService implements BaseService<InvoiceListResponse, CreateIn
     private final InvoiceLineItemRepository invoiceLineItemRepository;
     private final CustomerRepository customerRepository;
     private final SenderRepository senderRepository;
+    private final AccountRepository accountRepository;
+    private final FxRateService fxRateService;
+    private final InvoiceTotalsCalculator invoiceTotalsCalculator;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final InvoiceReminderService invoiceReminderService;
+    private final InvoiceSendAtService invoiceSendAtService;
+    private final DomainEventBus domainEventBus;
     
-    private final AtomicLong invoiceNumberCounter = new AtomicLong(1);
-    
-    private String generateUniqueInvoiceNumber() {
-        String datePrefix = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        long sequence = invoiceNumberCounter.getAndIncrement();
-        return String.format("INV-%s-%04d", datePrefix, sequence);
-    }
-    
+    /**
+     * Not supported: every invoice belongs to an account.
+     *
+     * @throws UnsupportedOperationException always
+     */
     @Override
-    @Transactional
     public InvoiceListResponse create(CreateInvoiceRequest createInvoiceRequest) {
-        String invoiceNumber = generateUniqueInvoiceNumber();
+        throw new UnsupportedOperationException("Invoices are created for an account; use create(accountId, request)");
+    }
+
+    /**
+     * Creates the invoice for the caller's account. The account is attached as a reference,
+     * without loading it.
+     */
+    @Transactional
+    public InvoiceListResponse create(UUID accountId, CreateInvoiceRequest createInvoiceRequest) {
+        return createInvoice(createInvoiceRequest, accountRepository.getReferenceById(accountId));
+    }
+
+    private InvoiceListResponse createInvoice(CreateInvoiceRequest createInvoiceRequest, Account account) {
+        String invoiceNumber = invoiceNumberAllocator.next(LocalDate.now());
         Invoice invoice = CreateInvoiceRequest.fromRequest(createInvoiceRequest, invoiceNumber);
+        invoice.setAccount(account);
         
         invoice.setCustomer(customerRepository.findById(createInvoiceRequest.customerId())
                 .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", createInvoiceRequest.customerId())));
@@ -55,21 +79,19 @@ public class InvoiceService implements BaseService<InvoiceListResponse, CreateIn
         
         Invoice savedInvoice = invoiceRepository.save(invoice);
         
-        BigDecimal subtotal = BigDecimal.ZERO;
+        List<InvoiceLineItem> lineItems = new ArrayList<>(createInvoiceRequest.lineItems().size());
         for (InvoiceLineItemRequest lineItemRequest : createInvoiceRequest.lineItems()) {
             InvoiceLineItem lineItem = InvoiceLineItemRequest.fromLineItemRequest(lineItemRequest);
             lineItem.setInvoice(savedInvoice);
-            invoiceLineItemRepository.save(lineItem);
-            subtotal = subtotal.add(lineItem.getLineTotal());
+            lineItems.add(lineItem);
         }
         
-        savedInvoice.setSubtotal(subtotal);
-        BigDecimal taxAmount = subtotal.multiply(createInvoiceRequest.taxRate().divide(BigDecimal.valueOf(100), RoundingMode.HALF_UP));
-        savedInvoice.setTaxAmount(taxAmount);
-        BigDecimal totalAmount = subtotal.add(taxAmount).subtract(createInvoiceRequest.discount());
-        savedInvoice.setTotalAmount(totalAmount);
+        invoiceTotalsCalculator.apply(savedInvoice, lineItems);
+        invoiceLineItemRepository.saveAll(lineItems);
         
         savedInvoice = invoiceRepository.save(savedInvoice);
+        domainEventBus.publishAfterCommit(new InvoiceCreated(savedInvoice.getId(),
+                savedInvoice.getAccount().getAccountId(), savedInvoice.getInvoiceNumber(), Instant.now()));
         
         return InvoiceListResponse.from(savedInvoice);
     }
@@ -80,6 +102,11 @@ public class InvoiceService implements BaseService<InvoiceListResponse, CreateIn
         return invoiceRepository.findInvoiceList(pageable).map(InvoiceListResponse::from);
     }
 
+    public Page<InvoiceListResponse> list(UUID accountId, Pageable pageable) {
+        pageable = pageable.getPageSize() == 0 ? Pageable.ofSize(10) : pageable;
+        return invoiceRepository.findInvoiceListByAccount(accountId, pageable).map(InvoiceListResponse::from);
+    }
+
     @Override
     public InvoiceListResponse getById(UUID id) {
         Invoice invoice = invoiceRepository.findById(id)
@@ -98,6 +125,7 @@ public class InvoiceService implements BaseService<InvoiceListResponse, CreateIn
         existingInvoice.setDueDate(createInvoiceRequest.dueDate());
         existingInvoice.setTaxRate(createInvoiceRequest.taxRate());
         existingInvoice.setDiscount(createInvoiceRequest.discount());
+        existingInvoice.setPricesIncludeTax(Boolean.TRUE.equals(createInvoiceRequest.pricesIncludeTax()));
         existingInvoice.setNotes(createInvoiceRequest.notes());
         
         if (!existingInvoice.getCustomer().getId().equals(createInvoiceRequest.customerId())) {
@@ -110,9 +138,6 @@ public class InvoiceService implements BaseService<InvoiceListResponse, CreateIn
                     .orElse(null));
         }
         
-        // Optimize line item updates - only modify what's necessary
-        BigDecimal subtotal = BigDecimal.ZERO;
-        
         // Clear existing line items and recreate them (simpler approach for now)
         // TODO: Implement diff-based optimization for better performance
         invoiceLineItemRepository.deleteAll(existingInvoice.getLineItems());
@@ -121,21 +146,50 @@ public class InvoiceService implements BaseService<InvoiceListResponse, CreateIn
         for (InvoiceLineItemRequest lineItemRequest : createInvoiceRequest.lineItems()) {
             InvoiceLineItem lineItem = InvoiceLineItemRequest.fromLineItemRequest(lineItemRequest);
             lineItem.setInvoice(existingInvoice);
-            invoiceLineItemRepository.save(lineItem);
             existingInvoice.getLineItems().add(lineItem);
-            subtotal = subtotal.add(lineItem.getLineTotal());
         }
         
-        existingInvoice.setSubtotal(subtotal);
-        BigDecimal taxAmount = subtotal.multiply(createInvoiceRequest.taxRate().divide(BigDecimal.valueOf(100), RoundingMode.HALF_UP));
-        existingInvoice.setTaxAmount(taxAmount);
-        BigDecimal totalAmount = subtotal.add(taxAmount).subtract(createInvoiceRequest.discount());
-        existingInvoice.setTotalAmount(totalAmount);
+        invoiceTotalsCalculator.apply(existingInvoice, existingInvoice.getLineItems());
+        invoiceLineItemRepository.saveAll(existingInvoice.getLineItems());
+        // Drafts get their base amounts when issued; an issued invoice counts in reporting already.
+        if (existingInvoice.getStatus() != InvoiceStatus.DRAFT) {
+            fxRateService.stampBaseAmounts(existingInvoice);
+        }
         
         Invoice updatedInvoice = invoiceRepository.save(existingInvoice);
         return InvoiceListResponse.from(updatedInvoice);
     }
 
+    /**
+     * Moves one of the account's invoices to {@code status}; an invoice of another account is
+     * reported as not found.
+     */
+    @Transactional
+    public InvoiceListResponse updateStatus(UUID accountId, UUID id, InvoiceStatus status) {
+        Invoice invoice = invoiceRepository.findByIdAndAccountId(id, accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Invoice", "id", id));
+        if (!invoice.getStatus().canTransitionTo(status)) {
+            throw new InvalidRequestException("Invoice cannot move from " + invoice.getStatus() + " to " + status);
+        }
+        InvoiceStatus previous = invoice.getStatus();
+        invoice.setStatus(status);
+        switch (status) {
+            case ISSUED -> {
+                invoiceSendAtService.cancelSend(id);
+                invoiceSendAtService.issue(invoice);
+            }
+            case PAID, CANCELLED -> {
+                invoiceSendAtService.cancelSend(id);
+                invoiceReminderService.cancelReminders(id);
+            }
+            default -> {
+            }
+        }
+        domainEventBus.publishAfterCommit(new InvoiceStatusChanged(id, invoice.getAccount().getAccountId(),
+                invoice.getInvoiceNumber(), previous, status, Instant.now()));
+        return InvoiceListResponse.from(invoiceRepository.save(invoice));
+    }
+
     @Override
     public void delete(UUID id) {
         if (!invoiceRepository.existsById(id)) {
@@ -152,4 +206,10 @@ public class InvoiceService implements BaseService<InvoiceListResponse, CreateIn
                 .map(InvoiceLineItemResponse::from)
                 .toList();
     }
+
+    public List<InvoiceReportingTotalsResponse> getReportingTotals(UUID accountId, LocalDate from, LocalDate to) {
+        return invoiceRepository.sumBaseTotalsByAccount(accountId, from, to).stream()
+                .map(InvoiceReportingTotalsResponse::from)
+                .toList();
+    }
 }
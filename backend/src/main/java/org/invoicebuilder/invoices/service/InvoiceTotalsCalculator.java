@@ -0,0 +1,116 @@
+package org.invoicebuilder.invoices.service;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.common.money.Money;
+import org.invoicebuilder.invoices.discount.CompiledDiscountRules;
+import org.invoicebuilder.invoices.discount.DiscountRuleCache;
+import org.invoicebuilder.invoices.domain.Invoice;
+import org.invoicebuilder.invoices.domain.InvoiceLineItem;
+import org.invoicebuilder.invoices.tax.TaxEngine;
+import org.invoicebuilder.invoices.tax.TaxRateCache;
+import org.invoicebuilder.invoices.tax.TaxRateTable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Computes line and invoice totals in the invoice currency's minor units and writes them
+ * back to the entities as DECIMAL(19,4) values. Discount rules are applied to each line first,
+ * then tax is computed per line by {@link TaxEngine}; single invoices and bulk recalculation
+ * go through the same path.
+ */
+@Component
+@RequiredArgsConstructor
+public class InvoiceTotalsCalculator {
+
+    /** Rounding applied when a line total (unit price x quantity) is reduced to minor units. */
+    static final RoundingMode LINE_ROUNDING = RoundingMode.HALF_UP;
+
+    /** Rounding applied when the requested discount has more precision than the currency allows. */
+    static final RoundingMode DISCOUNT_ROUNDING = RoundingMode.HALF_UP;
+
+    private final TaxRateCache taxRateCache;
+    private final DiscountRuleCache discountRuleCache;
+
+    /**
+     * Sets {@code lineTotal} (net of tax) and {@code taxAmount} on every line item and
+     * {@code subtotal}, {@code taxAmount} and {@code totalAmount} on the invoice.
+     */
+    public void apply(Invoice invoice, List<InvoiceLineItem> lineItems) {
+        apply(invoice, lineItems, new TaxEngine(taxRateCache.current()));
+    }
+
+    /**
+     * Recalculates a batch of invoices, with their line items loaded, against one rate table
+     * snapshot and one set of scratch arrays.
+     */
+    public void applyAll(List<Invoice> invoices, TaxRateTable table) {
+        TaxEngine engine = new TaxEngine(table);
+        for (Invoice invoice : invoices) {
+            apply(invoice, invoice.getLineItems(), engine);
+        }
+    }
+
+    private void apply(Invoice invoice, List<InvoiceLineItem> lineItems, TaxEngine engine) {
+        String currency = invoice.getCurrency();
+        LocalDate taxDate = invoice.getIssueDate() != null ? invoice.getIssueDate() : LocalDate.now();
+        int lineCount = lineItems.size();
+
+        CompiledDiscountRules discountRules = discountRulesFor(invoice);
+
+        long ruleDiscount = 0L;
+        engine.begin(lineCount, orZero(invoice.getTaxRate()));
+        for (int i = 0; i < lineCount; i++) {
+            InvoiceLineItem lineItem = lineItems.get(i);
+            long amount = Money.ofProduct(lineItem.getUnitPrice(), lineItem.getQuantity(), currency, LINE_ROUNDING).minorUnits();
+            long lineDiscount = discountRules.lineDiscount(amount, lineItem.getQuantity(), lineItem.getDescription());
+            lineItem.setDiscountAmount(Money.ofMinor(lineDiscount, currency).toBigDecimal());
+            ruleDiscount += lineDiscount;
+            engine.line(i, amount - lineDiscount, lineItem.getTaxCode(), taxDate);
+        }
+        engine.compute(invoice.isPricesIncludeTax());
+
+        long subtotal = 0L;
+        long taxTotal = 0L;
+        for (int i = 0; i < lineCount; i++) {
+            InvoiceLineItem lineItem = lineItems.get(i);
+            lineItem.setLineTotal(Money.ofMinor(engine.net(i), currency).toBigDecimal());
+            lineItem.setTaxAmount(Money.ofMinor(engine.tax(i), currency).toBigDecimal());
+            subtotal = Math.addExact(subtotal, engine.net(i));
+            taxTotal = Math.addExact(taxTotal, engine.tax(i));
+        }
+
+        Money subtotalMoney = Money.ofMinor(subtotal, currency);
+        Money taxAmount = Money.ofMinor(taxTotal, currency);
+        Money discount = Money.of(orZero(invoice.getDiscount()), currency, DISCOUNT_ROUNDING);
+        Money totalAmount = subtotalMoney.plus(taxAmount).minus(discount);
+
+        invoice.setSubtotal(subtotalMoney.toBigDecimal());
+        invoice.setTaxAmount(taxAmount.toBigDecimal());
+        invoice.setTotalAmount(totalAmount.toBigDecimal());
+        invoice.setRuleDiscount(Money.ofMinor(ruleDiscount, currency).toBigDecimal());
+
+        if (discountRules.hasEarlyPayment()) {
+            long earlyPaymentDiscount = discountRules.earlyPaymentDiscount(totalAmount.minorUnits());
+            invoice.setEarlyPaymentDiscount(Money.ofMinor(earlyPaymentDiscount, currency).toBigDecimal());
+            invoice.setEarlyPaymentDueDate(discountRules.earlyPaymentDueDate(taxDate));
+        } else {
+            invoice.setEarlyPaymentDiscount(null);
+            invoice.setEarlyPaymentDueDate(null);
+        }
+    }
+
+    private CompiledDiscountRules discountRulesFor(Invoice invoice) {
+        UUID accountId = invoice.getAccount() != null ? invoice.getAccount().getAccountId() : null;
+        UUID customerId = invoice.getCustomer() != null ? invoice.getCustomer().getId() : null;
+        return discountRuleCache.rulesFor(accountId, customerId);
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,66 @@
+package org.invoicebuilder.invoices.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.common.fx.FxRateService;
+import org.invoicebuilder.invoices.domain.Invoice;
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
+import org.invoicebuilder.invoices.dto.response.invoice.InvoiceRecalculationResponse;
+import org.invoicebuilder.invoices.repository.InvoiceRepository;
+import org.invoicebuilder.invoices.tax.TaxRateCache;
+import org.invoicebuilder.invoices.tax.TaxRateTable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Recalculates stored totals after tax rates change. Rates are reloaded once and the same
+ * snapshot is used for every invoice in the run.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceTotalsRecalculationService {
+
+    private static final int CHUNK_SIZE = 200;
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceTotalsCalculator invoiceTotalsCalculator;
+    private final TaxRateCache taxRateCache;
+    private final FxRateService fxRateService;
+    private final EntityManager entityManager;
+
+    @Transactional
+    public InvoiceRecalculationResponse recalculate(UUID accountId, InvoiceStatus status) {
+        TaxRateTable table = taxRateCache.reload();
+        Pageable pageable = PageRequest.of(0, CHUNK_SIZE);
+        long recalculated = 0;
+
+        Slice<UUID> ids;
+        do {
+            ids = invoiceRepository.findIdsByAccountAndStatus(accountId, status, pageable);
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Invoice> invoices = invoiceRepository.findWithLineItemsByIdIn(ids.getContent());
+            invoiceTotalsCalculator.applyAll(invoices, table);
+            if (status != InvoiceStatus.DRAFT) {
+                invoices.forEach(fxRateService::stampBaseAmounts);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            recalculated += invoices.size();
+            pageable = ids.nextPageable();
+        } while (ids.hasNext());
+
+        log.info("Recalculated totals for {} {} invoices of account {} with tax table version {}",
+                recalculated, status, accountId, table.version());
+        return new InvoiceRecalculationResponse(recalculated, table.version());
+    }
+}
@@ -0,0 +1,69 @@
+package org.invoicebuilder.invoices.service;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.exception.common.InvalidRequestException;
+import org.invoicebuilder.exception.common.ResourceNotFoundException;
+import org.invoicebuilder.invoices.dto.request.recurring.CreateRecurringInvoiceScheduleRequest;
+import org.invoicebuilder.invoices.dto.response.recurring.RecurringInvoiceScheduleResponse;
+import org.invoicebuilder.invoices.recurring.RecurringInvoiceSchedule;
+import org.invoicebuilder.invoices.recurring.RecurringInvoiceScheduleRepository;
+import org.invoicebuilder.invoices.recurring.RecurringScheduleStatus;
+import org.invoicebuilder.invoices.repository.CustomerRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class RecurringInvoiceScheduleService {
+    private final RecurringInvoiceScheduleRepository scheduleRepository;
+    private final CustomerRepository customerRepository;
+
+    @Transactional
+    public RecurringInvoiceScheduleResponse create(UUID accountId, CreateRecurringInvoiceScheduleRequest request) {
+        if (request.endDate() != null && request.endDate().isBefore(request.startDate())) {
+            throw new InvalidRequestException("end_date must not be before start_date");
+        }
+        if (!customerRepository.existsById(request.customerId())) {
+            throw new ResourceNotFoundException("Customer", "id", request.customerId());
+        }
+        RecurringInvoiceSchedule schedule = scheduleRepository.save(CreateRecurringInvoiceScheduleRequest.fromRequest(accountId, request));
+        return RecurringInvoiceScheduleResponse.from(schedule);
+    }
+
+    public List<RecurringInvoiceScheduleResponse> list(UUID accountId) {
+        return scheduleRepository.findByAccountIdOrderByNextRunDateAsc(accountId).stream()
+                .map(RecurringInvoiceScheduleResponse::from)
+                .toList();
+    }
+
+    @Transactional
+    public RecurringInvoiceScheduleResponse updateStatus(UUID accountId, UUID id, RecurringScheduleStatus status) {
+        RecurringInvoiceSchedule schedule = scheduleRepository.findByIdAndAccountId(id, accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurring schedule", "id", id));
+        if (schedule.getStatus() == RecurringScheduleStatus.ENDED) {
+            throw new InvalidRequestException("Schedule " + id + " has ended and cannot be changed");
+        }
+        if (status == RecurringScheduleStatus.FAILED) {
+            throw new InvalidRequestException("status: FAILED is set by invoice generation only");
+        }
+        schedule.setStatus(status);
+        schedule.setLastError(null);
+        return RecurringInvoiceScheduleResponse.from(scheduleRepository.save(schedule));
+    }
+
+    @Transactional
+    public void delete(UUID accountId, UUID id) {
+        RecurringInvoiceSchedule schedule = scheduleRepository.findByIdAndAccountId(id, accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurring schedule", "id", id));
+        if (schedule.getGeneratedCount() > 0) {
+            // Generated invoices keep referencing the schedule; end it instead of deleting it
+            schedule.setStatus(RecurringScheduleStatus.ENDED);
+            scheduleRepository.save(schedule);
+        } else {
+            scheduleRepository.delete(schedule);
+        }
+    }
+}
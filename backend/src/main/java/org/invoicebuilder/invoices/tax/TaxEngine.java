@@ -0,0 +1,168 @@
+package org.invoicebuilder.invoices.tax;
+
+import org.invoicebuilder.common.money.Money;
+import org.invoicebuilder.exception.common.InvalidRequestException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes per-line tax for one invoice at a time against a fixed {@link TaxRateTable}.
+ * <p>
+ * Lines are loaded into parallel primitive arrays (amount in minor units, tax slot) and then
+ * computed in a single pass by {@link #computeLines}. Slot 0 is always the invoice-level
+ * rate for lines without a tax code; every distinct code on the invoice gets its own slot.
+ * The scratch arrays are reused across invoices, so a recalculation job should create one
+ * engine and feed it every invoice; results are identical to computing invoices one by one.
+ * Instances are not thread-safe.
+ */
+public final class TaxEngine {
+
+    /** Rounding applied to each tax component of each line. */
+    public static final RoundingMode TAX_ROUNDING = RoundingMode.HALF_UP;
+
+    private static final int DEFAULT_SLOT = 0;
+
+    private final TaxRateTable table;
+    private final Map<String, Integer> slotsByCode = new HashMap<>();
+
+    private int lineCount;
+    private long[] amounts = new long[16];
+    private int[] lineSlots = new int[16];
+    private long[] net = new long[16];
+    private long[] tax = new long[16];
+
+    private int slotCount;
+    private int[] slotStart = new int[4];
+    private int[] slotEnd = new int[4];
+    private long[] slotEffectiveRate = new long[4];
+
+    private int componentCount;
+    private long[] componentRate = new long[8];
+    private boolean[] componentCompound = new boolean[8];
+
+    public TaxEngine(TaxRateTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Starts a new invoice. {@code defaultPercent} is the invoice tax rate applied to lines
+     * without a tax code.
+     */
+    public void begin(int lines, BigDecimal defaultPercent) {
+        lineCount = lines;
+        if (amounts.length < lines) {
+            int capacity = Math.max(lines, amounts.length * 2);
+            amounts = new long[capacity];
+            lineSlots = new int[capacity];
+            net = new long[capacity];
+            tax = new long[capacity];
+        }
+        slotsByCode.clear();
+        slotCount = 0;
+        componentCount = 0;
+
+        long rate = TaxRateTable.toRate(defaultPercent);
+        addComponent(rate, false);
+        addSlot(0, 1, rate);
+    }
+
+    /**
+     * Registers line {@code index}. A null or blank tax code uses the invoice-level rate.
+     *
+     * @throws InvalidRequestException if the code has no rate in effect on {@code taxDate}
+     */
+    public void line(int index, long amountMinor, String taxCode, LocalDate taxDate) {
+        amounts[index] = amountMinor;
+        lineSlots[index] = taxCode == null || taxCode.isBlank() ? DEFAULT_SLOT : slotFor(taxCode, taxDate);
+    }
+
+    /**
+     * Computes every registered line. For exclusive pricing the line amount is the net amount;
+     * for inclusive pricing it is the gross amount and the tax is backed out of it.
+     */
+    public void compute(boolean pricesIncludeTax) {
+        computeLines(lineCount, amounts, lineSlots, slotStart, slotEnd, slotEffectiveRate,
+                componentRate, componentCompound, pricesIncludeTax, net, tax);
+    }
+
+    public long net(int index) {
+        return net[index];
+    }
+
+    public long tax(int index) {
+        return tax[index];
+    }
+
+    public long tableVersion() {
+        return table.version();
+    }
+
+    static void computeLines(int count, long[] amounts, int[] lineSlots,
+                             int[] slotStart, int[] slotEnd, long[] slotEffectiveRate,
+                             long[] componentRate, boolean[] componentCompound,
+                             boolean pricesIncludeTax, long[] netOut, long[] taxOut) {
+        long one = TaxRateTable.RATE_ONE;
+        for (int i = 0; i < count; i++) {
+            int slot = lineSlots[i];
+            long amount = amounts[i];
+            if (pricesIncludeTax) {
+                long lineNet = Money.multiplyDivide(amount, one, one + slotEffectiveRate[slot], TAX_ROUNDING);
+                netOut[i] = lineNet;
+                taxOut[i] = amount - lineNet;
+            } else {
+                long lineTax = 0L;
+                for (int c = slotStart[slot]; c < slotEnd[slot]; c++) {
+                    long base = componentCompound[c] ? amount + lineTax : amount;
+                    lineTax += Money.multiplyDivide(base, componentRate[c], one, TAX_ROUNDING);
+                }
+                netOut[i] = amount;
+                taxOut[i] = lineTax;
+            }
+        }
+    }
+
+    private int slotFor(String taxCode, LocalDate taxDate) {
+        Integer slot = slotsByCode.get(taxCode);
+        if (slot != null) {
+            return slot;
+        }
+        int period = table.period(taxCode, taxDate);
+        if (period == TaxRateTable.MISSING) {
+            throw new InvalidRequestException("tax_code: no tax rate '" + taxCode + "' in effect on " + taxDate);
+        }
+        int start = componentCount;
+        for (int c = table.componentStart(period); c < table.componentEnd(period); c++) {
+            addComponent(table.componentRate(c), table.componentCompound(c));
+        }
+        int added = addSlot(start, componentCount, table.effectiveRate(period));
+        slotsByCode.put(taxCode, added);
+        return added;
+    }
+
+    private void addComponent(long rate, boolean compound) {
+        if (componentCount == componentRate.length) {
+            componentRate = Arrays.copyOf(componentRate, componentCount * 2);
+            componentCompound = Arrays.copyOf(componentCompound, componentCount * 2);
+        }
+        componentRate[componentCount] = rate;
+        componentCompound[componentCount] = compound;
+        componentCount++;
+    }
+
+    private int addSlot(int start, int end, long effectiveRate) {
+        if (slotCount == slotStart.length) {
+            slotStart = Arrays.copyOf(slotStart, slotCount * 2);
+            slotEnd = Arrays.copyOf(slotEnd, slotCount * 2);
+            slotEffectiveRate = Arrays.copyOf(slotEffectiveRate, slotCount * 2);
+        }
+        slotStart[slotCount] = start;
+        slotEnd[slotCount] = end;
+        slotEffectiveRate[slotCount] = effectiveRate;
+        return slotCount++;
+    }
+}
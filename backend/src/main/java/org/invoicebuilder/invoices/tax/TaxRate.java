@@ -0,0 +1,63 @@
+package org.invoicebuilder.invoices.tax;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One component of a tax code, effective from {@code validFrom} (inclusive) to {@code validTo}
+ * (exclusive, open-ended when null). A code with several components valid on the same date is
+ * applied in {@code priority} order; compound components are charged on the net amount plus
+ * the tax of the components before them.
+ */
+@Entity
+@Table(name = "tax_rates")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaxRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "tax_rate_id")
+    private UUID id;
+
+    @Column(name = "tax_rate_code", nullable = false, length = 32)
+    private String code;
+
+    @Column(name = "tax_rate_jurisdiction", nullable = false, length = 16)
+    private String jurisdiction;
+
+    @Column(name = "tax_rate_name", nullable = false, length = 64)
+    private String name;
+
+    @Column(name = "tax_rate_percent", nullable = false, precision = 9, scale = 6)
+    private BigDecimal percent;
+
+    @Builder.Default
+    @Column(name = "tax_rate_compound", nullable = false)
+    private boolean compound = false;
+
+    @Builder.Default
+    @Column(name = "tax_rate_priority", nullable = false)
+    private int priority = 0;
+
+    @Column(name = "tax_rate_valid_from", nullable = false)
+    private LocalDate validFrom;
+
+    @Column(name = "tax_rate_valid_to")
+    private LocalDate validTo;
+
+    @CreationTimestamp
+    @Column(name = "tax_rate_created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,43 @@
+package org.invoicebuilder.invoices.tax;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link TaxRateTable} snapshot. Every reload produces a table with a new
+ * version number; callers that must see one consistent set of rates (e.g. a recalculation
+ * job) take a snapshot with {@link #current()} and keep using it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaxRateCache {
+
+    private final TaxRateRepository taxRateRepository;
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile TaxRateTable table = TaxRateTable.empty();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Transactional(readOnly = true)
+    public TaxRateTable reload() {
+        TaxRateTable reloaded = TaxRateTable.from(taxRateRepository.findAll(), versions.incrementAndGet());
+        this.table = reloaded;
+        log.info("Loaded {} tax codes into cache (version {})", reloaded.codeCount(), reloaded.version());
+        return reloaded;
+    }
+
+    public TaxRateTable current() {
+        return table;
+    }
+}
@@ -0,0 +1,8 @@
+package org.invoicebuilder.invoices.tax;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface TaxRateRepository extends JpaRepository<TaxRate, UUID> {
+}
@@ -0,0 +1,202 @@
+package org.invoicebuilder.invoices.tax;
+
+import org.invoicebuilder.common.money.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Immutable, primitive-backed snapshot of the tax rate table.
+ * <p>
+ * Each tax code is split into periods in which its set of components does not change. A
+ * period points at a contiguous slice of the flat component arrays, already ordered by
+ * priority, and carries the combined effective rate used to back tax out of inclusive prices.
+ * Rates are fractions unscaled at {@link #RATE_SCALE} (7.25% is {@code 7_250_000}).
+ */
+public final class TaxRateTable {
+
+    /** Scale of the unscaled component and effective rates. DECIMAL(9,6) percentages fit exactly. */
+    public static final int RATE_SCALE = 8;
+
+    public static final long RATE_ONE = 100_000_000L;
+
+    /** Returned by {@link #period} when the code has no components on the date. */
+    public static final int MISSING = -1;
+
+    private static final int OPEN_END = Integer.MAX_VALUE;
+
+    private final long version;
+    private final Map<String, Integer> codeIndex;
+    private final int[] codePeriodStart;
+    private final int[] periodFromDay;
+    private final int[] periodComponentStart;
+    private final long[] periodEffectiveRate;
+    private final long[] componentRate;
+    private final boolean[] componentCompound;
+
+    private TaxRateTable(long version, Map<String, Integer> codeIndex, int[] codePeriodStart, int[] periodFromDay,
+                         int[] periodComponentStart, long[] periodEffectiveRate,
+                         long[] componentRate, boolean[] componentCompound) {
+        this.version = version;
+        this.codeIndex = codeIndex;
+        this.codePeriodStart = codePeriodStart;
+        this.periodFromDay = periodFromDay;
+        this.periodComponentStart = periodComponentStart;
+        this.periodEffectiveRate = periodEffectiveRate;
+        this.componentRate = componentRate;
+        this.componentCompound = componentCompound;
+    }
+
+    public static TaxRateTable empty() {
+        return from(List.of(), 0L);
+    }
+
+    /**
+     * Finds the period of {@code code} in effect on {@code date}.
+     *
+     * @return a period handle for the accessors below, or {@link #MISSING}
+     */
+    public int period(String code, LocalDate date) {
+        Integer index = codeIndex.get(code);
+        if (index == null) {
+            return MISSING;
+        }
+        int from = codePeriodStart[index];
+        int to = codePeriodStart[index + 1];
+        int position = Arrays.binarySearch(periodFromDay, from, to, (int) date.toEpochDay());
+        if (position < 0) {
+            position = -position - 2;
+            if (position < from) {
+                return MISSING;
+            }
+        }
+        return periodComponentStart[position] == periodComponentStart[position + 1] ? MISSING : position;
+    }
+
+    public int componentStart(int period) {
+        return periodComponentStart[period];
+    }
+
+    public int componentEnd(int period) {
+        return periodComponentStart[period + 1];
+    }
+
+    public long componentRate(int component) {
+        return componentRate[component];
+    }
+
+    public boolean componentCompound(int component) {
+        return componentCompound[component];
+    }
+
+    public long effectiveRate(int period) {
+        return periodEffectiveRate[period];
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int codeCount() {
+        return codeIndex.size();
+    }
+
+    /**
+     * Converts a percentage such as {@code 7.25} to a fraction unscaled at {@link #RATE_SCALE}.
+     */
+    public static long toRate(BigDecimal percent) {
+        return percent.movePointRight(RATE_SCALE - 2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Combined rate of a component slice: non-compound components add their rate, compound
+     * components also apply to the tax accumulated before them.
+     */
+    static long effectiveRate(long[] rates, boolean[] compound, int start, int end) {
+        long effective = 0L;
+        for (int i = start; i < end; i++) {
+            effective += compound[i]
+                    ? rates[i] + Money.multiplyDivide(rates[i], effective, RATE_ONE, RoundingMode.HALF_UP)
+                    : rates[i];
+        }
+        return effective;
+    }
+
+    public static TaxRateTable from(List<TaxRate> rates, long version) {
+        Map<String, List<TaxRate>> byCode = new HashMap<>();
+        for (TaxRate rate : rates) {
+            byCode.computeIfAbsent(rate.getCode(), code -> new ArrayList<>()).add(rate);
+        }
+
+        Map<String, Integer> codeIndex = new HashMap<>(byCode.size() * 2);
+        int[] codePeriodStart = new int[byCode.size() + 1];
+        List<Integer> periodFromDays = new ArrayList<>();
+        List<Integer> periodComponentStarts = new ArrayList<>();
+        List<Long> periodEffectiveRates = new ArrayList<>();
+        List<TaxRate> components = new ArrayList<>();
+
+        int code = 0;
+        for (Map.Entry<String, List<TaxRate>> entry : byCode.entrySet()) {
+            codeIndex.put(entry.getKey(), code);
+            codePeriodStart[code] = periodFromDays.size();
+
+            TreeSet<Integer> boundaries = new TreeSet<>();
+            for (TaxRate rate : entry.getValue()) {
+                boundaries.add(fromDay(rate));
+                if (rate.getValidTo() != null) {
+                    boundaries.add(toDay(rate));
+                }
+            }
+            for (int day : boundaries) {
+                periodFromDays.add(day);
+                periodComponentStarts.add(components.size());
+                entry.getValue().stream()
+                        .filter(rate -> fromDay(rate) <= day && day < toDay(rate))
+                        .sorted(Comparator.comparingInt(TaxRate::getPriority))
+                        .forEach(components::add);
+            }
+            code++;
+        }
+        codePeriodStart[code] = periodFromDays.size();
+
+        long[] componentRate = new long[components.size()];
+        boolean[] componentCompound = new boolean[components.size()];
+        for (int i = 0; i < components.size(); i++) {
+            componentRate[i] = toRate(components.get(i).getPercent());
+            componentCompound[i] = components.get(i).isCompound();
+        }
+
+        int periods = periodFromDays.size();
+        int[] periodFromDay = new int[periods];
+        int[] periodComponentStart = new int[periods + 1];
+        long[] periodEffectiveRate = new long[periods];
+        for (int i = 0; i < periods; i++) {
+            periodFromDay[i] = periodFromDays.get(i);
+            periodComponentStart[i] = periodComponentStarts.get(i);
+        }
+        periodComponentStart[periods] = components.size();
+        for (int i = 0; i < periods; i++) {
+            periodEffectiveRate[i] = effectiveRate(componentRate, componentCompound,
+                    periodComponentStart[i], periodComponentStart[i + 1]);
+        }
+
+        return new TaxRateTable(version, codeIndex, codePeriodStart, periodFromDay, periodComponentStart,
+                periodEffectiveRate, componentRate, componentCompound);
+    }
+
+    private static int fromDay(TaxRate rate) {
+        return (int) rate.getValidFrom().toEpochDay();
+    }
+
+    private static int toDay(TaxRate rate) {
+        return rate.getValidTo() != null ? (int) rate.getValidTo().toEpochDay() : OPEN_END;
+    }
+}
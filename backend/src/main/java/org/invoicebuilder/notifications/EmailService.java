@@ -2,43 +2,143 @@ package org.invoicebuilder.notifications;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.common.money.Money;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.delivery.EmailDeliveryPipeline;
+import org.invoicebuilder.notifications.delivery.EmailMessage;
 import org.invoicebuilder.notifications.event.EmailEvent;
+import org.invoicebuilder.notifications.event.EmailVerificationEvent;
+import org.invoicebuilder.notifications.event.InvoiceIssuedEvent;
+import org.invoicebuilder.notifications.event.InvoiceOverdueEvent;
+import org.invoicebuilder.notifications.event.InvoiceReminderEvent;
+import org.invoicebuilder.notifications.event.PasswordResetEvent;
+import org.invoicebuilder.notifications.template.EmailTemplateEngine;
+import org.invoicebuilder.notifications.template.RenderedEmail;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
-    
-    private final JavaMailSender javaMailSender;
-    
+
+    /** Used for event types that have no template of their own; renders the event message. */
+    static final String FALLBACK_TEMPLATE = "notification";
+    static final String DIGEST_TEMPLATE = "invoice-digest";
+    static final String DIGEST_EVENT_TYPE = "INVOICE_DIGEST";
+
+    /** Digest template section each event type is listed in; anything else goes to {@code other}. */
+    private static final Map<String, String> DIGEST_SECTIONS = Map.of(
+            "INVOICE_ISSUED", "issued",
+            "INVOICE_REMINDER", "reminders",
+            "INVOICE_OVERDUE", "overdue");
+
+    private final EmailDeliveryPipeline emailDeliveryPipeline;
+    private final EmailTemplateEngine emailTemplateEngine;
+    private final AppProperties appProperties;
+
     @Value("${spring.mail.username}")
     private String fromEmail;
-    
+
+    /**
+     * Renders the event and queues it for delivery.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the delivery queue stays full
+     */
     public void sendEmailEvent(EmailEvent emailEvent) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(emailEvent.getUserEmail());
-        message.setSubject(getSubjectForEventType(emailEvent.getEventType()));
-        message.setText(emailEvent.getMessage());
-        
-        try {
-            javaMailSender.send(message);
-            log.info("{} email sent to {}", emailEvent.getEventType(), emailEvent.getUserEmail());
-        } catch (Exception e) {
-            log.error("Failed to send {} email to {}", emailEvent.getEventType(), emailEvent.getUserEmail(), e);
-            throw new RuntimeException("Failed to send " + emailEvent.getEventType() + " email");
+        String template = templateName(emailEvent.getEventType());
+        Map<String, Object> model = model(emailEvent);
+        RenderedEmail rendered = emailTemplateEngine.render(
+                template,
+                emailEvent.getLocale() == null ? null : Locale.forLanguageTag(emailEvent.getLocale()),
+                model);
+        emailDeliveryPipeline.submit(EmailMessage.of(
+                        emailEvent.getEventType(),
+                        fromEmail,
+                        emailEvent.getUserEmail(),
+                        rendered.subject(),
+                        rendered.text(),
+                        rendered.html())
+                .withTemplate(template, emailEvent.getLocale(), model));
+        log.debug("{} email queued for {}", emailEvent.getEventType(), emailEvent.getUserEmail());
+    }
+
+    /**
+     * Renders several events for one recipient as a single digest email and queues it.
+     *
+     * @param locale language tag, or {@code null} for the default templates
+     * @throws java.util.concurrent.RejectedExecutionException if the delivery queue stays full
+     */
+    public void sendDigest(String recipient, String recipientName, String locale, List<EmailEvent> events) {
+        Map<String, List<Map<String, Object>>> sections = new LinkedHashMap<>();
+        for (EmailEvent event : events) {
+            sections.computeIfAbsent(DIGEST_SECTIONS.getOrDefault(event.getEventType(), "other"), key -> new ArrayList<>())
+                    .add(model(event));
         }
+        Map<String, Object> model = new HashMap<>();
+        sections.forEach((section, items) -> model.put(section, Map.of("items", items, "count", items.size())));
+        model.put("userName", recipientName);
+        model.put("count", events.size());
+        RenderedEmail rendered = emailTemplateEngine.render(
+                DIGEST_TEMPLATE, locale == null ? null : Locale.forLanguageTag(locale), model);
+        emailDeliveryPipeline.submit(EmailMessage.of(
+                        DIGEST_EVENT_TYPE, fromEmail, recipient, rendered.subject(), rendered.text(), rendered.html())
+                .withTemplate(DIGEST_TEMPLATE, locale, model));
+        log.debug("Digest of {} events queued for {}", events.size(), recipient);
     }
-    
-    private String getSubjectForEventType(String eventType) {
-        return switch (eventType) {
-            case "EMAIL_VERIFICATION" -> "Verify your email address";
-            case "PASSWORD_RESET" -> "Reset your password";
-            default -> "Invoice Builder Notification";
-        };
+
+    /**
+     * Maps {@code INVOICE_ISSUED} to the {@code invoice-issued} template.
+     */
+    private String templateName(String eventType) {
+        String name = eventType.toLowerCase(Locale.ROOT).replace('_', '-');
+        return emailTemplateEngine.hasTemplate(name) ? name : FALLBACK_TEMPLATE;
+    }
+
+    private Map<String, Object> model(EmailEvent emailEvent) {
+        String frontendUrl = appProperties.getFrontend().getUrl();
+        Map<String, Object> model = new HashMap<>();
+        model.put("userName", emailEvent.getUserName());
+        model.put("message", emailEvent.getMessage());
+        switch (emailEvent) {
+            case EmailVerificationEvent event ->
+                    model.put("verificationUrl", frontendUrl + "/verify-email?token=" + event.getVerificationToken());
+            case PasswordResetEvent event ->
+                    model.put("resetUrl", frontendUrl + "/reset-password?token=" + event.getResetToken());
+            case InvoiceIssuedEvent event ->
+                    putInvoice(model, event.getInvoiceNumber(), event.getTotalAmount(), event.getCurrency(), event.getDueDate());
+            case InvoiceOverdueEvent event ->
+                    putInvoice(model, event.getInvoiceNumber(), event.getTotalAmount(), event.getCurrency(), event.getDueDate());
+            case InvoiceReminderEvent event -> {
+                putInvoice(model, event.getInvoiceNumber(), event.getTotalAmount(), event.getCurrency(), event.getDueDate());
+                if (event.getOffsetDays() < 0) {
+                    model.put("daysUntilDue", -event.getOffsetDays());
+                } else if (event.getOffsetDays() > 0) {
+                    model.put("daysOverdue", event.getOffsetDays());
+                }
+            }
+            default -> {
+            }
+        }
+        return model;
+    }
+
+    private static void putInvoice(Map<String, Object> model, String invoiceNumber, BigDecimal totalAmount,
+                                   String currency, LocalDate dueDate) {
+        model.put("invoiceNumber", invoiceNumber);
+        model.put("dueDate", dueDate);
+        if (totalAmount != null && currency != null) {
+            model.put("amountDue", Money.of(totalAmount, currency, RoundingMode.HALF_UP).toString());
+        }
     }
 }
@@ -1,8 +1,39 @@
 package org.invoicebuilder.notifications;
 
+import org.invoicebuilder.notifications.delivery.EmailMessage;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 public interface NotificationProvider {
     
     void sendEmail(String to, String subject, String content);
     
     boolean isAvailable();
+
+    /**
+     * Name used in configuration, e.g. {@code smtp} or {@code sendgrid}.
+     */
+    String name();
+
+    /**
+     * Sends a batch of messages. Per-recipient rejections are returned; an exception means the
+     * provider could not take the batch at all. Failures that will not succeed on retry, such
+     * as malformed addresses, are reported as {@link IllegalArgumentException}.
+     *
+     * @return failures keyed by message id
+     */
+    default Map<UUID, Exception> sendBatch(List<EmailMessage> messages) {
+        Map<UUID, Exception> failures = new HashMap<>();
+        for (EmailMessage message : messages) {
+            try {
+                sendEmail(message.to(), message.subject(), message.text());
+            } catch (RuntimeException e) {
+                failures.put(message.id(), e);
+            }
+        }
+        return failures;
+    }
 }
@@ -1,30 +1,291 @@
 package org.invoicebuilder.notifications;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.delivery.EmailMessage;
+import org.invoicebuilder.notifications.template.EmailTemplateEngine;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends email through the SendGrid v3 {@code /v3/mail/send} API.
+ * <p>
+ * Messages rendered from a template that has a SendGrid dynamic template registered under
+ * {@code app.email-templates.sendgrid-template-ids} are grouped by template id and locale; each
+ * recipient becomes a personalization carrying its own {@code dynamic_template_data}, up to
+ * {@code max-personalizations} (at most 1000) per request, so a monthly invoice notice to many
+ * customers costs a handful of requests. Other messages are sent as rendered, and only those with
+ * identical sender, subject and bodies share a request. Every request of a batch is in
+ * flight at once on a shared {@link HttpClient}, which keeps its connections open between batches;
+ * the results are collected per recipient through each message's {@code message_id} custom arg.
+ */
 @Component("sendGridProvider")
-@RequiredArgsConstructor
 @Slf4j
 public class SendGridNotificationProvider implements NotificationProvider {
-    
-    @Value("${notifications.sendgrid.api-key:}")
-    private String apiKey;
-    
+
+    /** Hard limit of the v3 API. */
+    static final int MAX_PERSONALIZATIONS = 1000;
+
+    private static final String MESSAGE_ID_ARG = "message_id";
+    private static final Pattern PERSONALIZATION_FIELD = Pattern.compile("^personalizations\\.(\\d+)\\.");
+
+    private final JsonMapper jsonMapper;
+    private final String apiKey;
+    private final URI sendUri;
+    private final Duration requestTimeout;
+    private final int maxPersonalizations;
+    private final String defaultFrom;
+    private final Map<String, String> templateIds;
+    private final HttpClient httpClient;
+
+    public SendGridNotificationProvider(JsonMapper jsonMapper,
+                                        @Value("${notifications.sendgrid.api-key:}") String apiKey,
+                                        @Value("${notifications.sendgrid.base-url:https://api.sendgrid.com}") String baseUrl,
+                                        @Value("${notifications.sendgrid.request-timeout:10s}") Duration requestTimeout,
+                                        @Value("${notifications.sendgrid.max-personalizations:1000}") int maxPersonalizations,
+                                        @Value("${spring.mail.username}") String defaultFrom,
+                                        AppProperties appProperties) {
+        this.jsonMapper = jsonMapper;
+        this.apiKey = apiKey;
+        this.sendUri = URI.create(baseUrl).resolve("/v3/mail/send");
+        this.requestTimeout = requestTimeout;
+        this.maxPersonalizations = Math.clamp(maxPersonalizations, 1, MAX_PERSONALIZATIONS);
+        this.defaultFrom = defaultFrom;
+        this.templateIds = Map.copyOf(appProperties.getEmailTemplates().getSendgridTemplateIds());
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        httpClient.close();
+    }
+
     @Override
     public void sendEmail(String to, String subject, String content) {
-        if (apiKey == null || apiKey.isEmpty()) {
-            throw new RuntimeException("SendGrid API key not configured");
+        Map<UUID, Exception> failures = sendBatch(List.of(EmailMessage.of(null, defaultFrom, to, subject, content)));
+        if (!failures.isEmpty()) {
+            Exception failure = failures.values().iterator().next();
+            log.error("Failed to send email via SendGrid to {}", to, failure);
+            throw new RuntimeException("Failed to send email via SendGrid", failure);
         }
-        
-        log.info("Sending email via SendGrid to {}: {}", to, subject);
-        
+        log.info("Email sent via SendGrid to {}", to);
     }
-    
+
+    @Override
+    public Map<UUID, Exception> sendBatch(List<EmailMessage> messages) {
+        if (!isAvailable()) {
+            throw new IllegalStateException("SendGrid API key not configured");
+        }
+        Map<UUID, Exception> failures = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (Map.Entry<Template, List<EmailMessage>> group : groupByTemplate(messages).entrySet()) {
+            List<EmailMessage> recipients = group.getValue();
+            for (int start = 0; start < recipients.size(); start += maxPersonalizations) {
+                List<EmailMessage> chunk = recipients.subList(start, Math.min(recipients.size(), start + maxPersonalizations));
+                requests.add(post(group.getKey(), chunk).handle((response, error) -> {
+                    collectFailures(chunk, response, error, failures);
+                    return null;
+                }));
+            }
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+        return new HashMap<>(failures);
+    }
+
     @Override
     public boolean isAvailable() {
         return apiKey != null && !apiKey.isEmpty();
     }
+
+    @Override
+    public String name() {
+        return "sendgrid";
+    }
+
+    private Map<Template, List<EmailMessage>> groupByTemplate(List<EmailMessage> messages) {
+        Map<Template, List<EmailMessage>> groups = new LinkedHashMap<>();
+        for (EmailMessage message : messages) {
+            String from = message.from() != null ? message.from() : defaultFrom;
+            String templateId = templateId(message);
+            Template template = templateId != null
+                    ? new Template(from, templateId, message.locale(), null, null, null)
+                    : new Template(from, null, null, message.subject(), message.text(), message.html());
+            groups.computeIfAbsent(template, key -> new ArrayList<>()).add(message);
+        }
+        return groups;
+    }
+
+    /**
+     * Looks up the dynamic template for the message's template and locale the way the local
+     * templates are resolved, so a locale without a registered variant uses the default one.
+     */
+    private String templateId(EmailMessage message) {
+        if (message.template() == null || message.templateData() == null || templateIds.isEmpty()) {
+            return null;
+        }
+        Locale locale = message.locale() == null ? null : Locale.forLanguageTag(message.locale());
+        for (String candidate : EmailTemplateEngine.candidates(message.template(), locale)) {
+            String templateId = templateIds.get(candidate);
+            if (templateId != null) {
+                return templateId;
+            }
+        }
+        return null;
+    }
+
+    private CompletableFuture<HttpResponse<String>> post(Template template, List<EmailMessage> chunk) {
+        boolean dynamic = template.templateId() != null;
+        List<Personalization> personalizations = new ArrayList<>(chunk.size());
+        for (EmailMessage message : chunk) {
+            personalizations.add(new Personalization(
+                    List.of(new Address(message.to())),
+                    dynamic ? message.templateData() : null,
+                    Map.of(MESSAGE_ID_ARG, message.id().toString())));
+        }
+        SendRequest body;
+        if (dynamic) {
+            // The dynamic template supplies the subject and both bodies.
+            body = new SendRequest(personalizations, new Address(template.from()), template.templateId(), null, null);
+        } else {
+            // The API requires text/plain to come before text/html.
+            List<Content> content = template.html() == null
+                    ? List.of(new Content("text/plain", template.text()))
+                    : List.of(new Content("text/plain", template.text()), new Content("text/html", template.html()));
+            body = new SendRequest(personalizations, new Address(template.from()), null, template.subject(), content);
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder(sendUri)
+                    .timeout(requestTimeout)
+                    .header("Authorization", "Bearer " + apiKey)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(jsonMapper.writeValueAsBytes(body)))
+                    .build();
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Maps one request's outcome onto its recipients. A 400 that names specific personalizations
+     * rejects those recipients for good and leaves the rest of the chunk to be retried; any other
+     * error status or I/O failure is retryable for the whole chunk.
+     */
+    private void collectFailures(List<EmailMessage> chunk, HttpResponse<String> response, Throwable error,
+                                 Map<UUID, Exception> failures) {
+        if (error != null) {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            log.warn("SendGrid request for {} recipients failed", chunk.size(), cause);
+            IllegalStateException failure = new IllegalStateException("SendGrid request failed: " + cause.getMessage(), cause);
+            chunk.forEach(message -> failures.put(message.id(), failure));
+            return;
+        }
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            return;
+        }
+        log.warn("SendGrid responded {} for {} recipients: {}", status, chunk.size(), response.body());
+        if (status != 400) {
+            IllegalStateException failure = new IllegalStateException("SendGrid responded " + status);
+            chunk.forEach(message -> failures.put(message.id(), failure));
+            return;
+        }
+        Map<Integer, String> rejected = rejectedPersonalizations(response.body());
+        if (rejected.isEmpty()) {
+            IllegalArgumentException failure = new IllegalArgumentException("SendGrid rejected the request: " + response.body());
+            chunk.forEach(message -> failures.put(message.id(), failure));
+            return;
+        }
+        IllegalStateException collateral = new IllegalStateException("Request rejected because of other recipients");
+        for (int i = 0; i < chunk.size(); i++) {
+            String reason = rejected.get(i);
+            failures.put(chunk.get(i).id(), reason != null ? new IllegalArgumentException(reason) : collateral);
+        }
+    }
+
+    private Map<Integer, String> rejectedPersonalizations(String body) {
+        Map<Integer, String> rejected = new HashMap<>();
+        try {
+            ErrorResponse errors = jsonMapper.readValue(body, ErrorResponse.class);
+            if (errors.errors() == null) {
+                return rejected;
+            }
+            boolean requestLevel = false;
+            for (ErrorResponse.Error error : errors.errors()) {
+                Matcher matcher = error.field() == null ? null : PERSONALIZATION_FIELD.matcher(error.field());
+                if (matcher != null && matcher.find()) {
+                    rejected.put(Integer.parseInt(matcher.group(1)), error.message());
+                } else {
+                    requestLevel = true;
+                }
+            }
+            // An error outside the personalizations applies to the whole request.
+            return requestLevel ? Map.of() : rejected;
+        } catch (JacksonException e) {
+            return Map.of();
+        }
+    }
+
+    /**
+     * What the messages of one request share: a dynamic template and locale, or the rendered content.
+     */
+    private record Template(String from, String templateId, String locale, String subject, String text, String html) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record SendRequest(
+            @JsonProperty("personalizations") List<Personalization> personalizations,
+            @JsonProperty("from") Address from,
+            @JsonProperty("template_id") String templateId,
+            @JsonProperty("subject") String subject,
+            @JsonProperty("content") List<Content> content
+    ) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Personalization(
+            @JsonProperty("to") List<Address> to,
+            @JsonProperty("dynamic_template_data") Map<String, Object> dynamicTemplateData,
+            @JsonProperty("custom_args") Map<String, String> customArgs
+    ) {
+    }
+
+    record Address(@JsonProperty("email") String email) {
+    }
+
+    record Content(@JsonProperty("type") String type, @JsonProperty("value") String value) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ErrorResponse(@JsonProperty("errors") List<Error> errors) {
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        record Error(@JsonProperty("message") String message, @JsonProperty("field") String field) {
+        }
+    }
 }
@@ -1,17 +1,31 @@
 package org.invoicebuilder.notifications;
 
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.notifications.delivery.EmailMessage;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 @Component("smtpProvider")
 @RequiredArgsConstructor
 @Slf4j
 public class SmtpNotificationProvider implements NotificationProvider {
     
+    private static final String MESSAGE_ID_HEADER = "X-Invoice-Builder-Message-Id";
+
     private final JavaMailSender mailSender;
     
     @Value("${spring.mail.username}")
@@ -34,8 +48,62 @@ public class SmtpNotificationProvider implements NotificationProvider {
         }
     }
     
+    /**
+     * Sends the whole batch over one SMTP connection via {@link JavaMailSender#send(MimeMessage...)}.
+     */
+    @Override
+    public Map<UUID, Exception> sendBatch(List<EmailMessage> messages) {
+        Map<UUID, Exception> failures = new HashMap<>();
+        Map<MimeMessage, EmailMessage> byMime = new IdentityHashMap<>(messages.size());
+        for (EmailMessage message : messages) {
+            try {
+                byMime.put(toMime(message), message);
+            } catch (MessagingException e) {
+                failures.put(message.id(), new IllegalArgumentException(e.getMessage(), e));
+            }
+        }
+        if (byMime.isEmpty()) {
+            return failures;
+        }
+        try {
+            mailSender.send(byMime.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                throw e;
+            }
+            e.getFailedMessages().forEach((mime, failure) -> {
+                EmailMessage message = byMime.get(mime);
+                if (message != null) {
+                    failures.put(message.id(), failure);
+                }
+            });
+        }
+        return failures;
+    }
+
     @Override
     public boolean isAvailable() {
         return true;
     }
+
+    @Override
+    public String name() {
+        return "smtp";
+    }
+
+    private MimeMessage toMime(EmailMessage message) throws MessagingException {
+        MimeMessage mime = mailSender.createMimeMessage();
+        boolean multipart = message.html() != null;
+        MimeMessageHelper helper = new MimeMessageHelper(mime, multipart, StandardCharsets.UTF_8.name());
+        helper.setFrom(message.from() != null ? message.from() : fromEmail);
+        helper.setTo(message.to());
+        helper.setSubject(message.subject());
+        if (multipart) {
+            helper.setText(message.text(), message.html());
+        } else {
+            helper.setText(message.text());
+        }
+        mime.setHeader(MESSAGE_ID_HEADER, message.id().toString());
+        return mime;
+    }
 }
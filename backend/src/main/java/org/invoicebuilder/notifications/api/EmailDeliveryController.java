@@ -0,0 +1,67 @@
+package org.invoicebuilder.notifications.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.common.api_version.ApiVersionController;
+import org.invoicebuilder.notifications.delivery.EmailDeadLetterService;
+import org.invoicebuilder.notifications.dto.EmailDeadLetterReplayResponse;
+import org.invoicebuilder.notifications.dto.EmailDeliveryStatusResponse;
+import org.invoicebuilder.users.security.AuthenticatedPrincipal;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Email Delivery", description = "APIs for monitoring email delivery and replaying dead letters")
+@RestController
+@RequestMapping("/api/v1/notifications/email")
+@RequiredArgsConstructor
+public class EmailDeliveryController extends ApiVersionController {
+    private final EmailDeadLetterService emailDeadLetterService;
+
+    @Operation(summary = "Get email delivery status", description = "Returns the delivery queue depth and the number of dead letters awaiting replay")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = EmailDeliveryStatusResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Caller is not an owner or admin",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @GetMapping("/status")
+    public ResponseEntity<EmailDeliveryStatusResponse> getStatus(@Parameter(hidden = true) AuthenticatedPrincipal principal) {
+        requireAdmin(principal);
+        return ResponseEntity.ok(emailDeadLetterService.status());
+    }
+
+    @Operation(summary = "Replay dead letters", description = "Puts dead-lettered emails back on the delivery queue, oldest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Dead letters queued for delivery",
+                    content = @Content(schema = @Schema(implementation = EmailDeadLetterReplayResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Caller is not an owner or admin",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class))),
+            @ApiResponse(responseCode = "503", description = "Delivery queue is full",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @PostMapping("/dead-letters/replay")
+    public ResponseEntity<EmailDeadLetterReplayResponse> replayDeadLetters(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Maximum number of dead letters to replay", example = "500")
+            @RequestParam(defaultValue = "500") int limit) {
+        requireAdmin(principal);
+        return ResponseEntity.ok(new EmailDeadLetterReplayResponse(emailDeadLetterService.replay(limit)));
+    }
+
+    private static void requireAdmin(AuthenticatedPrincipal principal) {
+        if (!principal.hasRole("OWNER") && !principal.hasRole("ADMIN")) {
+            throw new AccessDeniedException("Only account owners and admins can manage email delivery");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.invoicebuilder.notifications.delivery;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.notifications.delivery.EmailDeadLetterStore.ReplayedDeadLetter;
+import org.invoicebuilder.notifications.dto.EmailDeliveryStatusResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailDeadLetterService {
+
+    private final EmailDeadLetterStore emailDeadLetterStore;
+    private final EmailDeliveryPipeline emailDeliveryPipeline;
+
+    /**
+     * Puts up to {@code limit} dead letters back on the delivery queue. The claim is committed
+     * before anything is queued, so a queued message is never replayed twice. If the queue
+     * rejects one, it and the rest of the claim are released for the next replay.
+     *
+     * @return the number of messages queued
+     * @throws RejectedExecutionException if the queue had no room for any of them
+     */
+    public int replay(int limit) {
+        List<ReplayedDeadLetter> claimed = emailDeadLetterStore.claimForReplay(limit);
+        int queued = 0;
+        try {
+            for (ReplayedDeadLetter deadLetter : claimed) {
+                emailDeliveryPipeline.submit(deadLetter.message());
+                queued++;
+            }
+        } catch (RejectedExecutionException e) {
+            emailDeadLetterStore.release(claimed.subList(queued, claimed.size()).stream()
+                    .map(ReplayedDeadLetter::deadLetterId)
+                    .toList());
+            if (queued == 0) {
+                throw e;
+            }
+            log.warn("Email queue is full; released {} dead letters for the next replay", claimed.size() - queued);
+        }
+        log.info("Replayed {} dead-lettered emails", queued);
+        return queued;
+    }
+
+    @Transactional(readOnly = true)
+    public EmailDeliveryStatusResponse status() {
+        return new EmailDeliveryStatusResponse(emailDeliveryPipeline.queueDepth(), emailDeadLetterStore.countPending());
+    }
+}
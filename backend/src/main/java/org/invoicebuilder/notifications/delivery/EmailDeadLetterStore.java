@@ -0,0 +1,108 @@
+package org.invoicebuilder.notifications.delivery;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persists emails that exhausted their retries so they can be inspected and replayed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmailDeadLetterStore {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String INSERT = """
+        INSERT INTO email_dead_letters (dead_letter_id, email_event_type, email_from, email_recipient,
+                                        email_subject, email_body, email_html, email_attempts, email_last_error)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (dead_letter_id) DO NOTHING
+        """;
+
+    private static final String CLAIM_FOR_REPLAY = """
+        WITH replay AS (
+            SELECT dead_letter_id
+            FROM email_dead_letters
+            WHERE dead_letter_replayed_at IS NULL
+            ORDER BY dead_letter_created_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        )
+        UPDATE email_dead_letters d
+        SET dead_letter_replayed_at = LOCALTIMESTAMP
+        FROM replay
+        WHERE d.dead_letter_id = replay.dead_letter_id
+        RETURNING d.dead_letter_id, d.email_event_type, d.email_from, d.email_recipient, d.email_subject, d.email_body,
+                  d.email_html
+        """;
+
+    private static final String RELEASE = """
+        UPDATE email_dead_letters
+        SET dead_letter_replayed_at = NULL
+        WHERE dead_letter_id = ANY (?)
+        """;
+
+    private static final String COUNT_PENDING = """
+        SELECT COUNT(*) FROM email_dead_letters WHERE dead_letter_replayed_at IS NULL
+        """;
+
+    // Replayed messages get a fresh id and attempt count; a second failure makes a new row. Only the
+    // rendered bodies are kept, so a replay is always sent as rendered.
+    private static final RowMapper<ReplayedDeadLetter> REPLAY_MAPPER = (rs, rowNum) -> new ReplayedDeadLetter(
+            rs.getObject("dead_letter_id", UUID.class),
+            new EmailMessage(
+                    UUID.randomUUID(),
+                    rs.getString("email_event_type"),
+                    rs.getString("email_from"),
+                    rs.getString("email_recipient"),
+                    rs.getString("email_subject"),
+                    rs.getString("email_body"),
+                    rs.getString("email_html"),
+                    null,
+                    null,
+                    null,
+                    0,
+                    Instant.now()));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void save(EmailMessage message, String error) {
+        String lastError = error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+        jdbcTemplate.update(INSERT, message.id(), message.eventType(), message.from(), message.to(),
+                message.subject(), message.text(), message.html(), message.attempts(), lastError);
+    }
+
+    /**
+     * Marks up to {@code limit} dead letters as replayed and returns them as fresh messages.
+     * The claim is a single statement, so it is committed as soon as it returns.
+     */
+    public List<ReplayedDeadLetter> claimForReplay(int limit) {
+        return jdbcTemplate.query(CLAIM_FOR_REPLAY, REPLAY_MAPPER, limit);
+    }
+
+    /**
+     * Makes claimed dead letters available for replay again, e.g. those the delivery queue had no room for.
+     */
+    public void release(Collection<UUID> deadLetterIds) {
+        if (deadLetterIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(RELEASE, statement ->
+                statement.setArray(1, statement.getConnection().createArrayOf("uuid", deadLetterIds.toArray())));
+    }
+
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject(COUNT_PENDING, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public record ReplayedDeadLetter(UUID deadLetterId, EmailMessage message) {
+    }
+}
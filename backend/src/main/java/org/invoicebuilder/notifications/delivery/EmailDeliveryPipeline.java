@@ -0,0 +1,250 @@
+package org.invoicebuilder.notifications.delivery;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.routing.NotificationRouter;
+import org.invoicebuilder.notifications.routing.ProvidersUnavailableException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers emails from a bounded in-memory queue.
+ * <p>
+ * Each worker takes up to {@code batch-size} queued messages and hands them to the
+ * {@link NotificationRouter}, which spreads them over the providers; the SMTP provider sends a
+ * whole batch over one connection and SendGrid packs it into as few API requests as possible.
+ * Messages a provider rejects are retried with exponential backoff; after {@code max-attempts}
+ * they go to {@link EmailDeadLetterStore} for replay. Messages no provider could take, because
+ * all are throttled or down, wait until the router expects capacity again and keep their attempts. A full queue pushes back on the producer: {@link #submit} waits up to {@code offer-timeout} and then throws, which
+ * leaves the outbox row pending for a later retry. Messages still queued or waiting for a retry
+ * at shutdown are written to the dead-letter store so none are dropped silently.
+ */
+@Component
+@Slf4j
+public class EmailDeliveryPipeline {
+
+    private final NotificationRouter notificationRouter;
+    private final EmailDeadLetterStore emailDeadLetterStore;
+    private final AppProperties.Email settings;
+    private final BlockingQueue<EmailMessage> queue;
+    private final Map<UUID, EmailMessage> awaitingRetry = new ConcurrentHashMap<>();
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter deferred;
+    private final Counter deadLettered;
+    private final Timer latency;
+    private final Timer batchDuration;
+
+    private volatile boolean running;
+    private final List<Thread> workers = new ArrayList<>();
+    private ScheduledExecutorService retryScheduler;
+
+    public EmailDeliveryPipeline(NotificationRouter notificationRouter,
+                                 EmailDeadLetterStore emailDeadLetterStore,
+                                 AppProperties appProperties,
+                                 MeterRegistry meterRegistry) {
+        this.notificationRouter = notificationRouter;
+        this.emailDeadLetterStore = emailDeadLetterStore;
+        this.settings = appProperties.getEmail();
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        meterRegistry.gauge("email.queue.depth", queue, BlockingQueue::size);
+        this.sent = meterRegistry.counter("email.messages", "result", "sent");
+        this.retried = meterRegistry.counter("email.messages", "result", "retried");
+        this.deferred = meterRegistry.counter("email.messages", "result", "deferred");
+        this.deadLettered = meterRegistry.counter("email.messages", "result", "dead");
+        this.latency = meterRegistry.timer("email.delivery.latency");
+        this.batchDuration = meterRegistry.timer("email.batch.duration");
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < settings.getWorkers(); i++) {
+            Thread worker = new Thread(this::runWorker, "email-sender-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (retryScheduler != null) {
+            retryScheduler.shutdownNow();
+        }
+        long deadline = System.nanoTime() + settings.getShutdownTimeout().toNanos();
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<EmailMessage> remaining = new ArrayList<>();
+        for (UUID id : awaitingRetry.keySet()) {
+            EmailMessage message = awaitingRetry.remove(id);
+            if (message != null) {
+                remaining.add(message);
+            }
+        }
+        queue.drainTo(remaining);
+        remaining.forEach(message -> deadLetter(message, "Pipeline stopped before delivery"));
+        if (!remaining.isEmpty()) {
+            log.warn("Moved {} undelivered emails to the dead-letter store on shutdown", remaining.size());
+        }
+    }
+
+    /**
+     * Queues a message, waiting up to {@code offer-timeout} for space.
+     *
+     * @throws RejectedExecutionException if the queue stays full or the pipeline is stopped
+     */
+    public void submit(EmailMessage message) {
+        if (!running) {
+            throw new RejectedExecutionException("Email pipeline is not running");
+        }
+        try {
+            if (!queue.offer(message, settings.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Email queue is full (" + queue.size() + " messages)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing email", e);
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void runWorker() {
+        List<EmailMessage> batch = new ArrayList<>(settings.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                EmailMessage first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, settings.getBatchSize() - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Email worker failed on a batch of {}", batch.size(), e);
+                batch.forEach(message -> fail(message, e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void sendBatch(List<EmailMessage> batch) {
+        long started = System.nanoTime();
+        Map<UUID, Exception> failures = notificationRouter.send(batch);
+        batchDuration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        Instant now = Instant.now();
+        for (EmailMessage message : batch) {
+            Exception failure = failures.get(message.id());
+            if (failure == null) {
+                sent.increment();
+                latency.record(Duration.between(message.enqueuedAt(), now));
+            } else if (failure instanceof ProvidersUnavailableException unavailable) {
+                defer(message, unavailable);
+            } else if (failure instanceof IllegalArgumentException) {
+                // Malformed messages will not get better on retry.
+                deadLetter(message.nextAttempt(), failure.getMessage());
+            } else {
+                fail(message, failure);
+            }
+        }
+    }
+
+    private void fail(EmailMessage message, Exception failure) {
+        EmailMessage next = message.nextAttempt();
+        if (next.attempts() >= settings.getMaxAttempts() || !running) {
+            deadLetter(next, failure.getMessage());
+            return;
+        }
+        Duration delay = backoff(next.attempts());
+        retried.increment();
+        log.warn("Email {} to {} failed (attempt {}), retrying in {}", message.id(), message.to(), next.attempts(), delay);
+        scheduleRetry(next, delay);
+    }
+
+    private void defer(EmailMessage message, ProvidersUnavailableException reason) {
+        if (!running) {
+            deadLetter(message, reason.getMessage());
+            return;
+        }
+        Duration delay = reason.getRetryAfter().compareTo(settings.getRetryBackoff()) > 0
+                ? reason.getRetryAfter()
+                : settings.getRetryBackoff();
+        deferred.increment();
+        log.debug("Email {} to {} deferred for {}: {}", message.id(), message.to(), delay, reason.getMessage());
+        scheduleRetry(message, delay);
+    }
+
+    private void scheduleRetry(EmailMessage message, Duration delay) {
+        awaitingRetry.put(message.id(), message);
+        try {
+            retryScheduler.schedule(() -> {
+                // Retries never block the scheduler thread; a full queue just waits another round.
+                if (queue.offer(message)) {
+                    awaitingRetry.remove(message.id());
+                } else {
+                    scheduleRetry(message, delay);
+                }
+            }, delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; whoever removes the entry first (this or stop()) dead-letters it.
+            if (awaitingRetry.remove(message.id()) != null) {
+                deadLetter(message, "Pipeline stopped before retry");
+            }
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = settings.getRetryBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(settings.getMaxBackoff()) > 0 ? settings.getMaxBackoff() : delay;
+    }
+
+    private void deadLetter(EmailMessage message, String error) {
+        try {
+            emailDeadLetterStore.save(message, error);
+            deadLettered.increment();
+            log.error("Email {} ({}) to {} moved to the dead-letter store after {} attempts: {}",
+                    message.id(), message.eventType(), message.to(), message.attempts(), error);
+        } catch (RuntimeException e) {
+            log.error("Could not dead-letter email {} to {}", message.id(), message.to(), e);
+        }
+    }
+}
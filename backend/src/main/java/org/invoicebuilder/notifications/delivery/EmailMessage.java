@@ -0,0 +1,50 @@
+package org.invoicebuilder.notifications.delivery;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A rendered email waiting for delivery.
+ *
+ * @param html         HTML alternative to {@code text}, or {@code null} for plain text only
+ * @param template     name of the template {@code subject}, {@code text} and {@code html} were rendered
+ *                     from, or {@code null}; lets a provider with its own copy of the template send
+ *                     {@code templateData} instead of the rendered bodies
+ * @param locale       language tag the template was rendered for, or {@code null} for the default
+ * @param templateData the model the template was rendered with
+ * @param attempts     deliveries that already failed
+ * @param enqueuedAt   when the message first entered the pipeline, for latency metrics
+ */
+public record EmailMessage(
+        UUID id,
+        String eventType,
+        String from,
+        String to,
+        String subject,
+        String text,
+        String html,
+        String template,
+        String locale,
+        Map<String, Object> templateData,
+        int attempts,
+        Instant enqueuedAt
+) {
+
+    public static EmailMessage of(String eventType, String from, String to, String subject, String text) {
+        return of(eventType, from, to, subject, text, null);
+    }
+
+    public static EmailMessage of(String eventType, String from, String to, String subject, String text, String html) {
+        return new EmailMessage(UUID.randomUUID(), eventType, from, to, subject, text, html, null, null, null, 0, Instant.now());
+    }
+
+    public EmailMessage withTemplate(String template, String locale, Map<String, Object> templateData) {
+        return new EmailMessage(id, eventType, from, to, subject, text, html, template, locale, templateData, attempts, enqueuedAt);
+    }
+
+    public EmailMessage nextAttempt() {
+        return new EmailMessage(id, eventType, from, to, subject, text, html, template, locale, templateData,
+                attempts + 1, enqueuedAt);
+    }
+}
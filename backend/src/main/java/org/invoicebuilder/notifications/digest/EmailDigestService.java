@@ -0,0 +1,171 @@
+package org.invoicebuilder.notifications.digest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.EmailService;
+import org.invoicebuilder.notifications.event.EmailEvent;
+import org.invoicebuilder.notifications.outbox.OutboxEventTypes;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Coalesces notifications per recipient so that a bulk action sends one digest instead of
+ * hundreds of emails.
+ * <p>
+ * Events of the configured {@code event-types} are buffered in the database, keyed by recipient,
+ * for {@code window} after the first one, or until {@code max-events} have collected. The buffer
+ * is written in the outbox dispatcher's transaction, so an event is either buffered or still
+ * pending in the outbox, and a restart loses nothing. Due digests are claimed one recipient per
+ * transaction with {@code FOR UPDATE SKIP LOCKED} and handed to {@link EmailService}; a digest
+ * that collected a single event is sent as that event's normal email.
+ */
+@Component
+@Slf4j
+public class EmailDigestService {
+
+    private final EmailDigestStore emailDigestStore;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final ObjectReader reader;
+    private final AppProperties.Digest settings;
+
+    private final Counter buffered;
+    private final Counter digestsSent;
+    private final DistributionSummary digestSize;
+
+    public EmailDigestService(EmailDigestStore emailDigestStore,
+                              EmailService emailService,
+                              TransactionTemplate transactionTemplate,
+                              JsonMapper jsonMapper,
+                              AppProperties appProperties,
+                              MeterRegistry meterRegistry) {
+        this.emailDigestStore = emailDigestStore;
+        this.emailService = emailService;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonMapper = jsonMapper;
+        this.reader = jsonMapper.reader().without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.settings = appProperties.getDigest();
+        this.buffered = meterRegistry.counter("email.digest.events");
+        this.digestsSent = meterRegistry.counter("email.digests");
+        this.digestSize = meterRegistry.summary("email.digest.size");
+    }
+
+    /**
+     * @return {@code true} if the event should be buffered rather than sent at once
+     */
+    public boolean accepts(EmailEvent event) {
+        return settings.isEnabled()
+                && event.getUserEmail() != null
+                && settings.getEventTypes().contains(event.getEventType());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(EmailEvent event) {
+        emailDigestStore.append(
+                event.getUserEmail().toLowerCase(Locale.ROOT),
+                event.getUserName(),
+                event.getLocale(),
+                event.getEventType(),
+                jsonMapper.writeValueAsString(event),
+                settings.getWindow(),
+                settings.getMaxEvents());
+        buffered.increment();
+    }
+
+    /**
+     * Flushing keeps running when buffering is disabled, so digests opened before stay deliverable.
+     */
+    @Scheduled(fixedDelayString = "${app.digest.poll-interval:PT5S}")
+    public void run() {
+        flushDue();
+    }
+
+    /**
+     * Sends due digests until none are left, the delivery queue is full or the time budget is spent.
+     *
+     * @return the number of digests sent
+     */
+    public int flushDue() {
+        long deadline = System.nanoTime() + settings.getMaxDuration().toNanos();
+        int flushed = 0;
+        while (System.nanoTime() < deadline) {
+            try {
+                Boolean sent = transactionTemplate.execute(status -> flushOne());
+                if (!Boolean.TRUE.equals(sent)) {
+                    break;
+                }
+                flushed++;
+            } catch (RejectedExecutionException e) {
+                log.warn("Email queue is full, leaving due digests for the next run: {}", e.getMessage());
+                break;
+            } catch (DigestFailure e) {
+                log.error("Digest for {} failed, retrying in {}", e.recipient, settings.getFailureBackoff(), e.getCause());
+                emailDigestStore.postpone(e.recipient, settings.getFailureBackoff());
+            }
+        }
+        return flushed;
+    }
+
+    private boolean flushOne() {
+        Optional<EmailDigestStore.ClaimedDigest> claimed = emailDigestStore.claimDue();
+        if (claimed.isEmpty()) {
+            return false;
+        }
+        EmailDigestStore.ClaimedDigest digest = claimed.get();
+        List<EmailEvent> events = new ArrayList<>(digest.events().size());
+        for (EmailDigestStore.DigestEvent stored : digest.events()) {
+            try {
+                events.add(reader.forType(OutboxEventTypes.classOf(stored.eventType())).readValue(stored.payload()));
+            } catch (RuntimeException e) {
+                log.error("Dropping undecodable digest event {} ({}) for {}", stored.id(), stored.eventType(),
+                        digest.recipient(), e);
+            }
+        }
+        if (events.isEmpty()) {
+            return true;
+        }
+        try {
+            if (events.size() == 1) {
+                emailService.sendEmailEvent(events.getFirst());
+            } else {
+                emailService.sendDigest(digest.recipient(), digest.recipientName(), digest.locale(), events);
+            }
+        } catch (RejectedExecutionException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new DigestFailure(digest.recipient(), e);
+        }
+        digestsSent.increment();
+        digestSize.record(events.size());
+        return true;
+    }
+
+    /**
+     * Rolls back the claim of one digest so it can be postponed on its own.
+     */
+    private static final class DigestFailure extends RuntimeException {
+
+        private final String recipient;
+
+        DigestFailure(String recipient, RuntimeException cause) {
+            super(cause);
+            this.recipient = recipient;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.invoicebuilder.notifications.digest;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to the digest buffers: one {@code email_digests} row per recipient with an open
+ * digest, and its events in {@code email_digest_events}.
+ * <p>
+ * {@link #append} upserts the recipient row before inserting the event, so the appending
+ * transaction holds the row lock and a concurrent {@link #claimDue} skips that recipient until
+ * the event is committed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmailDigestStore {
+
+    private static final String UPSERT_DIGEST = """
+        INSERT INTO email_digests (digest_recipient, digest_recipient_name, digest_locale, digest_event_count,
+                                   digest_opened_at, digest_flush_at)
+        VALUES (?, ?, ?, 1, LOCALTIMESTAMP, LOCALTIMESTAMP + make_interval(secs => ?))
+        ON CONFLICT (digest_recipient) DO UPDATE
+        SET digest_event_count = email_digests.digest_event_count + 1,
+            digest_recipient_name = COALESCE(EXCLUDED.digest_recipient_name, email_digests.digest_recipient_name),
+            digest_flush_at = CASE
+                WHEN email_digests.digest_event_count + 1 >= ? THEN LOCALTIMESTAMP
+                ELSE email_digests.digest_flush_at
+            END
+        """;
+
+    private static final String INSERT_EVENT = """
+        INSERT INTO email_digest_events (digest_recipient, digest_event_type, digest_payload)
+        VALUES (?, ?, CAST(? AS JSONB))
+        """;
+
+    private static final String CLAIM_DUE = """
+        DELETE FROM email_digests
+        WHERE digest_recipient = (
+            SELECT digest_recipient
+            FROM email_digests
+            WHERE digest_flush_at <= LOCALTIMESTAMP
+            ORDER BY digest_flush_at
+            LIMIT 1
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING digest_recipient, digest_recipient_name, digest_locale
+        """;
+
+    private static final String TAKE_EVENTS = """
+        DELETE FROM email_digest_events
+        WHERE digest_recipient = ?
+        RETURNING digest_event_id, digest_event_type, digest_payload
+        """;
+
+    private static final String POSTPONE = """
+        UPDATE email_digests
+        SET digest_flush_at = LOCALTIMESTAMP + make_interval(secs => ?)
+        WHERE digest_recipient = ?
+        """;
+
+    private static final RowMapper<DigestEvent> EVENT_MAPPER = (rs, rowNum) -> new DigestEvent(
+            rs.getLong("digest_event_id"),
+            rs.getString("digest_event_type"),
+            rs.getString("digest_payload"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds an event to the recipient's open digest, opening one that flushes after
+     * {@code window}. The digest becomes due at once when it reaches {@code maxEvents}.
+     */
+    public void append(String recipient, String recipientName, String locale, String eventType, String payload,
+                       Duration window, int maxEvents) {
+        jdbcTemplate.update(UPSERT_DIGEST, recipient, recipientName, locale, window.toSeconds(), maxEvents);
+        jdbcTemplate.update(INSERT_EVENT, recipient, eventType, payload);
+    }
+
+    /**
+     * Removes the most overdue digest and its events. Must run in a transaction; rolling it back
+     * puts the digest back.
+     */
+    public Optional<ClaimedDigest> claimDue() {
+        List<ClaimedDigest> claimed = jdbcTemplate.query(CLAIM_DUE, (rs, rowNum) -> new ClaimedDigest(
+                rs.getString("digest_recipient"),
+                rs.getString("digest_recipient_name"),
+                rs.getString("digest_locale"),
+                List.of()));
+        if (claimed.isEmpty()) {
+            return Optional.empty();
+        }
+        ClaimedDigest digest = claimed.getFirst();
+        List<DigestEvent> events = jdbcTemplate.query(TAKE_EVENTS, EVENT_MAPPER, digest.recipient()).stream()
+                .sorted(Comparator.comparingLong(DigestEvent::id))
+                .toList();
+        return Optional.of(new ClaimedDigest(digest.recipient(), digest.recipientName(), digest.locale(), events));
+    }
+
+    public void postpone(String recipient, Duration delay) {
+        jdbcTemplate.update(POSTPONE, delay.toSeconds(), recipient);
+    }
+
+    public record ClaimedDigest(String recipient, String recipientName, String locale, List<DigestEvent> events) {
+    }
+
+    public record DigestEvent(long id, String eventType, String payload) {
+    }
+}
@@ -0,0 +1,6 @@
+package org.invoicebuilder.notifications.dto;
+
+public record EmailDeadLetterReplayResponse(
+        int replayed_count
+) {
+}
@@ -0,0 +1,7 @@
+package org.invoicebuilder.notifications.dto;
+
+public record EmailDeliveryStatusResponse(
+        int queue_depth,
+        long dead_letter_count
+) {
+}
@@ -35,4 +35,14 @@ public interface EmailEvent {
      * @return The email message content
      */
     String getMessage();
+    
+    /**
+     * Gets the recipient's preferred locale as a language tag (e.g. "fr" or "fr-CA").
+     * Events without one are rendered with the default templates.
+     * 
+     * @return The language tag, or null
+     */
+    default String getLocale() {
+        return null;
+    }
 }
@@ -1,29 +1,29 @@
 package org.invoicebuilder.notifications.event;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.invoicebuilder.notifications.EmailService;
-import org.springframework.scheduling.annotation.Async;
+import org.invoicebuilder.notifications.digest.EmailDigestService;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+/**
+ * Hands events from the outbox dispatcher to the email pipeline, or to the digest buffer for
+ * event types that are coalesced per recipient. Runs synchronously so that a full delivery
+ * queue fails the outbox row, which is then retried with backoff.
+ */
 @Component
 @RequiredArgsConstructor
-@Slf4j
 public class EmailEventListener {
     
-//    private final EmailService emailService;
+    private final EmailService emailService;
+    private final EmailDigestService emailDigestService;
     
-    @Async
     @EventListener
-    public void handleEmailVerification(EmailVerificationEvent event) {
-        try {
-            log.info("Processing email verification for user: {}", event.getUserEmail());
-            log.info("Email verification sent successfully to: {}", event.getUserEmail());
-        } catch (Exception e) {
-            log.error("Failed to send verification email to: {}", event.getUserEmail(), e);
-            // TODO: implement retry logic or dead letter queue
+    public void handleEmailEvent(EmailEvent event) {
+        if (emailDigestService.accepts(event)) {
+            emailDigestService.append(event);
+        } else {
+            emailService.sendEmailEvent(event);
         }
     }
 }
-
@@ -2,23 +2,30 @@ package org.invoicebuilder.notifications.event;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
+import org.invoicebuilder.notifications.outbox.OutboxWriter;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Generic email event publisher that can publish any type of email event.
  * This provides a reusable way to send different types of email notifications
  * such as email verification, password reset, account notifications, etc.
+ * <p>
+ * Events are written to the transactional outbox rather than published directly, so they
+ * survive a crash and are never sent for a transaction that rolls back. The
+ * {@link org.invoicebuilder.notifications.outbox.OutboxDispatcher} delivers them to listeners.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class EmailEventPublisher {
     
-    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxWriter outboxWriter;
     
     /**
-     * Publishes a email event.
+     * Publishes a email event. Must be called inside the transaction that makes the change
+     * the event reports.
      * 
      * @param event The email event to publish
      */
@@ -26,6 +33,18 @@ public class EmailEventPublisher {
         log.info("Publishing email event: {} for user: {}", 
                 event.getEventType(), 
                 event.getUserEmail());
-        eventPublisher.publishEvent(event);
+        outboxWriter.append(event);
+    }
+
+    /**
+     * Publishes several email events with one batched write. Must be called inside the
+     * transaction that makes the change the events report.
+     */
+    public void publishEmailEvents(List<? extends EmailEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        log.info("Publishing {} email events of type: {}", events.size(), events.getFirst().getEventType());
+        outboxWriter.appendAll(events);
     }
 }
@@ -1,18 +1,23 @@
 package org.invoicebuilder.notifications.event;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * Event for email verification notifications.
  */
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class EmailVerificationEvent implements EmailEvent {
     private String userEmail;
     private String verificationToken;
     private String userName;
     private String message;
+    private String locale;
     
     @Override
     public String getEventType() {
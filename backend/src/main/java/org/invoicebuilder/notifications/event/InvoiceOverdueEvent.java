@@ -0,0 +1,34 @@
+package org.invoicebuilder.notifications.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Event for the payment reminder sent when an invoice becomes overdue.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceOverdueEvent implements EmailEvent {
+    private UUID invoiceId;
+    private UUID accountId;
+    private String invoiceNumber;
+    private String currency;
+    private BigDecimal totalAmount;
+    private LocalDate dueDate;
+    private String userEmail;
+    private String userName;
+    private String message;
+
+    @Override
+    public String getEventType() {
+        return "INVOICE_OVERDUE";
+    }
+}
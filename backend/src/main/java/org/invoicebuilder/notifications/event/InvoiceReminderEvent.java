@@ -0,0 +1,36 @@
+package org.invoicebuilder.notifications.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Event for a payment reminder sent at a fixed offset from the invoice due date.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceReminderEvent implements EmailEvent {
+    private UUID invoiceId;
+    private UUID accountId;
+    private String invoiceNumber;
+    private String currency;
+    private BigDecimal totalAmount;
+    private LocalDate dueDate;
+    /** Days relative to the due date; negative before it. */
+    private int offsetDays;
+    private String userEmail;
+    private String userName;
+    private String message;
+
+    @Override
+    public String getEventType() {
+        return "INVOICE_REMINDER";
+    }
+}
@@ -0,0 +1,224 @@
+package org.invoicebuilder.notifications.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.event.EmailEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains {@code outbox_events} and republishes each row to in-process listeners.
+ * <p>
+ * A batch is claimed in id order with {@code FOR UPDATE SKIP LOCKED}, so every node can run the
+ * dispatcher and each takes a disjoint batch. Rows are marked DISPATCHED in the same transaction
+ * that claimed them; a crash before commit hands the batch to the next claimant, which makes
+ * delivery at-least-once. A row whose listener throws is retried with exponential backoff and
+ * parked as DEAD after {@code max-attempts}.
+ * <p>
+ * Listeners such as the digest buffer write inside the claim transaction, so each row runs under
+ * its own savepoint. A failed write is rolled back to that savepoint before the row is marked
+ * failed; otherwise the aborted transaction would take the whole batch with it, leave the bad row
+ * at the head of the next claim and resend the rows already handed to the email pipeline.
+ * <p>
+ * A {@link RejectedExecutionException} means the email pipeline is full, not that the row is bad:
+ * the batch stops there, the rejected row and the rest of the batch stay PENDING without using
+ * up an attempt, and draining resumes on the next poll.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String CLAIM = """
+        SELECT outbox_id, outbox_event_type, outbox_payload, outbox_attempts,
+               EXTRACT(EPOCH FROM (LOCALTIMESTAMP - outbox_created_at)) * 1000 AS lag_millis
+        FROM outbox_events
+        WHERE outbox_status = 'PENDING'
+          AND outbox_available_at <= LOCALTIMESTAMP
+        ORDER BY outbox_id
+        LIMIT ?
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String MARK_DISPATCHED = """
+        UPDATE outbox_events
+        SET outbox_status = 'DISPATCHED', outbox_dispatched_at = LOCALTIMESTAMP
+        WHERE outbox_id = ANY (?)
+        """;
+
+    private static final String MARK_FAILED = """
+        UPDATE outbox_events
+        SET outbox_attempts = outbox_attempts + 1,
+            outbox_status = ?,
+            outbox_available_at = LOCALTIMESTAMP + make_interval(secs => ?),
+            outbox_last_error = ?
+        WHERE outbox_id = ?
+        """;
+
+    private static final String PURGE = """
+        DELETE FROM outbox_events
+        WHERE outbox_id IN (
+            SELECT outbox_id
+            FROM outbox_events
+            WHERE outbox_status = 'DISPATCHED'
+              AND outbox_dispatched_at < LOCALTIMESTAMP - make_interval(secs => ?)
+            LIMIT ?
+        )
+        """;
+
+    private static final RowMapper<OutboxRow> ROW_MAPPER = (rs, rowNum) -> new OutboxRow(
+            rs.getLong("outbox_id"),
+            rs.getString("outbox_event_type"),
+            rs.getString("outbox_payload"),
+            rs.getInt("outbox_attempts"),
+            rs.getLong("lag_millis"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final AppProperties appProperties;
+    private final ObjectReader reader;
+
+    private final Counter dispatched;
+    private final Counter retried;
+    private final Counter dead;
+    private final Counter deferred;
+    private final Timer batchTimer;
+    private final Timer lagTimer;
+
+    public OutboxDispatcher(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ApplicationEventPublisher applicationEventPublisher,
+                            AppProperties appProperties,
+                            JsonMapper jsonMapper,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.appProperties = appProperties;
+        // Getters such as getEventType() are serialised but have no setter to read them back.
+        this.reader = jsonMapper.reader().without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.dispatched = meterRegistry.counter("outbox.events", "result", "dispatched");
+        this.retried = meterRegistry.counter("outbox.events", "result", "retried");
+        this.dead = meterRegistry.counter("outbox.events", "result", "dead");
+        this.deferred = meterRegistry.counter("outbox.events", "result", "deferred");
+        this.batchTimer = meterRegistry.timer("outbox.batch.duration");
+        this.lagTimer = meterRegistry.timer("outbox.event.lag");
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:PT1S}")
+    public void run() {
+        if (appProperties.getOutbox().isEnabled()) {
+            drain();
+        }
+    }
+
+    /**
+     * Dispatches batches until the outbox has no due rows, the pipeline pushes back, or the time
+     * budget is spent.
+     *
+     * @return the number of rows dispatched or failed
+     */
+    public long drain() {
+        AppProperties.Outbox settings = appProperties.getOutbox();
+        long deadline = System.nanoTime() + settings.getMaxDuration().toNanos();
+        long claimed = 0;
+        while (true) {
+            int batch = dispatchBatch(settings);
+            claimed += batch;
+            if (batch < settings.getBatchSize() || System.nanoTime() > deadline) {
+                return claimed;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.purge-cron:0 30 * * * *}")
+    public void purge() {
+        AppProperties.Outbox settings = appProperties.getOutbox();
+        long retentionSeconds = settings.getRetention().toSeconds();
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE, retentionSeconds, settings.getPurgeChunkSize());
+            purged += deleted;
+        } while (deleted == settings.getPurgeChunkSize());
+        if (purged > 0) {
+            log.info("Purged {} dispatched outbox events", purged);
+        }
+    }
+
+    private int dispatchBatch(AppProperties.Outbox settings) {
+        Integer count = batchTimer.record(() -> transactionTemplate.execute(status -> {
+            List<OutboxRow> rows = jdbcTemplate.query(CLAIM, ROW_MAPPER, settings.getBatchSize());
+            List<Long> delivered = new ArrayList<>(rows.size());
+            int handled = 0;
+            for (OutboxRow row : rows) {
+                Object savepoint = status.createSavepoint();
+                try {
+                    applicationEventPublisher.publishEvent(decode(row));
+                    status.releaseSavepoint(savepoint);
+                    delivered.add(row.id());
+                    lagTimer.record(row.lagMillis(), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    status.rollbackToSavepoint(savepoint);
+                    deferred.increment(rows.size() - handled);
+                    log.debug("Email pipeline is full, leaving {} outbox events for the next poll", rows.size() - handled);
+                    break;
+                } catch (RuntimeException e) {
+                    status.rollbackToSavepoint(savepoint);
+                    markFailed(row, e, settings);
+                }
+                handled++;
+            }
+            if (!delivered.isEmpty()) {
+                jdbcTemplate.update(MARK_DISPATCHED, statement ->
+                        statement.setArray(1, statement.getConnection().createArrayOf("bigint", delivered.toArray())));
+                dispatched.increment(delivered.size());
+            }
+            // Fewer than claimed makes drain() stop when the pipeline pushed back.
+            return handled;
+        }));
+        return count == null ? 0 : count;
+    }
+
+    private EmailEvent decode(OutboxRow row) {
+        return reader.forType(OutboxEventTypes.classOf(row.eventType())).readValue(row.payload());
+    }
+
+    private void markFailed(OutboxRow row, RuntimeException failure, AppProperties.Outbox settings) {
+        int attempts = row.attempts() + 1;
+        boolean exhausted = attempts >= settings.getMaxAttempts();
+        long backoffSeconds = settings.getRetryBackoff().toSeconds() << Math.min(row.attempts(), 16);
+        String error = String.valueOf(failure.getMessage());
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        jdbcTemplate.update(MARK_FAILED, exhausted ? "DEAD" : "PENDING", backoffSeconds, error, row.id());
+        if (exhausted) {
+            dead.increment();
+            log.error("Outbox event {} ({}) moved to DEAD after {} attempts", row.id(), row.eventType(), attempts, failure);
+        } else {
+            retried.increment();
+            log.warn("Outbox event {} ({}) failed, retrying in {}s", row.id(), row.eventType(), backoffSeconds, failure);
+        }
+    }
+
+    record OutboxRow(long id, String eventType, String payload, int attempts, long lagMillis) {
+    }
+}
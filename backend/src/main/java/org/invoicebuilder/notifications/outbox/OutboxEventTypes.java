@@ -0,0 +1,36 @@
+package org.invoicebuilder.notifications.outbox;
+
+import org.invoicebuilder.notifications.event.EmailEvent;
+import org.invoicebuilder.notifications.event.EmailVerificationEvent;
+import org.invoicebuilder.notifications.event.InvoiceIssuedEvent;
+import org.invoicebuilder.notifications.event.InvoiceOverdueEvent;
+import org.invoicebuilder.notifications.event.InvoiceReminderEvent;
+import org.invoicebuilder.notifications.event.PasswordResetEvent;
+
+import java.util.Map;
+
+/**
+ * Event types that may be stored in the outbox or a digest buffer. Rows are decoded only into
+ * these classes, never into a class name read from the table.
+ */
+public final class OutboxEventTypes {
+
+    private static final Map<String, Class<? extends EmailEvent>> TYPES = Map.of(
+            "EMAIL_VERIFICATION", EmailVerificationEvent.class,
+            "PASSWORD_RESET", PasswordResetEvent.class,
+            "INVOICE_OVERDUE", InvoiceOverdueEvent.class,
+            "INVOICE_REMINDER", InvoiceReminderEvent.class,
+            "INVOICE_ISSUED", InvoiceIssuedEvent.class
+    );
+
+    private OutboxEventTypes() {
+    }
+
+    public static Class<? extends EmailEvent> classOf(String eventType) {
+        Class<? extends EmailEvent> type = TYPES.get(eventType);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown outbox event type: " + eventType);
+        }
+        return type;
+    }
+}
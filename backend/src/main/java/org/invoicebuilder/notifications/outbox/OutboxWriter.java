@@ -0,0 +1,47 @@
+package org.invoicebuilder.notifications.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.notifications.event.EmailEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+/**
+ * Appends events to {@code outbox_events} inside the caller's transaction, so an event is
+ * stored exactly when the change that caused it commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private static final String INSERT = """
+        INSERT INTO outbox_events (outbox_event_type, outbox_payload)
+        VALUES (?, CAST(? AS JSONB))
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(EmailEvent event) {
+        // Fail at write time rather than leave an undecodable row for the dispatcher.
+        OutboxEventTypes.classOf(event.getEventType());
+        jdbcTemplate.update(INSERT, event.getEventType(), jsonMapper.writeValueAsString(event));
+    }
+
+    /**
+     * Appends many events with one JDBC batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<? extends EmailEvent> events) {
+        events.forEach(event -> OutboxEventTypes.classOf(event.getEventType()));
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.getEventType());
+            statement.setString(2, jsonMapper.writeValueAsString(event));
+        });
+    }
+}
@@ -0,0 +1,186 @@
+package org.invoicebuilder.notifications.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.NotificationProvider;
+import org.invoicebuilder.notifications.delivery.EmailMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Spreads email batches over the configured {@link NotificationProvider}s.
+ * <p>
+ * Each provider has a token bucket sized to its quota, a consecutive-failure circuit breaker
+ * and an EWMA health score. A batch is split into slices as large as the chosen provider's
+ * available tokens, and each slice goes to a provider picked at random weighted by
+ * {@code weight * health}; the provider named by {@code notifications.email.provider} gets
+ * {@code primary-weight}. When every provider is out of tokens the caller waits for the next
+ * refill up to {@code max-wait}, so bulk sends run at the combined quota without being throttled.
+ */
+@Component
+@Slf4j
+public class NotificationRouter {
+
+    private final List<Route> routes;
+    private final AppProperties.NotificationRouting settings;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public NotificationRouter(List<NotificationProvider> providers,
+                              AppProperties appProperties,
+                              MeterRegistry meterRegistry,
+                              @Value("${notifications.email.provider:smtp}") String primaryProvider) {
+        this(providers, appProperties.getNotificationRouting(), primaryProvider, meterRegistry, System::nanoTime);
+    }
+
+    NotificationRouter(List<NotificationProvider> providers,
+                       AppProperties.NotificationRouting settings,
+                       String primaryProvider,
+                       MeterRegistry meterRegistry,
+                       LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.routes = new ArrayList<>(providers.size());
+        for (NotificationProvider provider : providers) {
+            AppProperties.NotificationRouting.ProviderLimit limit =
+                    settings.getProviders().getOrDefault(provider.name(), new AppProperties.NotificationRouting.ProviderLimit());
+            double weight = provider.name().equalsIgnoreCase(primaryProvider) ? settings.getPrimaryWeight() : 1.0;
+            Route route = new Route(provider, weight,
+                    new TokenBucket(limit.getRatePerSecond(), limit.getBurst(), nanoClock),
+                    new CircuitBreaker(settings.getFailureThreshold(), settings.getOpenDuration().toNanos(), nanoClock),
+                    new ProviderHealth(settings.getEwmaAlpha()),
+                    meterRegistry.counter("notification.provider.messages", "provider", provider.name(), "result", "sent"),
+                    meterRegistry.counter("notification.provider.messages", "provider", provider.name(), "result", "failed"));
+            meterRegistry.gauge("notification.provider.health", List.of(Tag.of("provider", provider.name())),
+                    route, r -> r.health.score());
+            meterRegistry.gauge("notification.provider.circuit.open", List.of(Tag.of("provider", provider.name())),
+                    route, r -> r.breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1);
+            routes.add(route);
+        }
+    }
+
+    /**
+     * Delivers the messages through one or more providers.
+     *
+     * @return failures keyed by message id; every other message was accepted by a provider.
+     * Messages no provider could take within {@code max-wait} fail with {@link ProvidersUnavailableException}
+     */
+    public Map<UUID, Exception> send(List<EmailMessage> messages) {
+        Map<UUID, Exception> failures = new HashMap<>();
+        long waitDeadline = nanoClock.getAsLong() + settings.getMaxWait().toNanos();
+        int offset = 0;
+        while (offset < messages.size()) {
+            Route route = choose();
+            if (route == null) {
+                long wait = nanosUntilCapacity();
+                if (wait < 0 || nanoClock.getAsLong() + wait > waitDeadline) {
+                    Exception reason = wait < 0
+                            ? new ProvidersUnavailableException("No notification provider available", settings.getOpenDuration())
+                            : new ProvidersUnavailableException("Notification providers are at their rate limits",
+                                    Duration.ofNanos(wait));
+                    messages.subList(offset, messages.size()).forEach(message -> failures.put(message.id(), reason));
+                    break;
+                }
+                LockSupport.parkNanos(Math.max(wait, Duration.ofMillis(1).toNanos()));
+                continue;
+            }
+            int granted = route.bucket.tryAcquireUpTo(messages.size() - offset);
+            if (granted == 0) {
+                continue;
+            }
+            if (!route.breaker.tryAcquire()) {
+                route.bucket.release(granted);
+                continue;
+            }
+            failures.putAll(route.deliver(messages.subList(offset, offset + granted), nanoClock));
+            offset += granted;
+        }
+        return failures;
+    }
+
+    private Route choose() {
+        double total = 0;
+        double[] weights = new double[routes.size()];
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            if (route.provider.isAvailable() && route.breaker.isCallPermitted() && route.bucket.available() >= 1) {
+                weights[i] = route.weight * route.health.score();
+                total += weights[i];
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+        double pick = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (weights[i] > 0 && pick < 0) {
+                return routes.get(i);
+            }
+        }
+        return routes.get(weights.length - 1);
+    }
+
+    /**
+     * @return nanoseconds until some usable provider has a token, or -1 if none is usable
+     */
+    private long nanosUntilCapacity() {
+        long wait = -1;
+        for (Route route : routes) {
+            if (route.provider.isAvailable() && route.breaker.isCallPermitted()) {
+                long routeWait = route.bucket.nanosUntilAvailable();
+                wait = wait < 0 ? routeWait : Math.min(wait, routeWait);
+            }
+        }
+        return wait;
+    }
+
+    private record Route(NotificationProvider provider,
+                         double weight,
+                         TokenBucket bucket,
+                         CircuitBreaker breaker,
+                         ProviderHealth health,
+                         Counter sent,
+                         Counter failed) {
+
+        Map<UUID, Exception> deliver(List<EmailMessage> slice, LongSupplier nanoClock) {
+            long started = nanoClock.getAsLong();
+            Map<UUID, Exception> failures;
+            try {
+                failures = provider.sendBatch(slice);
+            } catch (RuntimeException e) {
+                log.warn("Provider {} failed a batch of {}", provider.name(), slice.size(), e);
+                failures = new HashMap<>();
+                for (EmailMessage message : slice) {
+                    failures.put(message.id(), e);
+                }
+            }
+            int delivered = slice.size() - failures.size();
+            double latencyMillis = (nanoClock.getAsLong() - started) / 1_000_000.0 / slice.size();
+            health.record((double) delivered / slice.size(), latencyMillis);
+            // Rejected recipients alone do not trip the breaker; a call that delivers nothing does.
+            if (delivered == 0) {
+                breaker.recordFailure();
+            } else {
+                breaker.recordSuccess();
+            }
+            sent.increment(delivered);
+            failed.increment(failures.size());
+            return failures;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.invoicebuilder.notifications.routing;
+
+/**
+ * Exponentially weighted success rate and per-message latency of one provider.
+ */
+final class ProviderHealth {
+
+    private final double alpha;
+    private double successRate = 1.0;
+    private double latencyMillis;
+
+    ProviderHealth(double alpha) {
+        this.alpha = alpha;
+    }
+
+    synchronized void record(double batchSuccessRate, double perMessageLatencyMillis) {
+        successRate += alpha * (batchSuccessRate - successRate);
+        latencyMillis += alpha * (perMessageLatencyMillis - latencyMillis);
+    }
+
+    /**
+     * Score in (0, 1]: the success rate, discounted as average latency grows past a second.
+     */
+    synchronized double score() {
+        return Math.max(0.01, successRate) / (1.0 + latencyMillis / 1000.0);
+    }
+}
@@ -0,0 +1,20 @@
+package org.invoicebuilder.notifications.routing;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * No provider could take the message: all are at their rate limits, unavailable or behind an
+ * open circuit. Says nothing about the message itself, so it is retried after {@code retryAfter}
+ * without counting as a failed attempt.
+ */
+@Getter
+public class ProvidersUnavailableException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ProvidersUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
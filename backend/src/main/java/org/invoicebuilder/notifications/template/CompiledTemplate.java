@@ -0,0 +1,31 @@
+package org.invoicebuilder.notifications.template;
+
+import java.util.Map;
+
+/**
+ * A template parsed once into a render tree. Instances are immutable and shared between threads.
+ */
+public final class CompiledTemplate {
+
+    private final String name;
+    private final TemplateNode[] nodes;
+
+    CompiledTemplate(String name, TemplateNode[] nodes) {
+        this.name = name;
+        this.nodes = nodes;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Appends the rendered template to {@code out}. Missing values render as nothing.
+     */
+    public void render(Map<String, ?> model, StringBuilder out) {
+        TemplateNode.Scope scope = model::get;
+        for (TemplateNode node : nodes) {
+            node.render(scope, out);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.invoicebuilder.notifications.template;
+
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders email templates from {@code app.email-templates.location}.
+ * <p>
+ * A template {@code invoice-issued} consists of {@code invoice-issued.subject},
+ * {@code invoice-issued.txt} and optionally {@code invoice-issued.html}. Locale variants add a
+ * suffix, e.g. {@code invoice-issued_fr.txt} or {@code invoice-issued_fr_CA.txt}, and each part
+ * falls back to the nearest less specific file. Files are compiled once and cached; with
+ * {@code hot-reload} a changed file is recompiled on its next use.
+ * <p>
+ * Rendering appends into a per-thread buffer that is reused across messages, so a bulk send
+ * allocates only the resulting strings.
+ */
+@Component
+@Slf4j
+public class EmailTemplateEngine {
+
+    private static final int INITIAL_BUFFER_CHARS = 4 * 1024;
+
+    enum Part {
+        SUBJECT(".subject", false),
+        TEXT(".txt", false),
+        HTML(".html", true);
+
+        private final String extension;
+        private final boolean escapeHtml;
+
+        Part(String extension, boolean escapeHtml) {
+            this.extension = extension;
+            this.escapeHtml = escapeHtml;
+        }
+    }
+
+    private final ResourceLoader resourceLoader;
+    private final AppProperties.EmailTemplates settings;
+    private final Map<String, CachedTemplate> compiled = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringBuilder> buffer = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_CHARS));
+
+    public EmailTemplateEngine(ResourceLoader resourceLoader, AppProperties appProperties) {
+        this.resourceLoader = resourceLoader;
+        this.settings = appProperties.getEmailTemplates();
+    }
+
+    public boolean hasTemplate(String name) {
+        return lookup(name + Part.TEXT.extension, Part.TEXT) != null;
+    }
+
+    /**
+     * Renders subject, text and (if the template has one) HTML body.
+     *
+     * @param locale may be {@code null} for the default variant
+     * @throws IllegalArgumentException if the template has no subject or text part
+     */
+    public RenderedEmail render(String name, Locale locale, Map<String, ?> model) {
+        CompiledTemplate subject = resolve(name, locale, Part.SUBJECT);
+        CompiledTemplate text = resolve(name, locale, Part.TEXT);
+        if (subject == null || text == null) {
+            throw new IllegalArgumentException("Email template " + name + " needs a subject and a text part");
+        }
+        CompiledTemplate html = resolve(name, locale, Part.HTML);
+        return new RenderedEmail(
+                render(subject, model).strip(),
+                render(text, model),
+                html == null ? null : render(html, model));
+    }
+
+    private String render(CompiledTemplate template, Map<String, ?> model) {
+        StringBuilder out = buffer.get();
+        out.setLength(0);
+        template.render(model, out);
+        String rendered = out.toString();
+        if (out.capacity() > settings.getMaxRetainedBufferChars()) {
+            // One oversized message should not pin a large buffer to the thread for good.
+            buffer.set(new StringBuilder(INITIAL_BUFFER_CHARS));
+        }
+        return rendered;
+    }
+
+    private CompiledTemplate resolve(String name, Locale locale, Part part) {
+        for (String candidate : candidates(name, locale)) {
+            CompiledTemplate template = lookup(candidate + part.extension, part);
+            if (template != null) {
+                return template;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the names a template is looked up under for {@code locale}, most specific first.
+     */
+    public static List<String> candidates(String name, Locale locale) {
+        List<String> candidates = new ArrayList<>(3);
+        if (locale != null && !locale.getLanguage().isEmpty()) {
+            if (!locale.getCountry().isEmpty()) {
+                candidates.add(name + "_" + locale.getLanguage() + "_" + locale.getCountry());
+            }
+            candidates.add(name + "_" + locale.getLanguage());
+        }
+        candidates.add(name);
+        return candidates;
+    }
+
+    private CompiledTemplate lookup(String path, Part part) {
+        CachedTemplate cached = compiled.get(path);
+        if (cached != null && !settings.isHotReload()) {
+            return cached.template();
+        }
+        Resource resource = resourceLoader.getResource(settings.getLocation() + path);
+        long lastModified = lastModified(resource);
+        if (cached != null && cached.lastModified() == lastModified) {
+            return cached.template();
+        }
+        CachedTemplate loaded = new CachedTemplate(load(path, resource, part), lastModified);
+        compiled.put(path, loaded);
+        if (cached != null) {
+            log.info("Reloaded email template {}", path);
+        }
+        return loaded.template();
+    }
+
+    private static CompiledTemplate load(String path, Resource resource, Part part) {
+        if (!resource.exists()) {
+            return null;
+        }
+        try {
+            return TemplateCompiler.compile(path, resource.getContentAsString(StandardCharsets.UTF_8), part.escapeHtml);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read email template " + path, e);
+        }
+    }
+
+    private long lastModified(Resource resource) {
+        if (!settings.isHotReload()) {
+            return 0;
+        }
+        try {
+            return resource.exists() ? resource.lastModified() : -1;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @param template {@code null} when the file does not exist, so misses are cached too
+     */
+    private record CachedTemplate(CompiledTemplate template, long lastModified) {
+    }
+}
@@ -0,0 +1,9 @@
+package org.invoicebuilder.notifications.template;
+
+/**
+ * Output of {@link EmailTemplateEngine#render}.
+ *
+ * @param html {@code null} when the template has no HTML part
+ */
+public record RenderedEmail(String subject, String text, String html) {
+}
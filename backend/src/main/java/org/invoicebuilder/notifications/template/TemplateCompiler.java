@@ -0,0 +1,122 @@
+package org.invoicebuilder.notifications.template;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the Mustache-style subset used by the email templates:
+ * <ul>
+ *     <li>{@code {{name}}} - value, HTML-escaped in HTML templates</li>
+ *     <li>{@code {{{name}}}} - value, never escaped</li>
+ *     <li>{@code {{#name}}...{{/name}}} - rendered when the value is present</li>
+ *     <li>{@code {{^name}}...{{/name}}} - rendered when the value is absent</li>
+ *     <li>{@code {{! comment}}}</li>
+ * </ul>
+ * Section and comment tags that stand alone on a line remove that line from the output.
+ */
+final class TemplateCompiler {
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z][A-Za-z0-9_]*");
+
+    private TemplateCompiler() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the template is malformed
+     */
+    static CompiledTemplate compile(String name, String source, boolean escapeHtml) {
+        Deque<OpenSection> open = new ArrayDeque<>();
+        List<TemplateNode> nodes = new ArrayList<>();
+        int pos = 0;
+        while (pos < source.length()) {
+            int start = source.indexOf("{{", pos);
+            if (start < 0) {
+                addText(nodes, source.substring(pos));
+                break;
+            }
+            boolean triple = source.startsWith("{{{", start);
+            String closing = triple ? "}}}" : "}}";
+            int end = source.indexOf(closing, start);
+            if (end < 0) {
+                throw error(name, source, start, "Unclosed tag");
+            }
+            String tag = source.substring(start + (triple ? 3 : 2), end).strip();
+            if (tag.isEmpty()) {
+                throw error(name, source, start, "Empty tag");
+            }
+            int after = end + closing.length();
+            char sigil = triple ? 0 : tag.charAt(0);
+            boolean structural = sigil == '#' || sigil == '^' || sigil == '/' || sigil == '!';
+
+            int textEnd = start;
+            if (structural) {
+                int lineStart = source.lastIndexOf('\n', start - 1) + 1;
+                int lineEnd = source.indexOf('\n', after);
+                int nextLine = lineEnd < 0 ? source.length() : lineEnd + 1;
+                if (lineStart >= pos
+                        && source.substring(lineStart, start).isBlank()
+                        && source.substring(after, nextLine).isBlank()) {
+                    textEnd = lineStart;
+                    after = nextLine;
+                }
+            }
+            addText(nodes, source.substring(pos, textEnd));
+            pos = after;
+
+            switch (sigil) {
+                case '!' -> {
+                }
+                case '#', '^' -> {
+                    open.push(new OpenSection(variable(name, source, start, tag.substring(1)), sigil == '^', nodes, start));
+                    nodes = new ArrayList<>();
+                }
+                case '/' -> {
+                    String closed = variable(name, source, start, tag.substring(1));
+                    OpenSection section = open.poll();
+                    if (section == null || !section.name().equals(closed)) {
+                        throw error(name, source, start, "Unexpected {{/" + closed + "}}");
+                    }
+                    section.parent().add(new TemplateNode.Section(
+                            section.name(), section.inverted(), nodes.toArray(TemplateNode[]::new)));
+                    nodes = section.parent();
+                }
+                default -> nodes.add(new TemplateNode.Variable(variable(name, source, start, tag), escapeHtml && !triple));
+            }
+        }
+        if (!open.isEmpty()) {
+            OpenSection section = open.peek();
+            throw error(name, source, section.offset(), "Unclosed section " + section.name());
+        }
+        return new CompiledTemplate(name, nodes.toArray(TemplateNode[]::new));
+    }
+
+    private static void addText(List<TemplateNode> nodes, String text) {
+        if (!text.isEmpty()) {
+            nodes.add(new TemplateNode.Text(text));
+        }
+    }
+
+    private static String variable(String template, String source, int offset, String tag) {
+        String name = tag.strip();
+        if (!NAME.matcher(name).matches()) {
+            throw error(template, source, offset, "Invalid name '" + name + "'");
+        }
+        return name;
+    }
+
+    private static IllegalArgumentException error(String template, String source, int offset, String message) {
+        int line = 1;
+        for (int i = 0; i < offset; i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return new IllegalArgumentException(message + " in template " + template + " at line " + line);
+    }
+
+    private record OpenSection(String name, boolean inverted, List<TemplateNode> parent, int offset) {
+    }
+}
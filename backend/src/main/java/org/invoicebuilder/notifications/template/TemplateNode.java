@@ -0,0 +1,117 @@
+package org.invoicebuilder.notifications.template;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Node of a compiled template. Rendering walks the tree and appends straight into the
+ * caller's buffer.
+ */
+sealed interface TemplateNode {
+
+    void render(Scope scope, StringBuilder out);
+
+    record Text(String text) implements TemplateNode {
+
+        @Override
+        public void render(Scope scope, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    record Variable(String name, boolean escapeHtml) implements TemplateNode {
+
+        @Override
+        public void render(Scope scope, StringBuilder out) {
+            Object value = scope.lookup(name);
+            if (value == null) {
+                return;
+            }
+            CharSequence text = value instanceof CharSequence chars ? chars : String.valueOf(value);
+            if (escapeHtml) {
+                appendEscaped(text, out);
+            } else {
+                out.append(text);
+            }
+        }
+
+        private static void appendEscaped(CharSequence text, StringBuilder out) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '&' -> out.append("&amp;");
+                    case '<' -> out.append("&lt;");
+                    case '>' -> out.append("&gt;");
+                    case '"' -> out.append("&quot;");
+                    case '\'' -> out.append("&#39;");
+                    default -> out.append(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Renders its children once when the value is present and not {@code false}, empty or an
+     * empty collection; an inverted section renders them when it is not. A collection renders
+     * the children once per element. When the value or element is a map, names inside the
+     * section are looked up in it first.
+     */
+    record Section(String name, boolean inverted, TemplateNode[] children) implements TemplateNode {
+
+        @Override
+        public void render(Scope scope, StringBuilder out) {
+            Object value = scope.lookup(name);
+            if (isTruthy(value) == inverted) {
+                return;
+            }
+            if (inverted) {
+                renderChildren(scope, out);
+            } else if (value instanceof Collection<?> items) {
+                for (Object item : items) {
+                    renderChildren(scoped(item, scope), out);
+                }
+            } else {
+                renderChildren(scoped(value, scope), out);
+            }
+        }
+
+        private void renderChildren(Scope scope, StringBuilder out) {
+            for (TemplateNode child : children) {
+                child.render(scope, out);
+            }
+        }
+
+        private static Scope scoped(Object value, Scope scope) {
+            if (value instanceof Map<?, ?> local) {
+                return name -> {
+                    Object found = local.get(name);
+                    return found != null ? found : scope.lookup(name);
+                };
+            }
+            return scope;
+        }
+
+        private static boolean isTruthy(Object value) {
+            return switch (value) {
+                case null -> false;
+                case Boolean b -> b;
+                case CharSequence chars -> !chars.isEmpty();
+                case Collection<?> collection -> !collection.isEmpty();
+                default -> true;
+            };
+        }
+    }
+
+    /**
+     * Names visible while rendering: the model, with each enclosing section's map value layered
+     * over it.
+     */
+    @FunctionalInterface
+    interface Scope {
+
+        /**
+         * Returns the value bound to {@code name}, or {@code null} when there is none.
+         */
+        Object lookup(String name);
+    }
+}
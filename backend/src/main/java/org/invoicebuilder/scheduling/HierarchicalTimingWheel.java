@@ -0,0 +1,192 @@
+package org.invoicebuilder.scheduling;
+
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel with intrusive doubly linked buckets.
+ * <p>
+ * Level 0 has {@code 2^wheelBits} slots of one tick each; every higher level has the same number
+ * of slots, each spanning a whole turn of the level below. A timer is placed in the lowest level
+ * whose range covers its deadline and moves down a level each time its slot comes round, so
+ * {@link #add} and {@link #cancel} are O(1) and {@link #advanceTo} costs O(expired + cascaded).
+ * Deadlines beyond the top level wait in an overflow list. Not thread-safe; callers synchronise.
+ *
+ * @param <T> payload carried by each timer
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int wheelBits;
+    private final int mask;
+    private final int levels;
+    private final Timer<T>[][] buckets;
+    private final Timer<T> overflow = Timer.sentinel();
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelBits, int levels, long startMillis) {
+        if (wheelBits * levels >= 62) {
+            throw new IllegalArgumentException("Wheel range exceeds 2^62 ticks");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.wheelBits = wheelBits;
+        this.mask = (1 << wheelBits) - 1;
+        this.levels = levels;
+        this.buckets = new Timer[levels][1 << wheelBits];
+        for (Timer<T>[] level : buckets) {
+            for (int slot = 0; slot < level.length; slot++) {
+                level[slot] = Timer.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Schedules a payload. Deadlines in the past fire on the next tick.
+     */
+    public Timer<T> add(long deadlineMillis, T payload) {
+        Timer<T> timer = new Timer<>(payload, deadlineMillis);
+        place(timer, Math.max(tickOf(deadlineMillis), currentTick + 1));
+        size++;
+        return timer;
+    }
+
+    /**
+     * Removes a timer that has not fired yet.
+     *
+     * @return {@code false} if the timer already fired or was cancelled
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (!timer.isLinked()) {
+            return false;
+        }
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to {@code nowMillis} and appends the payloads of every timer that
+     * became due to {@code expired}.
+     */
+    public void advanceTo(long nowMillis, List<T> expired) {
+        long targetTick = tickOf(nowMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Timer<T> bucket = buckets[0][(int) (currentTick & mask)];
+            for (Timer<T> timer = bucket.next; timer != bucket; ) {
+                Timer<T> next = timer.next;
+                timer.unlink();
+                size--;
+                expired.add(timer.payload);
+                timer = next;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long currentTimeMillis() {
+        return startMillis + currentTick * tickMillis;
+    }
+
+    private void cascade() {
+        int top = 0;
+        for (int level = 1; level < levels; level++) {
+            if ((currentTick & ((1L << (wheelBits * level)) - 1)) != 0) {
+                break;
+            }
+            top = level;
+        }
+        if (top == levels - 1) {
+            reinsert(overflow);
+        }
+        for (int level = top; level >= 1; level--) {
+            reinsert(buckets[level][(int) ((currentTick >>> (wheelBits * level)) & mask)]);
+        }
+    }
+
+    private void reinsert(Timer<T> bucket) {
+        // Detach the chain first: overflow timers still out of range go back into the same list.
+        Timer<T> timer = bucket.next;
+        bucket.prev.next = null;
+        bucket.prev = bucket;
+        bucket.next = bucket;
+        while (timer != null && timer != bucket) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            place(timer, Math.max(tickOf(timer.deadlineMillis), currentTick));
+            timer = next;
+        }
+    }
+
+    private void place(Timer<T> timer, long deadlineTick) {
+        long delta = deadlineTick - currentTick;
+        for (int level = 0; level < levels; level++) {
+            if (delta < (1L << (wheelBits * (level + 1)))) {
+                buckets[level][(int) ((deadlineTick >>> (wheelBits * level)) & mask)].append(timer);
+                return;
+            }
+        }
+        overflow.append(timer);
+    }
+
+    private long tickOf(long millis) {
+        return Math.floorDiv(millis - startMillis, tickMillis);
+    }
+
+    /**
+     * A scheduled entry; doubles as its own list node so cancellation needs no lookup.
+     */
+    public static final class Timer<T> {
+        private final T payload;
+        private final long deadlineMillis;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T payload, long deadlineMillis) {
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        private static <T> Timer<T> sentinel() {
+            Timer<T> sentinel = new Timer<>(null, 0L);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public long deadlineMillis() {
+            return deadlineMillis;
+        }
+
+        private boolean isLinked() {
+            return next != null;
+        }
+
+        private void append(Timer<T> timer) {
+            timer.prev = prev;
+            timer.next = this;
+            prev.next = timer;
+            prev = timer;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
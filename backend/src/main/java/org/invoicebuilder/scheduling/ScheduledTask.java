@@ -0,0 +1,21 @@
+package org.invoicebuilder.scheduling;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A row of {@code scheduled_tasks} claimed for execution.
+ *
+ * @param referenceId the entity the task acts on, e.g. an invoice id
+ * @param payload     handler-specific detail, may be {@code null}
+ * @param attempts    executions that failed before this one
+ */
+public record ScheduledTask(
+        UUID id,
+        ScheduledTaskType type,
+        UUID referenceId,
+        Instant fireAt,
+        String payload,
+        int attempts
+) {
+}
@@ -0,0 +1,114 @@
+package org.invoicebuilder.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Claims a batch of fired task ids and hands them to the handler for their type.
+ * <p>
+ * Claim and handler run in one transaction, so a task is either FIRED with its effects
+ * committed or still PENDING. When a batch fails it is retried one task at a time to isolate
+ * the failing rows, which are then pushed back with exponential backoff.
+ */
+@Component
+@Slf4j
+public class ScheduledTaskDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final ScheduledTaskStore scheduledTaskStore;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties appProperties;
+    private final ObjectProvider<ScheduledTaskHandler> handlerProvider;
+    private volatile Map<ScheduledTaskType, ScheduledTaskHandler> handlers;
+
+    // Handlers are resolved lazily: they schedule tasks themselves, which would otherwise
+    // form a constructor cycle through TimingWheelScheduler.
+    public ScheduledTaskDispatcher(ScheduledTaskStore scheduledTaskStore,
+                                   TransactionTemplate transactionTemplate,
+                                   AppProperties appProperties,
+                                   ObjectProvider<ScheduledTaskHandler> handlerProvider) {
+        this.scheduledTaskStore = scheduledTaskStore;
+        this.transactionTemplate = transactionTemplate;
+        this.appProperties = appProperties;
+        this.handlerProvider = handlerProvider;
+    }
+
+    /**
+     * @return tasks that failed and were rescheduled, as id and new fire time
+     */
+    public Map<UUID, Instant> dispatch(List<UUID> ids) {
+        Map<UUID, Instant> retries = new HashMap<>();
+        try {
+            execute(ids);
+        } catch (RuntimeException e) {
+            if (ids.size() == 1) {
+                reschedule(ids.getFirst(), e, retries);
+            } else {
+                log.warn("Scheduled task batch of {} failed, retrying individually", ids.size(), e);
+                for (UUID id : ids) {
+                    try {
+                        execute(List.of(id));
+                    } catch (RuntimeException single) {
+                        reschedule(id, single, retries);
+                    }
+                }
+            }
+        }
+        return retries;
+    }
+
+    private void execute(List<UUID> ids) {
+        Duration tolerance = appProperties.getScheduler().getTick();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ScheduledTask> claimed = scheduledTaskStore.claim(ids, Instant.now().plus(tolerance));
+            Map<ScheduledTaskType, List<ScheduledTask>> byType = new EnumMap<>(ScheduledTaskType.class);
+            for (ScheduledTask task : claimed) {
+                byType.computeIfAbsent(task.type(), type -> new ArrayList<>()).add(task);
+            }
+            byType.forEach((type, tasks) -> handler(type).handle(tasks));
+        });
+    }
+
+    private void reschedule(UUID id, RuntimeException failure, Map<UUID, Instant> retries) {
+        AppProperties.Scheduler settings = appProperties.getScheduler();
+        String error = String.valueOf(failure.getMessage());
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        // The failed transaction rolled back the claim, so the task is PENDING with its old attempt count.
+        scheduledTaskStore.retry(id, Instant.now(), settings.getRetryBackoff(), settings.getMaxAttempts(), error)
+                .ifPresentOrElse(nextFireAt -> {
+                    retries.put(id, nextFireAt);
+                    log.warn("Scheduled task {} failed, retrying at {}", id, nextFireAt, failure);
+                }, () -> log.error("Scheduled task {} failed permanently", id, failure));
+    }
+
+    private ScheduledTaskHandler handler(ScheduledTaskType type) {
+        Map<ScheduledTaskType, ScheduledTaskHandler> resolved = handlers;
+        if (resolved == null) {
+            resolved = new EnumMap<>(ScheduledTaskType.class);
+            for (ScheduledTaskHandler handler : handlerProvider) {
+                resolved.put(handler.type(), handler);
+            }
+            handlers = resolved;
+        }
+        ScheduledTaskHandler handler = resolved.get(type);
+        if (handler == null) {
+            throw new IllegalStateException("No handler registered for scheduled task type " + type);
+        }
+        return handler;
+    }
+}
@@ -0,0 +1,14 @@
+package org.invoicebuilder.scheduling;
+
+import java.util.List;
+
+/**
+ * Executes due tasks of one type. Handlers run inside the transaction that claimed the tasks,
+ * so a thrown exception returns the whole batch to PENDING for a retry.
+ */
+public interface ScheduledTaskHandler {
+
+    ScheduledTaskType type();
+
+    void handle(List<ScheduledTask> tasks);
+}
@@ -0,0 +1,156 @@
+package org.invoicebuilder.scheduling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * JDBC access to {@code scheduled_tasks}. The table is the source of truth; the timing wheel
+ * only holds ids and deadlines for the upcoming window.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScheduledTaskStore {
+
+    private static final String INSERT = """
+        INSERT INTO scheduled_tasks (task_id, task_type, task_reference_id, task_fire_at, task_payload)
+        VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT (task_type, task_reference_id, task_fire_at) WHERE task_status = 'PENDING' DO NOTHING
+        """;
+
+    private static final String CANCEL = """
+        UPDATE scheduled_tasks
+        SET task_status = 'CANCELLED', task_updated_at = CURRENT_TIMESTAMP
+        WHERE task_type = ?
+          AND task_reference_id = ?
+          AND task_status = 'PENDING'
+        RETURNING task_id
+        """;
+
+    private static final String SELECT_WINDOW = """
+        SELECT task_id, task_fire_at
+        FROM scheduled_tasks
+        WHERE task_status = 'PENDING'
+          AND task_fire_at >= ?
+          AND task_fire_at < ?
+        """;
+
+    private static final String SELECT_OVERDUE = """
+        SELECT task_id
+        FROM scheduled_tasks
+        WHERE task_status = 'PENDING'
+          AND task_fire_at <= ?
+        ORDER BY task_fire_at
+        LIMIT ?
+        FOR UPDATE SKIP LOCKED
+        """;
+
+    private static final String CLAIM = """
+        UPDATE scheduled_tasks
+        SET task_status = 'FIRED', task_updated_at = CURRENT_TIMESTAMP
+        WHERE task_id = ANY (?)
+          AND task_status = 'PENDING'
+          AND task_fire_at <= ?
+        RETURNING task_id, task_type, task_reference_id, task_fire_at, task_payload, task_attempts
+        """;
+
+    private static final String RETRY = """
+        UPDATE scheduled_tasks
+        SET task_attempts = task_attempts + 1,
+            task_fire_at = ? + make_interval(secs => ? * power(2, LEAST(task_attempts, 10))),
+            task_status = CASE WHEN task_attempts + 1 >= ? THEN 'FAILED' ELSE 'PENDING' END,
+            task_last_error = ?,
+            task_updated_at = CURRENT_TIMESTAMP
+        WHERE task_id = ?
+          AND task_status = 'PENDING'
+        RETURNING task_status, task_fire_at
+        """;
+
+    private static final RowMapper<ScheduledTask> TASK_MAPPER = (rs, rowNum) -> new ScheduledTask(
+            rs.getObject("task_id", UUID.class),
+            ScheduledTaskType.valueOf(rs.getString("task_type")),
+            rs.getObject("task_reference_id", UUID.class),
+            rs.getTimestamp("task_fire_at").toInstant(),
+            rs.getString("task_payload"),
+            rs.getInt("task_attempts"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts a task unless a pending one with the same type, reference and fire time exists.
+     *
+     * @return {@code true} if a row was inserted
+     */
+    public boolean insert(UUID id, ScheduledTaskType type, UUID referenceId, Instant fireAt, String payload) {
+        return jdbcTemplate.update(INSERT, id, type.name(), referenceId, Timestamp.from(fireAt), payload) > 0;
+    }
+
+    /**
+     * @return ids of the tasks that moved from PENDING to CANCELLED
+     */
+    public List<UUID> cancel(ScheduledTaskType type, UUID referenceId) {
+        return jdbcTemplate.query(CANCEL, (rs, rowNum) -> rs.getObject("task_id", UUID.class),
+                type.name(), referenceId);
+    }
+
+    /**
+     * Streams pending tasks due in {@code [from, to)} without materialising the result set.
+     * Must run inside a transaction so the PostgreSQL driver honours the fetch size.
+     */
+    public void forEachPending(Instant from, Instant to, int fetchSize, BiConsumer<UUID, Instant> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_WINDOW);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.from(from));
+            statement.setTimestamp(2, Timestamp.from(to));
+            return statement;
+        }, rs -> {
+            consumer.accept(rs.getObject("task_id", UUID.class), rs.getTimestamp("task_fire_at").toInstant());
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} PENDING tasks due by {@code dueBy}, oldest first, skipping rows
+     * another node is claiming right now. Needs a read-write transaction for the row locks.
+     */
+    public List<UUID> findOverdue(Instant dueBy, int limit) {
+        return jdbcTemplate.query(SELECT_OVERDUE, (rs, rowNum) -> rs.getObject("task_id", UUID.class),
+                Timestamp.from(dueBy), limit);
+    }
+
+    /**
+     * Moves due PENDING tasks to FIRED and returns them. Tasks another node already claimed, or
+     * that were cancelled or rescheduled later, are not returned.
+     */
+    public List<ScheduledTask> claim(Collection<UUID> ids, Instant dueBy) {
+        return jdbcTemplate.query(CLAIM, statement -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("uuid", ids.toArray()));
+            statement.setTimestamp(2, Timestamp.from(dueBy));
+        }, TASK_MAPPER);
+    }
+
+    /**
+     * Pushes a failed task back by {@code backoff * 2^attempts}, or marks it FAILED once it has
+     * used {@code maxAttempts}.
+     *
+     * @return the new fire time if the task is PENDING again
+     */
+    public Optional<Instant> retry(UUID id, Instant now, Duration backoff, int maxAttempts, String error) {
+        List<Instant> pending = jdbcTemplate.query(RETRY, (rs, rowNum) ->
+                        "PENDING".equals(rs.getString("task_status")) ? rs.getTimestamp("task_fire_at").toInstant() : null,
+                Timestamp.from(now), backoff.toMillis() / 1000.0, maxAttempts, error, id);
+        return pending.stream().filter(Objects::nonNull).findFirst();
+    }
+}
@@ -0,0 +1,6 @@
+package org.invoicebuilder.scheduling;
+
+public enum ScheduledTaskType {
+    PAYMENT_REMINDER,
+    INVOICE_SEND_AT
+}
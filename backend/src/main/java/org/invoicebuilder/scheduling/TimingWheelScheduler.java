@@ -0,0 +1,262 @@
+package org.invoicebuilder.scheduling;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires {@code scheduled_tasks} rows from an in-memory {@link HierarchicalTimingWheel}.
+ * <p>
+ * Only tasks due before {@code loadedUntil} live in the wheel. On startup every PENDING task
+ * due within the next window is streamed in, including ones missed while the node was down;
+ * afterwards the loader extends the window by one interval at a time, so the database is read
+ * once per task instead of being polled. Tasks scheduled inside the loaded window are added
+ * after their transaction commits. A ticker thread advances the wheel and hands due ids to a
+ * bounded worker pool in batches; the claim in {@link ScheduledTaskStore#claim} keeps nodes
+ * that loaded the same window from running a task twice.
+ * <p>
+ * A task scheduled inside the loaded window exists only in the wheel of the node that scheduled
+ * it, and a failed dispatch is retried from memory as well. If that node dies, no other node
+ * loads the task again, so every {@code recovery-interval} each node also dispatches PENDING
+ * tasks more than {@code recovery-grace} overdue, skipping rows another node is claiming.
+ */
+@Component
+@Slf4j
+public class TimingWheelScheduler {
+
+    private final ScheduledTaskStore scheduledTaskStore;
+    private final ScheduledTaskDispatcher scheduledTaskDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AppProperties appProperties;
+
+    private final Object lock = new Object();
+    private HierarchicalTimingWheel<UUID> wheel;
+    private final Map<UUID, HierarchicalTimingWheel.Timer<UUID>> timers = new HashMap<>();
+
+    private volatile Instant loadedUntil;
+    private ScheduledExecutorService ticker;
+    private ThreadPoolExecutor workers;
+
+    public TimingWheelScheduler(ScheduledTaskStore scheduledTaskStore,
+                                ScheduledTaskDispatcher scheduledTaskDispatcher,
+                                TransactionTemplate transactionTemplate,
+                                AppProperties appProperties) {
+        this.scheduledTaskStore = scheduledTaskStore;
+        this.scheduledTaskDispatcher = scheduledTaskDispatcher;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.appProperties = appProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        AppProperties.Scheduler settings = appProperties.getScheduler();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        long tickMillis = settings.getTick().toMillis();
+        synchronized (lock) {
+            wheel = new HierarchicalTimingWheel<>(tickMillis, settings.getWheelBits(), settings.getLevels(),
+                    System.currentTimeMillis());
+        }
+        workers = new ThreadPoolExecutor(settings.getWorkers(), settings.getWorkers(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.getWorkers() * 4), daemon("scheduled-task-worker"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        loadWindow(Instant.EPOCH);
+        ticker = Executors.newSingleThreadScheduledExecutor(daemon("timing-wheel-ticker"));
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (workers != null) {
+            workers.shutdown();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.scheduler.load-interval:PT1M}")
+    public void extendWindow() {
+        Instant from = loadedUntil;
+        if (from != null) {
+            loadWindow(from);
+        }
+    }
+
+    /**
+     * Dispatches tasks that should have fired by now but were not, e.g. because they were only
+     * in the wheel of a node that went down.
+     *
+     * @return the number of overdue tasks handed to the workers
+     */
+    @Scheduled(fixedDelayString = "${app.scheduler.recovery-interval:PT1M}")
+    public int recoverOverdue() {
+        if (workers == null) {
+            return 0;
+        }
+        AppProperties.Scheduler settings = appProperties.getScheduler();
+        Instant dueBy = Instant.now().minus(settings.getRecoveryGrace());
+        List<UUID> overdue = transactionTemplate.execute(status ->
+                scheduledTaskStore.findOverdue(dueBy, settings.getBatchSize() * settings.getWorkers()));
+        if (overdue == null || overdue.isEmpty()) {
+            return 0;
+        }
+        log.warn("Recovering {} scheduled tasks overdue since before {}", overdue.size(), dueBy);
+        submit(overdue);
+        return overdue.size();
+    }
+
+    /**
+     * Persists a task and, if it falls inside the loaded window, adds it to the wheel once the
+     * surrounding transaction commits. Scheduling the same pending type, reference and time twice is a no-op.
+     */
+    public void schedule(ScheduledTaskType type, UUID referenceId, Instant fireAt, String payload) {
+        UUID id = UUID.randomUUID();
+        if (scheduledTaskStore.insert(id, type, referenceId, fireAt, payload)) {
+            afterCommit(() -> addIfLoaded(id, fireAt));
+        }
+    }
+
+    /**
+     * Cancels every pending task of {@code type} for {@code referenceId}.
+     *
+     * @return the number of tasks cancelled
+     */
+    public int cancel(ScheduledTaskType type, UUID referenceId) {
+        List<UUID> cancelled = scheduledTaskStore.cancel(type, referenceId);
+        if (!cancelled.isEmpty()) {
+            afterCommit(() -> {
+                synchronized (lock) {
+                    for (UUID id : cancelled) {
+                        HierarchicalTimingWheel.Timer<UUID> timer = timers.remove(id);
+                        if (timer != null) {
+                            wheel.cancel(timer);
+                        }
+                    }
+                }
+            });
+        }
+        return cancelled.size();
+    }
+
+    public int loadedTaskCount() {
+        synchronized (lock) {
+            return timers.size();
+        }
+    }
+
+    private void loadWindow(Instant from) {
+        AppProperties.Scheduler settings = appProperties.getScheduler();
+        Instant to = Instant.now().plus(settings.getWindow());
+        // Publish the new bound before reading: a task committed after the read sees it and
+        // adds itself, one committed before is returned by the read. Duplicates are ignored.
+        loadedUntil = to;
+        long started = System.nanoTime();
+        AtomicInteger loaded = new AtomicInteger();
+        readOnlyTransaction.executeWithoutResult(status ->
+                scheduledTaskStore.forEachPending(from, to, settings.getLoadFetchSize(), (id, fireAt) -> {
+                    if (add(id, fireAt)) {
+                        loaded.incrementAndGet();
+                    }
+                }));
+        log.info("Loaded {} scheduled tasks due before {} in {} ms",
+                loaded.get(), to, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void tick() {
+        List<UUID> due = new ArrayList<>();
+        try {
+            synchronized (lock) {
+                wheel.advanceTo(System.currentTimeMillis(), due);
+                for (UUID id : due) {
+                    timers.remove(id);
+                }
+            }
+            submit(due);
+        } catch (RuntimeException e) {
+            log.error("Timing wheel tick failed with {} due tasks", due.size(), e);
+        }
+    }
+
+    private void submit(List<UUID> ids) {
+        int batchSize = appProperties.getScheduler().getBatchSize();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<UUID> batch = List.copyOf(ids.subList(from, Math.min(from + batchSize, ids.size())));
+            workers.execute(() -> fire(batch));
+        }
+    }
+
+    private void fire(List<UUID> batch) {
+        try {
+            scheduledTaskDispatcher.dispatch(batch).forEach(this::addIfLoaded);
+        } catch (RuntimeException e) {
+            // The claim never committed, so the rows are still PENDING; try the batch again later.
+            Instant retryAt = Instant.now().plus(appProperties.getScheduler().getRetryBackoff());
+            log.error("Dispatching {} scheduled tasks failed, retrying at {}", batch.size(), retryAt, e);
+            batch.forEach(id -> addIfLoaded(id, retryAt));
+        }
+    }
+
+    private void addIfLoaded(UUID id, Instant fireAt) {
+        Instant bound = loadedUntil;
+        if (bound != null && fireAt.isBefore(bound)) {
+            add(id, fireAt);
+        }
+    }
+
+    private boolean add(UUID id, Instant fireAt) {
+        synchronized (lock) {
+            if (timers.containsKey(id)) {
+                return false;
+            }
+            timers.put(id, wheel.add(fireAt.toEpochMilli(), id));
+            return true;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
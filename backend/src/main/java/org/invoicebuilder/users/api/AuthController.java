@@ -5,11 +5,13 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.invoicebuilder.users.dto.auth.*;
 import org.invoicebuilder.users.service.AuthService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,6 +23,8 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Authentication", description = "Authentication endpoints")
 public class AuthController {
 
+    private static final int MAX_USER_AGENT_LENGTH = 500;
+
     private final AuthService authService;
 
     @PostMapping("/register")
@@ -47,6 +51,10 @@ public class AuthController {
                 responseCode = "400",
                 description = "Invalid registration data or strategy"
             ),
+            @ApiResponse(
+                responseCode = "429",
+                description = "Too many sign-in requests in progress; retry after the Retry-After header"
+            ),
             @ApiResponse(
                 responseCode = "500",
                 description = "Internal server error during registration"
@@ -92,20 +100,93 @@ public class AuthController {
                 responseCode = "400",
                 description = "Invalid request format or validation errors"
             ),
+            @ApiResponse(
+                responseCode = "429",
+                description = "Too many failed attempts for this email or client, or too many sign-in requests in progress; retry after the Retry-After header"
+            ),
             @ApiResponse(
                 responseCode = "500",
                 description = "Internal server error during authentication"
             )
         }
     )
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest loginRequest){
-        AuthResponse authResponse = authService.login(loginRequest);
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest servletRequest){
+        AuthResponse authResponse = authService.login(loginRequest, servletRequest.getRemoteAddr(), userAgent(servletRequest));
+        return ResponseEntity.ok(authResponse);
+    }
+
+    @PostMapping("/refresh")
+    @Operation(
+        summary = "Exchange a refresh token for new tokens",
+        description = "Rotates the refresh token: the one presented is revoked and a new one is returned with a new access token. Presenting an already rotated token revokes every token issued from the same login",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Current refresh token",
+            required = true,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = RefreshTokenRequest.class)
+            )
+        ),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Tokens rotated",
+                content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = AuthResponse.class)
+                )
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Invalid request format or validation errors"
+            ),
+            @ApiResponse(
+                responseCode = "401",
+                description = "Refresh token is unknown, expired, revoked or was already used"
+            )
+        }
+    )
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest,
+                                                HttpServletRequest servletRequest){
+        AuthResponse authResponse = authService.refresh(refreshTokenRequest,
+                servletRequest.getRemoteAddr(), userAgent(servletRequest));
         return ResponseEntity.ok(authResponse);
     }
 
+    @PostMapping("/revoke")
+    @Operation(
+        summary = "Sign out by revoking a refresh token",
+        description = "Revokes the refresh token and every token issued from the same login. Unknown tokens are accepted silently",
+        responses = {
+            @ApiResponse(
+                responseCode = "204",
+                description = "Refresh token revoked"
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Invalid request format or validation errors"
+            )
+        }
+    )
+    public ResponseEntity<Void> revoke(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest){
+        authService.revoke(refreshTokenRequest);
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/change-password")
     public ResponseEntity<PasswordChangeResponse> changePassword(@Valid @RequestBody PasswordChangeRequest passwordChangeRequest){
         return null;
     }
 
+    /**
+     * The User-Agent header, cut to the 500 characters the user agent columns hold.
+     */
+    private static String userAgent(HttpServletRequest servletRequest) {
+        String userAgent = servletRequest.getHeader(HttpHeaders.USER_AGENT);
+        return userAgent == null || userAgent.length() <= MAX_USER_AGENT_LENGTH
+                ? userAgent
+                : userAgent.substring(0, MAX_USER_AGENT_LENGTH);
+    }
+
 }
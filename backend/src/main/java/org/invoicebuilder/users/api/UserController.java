@@ -1,9 +1,33 @@
 package org.invoicebuilder.users.api;
 
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.users.dto.user.BulkProvisionRequest;
+import org.invoicebuilder.users.dto.user.BulkProvisionResult;
+import org.invoicebuilder.users.dto.user.BulkProvisionSummary;
+import org.invoicebuilder.users.security.AuthenticatedPrincipal;
+import org.invoicebuilder.users.service.BulkUserProvisioningService;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -12,4 +36,117 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "User Management", description = "Api User Management endpoints")
 public class UserController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final BulkUserProvisioningService bulkUserProvisioningService;
+    private final JsonMapper jsonMapper;
+
+    @PostMapping(value = "/bulk", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Provision users in bulk",
+        description = "Creates users in the caller's account. Rows are validated and created independently; "
+                + "every row needs an initial password. "
+                + "Request application/x-ndjson to receive the per-row results as they are written instead",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Users to create",
+            required = true,
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = BulkProvisionRequest.class)
+            )
+        ),
+        responses = {
+            @ApiResponse(
+                responseCode = "200",
+                description = "Upload processed; see the per-row results for rows that failed",
+                content = {
+                    @Content(
+                        mediaType = "application/json",
+                        schema = @Schema(implementation = BulkProvisionSummary.class)
+                    ),
+                    @Content(
+                        mediaType = APPLICATION_NDJSON_VALUE,
+                        schema = @Schema(implementation = BulkProvisionResult.class)
+                    )
+                }
+            ),
+            @ApiResponse(
+                responseCode = "400",
+                description = "Invalid request format, or more users than can be provisioned at once"
+            ),
+            @ApiResponse(
+                responseCode = "403",
+                description = "Caller is not an owner or admin of the account"
+            ),
+            @ApiResponse(
+                responseCode = "429",
+                description = "Password hashing is saturated; rows reported before this stay created"
+            )
+        }
+    )
+    public ResponseEntity<BulkProvisionSummary> provisionUsers(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Valid @RequestBody BulkProvisionRequest request) {
+        requireAdmin(principal);
+        List<BulkProvisionResult> results = new ArrayList<>(request.users().size());
+        BulkProvisionSummary summary = bulkUserProvisioningService.provision(principal.accountId(), request,
+                LocaleContextHolder.getLocale(), results::addAll);
+        return ResponseEntity.ok(new BulkProvisionSummary(summary.total(), summary.created(), summary.failed(), results));
+    }
+
+    /**
+     * Writes one JSON line per row as each chunk commits, then a line with the totals, so a
+     * large upload reports progress and the results never have to be held in memory.
+     */
+    @PostMapping(value = "/bulk", produces = APPLICATION_NDJSON_VALUE)
+    @Operation(hidden = true)
+    public ResponseEntity<StreamingResponseBody> streamProvisionUsers(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Valid @RequestBody BulkProvisionRequest request) {
+        requireAdmin(principal);
+        // Checked before the response is committed, so an oversized upload still gets a 400.
+        bulkUserProvisioningService.checkRowLimit(request);
+        // The body is written on another thread, which does not see the request's locale.
+        Locale locale = LocaleContextHolder.getLocale();
+        StreamingResponseBody body = out -> {
+            BulkProvisionSummary summary;
+            try {
+                summary = bulkUserProvisioningService.provision(principal.accountId(), request, locale, results -> {
+                    for (BulkProvisionResult result : results) {
+                        writeLine(out, result);
+                    }
+                    flush(out);
+                });
+            } catch (UncheckedIOException e) {
+                // The client went away; rows already committed stay created.
+                log.info("Bulk provisioning for account {} stopped, client disconnected", principal.accountId());
+                throw e.getCause();
+            }
+            writeLine(out, summary);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
+    }
+
+    private static void requireAdmin(AuthenticatedPrincipal principal) {
+        if (!principal.hasRole("OWNER") && !principal.hasRole("ADMIN")) {
+            throw new AccessDeniedException("Only account owners and admins can provision users");
+        }
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(jsonMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -31,6 +31,10 @@ public class Account {
     @Column(name = "account_active", nullable = false)
     @Builder.Default
     private Boolean accountActive = true;
+
+    @Column(name = "account_reporting_currency", nullable = false, length = 3)
+    @Builder.Default
+    private String reportingCurrency = "USD";
     
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<User> users = new HashSet<>();
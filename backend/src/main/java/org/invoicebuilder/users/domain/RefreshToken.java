@@ -12,7 +12,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "refresh_tokens", indexes = {
-    @Index(name = "idx_token_hash", columnList = "refresh_token_hash")
+    @Index(name = "idx_token_hash", columnList = "refresh_token_hash"),
+    @Index(name = "idx_refresh_token_family", columnList = "refresh_token_family_id")
 })
 @Data
 @Builder
@@ -31,6 +32,10 @@ public class RefreshToken {
     
     @Column(name = "refresh_token_hash", nullable = false, unique = true)
     private String tokenHash;
+
+    /** Shared by a login's token and every token rotated from it; reuse of any revokes them all. */
+    @Column(name = "refresh_token_family_id", nullable = false)
+    private UUID familyId;
     
     @Column(name = "refresh_token_expires_at", nullable = false)
     private Instant expiresAt;
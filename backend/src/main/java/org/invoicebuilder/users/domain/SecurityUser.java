@@ -5,31 +5,39 @@ import org.jspecify.annotations.Nullable;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.invoicebuilder.users.service.UserRoleService;
 
+import java.time.Instant;
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Authenticated view of a {@link User}. Authorities are built once from the role names loaded
+ * with the user and kept as an immutable set, so Spring Security can ask for them as often as
+ * it likes without going back to the database.
+ */
 public class SecurityUser implements UserDetails {
 
     @Getter
     private final User user;
-    private final UserRoleService userRoleService;
+    @Getter
+    private final Set<String> roleNames;
+    private final Set<GrantedAuthority> authorities;
 
-    public SecurityUser(User user, UserRoleService userRoleService) {
+    public SecurityUser(User user, Collection<String> roleNames) {
         this.user = user;
-        this.userRoleService = userRoleService;
+        this.roleNames = roleNames.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+        this.authorities = this.roleNames.stream()
+                .map(roleName -> new SimpleGrantedAuthority("ROLE_" + roleName))
+                .collect(Collectors.toUnmodifiableSet());
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        List<String> roleNames = userRoleService.getUserRoleNames(user.getUserId());
-        return roleNames.stream()
-                .filter(Objects::nonNull)
-                .map(roleName -> new SimpleGrantedAuthority("ROLE_" + roleName))
-                .collect(Collectors.toList());
+        return authorities;
     }
 
     @Override
@@ -47,9 +55,13 @@ public class SecurityUser implements UserDetails {
         return user.getUserStatus() != UserStatus.DISABLED;
     }
 
+    /**
+     * Only the login lockout; disabled users are refused by {@link #isEnabled}. Checked before
+     * the password, so a locked-out user costs no hashing.
+     */
     @Override
     public boolean isAccountNonLocked() {
-        return user.getUserStatus() != UserStatus.DISABLED;
+        return user.getLockedUntil() == null || user.getLockedUntil().isBefore(Instant.now());
     }
 
     @Override
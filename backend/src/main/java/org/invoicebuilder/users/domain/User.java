@@ -48,6 +48,20 @@ public class User {
     @Column(name = "user_login_attempts", nullable = false)
     @Builder.Default
     private Integer loginAttempts = 0;
+
+    /** Set when failed logins reach the lockout threshold; logins are refused until then. */
+    @Column(name = "user_locked_until")
+    private Instant lockedUntil;
+
+    /** Written behind the login by {@link org.invoicebuilder.users.service.UserActivityTracker}. */
+    @Column(name = "user_last_login_at")
+    private Instant lastLoginAt;
+
+    @Column(name = "user_last_login_ip")
+    private String lastLoginIp;
+
+    @Column(name = "user_last_login_user_agent")
+    private String lastLoginUserAgent;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_account_id", nullable = false, foreignKey = @ForeignKey(name = "fk_user_account"))
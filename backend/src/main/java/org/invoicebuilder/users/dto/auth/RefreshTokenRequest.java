@@ -0,0 +1,14 @@
+package org.invoicebuilder.users.dto.auth;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(description = "Refresh token to rotate or revoke")
+public record RefreshTokenRequest(
+
+        @Schema(description = "Refresh token returned by login or a previous refresh (refresh_token)", requiredMode = Schema.RequiredMode.REQUIRED, name = "refresh_token")
+        @NotBlank(message = "Refresh token is required")
+        @JsonProperty("refresh_token")
+        String refreshToken
+) {}
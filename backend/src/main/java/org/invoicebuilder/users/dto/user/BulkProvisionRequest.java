@@ -0,0 +1,29 @@
+package org.invoicebuilder.users.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Users to create in the caller's account. Rows are validated one by one and reported in the
+ * results, so one bad row does not reject the upload.
+ */
+@Schema(description = "Users to create in the caller's account")
+public record BulkProvisionRequest(
+
+        @Schema(description = "Users to create (users)", requiredMode = Schema.RequiredMode.REQUIRED, name = "users")
+        @NotEmpty(message = "At least one user is required")
+        @JsonProperty("users")
+        List<BulkProvisionUser> users,
+
+        @Schema(description = "Whether each new user receives a verification email (send_verification_emails), default true", example = "true", name = "send_verification_emails")
+        @JsonProperty("send_verification_emails")
+        Boolean sendVerificationEmails
+) {
+
+    public boolean shouldSendVerificationEmails() {
+        return sendVerificationEmails == null || sendVerificationEmails;
+    }
+}
@@ -0,0 +1,43 @@
+package org.invoicebuilder.users.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+@Schema(description = "Outcome of one row of a bulk provisioning request")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkProvisionResult(
+
+        @Schema(description = "Zero-based position of the row in the request (row)", example = "0", name = "row")
+        @JsonProperty("row")
+        int row,
+
+        @Schema(description = "Email address of the row (email_address)", example = "jane@example.com", name = "email_address")
+        @JsonProperty("email_address")
+        String email,
+
+        @Schema(description = "CREATED or FAILED (status)", example = "CREATED", name = "status")
+        @JsonProperty("status")
+        Status status,
+
+        @Schema(description = "Id of the created user (user_id)", example = "550e8400-e29b-41d4-a716-446655440000", name = "user_id")
+        @JsonProperty("user_id")
+        UUID userId,
+
+        @Schema(description = "Why the row failed (error)", example = "Email is already registered", name = "error")
+        @JsonProperty("error")
+        String error
+) {
+
+    public enum Status { CREATED, FAILED }
+
+    public static BulkProvisionResult created(int row, String email, UUID userId) {
+        return new BulkProvisionResult(row, email, Status.CREATED, userId, null);
+    }
+
+    public static BulkProvisionResult failed(int row, String email, String error) {
+        return new BulkProvisionResult(row, email, Status.FAILED, null, error);
+    }
+}
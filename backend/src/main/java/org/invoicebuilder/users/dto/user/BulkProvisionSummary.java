@@ -0,0 +1,33 @@
+package org.invoicebuilder.users.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Totals of a bulk provisioning request. The JSON response carries the per-row results as well;
+ * the streamed response sends them line by line as they are written and ends with this summary
+ * alone.
+ */
+@Schema(description = "Totals and per-row results of a bulk provisioning request")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkProvisionSummary(
+
+        @Schema(description = "Rows in the request (total)", example = "250", name = "total")
+        @JsonProperty("total")
+        int total,
+
+        @Schema(description = "Users created (created)", example = "248", name = "created")
+        @JsonProperty("created")
+        int created,
+
+        @Schema(description = "Rows that failed (failed)", example = "2", name = "failed")
+        @JsonProperty("failed")
+        int failed,
+
+        @Schema(description = "Per-row results in row order (results)", name = "results")
+        @JsonProperty("results")
+        List<BulkProvisionResult> results
+) {}
@@ -0,0 +1,33 @@
+package org.invoicebuilder.users.dto.user;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+@Schema(description = "One user of a bulk provisioning request")
+public record BulkProvisionUser(
+
+        @Schema(description = "User's email address (email_address)", example = "jane@example.com", requiredMode = Schema.RequiredMode.REQUIRED, name = "email_address")
+        @NotBlank(message = "Email is required")
+        @Email(message = "Email should be valid")
+        @JsonProperty("email_address")
+        String email,
+
+        @Schema(description = "User's display name (display_name)", example = "Jane Doe", maxLength = 100, name = "display_name", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotBlank(message = "Display name is required")
+        @Size(max = 100, message = "Display name must not exceed 100 characters")
+        @JsonProperty("display_name")
+        String displayName,
+
+        @Schema(description = "Initial password (password)", format = "password", minLength = 8, maxLength = 128, name = "password", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotBlank(message = "Password is required")
+        @Size(min = 8, max = 128, message = "Password must be between 8 and 128 characters")
+        @JsonProperty("password")
+        String password,
+
+        @Schema(description = "Role to assign (role), ADMIN or USER; default USER", example = "USER", name = "role")
+        @JsonProperty("role")
+        String role
+) {}
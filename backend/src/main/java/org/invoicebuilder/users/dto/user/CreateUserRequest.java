@@ -3,10 +3,14 @@ package org.invoicebuilder.users.dto.user;
 import lombok.Builder;
 import org.invoicebuilder.users.domain.Account;
 
+/**
+ * @param passwordHash an already encoded password; when set, {@code password} is ignored
+ */
 @Builder
 public record CreateUserRequest(
         String email,
         String password,
+        String passwordHash,
         String displayName,
         Account account
 ) {
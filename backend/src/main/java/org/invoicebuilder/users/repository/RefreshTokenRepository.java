@@ -3,6 +3,7 @@ package org.invoicebuilder.users.repository;
 import org.invoicebuilder.users.domain.RefreshToken;
 import org.invoicebuilder.users.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -21,4 +22,24 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID
     java.util.List<RefreshToken> findValidTokensByUser(@Param("userId") UUID userId, @Param("now") Instant now);
     
     List<RefreshToken> findByUser(User user);
+
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> findWithUserByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Revokes a token unless it already is, so two concurrent rotations of the same token
+     * cannot both succeed.
+     *
+     * @return 1 if this call revoked the token, 0 if it was revoked already
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.refreshTokenId = :id AND rt.revoked = false")
+    int revokeIfActive(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.familyId = :familyId AND rt.revoked = false")
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    @Query("SELECT rt.tokenHash FROM RefreshToken rt WHERE rt.familyId = :familyId")
+    List<String> findTokenHashesByFamily(@Param("familyId") UUID familyId);
 }
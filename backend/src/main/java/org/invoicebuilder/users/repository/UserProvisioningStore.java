@@ -0,0 +1,84 @@
+package org.invoicebuilder.users.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC writes for bulk user provisioning, where inserting users one entity at a time would
+ * cost a round trip per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserProvisioningStore {
+
+    private static final String SELECT_EXISTING_EMAILS = """
+        SELECT user_email
+        FROM "user"
+        WHERE user_email = ANY (?)
+        """;
+
+    // One statement per chunk; RETURNING reports which rows were not taken by a concurrent signup.
+    private static final String INSERT_USERS = """
+        INSERT INTO "user" (user_id, user_email, user_display_name, user_password_hash, user_email_verified,
+                            user_status, user_login_attempts, user_account_id, user_created_at, user_updated_at)
+        SELECT new_user.id, new_user.email, new_user.display_name, new_user.password_hash, false,
+               'ACTIVE', 0, ?, LOCALTIMESTAMP, LOCALTIMESTAMP
+        FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[]) AS new_user (id, email, display_name, password_hash)
+        ON CONFLICT (user_email) DO NOTHING
+        RETURNING user_id
+        """;
+
+    private static final String INSERT_USER_ROLE = """
+        INSERT INTO user_roles (user_id, role_id, assigned_at)
+        VALUES (?, ?, CURRENT_TIMESTAMP)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query(SELECT_EXISTING_EMAILS,
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("text", emails.toArray())),
+                rs -> { existing.add(rs.getString(1)); });
+        return existing;
+    }
+
+    /**
+     * @return the ids of the users inserted; users whose email was taken meanwhile are skipped
+     */
+    public Set<UUID> insertUsers(UUID accountId, List<NewUser> users) {
+        Set<UUID> inserted = new HashSet<>();
+        jdbcTemplate.query(INSERT_USERS, statement -> {
+            statement.setObject(1, accountId);
+            statement.setArray(2, statement.getConnection().createArrayOf("uuid",
+                    users.stream().map(NewUser::userId).toArray()));
+            statement.setArray(3, statement.getConnection().createArrayOf("text",
+                    users.stream().map(NewUser::email).toArray()));
+            statement.setArray(4, statement.getConnection().createArrayOf("text",
+                    users.stream().map(NewUser::displayName).toArray()));
+            statement.setArray(5, statement.getConnection().createArrayOf("text",
+                    users.stream().map(NewUser::passwordHash).toArray()));
+        }, rs -> { inserted.add(rs.getObject(1, UUID.class)); });
+        return inserted;
+    }
+
+    /**
+     * Inserts the role assignments with one JDBC batch, which the driver rewrites into
+     * multi-row inserts.
+     */
+    public void insertUserRoles(List<NewUser> users) {
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, users, users.size(), (statement, user) -> {
+            statement.setObject(1, user.userId());
+            statement.setObject(2, user.roleId());
+        });
+    }
+
+    public record NewUser(UUID userId, String email, String displayName, String passwordHash, UUID roleId) {}
+}
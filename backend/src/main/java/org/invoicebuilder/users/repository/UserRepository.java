@@ -2,10 +2,13 @@ package org.invoicebuilder.users.repository;
 
 import org.invoicebuilder.users.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,4 +27,32 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     
     @Query("SELECT u FROM User u WHERE u.account.accountId = :accountId")
     List<User> findByAccountId(@Param("accountId") UUID accountId);
+
+    /**
+     * Loads a user with its account and role names in one query, for authentication.
+     * Returns one {@code [User, roleName]} row per role, or a single row with a {@code null}
+     * role name when the user has none; the User is the same instance in every row.
+     */
+    @Query("""
+            SELECT u, r.roleName FROM User u
+            JOIN FETCH u.account
+            LEFT JOIN UserRole ur ON ur.user = u
+            LEFT JOIN ur.role r
+            WHERE u.userEmail = :email
+            """)
+    List<Object[]> findWithAccountAndRoleNamesByEmail(@Param("email") String email);
+
+    @Modifying
+    @Query("UPDATE User u SET u.userPassword = :passwordHash WHERE u.userId = :userId")
+    int updatePasswordHash(@Param("userId") UUID userId, @Param("passwordHash") String passwordHash);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.loginAttempts = :attempts, u.lockedUntil = :lockedUntil WHERE u.userEmail = :email")
+    int lockOut(@Param("email") String email, @Param("attempts") int attempts, @Param("lockedUntil") Instant lockedUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.loginAttempts = 0, u.lockedUntil = null WHERE u.userId = :userId")
+    int clearLockout(@Param("userId") UUID userId);
 }
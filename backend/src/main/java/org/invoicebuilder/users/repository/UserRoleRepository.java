@@ -3,6 +3,7 @@ package org.invoicebuilder.users.repository;
 import org.invoicebuilder.users.domain.UserRole;
 import org.invoicebuilder.users.domain.UserRoleId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -24,4 +25,18 @@ public interface UserRoleRepository extends JpaRepository<UserRole, UserRoleId>
     List<org.invoicebuilder.users.domain.User> findUsersByRoleName(@Param("roleName") String roleName);
 
     void deleteById_UserIdAndId_RoleId(UUID userId, UUID roleId);
+
+    /**
+     * Assigns the role in one statement; {@code save} would first select the row because the id
+     * is assigned rather than generated.
+     *
+     * @return 1 if the role was assigned, 0 if the user already had it
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO user_roles (user_id, role_id, assigned_at)
+            VALUES (:userId, :roleId, CURRENT_TIMESTAMP)
+            ON CONFLICT (user_id, role_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("userId") UUID userId, @Param("roleId") UUID roleId);
 }
@@ -0,0 +1,47 @@
+package org.invoicebuilder.users.security;
+
+import org.invoicebuilder.exception.users.InvalidTokenException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The caller of a request, read from the claims of its access token. Building it needs no
+ * database access; controllers receive it as a method argument through
+ * {@link AuthenticatedPrincipalArgumentResolver}.
+ */
+public record AuthenticatedPrincipal(UUID userId, UUID accountId, String email, Set<String> roles) {
+
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ACCOUNT_ID_CLAIM = "aid";
+    public static final String ROLES_CLAIM = "roles";
+
+    public AuthenticatedPrincipal {
+        roles = Set.copyOf(roles);
+    }
+
+    /**
+     * @throws InvalidTokenException if the token lacks the user or account claim, e.g. one
+     *                               issued before the claims were added
+     */
+    public static AuthenticatedPrincipal from(Jwt jwt) {
+        String userId = jwt.getClaimAsString(USER_ID_CLAIM);
+        String accountId = jwt.getClaimAsString(ACCOUNT_ID_CLAIM);
+        if (userId == null || accountId == null) {
+            throw new InvalidTokenException("Access token has no user or account claim; sign in again");
+        }
+        List<String> roles = jwt.getClaimAsStringList(ROLES_CLAIM);
+        try {
+            return new AuthenticatedPrincipal(UUID.fromString(userId), UUID.fromString(accountId), jwt.getSubject(),
+                    roles == null ? Set.of() : Set.copyOf(roles));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Access token has a malformed user or account claim", e);
+        }
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+}
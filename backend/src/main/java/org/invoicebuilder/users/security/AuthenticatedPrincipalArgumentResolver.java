@@ -0,0 +1,44 @@
+package org.invoicebuilder.users.security;
+
+import org.invoicebuilder.exception.users.InvalidTokenException;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Supplies {@link AuthenticatedPrincipal} controller arguments from the request's decoded JWT.
+ * The principal is built once per request and kept as a request attribute.
+ */
+@Component
+public class AuthenticatedPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String ATTRIBUTE = AuthenticatedPrincipal.class.getName();
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthenticatedPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public AuthenticatedPrincipal resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object cached = webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof AuthenticatedPrincipal principal) {
+            return principal;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication instanceof JwtAuthenticationToken jwtAuthentication)) {
+            throw new InvalidTokenException("Request is not authenticated with an access token");
+        }
+        AuthenticatedPrincipal principal = AuthenticatedPrincipal.from(jwtAuthentication.getToken());
+        webRequest.setAttribute(ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
+        return principal;
+    }
+}
@@ -0,0 +1,125 @@
+package org.invoicebuilder.users.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers tokens that already passed signature and claim validation, so a client that sends
+ * the same access token on every request pays for the signature check once per token instead
+ * of once per request.
+ * <p>
+ * Entries are keyed by a 64-bit hash of the token and hold the token itself, which must match
+ * exactly on a hit; a hash collision is just a miss. An entry is dropped once the token's
+ * {@code exp} has passed and the delegate, with its clock skew, decides again. Tokens that
+ * fail to decode and tokens without {@code exp} are never cached. When the cache is full,
+ * expired entries are swept, at most once a second, and otherwise an arbitrary entry makes room.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private static final long SWEEP_INTERVAL_MILLIS = 1_000;
+
+    private final JwtDecoder delegate;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private volatile long sweptAt;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter expired;
+    private final Counter displaced;
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxEntries, MeterRegistry meterRegistry) {
+        this(delegate, maxEntries, meterRegistry, System::currentTimeMillis);
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, int maxEntries, MeterRegistry meterRegistry, LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.hits = meterRegistry.counter("jwt.cache", "result", "hit");
+        this.misses = meterRegistry.counter("jwt.cache", "result", "miss");
+        this.expired = meterRegistry.counter("jwt.cache.evictions", "cause", "expired");
+        this.displaced = meterRegistry.counter("jwt.cache.evictions", "cause", "capacity");
+        meterRegistry.gaugeMapSize("jwt.cache.size", Tags.empty(), entries);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        long key = hash(token);
+        long now = clock.getAsLong();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAtMillis() <= now) {
+                if (entries.remove(key, entry)) {
+                    expired.increment();
+                }
+            } else if (entry.token().equals(token)) {
+                hits.increment();
+                return entry.jwt();
+            }
+        }
+        misses.increment();
+        Jwt jwt = delegate.decode(token);
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt != null && expiresAt.toEpochMilli() > now) {
+            if (entries.size() >= maxEntries) {
+                makeRoom(now);
+            }
+            entries.put(key, new Entry(token, jwt, expiresAt.toEpochMilli()));
+        }
+        return jwt;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void makeRoom(long now) {
+        if (now - sweptAt >= SWEEP_INTERVAL_MILLIS) {
+            sweptAt = now;
+            entries.values().removeIf(entry -> {
+                if (entry.expiresAtMillis() <= now) {
+                    expired.increment();
+                    return true;
+                }
+                return false;
+            });
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() >= maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            displaced.increment();
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the token's characters. Tokens are ASCII, so hashing chars rather than
+     * encoded bytes loses nothing and avoids a copy.
+     */
+    static long hash(String token) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private record Entry(String token, Jwt jwt, long expiresAtMillis) {
+    }
+}
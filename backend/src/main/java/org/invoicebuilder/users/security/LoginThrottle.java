@@ -0,0 +1,119 @@
+package org.invoicebuilder.users.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.exception.common.TooManyRequestsException;
+import org.invoicebuilder.users.domain.User;
+import org.invoicebuilder.users.repository.UserRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Limits failed logins per email and per client IP over a sliding window.
+ * <p>
+ * Failures are counted in memory only, so a brute-force run costs no database writes, and
+ * {@link #checkAllowed} turns a throttled caller away before the user is loaded or any password
+ * is hashed. The database is written once, when an email reaches {@code max-failures-per-email}:
+ * the user gets {@code user_locked_until} and {@code user_login_attempts}, which every instance
+ * honours through {@link org.invoicebuilder.users.domain.SecurityUser#isAccountNonLocked} and
+ * which survives a restart. A successful login clears both.
+ * <p>
+ * The IP limit is higher than the email limit so that users behind one NAT are not locked out
+ * by each other, while one client spraying many emails still is.
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    private final UserRepository userRepository;
+    private final AppProperties.LoginThrottle settings;
+    private final SlidingWindowCounter failuresByEmail;
+    private final SlidingWindowCounter failuresByIp;
+
+    private final Counter throttled;
+    private final Counter lockouts;
+
+    public LoginThrottle(UserRepository userRepository, AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.settings = appProperties.getLoginThrottle();
+        this.failuresByEmail = new SlidingWindowCounter(settings.getWindow(), settings.getSlots(), settings.getMaxTrackedKeys());
+        this.failuresByIp = new SlidingWindowCounter(settings.getWindow(), settings.getSlots(), settings.getMaxTrackedKeys());
+        this.throttled = meterRegistry.counter("auth.login.throttled");
+        this.lockouts = meterRegistry.counter("auth.login.lockouts");
+        meterRegistry.gauge("auth.login.throttle.keys", this, throttle -> throttle.failuresByEmail.size() + throttle.failuresByIp.size());
+    }
+
+    /**
+     * @throws TooManyRequestsException when the email or the IP has used up its failures
+     */
+    public void checkAllowed(String email, String clientIp) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        String emailKey = normalize(email);
+        if (failuresByEmail.count(emailKey) >= settings.getMaxFailuresPerEmail()) {
+            throw throttled(failuresByEmail.timeUntilBelow(emailKey, settings.getMaxFailuresPerEmail()));
+        }
+        if (clientIp != null && failuresByIp.count(clientIp) >= settings.getMaxFailuresPerIp()) {
+            throw throttled(failuresByIp.timeUntilBelow(clientIp, settings.getMaxFailuresPerIp()));
+        }
+    }
+
+    /**
+     * @return the email's failures in the window including this one, or 0 when throttling is disabled
+     */
+    public int recordFailure(String email, String clientIp) {
+        if (!settings.isEnabled()) {
+            return 0;
+        }
+        int failures = failuresByEmail.increment(normalize(email));
+        if (clientIp != null) {
+            failuresByIp.increment(clientIp);
+        }
+        // Exactly at the threshold, so the lockout is written once per run of failures.
+        if (failures == settings.getMaxFailuresPerEmail()) {
+            lockouts.increment();
+            Instant lockedUntil = Instant.now().plus(settings.getLockoutDuration());
+            int updated = userRepository.lockOut(email, failures, lockedUntil);
+            log.warn("Login locked for {} until {} after {} failures from {}{}", email, lockedUntil, failures, clientIp,
+                    updated == 0 ? " (no such user)" : "");
+        }
+        return failures;
+    }
+
+    /**
+     * Clears a persisted lockout right away; a failure count without a lockout is reset through
+     * {@link org.invoicebuilder.users.service.UserActivityTracker} instead.
+     */
+    public void recordSuccess(User user) {
+        failuresByEmail.reset(normalize(user.getUserEmail()));
+        if (user.getLockedUntil() != null) {
+            userRepository.clearLockout(user.getUserId());
+            user.setLockedUntil(null);
+            user.setLoginAttempts(0);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.login-throttle.compact-interval:PT1M}")
+    public void compact() {
+        int dropped = failuresByEmail.compact() + failuresByIp.compact();
+        if (dropped > 0) {
+            log.debug("Dropped {} idle login throttle keys", dropped);
+        }
+    }
+
+    private TooManyRequestsException throttled(Duration retryAfter) {
+        throttled.increment();
+        return new TooManyRequestsException("Too many failed sign-in attempts, please try again later", retryAfter);
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,200 @@
+package org.invoicebuilder.users.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.exception.common.TooManyRequestsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a small pool of its own instead of the request thread.
+ * <p>
+ * A hash is deliberately expensive, so a burst of logins or registrations would otherwise keep
+ * every request thread busy on the CPU and starve the rest of the API. Here at most
+ * {@code threads} hashes run at once and at most {@code queue-capacity} wait for a thread;
+ * further callers are turned away at once with a {@link TooManyRequestsException}, as are
+ * callers whose hash has not finished within {@code max-wait}. The request thread still waits
+ * for its own hash, but the number of requests doing so is bounded by the pool and queue size.
+ * <p>
+ * {@link #encodeAll} serves bulk operations from the same pool without crowding out sign-ins:
+ * all bulk callers together hold at most half the threads, and wait their turn for them.
+ * <p>
+ * {@link #upgradeEncoding} is cheap and runs inline.
+ */
+@Slf4j
+public class PasswordHashingService implements PasswordEncoder, AutoCloseable {
+
+    private static final Duration BULK_RETRY_PAUSE = Duration.ofMillis(50);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    // Shared by all bulk callers, so concurrent uploads cannot together take over the pool.
+    private final Semaphore bulkPermits;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public PasswordHashingService(PasswordEncoder delegate, AppProperties.Passwords settings, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxWait = settings.getMaxWait();
+        int threads = settings.getThreads() > 0
+                ? settings.getThreads()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.getQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.bulkPermits = new Semaphore(Math.max(1, threads / 2), true);
+        meterRegistry.gauge("password.hashing.queue.depth", executor.getQueue(), BlockingQueue::size);
+        this.encodeTimer = meterRegistry.timer("password.hashing.duration", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("password.hashing.duration", "operation", "matches");
+        this.rejected = meterRegistry.counter("password.hashing.rejected");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * Encodes many passwords in parallel, keeping at most half the pool's threads busy across
+     * all bulk callers so that interactive sign-ins still get through. Each password waits for
+     * a bulk permit; when sign-ins have filled the pool's queue it is resubmitted for up to
+     * {@code max-wait}. Hashing never runs on the calling thread.
+     *
+     * @return the hashes in input order
+     * @throws TooManyRequestsException if the pool stayed full for {@code max-wait}
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        boolean completed = false;
+        try {
+            for (CharSequence rawPassword : rawPasswords) {
+                futures.add(submitBulk(rawPassword));
+            }
+            List<String> hashes = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+            completed = true;
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } finally {
+            if (!completed) {
+                // Withdraws hashes that have not started; running ones are left to finish.
+                for (Future<String> future : futures) {
+                    future.cancel(false);
+                    executor.remove((Runnable) future);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> hashing, Timer timer) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return hashing.call();
+                } finally {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+        try {
+            return future.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Frees the queue slot if the hash has not started; a running hash is left to finish.
+            future.cancel(false);
+            executor.remove((Runnable) future);
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private Future<String> submitBulk(CharSequence rawPassword) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (true) {
+            bulkPermits.acquire();
+            // done() also runs when a queued hash is cancelled, so the permit is never lost.
+            FutureTask<String> task = new FutureTask<>(() -> encodeTimer.record(() -> delegate.encode(rawPassword))) {
+                @Override
+                protected void done() {
+                    bulkPermits.release();
+                }
+            };
+            try {
+                executor.execute(task);
+                return task;
+            } catch (RejectedExecutionException e) {
+                bulkPermits.release();
+                if (System.nanoTime() - deadline >= 0) {
+                    throw busy();
+                }
+                Thread.sleep(BULK_RETRY_PAUSE.toMillis());
+            }
+        }
+    }
+
+    private TooManyRequestsException busy() {
+        rejected.increment();
+        log.warn("Password hashing saturated: {} queued, {} running", executor.getQueue().size(), executor.getActiveCount());
+        return new TooManyRequestsException("Too many sign-in requests in progress, please retry shortly", Duration.ofSeconds(1));
+    }
+}
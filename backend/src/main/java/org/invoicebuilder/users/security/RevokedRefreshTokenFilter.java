@@ -0,0 +1,120 @@
+package org.invoicebuilder.users.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.util.LongHashSet;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In-memory set of refresh token hashes from revoked families, so a replayed or logged-out
+ * token is turned away without a query.
+ * <p>
+ * Each hash is held as a 64-bit fingerprint (the first 8 bytes of its SHA-256) in a
+ * {@link LongHashSet}, about 16 bytes per token. Unlike a Bloom filter the set has no false
+ * positives worth speaking of, so a live token is never rejected by mistake; a miss simply
+ * falls through to the database, which stays the source of truth.
+ * <p>
+ * Only families with no live token left are loaded. The rotated-away tokens of a live family
+ * are deliberately not held here: replaying one must reach the database, where it is detected
+ * as reuse and the whole family is revoked (and then added here). The set is rebuilt at startup
+ * and every {@code app.refresh-tokens.revocation-reload-interval}, which also drops expired
+ * tokens and picks up revocations made by other instances.
+ */
+@Component
+@Slf4j
+public class RevokedRefreshTokenFilter {
+
+    private static final String SELECT_REVOKED_FAMILIES = """
+        SELECT rt.refresh_token_hash
+        FROM refresh_tokens rt
+        WHERE rt.refresh_token_revoked = true
+          AND rt.refresh_token_expires_at > ?
+          AND NOT EXISTS (
+              SELECT 1 FROM refresh_tokens live
+              WHERE live.refresh_token_family_id = rt.refresh_token_family_id
+                AND live.refresh_token_revoked = false
+          )
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Guarded by this; replaced wholesale on rebuild.
+    private LongHashSet fingerprints = new LongHashSet(1024);
+    // Non-null while a rebuild is querying, so revocations made meanwhile are not lost.
+    private List<Long> addedDuringRebuild;
+
+    public RevokedRefreshTokenFilter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        meterRegistry.gauge("auth.refresh.revoked.size", this, RevokedRefreshTokenFilter::size);
+    }
+
+    /**
+     * @param tokenHash the stored form of the token, Base64 of its SHA-256
+     */
+    public synchronized boolean isRevoked(String tokenHash) {
+        return fingerprints.contains(fingerprint(tokenHash));
+    }
+
+    public synchronized void addAll(Collection<String> tokenHashes) {
+        for (String tokenHash : tokenHashes) {
+            long fingerprint = fingerprint(tokenHash);
+            fingerprints.add(fingerprint);
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(fingerprint);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return fingerprints.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh-tokens.revocation-reload-interval:PT10M}",
+            initialDelayString = "${app.refresh-tokens.revocation-reload-interval:PT10M}")
+    public void rebuild() {
+        synchronized (this) {
+            addedDuringRebuild = new ArrayList<>();
+        }
+        LongHashSet rebuilt = new LongHashSet(1024);
+        try {
+            jdbcTemplate.query(SELECT_REVOKED_FAMILIES,
+                    rs -> { rebuilt.add(fingerprint(rs.getString(1))); },
+                    Timestamp.from(Instant.now()));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                addedDuringRebuild = null;
+            }
+            log.warn("Could not reload revoked refresh tokens, keeping the current set", e);
+            return;
+        }
+        synchronized (this) {
+            for (long fingerprint : addedDuringRebuild) {
+                rebuilt.add(fingerprint);
+            }
+            addedDuringRebuild = null;
+            fingerprints = rebuilt;
+        }
+        log.info("Loaded {} revoked refresh tokens into memory", rebuilt.size());
+    }
+
+    static long fingerprint(String tokenHash) {
+        return ByteBuffer.wrap(Base64.getDecoder().decode(tokenHash)).getLong();
+    }
+}
@@ -0,0 +1,43 @@
+package org.invoicebuilder.users.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Random bearer tokens (refresh tokens, email verification links) and the SHA-256 hashes they are
+ * stored and looked up by.
+ */
+public final class SecureTokens {
+
+    // Thread-safe and shared, rather than seeded anew for every token.
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private SecureTokens() {
+        // Utility class
+    }
+
+    /**
+     * Returns {@code byteLength} random bytes, URL-safe Base64 encoded so the token can go in a link.
+     */
+    public static String generate(int byteLength) {
+        byte[] randomBytes = new byte[byteLength];
+        SECURE_RANDOM.nextBytes(randomBytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+    }
+
+    /**
+     * Returns the Base64 encoded SHA-256 hash of {@code token}, the form tokens are stored in.
+     */
+    public static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
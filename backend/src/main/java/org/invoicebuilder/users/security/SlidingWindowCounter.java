@@ -0,0 +1,179 @@
+package org.invoicebuilder.users.security;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts events per key over a sliding window, without locks.
+ * <p>
+ * The window is split into {@code slots} equal slots. Each key owns a small array with one
+ * long per slot holding the slot's number in its upper bits and its count in the lower
+ * {@value #COUNT_BITS}, so moving a slot on to a new period and counting in it is a single
+ * compare-and-set. Slots older than the window are simply ignored when summing. Keys live in a
+ * {@link ConcurrentHashMap}, whose bins are locked independently, so concurrent counts for
+ * different keys do not contend; keys whose window has emptied are dropped by {@link #compact}
+ * (an event racing with the removal of its key may go uncounted).
+ * <p>
+ * At most {@code maxKeys} keys are tracked, which keeps memory bounded when keys are sprayed.
+ * A new key beyond that evicts the oldest tracked key instead, so the newest keys are always
+ * counted; a key with events in the current slot gets a second chance and is passed over for an
+ * older idle one where possible.
+ */
+public class SlidingWindowCounter {
+
+    static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int EVICTION_PROBES = 8;
+
+    private final long slotMillis;
+    private final int slots;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final Map<String, AtomicLongArray> counters = new ConcurrentHashMap<>();
+    // Keys in the order they started being tracked; entries whose key was since dropped are stale.
+    private final Queue<Tracked> order = new ConcurrentLinkedQueue<>();
+
+    public SlidingWindowCounter(Duration window, int slots, int maxKeys) {
+        this(window, slots, maxKeys, System::currentTimeMillis);
+    }
+
+    SlidingWindowCounter(Duration window, int slots, int maxKeys, LongSupplier clock) {
+        if (slots < 1 || window.toMillis() < slots) {
+            throw new IllegalArgumentException("window must cover at least one millisecond per slot");
+        }
+        this.slotMillis = window.toMillis() / slots;
+        this.slots = slots;
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the key's count in the window including this event
+     */
+    public int increment(String key) {
+        long slot = clock.getAsLong() / slotMillis;
+        AtomicLongArray counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() >= maxKeys) {
+                evictOldest(slot);
+            }
+            counter = counters.computeIfAbsent(key, k -> {
+                AtomicLongArray created = new AtomicLongArray(slots);
+                order.add(new Tracked(k, created));
+                return created;
+            });
+        }
+        int index = (int) (slot % slots);
+        while (true) {
+            long current = counter.get(index);
+            long next;
+            if (current >>> COUNT_BITS == slot) {
+                next = (current & COUNT_MASK) == COUNT_MASK ? current : current + 1;
+            } else {
+                next = slot << COUNT_BITS | 1;
+            }
+            if (counter.compareAndSet(index, current, next)) {
+                break;
+            }
+        }
+        return sum(counter, slot);
+    }
+
+    public int count(String key) {
+        AtomicLongArray counter = counters.get(key);
+        return counter == null ? 0 : sum(counter, clock.getAsLong() / slotMillis);
+    }
+
+    /**
+     * How long until the key's count falls below {@code limit} as its oldest slots leave the
+     * window, assuming no further events.
+     */
+    public Duration timeUntilBelow(String key, int limit) {
+        AtomicLongArray counter = counters.get(key);
+        long now = clock.getAsLong();
+        long currentSlot = now / slotMillis;
+        if (counter == null) {
+            return Duration.ZERO;
+        }
+        int total = sum(counter, currentSlot);
+        // Walk the slots from the oldest in the window and drop them until the count is below the limit.
+        for (long slot = currentSlot - slots + 1; slot <= currentSlot && total >= limit; slot++) {
+            long value = counter.get((int) (slot % slots));
+            if (value >>> COUNT_BITS == slot) {
+                total -= (int) (value & COUNT_MASK);
+            }
+            if (total < limit) {
+                return Duration.ofMillis((slot + slots) * slotMillis - now);
+            }
+        }
+        return total < limit ? Duration.ZERO : Duration.ofMillis(slots * slotMillis);
+    }
+
+    public void reset(String key) {
+        counters.remove(key);
+    }
+
+    /**
+     * Drops keys with nothing left in the window.
+     *
+     * @return the number of keys dropped
+     */
+    public int compact() {
+        long currentSlot = clock.getAsLong() / slotMillis;
+        int before = counters.size();
+        counters.values().removeIf(counter -> sum(counter, currentSlot) == 0);
+        order.removeIf(this::isStale);
+        return before - counters.size();
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Drops the longest tracked key, passing over up to {@value #EVICTION_PROBES} keys that
+     * counted an event in the current slot.
+     */
+    private void evictOldest(long currentSlot) {
+        int passedOver = 0;
+        Tracked oldest;
+        while ((oldest = order.poll()) != null) {
+            if (isStale(oldest)) {
+                continue;
+            }
+            if (passedOver < EVICTION_PROBES && isActive(oldest.counter(), currentSlot)) {
+                order.add(oldest);
+                passedOver++;
+            } else if (counters.remove(oldest.key(), oldest.counter())) {
+                return;
+            }
+        }
+    }
+
+    private boolean isActive(AtomicLongArray counter, long currentSlot) {
+        return counter.get((int) (currentSlot % slots)) >>> COUNT_BITS == currentSlot;
+    }
+
+    private int sum(AtomicLongArray counter, long currentSlot) {
+        int total = 0;
+        for (int i = 0; i < slots; i++) {
+            long value = counter.get(i);
+            long slot = value >>> COUNT_BITS;
+            if (slot <= currentSlot && currentSlot - slot < slots) {
+                total += (int) (value & COUNT_MASK);
+            }
+        }
+        return total;
+    }
+
+    private boolean isStale(Tracked tracked) {
+        return counters.get(tracked.key()) != tracked.counter();
+    }
+
+    private record Tracked(String key, AtomicLongArray counter) {}
+}
@@ -1,5 +1,6 @@
 package org.invoicebuilder.users.service;
 
+import org.invoicebuilder.exception.common.InvalidRequestException;
 import org.springframework.stereotype.Service;
 
 /**
@@ -18,7 +19,7 @@ public class AccountNameService {
      * @param email User's email address
      * @param displayName User's display name
      * @return Validated or generated account name
-     * @throws IllegalArgumentException if validation fails
+     * @throws InvalidRequestException if validation fails
      */
     public String generateOrValidateAccountName(String accountName, String email, String displayName) {
         if (accountName == null || accountName.trim().isEmpty()) {
@@ -63,26 +64,26 @@ public class AccountNameService {
      * 
      * @param accountName The account name to validate
      * @return Validated account name
-     * @throws IllegalArgumentException if validation fails
+     * @throws InvalidRequestException if validation fails
      */
     private String validateBusinessAccountName(String accountName) {
         String trimmedName = accountName.trim();
         
         if (trimmedName.isEmpty()) {
-            throw new IllegalArgumentException("Account name cannot be empty");
+            throw new InvalidRequestException("Account name cannot be empty");
         }
         
         if (trimmedName.length() < 2) {
-            throw new IllegalArgumentException("Account name must be at least 2 characters long");
+            throw new InvalidRequestException("Account name must be at least 2 characters long");
         }
         
         if (trimmedName.length() > 100) {
-            throw new IllegalArgumentException("Account name must not exceed 100 characters");
+            throw new InvalidRequestException("Account name must not exceed 100 characters");
         }
         
         // Check for invalid characters
         if (!trimmedName.matches("^[a-zA-Z0-9\\s\\-_]+$")) {
-            throw new IllegalArgumentException("Account name can only contain letters, numbers, spaces, hyphens, and underscores");
+            throw new InvalidRequestException("Account name can only contain letters, numbers, spaces, hyphens, and underscores");
         }
         
         return trimmedName;
@@ -2,18 +2,34 @@ package org.invoicebuilder.users.service;
 
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.config.AppProperties;
 import org.invoicebuilder.config.TokenProperties;
+import org.invoicebuilder.events.DomainEventBus;
+import org.invoicebuilder.events.UserRegistered;
+import org.invoicebuilder.exception.common.InvalidRequestException;
+import org.invoicebuilder.exception.common.TooManyRequestsException;
+import org.invoicebuilder.notifications.event.EmailEventPublisher;
+import org.invoicebuilder.notifications.event.EmailVerificationEvent;
 import org.invoicebuilder.users.domain.Account;
 import org.invoicebuilder.users.domain.SecurityUser;
 import org.invoicebuilder.users.domain.User;
 import org.invoicebuilder.users.dto.auth.*;
 import org.invoicebuilder.users.dto.user.CreateUserRequest;
+import org.invoicebuilder.users.security.LoginThrottle;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.Objects;
 
 @Service
@@ -28,8 +44,23 @@ public class AuthService {
     private final TokenService tokenService;
     private final RefreshTokenService refreshTokenService;
     private final TokenProperties tokenProperties;
-
-    @Transactional
+    private final EmailVerificationTokenService emailVerificationTokenService;
+    private final EmailEventPublisher emailEventPublisher;
+    private final DomainEventBus domainEventBus;
+    private final LoginThrottle loginThrottle;
+    private final AppProperties appProperties;
+    private final JpaUserDetailsService userDetailsService;
+    private final UserActivityTracker userActivityTracker;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The password is hashed before the transaction starts, so no connection is held while it
+     * is. The existence query is skipped when {@link RegisteredEmailFilter} knows the email is
+     * new; the unique constraint on the email decides races and registrations made on other
+     * instances.
+     */
     public RegistrationResponse registerEmailUser(@NotNull RegisterRequest request) {
 
         // 2. Generate account name for personal users or validate business account name
@@ -38,17 +69,33 @@ public class AuthService {
         );
 
         // 3. Check if user email already exists (business logic validation)
-        if (userService.userExistsByEmail(request.email())) {
-            throw new IllegalArgumentException("Email '" + request.email() + "' is already registered");
+        if (registeredEmailFilter.mightBeRegistered(request.email()) && userService.userExistsByEmail(request.email())) {
+            throw alreadyRegistered(request.email());
+        }
+        String passwordHash = passwordEncoder.encode(request.password());
+
+        RegistrationResponse response;
+        try {
+            response = transactionTemplate.execute(status -> createRegisteredUser(request, accountName, passwordHash));
+        } catch (DataIntegrityViolationException e) {
+            if (userService.userExistsByEmail(request.email())) {
+                registeredEmailFilter.add(request.email());
+                throw alreadyRegistered(request.email());
+            }
+            throw e;
         }
+        registeredEmailFilter.add(request.email());
+        return response;
+    }
 
+    private RegistrationResponse createRegisteredUser(RegisterRequest request, String accountName, String passwordHash) {
         // 4. Create account first
         Account account = accountService.createAccount(accountName);
 
         // 5. Create user with account reference
         CreateUserRequest createUserRequest = CreateUserRequest.builder()
                 .email(request.email())
-                .password(request.password())
+                .passwordHash(passwordHash)
                 .displayName(request.displayName())
                 .account(account)
                 .build();
@@ -57,8 +104,16 @@ public class AuthService {
         // 6. Assign OWNER role to the user
         userRoleService.assignRoleToUser(user, "OWNER");
 
-        // 7. TODO: Send verification email (implement EmailService later)
-        // emailService.sendVerificationEmail(user);
+        // 7. Queue the verification email in the same transaction as the new user
+        String verificationToken = emailVerificationTokenService.createToken(user);
+        emailEventPublisher.publishEmailEvent(EmailVerificationEvent.builder()
+                .userEmail(user.getUserEmail())
+                .userName(user.getUserDisplayName())
+                .verificationToken(verificationToken)
+                .message("Please verify your email address")
+                .locale(LocaleContextHolder.getLocale().toLanguageTag())
+                .build());
+        domainEventBus.publishAfterCommit(new UserRegistered(user.getUserId(), account.getAccountId(), Instant.now()));
 
         return RegistrationResponse
                 .builder()
@@ -71,22 +126,67 @@ public class AuthService {
                 .build();
     }
 
-    public AuthResponse login(LoginRequest loginRequest){
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.email(),
-                        loginRequest.password()
-                )
-        );
+    private static InvalidRequestException alreadyRegistered(String email) {
+        return new InvalidRequestException("Email '" + email + "' is already registered");
+    }
+
+    /**
+     * Throttled callers are rejected before the user is loaded or the password hashed; see
+     * {@link LoginThrottle}. Last-login details and failure counts are written behind by
+     * {@link UserActivityTracker}.
+     */
+    public AuthResponse login(LoginRequest loginRequest, String clientIp, String userAgent){
+        loginThrottle.checkAllowed(loginRequest.email(), clientIp);
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginRequest.email(),
+                            loginRequest.password()
+                    )
+            );
+        } catch (LockedException e) {
+            throw new TooManyRequestsException("Too many failed sign-in attempts, please try again later",
+                    appProperties.getLoginThrottle().getLockoutDuration());
+        } catch (InternalAuthenticationServiceException e) {
+            // The user could not be loaded at all; not the caller's failure.
+            throw e;
+        } catch (AuthenticationException e) {
+            int failures = loginThrottle.recordFailure(loginRequest.email(), clientIp);
+            if (failures > 0) {
+                userActivityTracker.recordFailedLogin(loginRequest.email(), failures);
+            }
+            throw e;
+        }
 
         SecurityUser securityUser = (SecurityUser) authentication.getPrincipal();
         User user =  Objects.requireNonNull(securityUser).getUser();
+        loginThrottle.recordSuccess(user);
+        userActivityTracker.recordLogin(user.getUserEmail(), clientIp, userAgent);
 
         String token = tokenService.generateToken(authentication);
-        String refreshToken = refreshTokenService.createToken(user);
+        String refreshToken = refreshTokenService.createToken(user, clientIp, userAgent);
         return AuthResponse.create(token, refreshToken, tokenProperties.getAccessTokenTtl().getSeconds());
     }
 
+    /**
+     * Rotates the refresh token and issues a new access token with the user's current roles.
+     * See {@link RefreshTokenService#rotate} for reuse detection.
+     */
+    public AuthResponse refresh(RefreshTokenRequest request, String clientIp, String userAgent) {
+        RefreshTokenService.RotatedToken rotated = refreshTokenService.rotate(request.refreshToken(), clientIp, userAgent);
+        UserDetails userDetails = userDetailsService.loadUserByUsername(rotated.user().getUserEmail());
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+                userDetails, null, userDetails.getAuthorities());
+
+        String token = tokenService.generateToken(authentication);
+        return AuthResponse.create(token, rotated.refreshToken(), tokenProperties.getAccessTokenTtl().getSeconds());
+    }
+
+    public void revoke(RefreshTokenRequest request) {
+        refreshTokenService.revoke(request.refreshToken());
+    }
+
     public PasswordChangeResponse changePassword(@NotNull PasswordChangeRequest request) {
         return null;
     }
@@ -0,0 +1,239 @@
+package org.invoicebuilder.users.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.events.DomainEventBus;
+import org.invoicebuilder.events.UserRegistered;
+import org.invoicebuilder.exception.common.InvalidRequestException;
+import org.invoicebuilder.notifications.event.EmailEventPublisher;
+import org.invoicebuilder.notifications.event.EmailVerificationEvent;
+import org.invoicebuilder.users.domain.User;
+import org.invoicebuilder.users.dto.user.BulkProvisionRequest;
+import org.invoicebuilder.users.dto.user.BulkProvisionResult;
+import org.invoicebuilder.users.dto.user.BulkProvisionSummary;
+import org.invoicebuilder.users.dto.user.BulkProvisionUser;
+import org.invoicebuilder.users.repository.UserProvisioningStore;
+import org.invoicebuilder.users.repository.UserProvisioningStore.NewUser;
+import org.invoicebuilder.users.repository.UserRepository;
+import org.invoicebuilder.users.security.PasswordHashingService;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Creates many users in one account, e.g. when an enterprise onboards its staff.
+ * <p>
+ * Rows are first validated on their own, so a bad row fails alone. Valid rows are then written
+ * in chunks of {@code chunk-size}, each in its own transaction:
+ * <ul>
+ *     <li>one query finds emails that are already registered;</li>
+ *     <li>the chunk's passwords are hashed in parallel on the password hashing pool, leaving
+ *     room for sign-ins;</li>
+ *     <li>users are inserted with one statement, role assignments with one JDBC batch, and
+ *     verification tokens and emails in batches as well.</li>
+ * </ul>
+ * The unique constraint decides races with concurrent signups; a row that loses is reported as
+ * already registered. Each chunk's results are handed to the caller once it commits, so large
+ * uploads can report progress, and a chunk that fails to commit fails only its own rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkUserProvisioningService {
+
+    private static final String DEFAULT_ROLE = "USER";
+    // OWNER is only assigned at registration.
+    private static final Set<String> PROVISIONABLE_ROLES = Set.of("ADMIN", "USER");
+
+    private final UserProvisioningStore userProvisioningStore;
+    private final UserRepository userRepository;
+    private final RoleService roleService;
+    private final PasswordHashingService passwordHashingService;
+    private final EmailVerificationTokenService emailVerificationTokenService;
+    private final EmailEventPublisher emailEventPublisher;
+    private final DomainEventBus domainEventBus;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param locale   language of the verification emails
+     * @param progress receives each chunk's results, in row order, once the chunk is committed
+     * @throws InvalidRequestException if the request has more than {@code max-rows} rows
+     * @throws org.invoicebuilder.exception.common.TooManyRequestsException if the password hashing
+     * pool stays saturated; chunks already committed stay created
+     */
+    public BulkProvisionSummary provision(UUID accountId, BulkProvisionRequest request, Locale locale,
+                                          Consumer<List<BulkProvisionResult>> progress) {
+        checkRowLimit(request);
+        List<BulkProvisionUser> rows = request.users();
+        AppProperties.Provisioning settings = appProperties.getProvisioning();
+
+        int created = 0;
+        Set<String> seenEmails = new HashSet<>();
+        for (int start = 0; start < rows.size(); start += settings.getChunkSize()) {
+            int end = Math.min(rows.size(), start + settings.getChunkSize());
+            List<BulkProvisionResult> results = new ArrayList<>(end - start);
+            List<Candidate> candidates = new ArrayList<>(end - start);
+            for (int row = start; row < end; row++) {
+                BulkProvisionUser user = rows.get(row);
+                String error = validate(user, seenEmails);
+                if (error != null) {
+                    results.add(BulkProvisionResult.failed(row, user == null ? null : user.email(), error));
+                } else {
+                    candidates.add(new Candidate(row, user, roleName(user)));
+                }
+            }
+            if (!candidates.isEmpty()) {
+                results.addAll(write(accountId, candidates, request.shouldSendVerificationEmails(), locale));
+            }
+            results.sort(Comparator.comparingInt(BulkProvisionResult::row));
+            for (BulkProvisionResult result : results) {
+                if (result.status() == BulkProvisionResult.Status.CREATED) {
+                    created++;
+                }
+            }
+            progress.accept(results);
+        }
+
+        meterRegistry.counter("users.provisioning.rows", "result", "created").increment(created);
+        meterRegistry.counter("users.provisioning.rows", "result", "failed").increment(rows.size() - created);
+        log.info("Provisioned {} of {} users into account {}", created, rows.size(), accountId);
+        return new BulkProvisionSummary(rows.size(), created, rows.size() - created, null);
+    }
+
+    /**
+     * @throws InvalidRequestException if the request has more than {@code max-rows} rows
+     */
+    public void checkRowLimit(BulkProvisionRequest request) {
+        int maxRows = appProperties.getProvisioning().getMaxRows();
+        if (request.users().size() > maxRows) {
+            throw new InvalidRequestException("At most " + maxRows + " users can be provisioned at once");
+        }
+    }
+
+    private String validate(BulkProvisionUser user, Set<String> seenEmails) {
+        if (user == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<BulkProvisionUser>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+        String role = roleName(user);
+        if (!PROVISIONABLE_ROLES.contains(role)) {
+            return "Role " + role + " cannot be provisioned";
+        }
+        if (!seenEmails.add(user.email().trim().toLowerCase(Locale.ROOT))) {
+            return "Duplicate email in request";
+        }
+        return null;
+    }
+
+    private List<BulkProvisionResult> write(UUID accountId, List<Candidate> candidates, boolean sendVerificationEmails,
+                                            Locale locale) {
+        List<BulkProvisionResult> results = new ArrayList<>(candidates.size());
+        Set<String> existing = userProvisioningStore.findExistingEmails(
+                candidates.stream().map(candidate -> candidate.user().email()).toList());
+        List<Candidate> fresh = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            if (existing.contains(candidate.user().email())) {
+                results.add(BulkProvisionResult.failed(candidate.row(), candidate.user().email(), "Email is already registered"));
+            } else {
+                fresh.add(candidate);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return results;
+        }
+
+        List<String> hashes = passwordHashingService.encodeAll(
+                fresh.stream().map(candidate -> candidate.user().password()).toList());
+        List<NewUser> newUsers = new ArrayList<>(fresh.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            BulkProvisionUser user = fresh.get(i).user();
+            newUsers.add(new NewUser(UUID.randomUUID(), user.email(), user.displayName(), hashes.get(i),
+                    roleService.findRoleByName(fresh.get(i).role()).getRoleId()));
+        }
+
+        Set<UUID> inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> insert(accountId, newUsers, sendVerificationEmails, locale));
+        } catch (DataAccessException e) {
+            log.warn("Could not provision {} users into account {}", newUsers.size(), accountId, e);
+            for (Candidate candidate : fresh) {
+                results.add(BulkProvisionResult.failed(candidate.row(), candidate.user().email(),
+                        "User could not be created, please retry"));
+            }
+            return results;
+        }
+
+        for (int i = 0; i < fresh.size(); i++) {
+            Candidate candidate = fresh.get(i);
+            UUID userId = newUsers.get(i).userId();
+            if (inserted != null && inserted.contains(userId)) {
+                registeredEmailFilter.add(candidate.user().email());
+                results.add(BulkProvisionResult.created(candidate.row(), candidate.user().email(), userId));
+            } else {
+                results.add(BulkProvisionResult.failed(candidate.row(), candidate.user().email(), "Email is already registered"));
+            }
+        }
+        return results;
+    }
+
+    private Set<UUID> insert(UUID accountId, List<NewUser> newUsers, boolean sendVerificationEmails, Locale locale) {
+        Set<UUID> inserted = userProvisioningStore.insertUsers(accountId, newUsers);
+        List<NewUser> createdUsers = newUsers.stream().filter(user -> inserted.contains(user.userId())).toList();
+        if (createdUsers.isEmpty()) {
+            return inserted;
+        }
+        userProvisioningStore.insertUserRoles(createdUsers);
+
+        if (sendVerificationEmails) {
+            List<User> references = createdUsers.stream()
+                    .map(user -> userRepository.getReferenceById(user.userId()))
+                    .toList();
+            List<String> verificationTokens = emailVerificationTokenService.createTokens(references);
+            List<EmailVerificationEvent> events = new ArrayList<>(createdUsers.size());
+            for (int i = 0; i < createdUsers.size(); i++) {
+                NewUser user = createdUsers.get(i);
+                events.add(EmailVerificationEvent.builder()
+                        .userEmail(user.email())
+                        .userName(user.displayName())
+                        .verificationToken(verificationTokens.get(i))
+                        .message("Please verify your email address")
+                        .locale(locale.toLanguageTag())
+                        .build());
+            }
+            emailEventPublisher.publishEmailEvents(events);
+        }
+
+        Instant now = Instant.now();
+        for (NewUser user : createdUsers) {
+            domainEventBus.publishAfterCommit(new UserRegistered(user.userId(), accountId, now));
+        }
+        return inserted;
+    }
+
+    private static String roleName(BulkProvisionUser user) {
+        return user.role() == null || user.role().isBlank() ? DEFAULT_ROLE : user.role().trim().toUpperCase(Locale.ROOT);
+    }
+
+    private record Candidate(int row, BulkProvisionUser user, String role) {}
+}
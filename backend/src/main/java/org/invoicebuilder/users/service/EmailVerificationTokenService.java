@@ -0,0 +1,65 @@
+package org.invoicebuilder.users.service;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.config.TokenProperties;
+import org.invoicebuilder.users.domain.EmailVerificationToken;
+import org.invoicebuilder.users.domain.User;
+import org.invoicebuilder.users.repository.EmailVerificationTokenRepository;
+import org.invoicebuilder.users.security.SecureTokens;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class EmailVerificationTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final EmailVerificationTokenRepository emailVerificationTokenRepository;
+    private final TokenProperties tokenProperties;
+
+    /**
+     * Stores the hash of a new verification token and returns the raw token for the email link.
+     */
+    public String createToken(User user) {
+        String rawToken = SecureTokens.generate(TOKEN_BYTES);
+
+        EmailVerificationToken token = EmailVerificationToken
+                .builder()
+                .user(user)
+                .tokenHash(SecureTokens.hash(rawToken))
+                .expiresAt(Instant.now().plus(tokenProperties.getEmailVerificationTtl()))
+                .used(false)
+                .build();
+        emailVerificationTokenRepository.save(token);
+        return rawToken;
+    }
+
+    /**
+     * Creates one token per user with a single {@code saveAll}, which Hibernate writes in JDBC
+     * batches.
+     *
+     * @return the raw tokens in the order of {@code users}
+     */
+    public List<String> createTokens(List<User> users) {
+        List<String> rawTokens = new ArrayList<>(users.size());
+        List<EmailVerificationToken> tokens = new ArrayList<>(users.size());
+        Instant expiresAt = Instant.now().plus(tokenProperties.getEmailVerificationTtl());
+        for (User user : users) {
+            String rawToken = SecureTokens.generate(TOKEN_BYTES);
+            rawTokens.add(rawToken);
+            tokens.add(EmailVerificationToken
+                    .builder()
+                    .user(user)
+                    .tokenHash(SecureTokens.hash(rawToken))
+                    .expiresAt(expiresAt)
+                    .used(false)
+                    .build());
+        }
+        emailVerificationTokenRepository.saveAll(tokens);
+        return rawTokens;
+    }
+}
@@ -0,0 +1,95 @@
+package org.invoicebuilder.users.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Deletes expired refresh and email verification tokens.
+ * <p>
+ * Each chunk is one autocommitted statement that locates up to {@code chunk-size} expired rows
+ * through the expiry index, locks them with {@code SKIP LOCKED} so purges on other nodes take
+ * different rows, and deletes them by {@code ctid}; {@code = ANY (ARRAY(...))} lets Postgres
+ * fetch them with a TID scan instead of joining against the subquery. Short transactions keep
+ * row locks and WAL bursts small next to login traffic. The purge stops when a chunk comes back
+ * short or the time budget runs out; the next run continues where it left off.
+ * <p>
+ * Revoked refresh tokens are kept until they expire: replaying one is how reuse is detected
+ * (see {@link RefreshTokenService#rotate}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExpiredTokenPurger {
+
+    private static final String PURGE_REFRESH_TOKENS = """
+        DELETE FROM refresh_tokens
+        WHERE ctid = ANY (ARRAY(
+            SELECT ctid
+            FROM refresh_tokens
+            WHERE refresh_token_expires_at < LOCALTIMESTAMP
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        ))
+        """;
+
+    private static final String PURGE_EMAIL_VERIFICATION_TOKENS = """
+        DELETE FROM email_verification_tokens
+        WHERE ctid = ANY (ARRAY(
+            SELECT ctid
+            FROM email_verification_tokens
+            WHERE ev_expires_at < LOCALTIMESTAMP
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        ))
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppProperties appProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Scheduled(cron = "${app.token-purge.cron:0 20 * * * *}")
+    public void run() {
+        if (appProperties.getTokenPurge().isEnabled()) {
+            purge();
+        }
+    }
+
+    /**
+     * @return the number of tokens this call deleted
+     */
+    public long purge() {
+        long started = System.nanoTime();
+        long deadline = started + appProperties.getTokenPurge().getMaxDuration().toNanos();
+        long purged = purge("refresh_tokens", PURGE_REFRESH_TOKENS, deadline)
+                + purge("email_verification_tokens", PURGE_EMAIL_VERIFICATION_TOKENS, deadline);
+        meterRegistry.timer("auth.tokens.purge.duration").record(Duration.ofNanos(System.nanoTime() - started));
+        return purged;
+    }
+
+    private long purge(String table, String sql, long deadline) {
+        int chunkSize = appProperties.getTokenPurge().getChunkSize();
+        long purged = 0;
+        int deleted;
+        do {
+            if (System.nanoTime() > deadline) {
+                log.info("Token purge of {} stopped at its time budget after {} rows", table, purged);
+                break;
+            }
+            deleted = jdbcTemplate.update(sql, chunkSize);
+            purged += deleted;
+        } while (deleted == chunkSize);
+
+        meterRegistry.counter("auth.tokens.purged", "table", table).increment(purged);
+        if (purged > 0) {
+            log.info("Purged {} expired rows from {}", purged, table);
+        }
+        return purged;
+    }
+}
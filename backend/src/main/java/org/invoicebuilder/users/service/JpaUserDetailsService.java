@@ -1,26 +1,53 @@
 package org.invoicebuilder.users.service;
 
+import lombok.RequiredArgsConstructor;
 import org.invoicebuilder.users.domain.User;
 import org.invoicebuilder.users.domain.SecurityUser;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.invoicebuilder.users.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-@Service
-public class JpaUserDetailsService implements UserDetailsService {
+import java.util.ArrayList;
+import java.util.List;
 
-    @Autowired
-    private UserService userService;
+@Service
+@RequiredArgsConstructor
+public class JpaUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
-    @Autowired
-    private UserRoleService userRoleService;
+    private final UserRepository userRepository;
 
+    /**
+     * Loads the user, its account and its role names with a single query.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User foundUser = userService.getUser(username);
-        return new SecurityUser(foundUser, userRoleService);
+        List<Object[]> rows = userRepository.findWithAccountAndRoleNamesByEmail(username);
+        if (rows.isEmpty()) {
+            throw new UsernameNotFoundException("User " + username + " not found");
+        }
+        User foundUser = (User) rows.getFirst()[0];
+        List<String> roleNames = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            roleNames.add((String) row[1]);
+        }
+        return new SecurityUser(foundUser, roleNames);
+    }
+
+    /**
+     * Stores the hash re-encoded by the authentication provider after a login whose stored hash
+     * was outdated, without loading the user again.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        SecurityUser securityUser = (SecurityUser) userDetails;
+        userRepository.updatePasswordHash(securityUser.getUser().getUserId(), newPassword);
+        securityUser.getUser().setUserPassword(newPassword);
+        return securityUser;
     }
 
 }
@@ -1,21 +1,23 @@
 package org.invoicebuilder.users.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.invoicebuilder.config.TokenProperties;
+import org.invoicebuilder.exception.users.InvalidTokenException;
 import org.invoicebuilder.users.domain.RefreshToken;
 import org.invoicebuilder.users.domain.User;
+import org.invoicebuilder.users.domain.UserStatus;
 import org.invoicebuilder.users.repository.RefreshTokenRepository;
+import org.invoicebuilder.users.security.RevokedRefreshTokenFilter;
+import org.invoicebuilder.users.security.SecureTokens;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.Base64;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -23,44 +25,93 @@ public class RefreshTokenService {
 
     private static final Logger LOG = LoggerFactory.getLogger(RefreshTokenService.class);
 
+    private static final int TOKEN_BYTES = 64;
+
     private final RefreshTokenRepository refreshTokenRepository;
     private final TokenProperties tokenProperties;
+    private final RevokedRefreshTokenFilter revokedTokens;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Issues a refresh token for a new login, starting a new token family.
+     */
+    public String createToken(User user, String clientIp, String userAgent){
+        return createToken(user, UUID.randomUUID(), clientIp, userAgent);
+    }
 
-    public String createToken(User user){
-        String rawToken = generateSecureToken();
-        String tokenHash = hashToken(rawToken);
+    /**
+     * Exchanges a refresh token for a new one in the same family.
+     * <p>
+     * A token from a revoked family is rejected from memory by {@link RevokedRefreshTokenFilter}.
+     * Otherwise the token is revoked with a conditional update, so of two concurrent rotations
+     * only one wins. Presenting a token that was already rotated means it has been copied: the
+     * whole family is revoked, ending the session for both the thief and the user.
+     *
+     * @throws InvalidTokenException if the token is unknown, expired, revoked or reused
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public RotatedToken rotate(String rawToken, String clientIp, String userAgent) {
+        String tokenHash = SecureTokens.hash(rawToken);
+        if (revokedTokens.isRevoked(tokenHash)) {
+            throw rejected("revoked", "Refresh token has been revoked");
+        }
+        RefreshToken current = refreshTokenRepository.findWithUserByTokenHash(tokenHash)
+                .orElseThrow(() -> rejected("unknown", "Refresh token is invalid"));
+        if (current.getRevoked() || refreshTokenRepository.revokeIfActive(current.getRefreshTokenId()) == 0) {
+            revokeFamily(current.getFamilyId());
+            LOG.warn("Refresh token reuse detected for user {}, revoked family {}",
+                    current.getUser().getUserId(), current.getFamilyId());
+            throw rejected("reuse", "Refresh token has already been used; sign in again");
+        }
+        if (current.getExpiresAt().isBefore(Instant.now())) {
+            throw rejected("expired", "Refresh token has expired; sign in again");
+        }
+        User user = current.getUser();
+        if (user.getUserStatus() == UserStatus.DISABLED) {
+            revokeFamily(current.getFamilyId());
+            throw rejected("disabled", "User is disabled");
+        }
+        String rotated = createToken(user, current.getFamilyId(), clientIp, userAgent);
+        meterRegistry.counter("auth.refresh", "result", "rotated").increment();
+        return new RotatedToken(rotated, user);
+    }
+
+    /**
+     * Revokes the token's whole family, e.g. on sign-out. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(SecureTokens.hash(rawToken))
+                .ifPresent(token -> revokeFamily(token.getFamilyId()));
+    }
+
+    private String createToken(User user, UUID familyId, String clientIp, String userAgent){
+        String rawToken = SecureTokens.generate(TOKEN_BYTES);
+        String tokenHash = SecureTokens.hash(rawToken);
 
         RefreshToken refreshToken = RefreshToken
                 .builder()
                 .user(user)
                 .tokenHash(tokenHash)
+                .familyId(familyId)
                 .expiresAt(Instant.now().plus(tokenProperties.getRefreshTokenTtl().getSeconds(), ChronoUnit.SECONDS))
                 .revoked(false)
+                .tokenIp(clientIp)
+                .tokenUserAgent(userAgent)
                 .build();
         refreshTokenRepository.save(refreshToken);
         return rawToken;
     }
 
-    private String generateSecureToken(){
-        byte[] randomBytes = new byte[64];
-        new SecureRandom().nextBytes(randomBytes);
-
-        return Base64.getUrlEncoder().encodeToString(randomBytes);
+    private void revokeFamily(UUID familyId) {
+        refreshTokenRepository.revokeFamily(familyId);
+        revokedTokens.addAll(refreshTokenRepository.findTokenHashesByFamily(familyId));
     }
 
-    private String hashToken(String token){
-        try{
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-
-            byte[] hash = digest.digest(
-                    token.getBytes(StandardCharsets.UTF_8)
-            );
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            LOG.error("SHA-256 Algorithm not available", e);
-            throw new IllegalStateException("Problem with token.Please try again");
-        }
+    private InvalidTokenException rejected(String result, String message) {
+        meterRegistry.counter("auth.refresh", "result", result).increment();
+        return new InvalidTokenException(message);
     }
 
-
+    public record RotatedToken(String refreshToken, User user) {}
 }
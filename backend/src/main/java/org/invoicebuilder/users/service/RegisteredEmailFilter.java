@@ -0,0 +1,76 @@
+package org.invoicebuilder.users.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.util.BloomFilter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Bloom filter of registered emails, so registering a new email, the common case, skips the
+ * existence query.
+ * <p>
+ * A "no" from {@link #mightBeRegistered} is certain for every email registered through this
+ * instance or present at startup; a "yes" only means the database has to be asked. Emails
+ * registered on other instances since startup are not in the filter, which is why the unique
+ * constraint on {@code user_email} stays the final arbiter (see
+ * {@link AuthService#registerEmailUser}). Until the filter is loaded every email counts as
+ * possibly registered.
+ * <p>
+ * The filter is sized for twice the users present at startup, and at least
+ * {@code app.registration.expected-emails}; beyond that its false positive rate rises, which
+ * only costs queries.
+ */
+@Component
+@Slf4j
+public class RegisteredEmailFilter {
+
+    private static final String COUNT_USERS = """
+        SELECT count(*) FROM "user"
+        """;
+
+    private static final String SELECT_EMAILS = """
+        SELECT user_email FROM "user"
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppProperties.Registration settings;
+
+    private volatile BloomFilter filter;
+
+    public RegisteredEmailFilter(JdbcTemplate jdbcTemplate, AppProperties appProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settings = appProperties.getRegistration();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Long users = jdbcTemplate.queryForObject(COUNT_USERS, Long.class);
+        long expected = Math.max(settings.getExpectedEmails(), 2 * (users == null ? 0 : users));
+        BloomFilter loaded = new BloomFilter(expected, settings.getEmailFilterFalsePositiveRate());
+        jdbcTemplate.query(SELECT_EMAILS, rs -> { loaded.put(normalize(rs.getString(1))); });
+        this.filter = loaded;
+        log.info("Loaded {} registered emails into a {} KiB filter", users, loaded.bitSize() / 8 / 1024);
+    }
+
+    public boolean mightBeRegistered(String email) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(normalize(email));
+    }
+
+    public void add(String email) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(normalize(email));
+        }
+    }
+
+    // Case-folded, so the filter can only err towards asking the database.
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -8,9 +8,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Service responsible for role management operations
  * Follows Single Responsibility Principle and implements IRoleService
+ * <p>
+ * Roles are seeded by Liquibase and never change at runtime, so each is looked up once and
+ * then served from memory.
  */
 @Service
 public class RoleService {
@@ -18,9 +24,11 @@ public class RoleService {
     @Autowired
     private RoleRepository roleRepository;
 
+    private final Map<String, Role> rolesByName = new ConcurrentHashMap<>();
+
     public Role findRoleByName(String roleName) {
-        return roleRepository.findByRoleName(roleName)
+        return rolesByName.computeIfAbsent(roleName, name -> roleRepository.findByRoleName(name)
                 .orElseThrow(() -> new org.invoicebuilder.exception.common.ResourceNotFoundException(
-                        "Role", "role", roleName));
+                        "Role", "role", name)));
     }
 }
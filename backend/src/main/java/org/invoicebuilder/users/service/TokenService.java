@@ -1,6 +1,8 @@
 package org.invoicebuilder.users.service;
 
 import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.users.domain.SecurityUser;
+import org.invoicebuilder.users.security.AuthenticatedPrincipal;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
@@ -10,6 +12,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,19 +21,28 @@ public class TokenService {
 
     private final JwtEncoder encoder;
 
+    /**
+     * Besides {@code sub} and {@code scope}, the token carries the user id, account id and role
+     * names, so requests can be authorized and tenant-scoped from the token alone
+     * (see {@link AuthenticatedPrincipal}).
+     */
     public String generateToken(Authentication authentication){
         Instant now = Instant.now();
         String scope = authentication.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(" "));
-        JwtClaimsSet claims = JwtClaimsSet.builder()
+        JwtClaimsSet.Builder claims = JwtClaimsSet.builder()
                 .issuer("self")
                 .issuedAt(now)
                 .expiresAt(now.plus(1, ChronoUnit.HOURS))
                 .subject(authentication.getName())
-                .claim("scope", scope)
-                .build();
-        return this.encoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+                .claim("scope", scope);
+        if (authentication.getPrincipal() instanceof SecurityUser securityUser) {
+            claims.claim(AuthenticatedPrincipal.USER_ID_CLAIM, securityUser.getUser().getUserId().toString())
+                    .claim(AuthenticatedPrincipal.ACCOUNT_ID_CLAIM, securityUser.getUser().getAccount().getAccountId().toString())
+                    .claim(AuthenticatedPrincipal.ROLES_CLAIM, List.copyOf(securityUser.getRoleNames()));
+        }
+        return this.encoder.encode(JwtEncoderParameters.from(claims.build())).getTokenValue();
     }
 
 }
@@ -0,0 +1,161 @@
+package org.invoicebuilder.users.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps each user's last login time, IP, user agent and failed login count current without
+ * writing to the {@code user} row on the login path.
+ * <p>
+ * Logins and failures are coalesced per email in memory, so any number of them between two
+ * flushes become one UPDATE per user, and the pending updates are written with one JDBC batch
+ * every {@code flush-interval}, or as soon as {@code flush-size} users are pending. Pending
+ * updates are flushed on graceful shutdown; a crash loses at most one interval. A failed flush
+ * puts its updates back unless newer ones have arrived meanwhile. When {@code max-pending}
+ * users are pending, e.g. while the database is down, further updates are dropped and counted.
+ * <p>
+ * The lockout itself is not buffered: {@link org.invoicebuilder.users.security.LoginThrottle}
+ * writes it synchronously, since every instance must honour it at once.
+ */
+@Component
+@Slf4j
+public class UserActivityTracker {
+
+    private static final String UPDATE_ACTIVITY = """
+        UPDATE "user"
+        SET user_login_attempts = ?,
+            user_last_login_at = COALESCE(?, user_last_login_at),
+            user_last_login_ip = COALESCE(?, user_last_login_ip),
+            user_last_login_user_agent = COALESCE(?, user_last_login_user_agent)
+        WHERE user_email = ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AppProperties.UserActivity settings;
+    private final Map<String, Activity> pending = new ConcurrentHashMap<>();
+    private final ExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final Counter flushed;
+    private final Counter dropped;
+
+    public UserActivityTracker(JdbcTemplate jdbcTemplate, AppProperties appProperties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settings = appProperties.getUserActivity();
+        this.flusher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-activity-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flushed = meterRegistry.counter("user.activity.flushed");
+        this.dropped = meterRegistry.counter("user.activity.dropped");
+        meterRegistry.gaugeMapSize("user.activity.pending", List.of(), pending);
+    }
+
+    public void recordLogin(String email, String clientIp, String userAgent) {
+        record(email, new Activity(0, Instant.now(), clientIp, userAgent));
+    }
+
+    /**
+     * @param failures the failed logins counted for the email in the current window
+     */
+    public void recordFailedLogin(String email, int failures) {
+        record(email, new Activity(failures, null, null, null));
+    }
+
+    private void record(String email, Activity activity) {
+        if (!pending.containsKey(email) && pending.size() >= settings.getMaxPending()) {
+            dropped.increment();
+            return;
+        }
+        pending.merge(email, activity, Activity::then);
+        if (pending.size() >= settings.getFlushSize() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * @return the number of users updated
+     */
+    @Scheduled(fixedDelayString = "${app.user-activity.flush-interval:PT10S}")
+    public synchronized int flush() {
+        List<Map.Entry<String, Activity>> batch = new ArrayList<>(pending.size());
+        for (String email : pending.keySet()) {
+            Activity activity = pending.remove(email);
+            if (activity != null) {
+                batch.add(Map.entry(email, activity));
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_ACTIVITY, batch, batch.size(), (statement, entry) -> {
+                Activity activity = entry.getValue();
+                statement.setInt(1, activity.loginAttempts());
+                if (activity.lastLoginAt() != null) {
+                    statement.setTimestamp(2, Timestamp.from(activity.lastLoginAt()));
+                } else {
+                    statement.setNull(2, Types.TIMESTAMP);
+                }
+                statement.setString(3, activity.clientIp());
+                statement.setString(4, activity.userAgent());
+                statement.setString(5, entry.getKey());
+            });
+        } catch (RuntimeException e) {
+            // Newer activity recorded meanwhile already supersedes what failed to flush.
+            batch.forEach(entry -> pending.putIfAbsent(entry.getKey(), entry.getValue()));
+            log.warn("Could not flush activity for {} users, will retry", batch.size(), e);
+            return 0;
+        }
+        flushed.increment(batch.size());
+        return batch.size();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        int written = flush();
+        if (written > 0) {
+            log.info("Flushed activity for {} users on shutdown", written);
+        }
+    }
+
+    /**
+     * The columns to write for one user. Null login fields leave the stored values as they are.
+     */
+    record Activity(int loginAttempts, Instant lastLoginAt, String clientIp, String userAgent) {
+
+        /**
+         * Applies {@code next} on top of this one: a login replaces everything, a failure only
+         * the attempt count.
+         */
+        Activity then(Activity next) {
+            return next.lastLoginAt() != null
+                    ? next
+                    : new Activity(next.loginAttempts(), lastLoginAt, clientIp, userAgent);
+        }
+    }
+}
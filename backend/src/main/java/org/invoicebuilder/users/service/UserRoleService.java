@@ -23,21 +23,13 @@ public class UserRoleService {
     private final RoleService roleService;
 
     /**
-     * Assigns a role to a user using dedicated UserRole entity
+     * Assigns a role to a user with a single insert; assigning a role the user already has is a
+     * no-op
      */
     @Transactional
     public User assignRoleToUser(User user, String roleName) {
         Role role = roleService.findRoleByName(roleName);
-        
-        // Check if role assignment already exists
-        if (userRoleRepository.existsById_UserIdAndId_RoleId(user.getUserId(), role.getRoleId())) {
-            return user; // Role already assigned
-        }
-
-        // Create new UserRole assignment
-        UserRole userRole = new UserRole(user, role);
-        userRoleRepository.save(userRole);
-        
+        userRoleRepository.insertIfAbsent(user.getUserId(), role.getRoleId());
         return user;
     }
 
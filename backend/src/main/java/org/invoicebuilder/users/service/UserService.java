@@ -40,7 +40,9 @@ public class UserService {
     public User createUser(CreateUserRequest request) {
         User user = User.builder()
                 .userEmail(request.email())
-                .userPassword(passwordEncoder.encode(request.password()))
+                .userPassword(request.passwordHash() != null
+                        ? request.passwordHash()
+                        : passwordEncoder.encode(request.password()))
                 .userDisplayName(request.displayName())
                 .userEmailVerified(false)
                 .userStatus(UserStatus.ACTIVE)
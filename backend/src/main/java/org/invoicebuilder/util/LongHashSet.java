@@ -0,0 +1,89 @@
+package org.invoicebuilder.util;
+
+/**
+ * Set of {@code long} values in one open-addressing array with linear probing, at 8 bytes per
+ * slot and no boxing. Kept at most half full, so lookups touch one or two slots. Values cannot
+ * be removed; build a new set instead.
+ * <p>
+ * Not thread-safe.
+ */
+public class LongHashSet {
+
+    // Zero marks an empty slot; a zero value is tracked on the side.
+    private long[] slots;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        slots = new long[capacity];
+    }
+
+    /**
+     * @return {@code true} if the value was not in the set yet
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        if ((size + 1) * 2 > slots.length) {
+            resize();
+        }
+        if (insert(slots, value)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int mask = slots.length - 1;
+        for (int i = index(value, mask); ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == value) {
+                return true;
+            }
+            if (slot == 0) {
+                return false;
+            }
+        }
+    }
+
+    public int size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    private void resize() {
+        long[] grown = new long[slots.length * 2];
+        for (long value : slots) {
+            if (value != 0) {
+                insert(grown, value);
+            }
+        }
+        slots = grown;
+    }
+
+    private static boolean insert(long[] table, long value) {
+        int mask = table.length - 1;
+        for (int i = index(value, mask); ; i = (i + 1) & mask) {
+            long slot = table[i];
+            if (slot == value) {
+                return false;
+            }
+            if (slot == 0) {
+                table[i] = value;
+                return true;
+            }
+        }
+    }
+
+    private static int index(long value, int mask) {
+        // Fibonacci hashing spreads values whose low bits are alike.
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
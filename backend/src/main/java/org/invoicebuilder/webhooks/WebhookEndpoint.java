@@ -0,0 +1,59 @@
+package org.invoicebuilder.webhooks;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A URL an account wants invoice events pushed to. Payloads are signed with {@code secret};
+ * an empty {@code eventTypes} list subscribes to every event type.
+ */
+@Entity
+@Table(name = "webhook_endpoints")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookEndpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "webhook_endpoint_id")
+    private UUID id;
+
+    @Column(name = "webhook_account_id", nullable = false)
+    private UUID accountId;
+
+    @Column(name = "webhook_url", nullable = false, length = 2048)
+    private String url;
+
+    @Column(name = "webhook_secret", nullable = false, length = 64)
+    private String secret;
+
+    @Builder.Default
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "webhook_event_types", nullable = false, columnDefinition = "TEXT[]")
+    private List<String> eventTypes = new ArrayList<>();
+
+    /** Requests in flight at once; {@code null} uses {@code app.webhooks.default-max-concurrency}. */
+    @Column(name = "webhook_max_concurrency")
+    private Integer maxConcurrency;
+
+    @Builder.Default
+    @Column(name = "webhook_enabled", nullable = false)
+    private boolean enabled = true;
+
+    @CreationTimestamp
+    @Column(name = "webhook_created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
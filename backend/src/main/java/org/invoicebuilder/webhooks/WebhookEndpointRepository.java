@@ -0,0 +1,14 @@
+package org.invoicebuilder.webhooks;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface WebhookEndpointRepository extends JpaRepository<WebhookEndpoint, UUID> {
+
+    List<WebhookEndpoint> findByAccountIdOrderByCreatedAtAsc(UUID accountId);
+
+    Optional<WebhookEndpoint> findByIdAndAccountId(UUID id, UUID accountId);
+}
@@ -0,0 +1,78 @@
+package org.invoicebuilder.webhooks;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.exception.common.InvalidRequestException;
+import org.invoicebuilder.exception.common.ResourceNotFoundException;
+import org.invoicebuilder.webhooks.delivery.WebhookDeliveryStore;
+import org.invoicebuilder.webhooks.delivery.WebhookSigner;
+import org.invoicebuilder.webhooks.dto.CreateWebhookEndpointRequest;
+import org.invoicebuilder.webhooks.dto.WebhookDeliveryResponse;
+import org.invoicebuilder.webhooks.dto.WebhookEndpointResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class WebhookEndpointService {
+    private static final int MAX_DELIVERIES_LISTED = 200;
+
+    private final WebhookEndpointRepository endpointRepository;
+    private final WebhookDeliveryStore deliveryStore;
+
+    /**
+     * @return the endpoint with its signing secret, which is not shown again
+     * @throws InvalidRequestException if an event type is unsupported or the URL is not a public https address
+     */
+    @Transactional
+    public WebhookEndpointResponse create(UUID accountId, CreateWebhookEndpointRequest request) {
+        List<String> eventTypes = request.eventTypes() == null ? List.of() : request.eventTypes().stream().distinct().toList();
+        for (String eventType : eventTypes) {
+            if (!WebhookEventTypes.SUPPORTED.contains(eventType)) {
+                throw new InvalidRequestException("Unsupported event type: " + eventType);
+            }
+        }
+        WebhookUrlPolicy.check(request.url());
+        WebhookEndpoint endpoint = endpointRepository.save(WebhookEndpoint.builder()
+                .accountId(accountId)
+                .url(request.url())
+                .secret(WebhookSigner.newSecret())
+                .eventTypes(eventTypes)
+                .maxConcurrency(request.maxConcurrency())
+                .build());
+        return WebhookEndpointResponse.withSecret(endpoint);
+    }
+
+    public List<WebhookEndpointResponse> list(UUID accountId) {
+        return endpointRepository.findByAccountIdOrderByCreatedAtAsc(accountId).stream()
+                .map(WebhookEndpointResponse::from)
+                .toList();
+    }
+
+    /**
+     * Disabling pauses delivery; deliveries already queued are sent once it is enabled again.
+     */
+    @Transactional
+    public WebhookEndpointResponse setEnabled(UUID accountId, UUID id, boolean enabled) {
+        WebhookEndpoint endpoint = find(accountId, id);
+        endpoint.setEnabled(enabled);
+        return WebhookEndpointResponse.from(endpointRepository.save(endpoint));
+    }
+
+    @Transactional
+    public void delete(UUID accountId, UUID id) {
+        endpointRepository.delete(find(accountId, id));
+    }
+
+    public List<WebhookDeliveryResponse> deliveries(UUID accountId, UUID id, int limit) {
+        find(accountId, id);
+        return deliveryStore.recentDeliveries(id, Math.clamp(limit, 1, MAX_DELIVERIES_LISTED));
+    }
+
+    private WebhookEndpoint find(UUID accountId, UUID id) {
+        return endpointRepository.findByIdAndAccountId(id, accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Webhook endpoint", "id", id));
+    }
+}
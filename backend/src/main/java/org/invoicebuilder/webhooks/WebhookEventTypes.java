@@ -0,0 +1,30 @@
+package org.invoicebuilder.webhooks;
+
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Event types an endpoint can subscribe to: {@code invoice.created} and one
+ * {@code invoice.<status>} per status an invoice can move to.
+ */
+public final class WebhookEventTypes {
+
+    public static final Set<String> SUPPORTED;
+
+    static {
+        Set<String> types = new LinkedHashSet<>();
+        types.add("invoice.created");
+        for (InvoiceStatus status : InvoiceStatus.values()) {
+            if (status != InvoiceStatus.DRAFT) {
+                types.add("invoice." + status.name().toLowerCase(Locale.ROOT));
+            }
+        }
+        SUPPORTED = Set.copyOf(types);
+    }
+
+    private WebhookEventTypes() {
+    }
+}
@@ -0,0 +1,74 @@
+package org.invoicebuilder.webhooks;
+
+import org.invoicebuilder.exception.common.InvalidRequestException;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.Locale;
+
+/**
+ * Decides which URLs may be registered as webhook endpoints. Deliveries are sent from inside
+ * our network, so an endpoint must be a public https address: anything that resolves to a
+ * loopback, link-local (including the 169.254.169.254 metadata service), private or otherwise
+ * non-routable address is rejected. The dispatcher checks the addresses again before every
+ * delivery, since a host may resolve differently later.
+ */
+public final class WebhookUrlPolicy {
+
+    private WebhookUrlPolicy() {
+    }
+
+    /**
+     * @throws InvalidRequestException if the URL is not https, its host cannot be resolved, or
+     *                                 any of its addresses is not public
+     */
+    static void check(String url) {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            throw new InvalidRequestException("url: not a valid URL");
+        }
+        if (!"https".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null) {
+            throw new InvalidRequestException("url: must be an https URL with a host");
+        }
+        if (uri.getUserInfo() != null) {
+            throw new InvalidRequestException("url: must not contain credentials");
+        }
+
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        if (host.equals("localhost") || host.endsWith(".localhost")) {
+            throw new InvalidRequestException("url: " + host + " is not a public address");
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new InvalidRequestException("url: host " + host + " cannot be resolved");
+        }
+        for (InetAddress address : addresses) {
+            if (!isPublic(address)) {
+                throw new InvalidRequestException("url: " + host + " resolves to " + address.getHostAddress()
+                        + ", which is not a public address");
+            }
+        }
+    }
+
+    public static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) {
+            int first = bytes[0] & 0xff;
+            int second = bytes[1] & 0xff;
+            // 0.0.0.0/8 and the 100.64.0.0/10 carrier-grade NAT range
+            return first != 0 && !(first == 100 && (second & 0xc0) == 64);
+        }
+        // IPv6 unique local addresses, fc00::/7
+        return (bytes[0] & 0xfe) != 0xfc;
+    }
+}
@@ -0,0 +1,122 @@
+package org.invoicebuilder.webhooks.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.common.api_version.ApiVersionController;
+import org.invoicebuilder.users.security.AuthenticatedPrincipal;
+import org.invoicebuilder.webhooks.WebhookEndpointService;
+import org.invoicebuilder.webhooks.dto.CreateWebhookEndpointRequest;
+import org.invoicebuilder.webhooks.dto.WebhookDeliveryResponse;
+import org.invoicebuilder.webhooks.dto.WebhookEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Tag(name = "Webhooks", description = "APIs for managing webhook endpoints and inspecting deliveries")
+@RestController
+@RequestMapping("/api/v1/webhooks")
+@RequiredArgsConstructor
+public class WebhookEndpointController extends ApiVersionController {
+    private final WebhookEndpointService endpointService;
+
+    @Operation(summary = "Register a webhook endpoint", description = "Registers a URL for invoice events; the response carries the signing secret, which is not returned again")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Endpoint registered successfully",
+                    content = @Content(schema = @Schema(implementation = WebhookEndpointResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data, unsupported event type or URL that is not public https",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Caller is not an owner or admin of the account",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @PostMapping
+    public ResponseEntity<WebhookEndpointResponse> createEndpoint(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Endpoint URL, event types and concurrency limit", required = true)
+            @Valid @RequestBody CreateWebhookEndpointRequest request) {
+        requireAdmin(principal);
+        return new ResponseEntity<>(endpointService.create(principal.accountId(), request), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "List webhook endpoints", description = "Retrieves the endpoints of the caller's account in registration order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Endpoints retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = List.class)))
+    })
+    @GetMapping
+    public ResponseEntity<List<WebhookEndpointResponse>> listEndpoints(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal) {
+        return ResponseEntity.ok(endpointService.list(principal.accountId()));
+    }
+
+    @Operation(summary = "Enable or disable an endpoint", description = "Disabling pauses delivery; queued deliveries are sent once the endpoint is enabled again")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Endpoint updated successfully",
+                    content = @Content(schema = @Schema(implementation = WebhookEndpointResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Caller is not an owner or admin of the account",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Endpoint not found",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<WebhookEndpointResponse> updateEndpointStatus(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Endpoint unique identifier", example = "550e8400-e29b-41d4-a716-446655440001")
+            @PathVariable UUID id,
+            @Parameter(description = "Whether events are delivered", example = "false")
+            @RequestParam boolean enabled) {
+        requireAdmin(principal);
+        return ResponseEntity.ok(endpointService.setEnabled(principal.accountId(), id, enabled));
+    }
+
+    @Operation(summary = "Delete an endpoint", description = "Deletes an endpoint together with its queued and past deliveries")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Endpoint deleted successfully"),
+            @ApiResponse(responseCode = "403", description = "Caller is not an owner or admin of the account",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Endpoint not found",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteEndpoint(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Endpoint unique identifier", example = "550e8400-e29b-41d4-a716-446655440001")
+            @PathVariable UUID id) {
+        requireAdmin(principal);
+        endpointService.delete(principal.accountId(), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "List recent deliveries", description = "Retrieves an endpoint's latest deliveries with the result of their last attempt")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deliveries retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = List.class))),
+            @ApiResponse(responseCode = "404", description = "Endpoint not found",
+                    content = @Content(schema = @Schema(implementation = org.invoicebuilder.exception.ApiError.class)))
+    })
+    @GetMapping("/{id}/deliveries")
+    public ResponseEntity<List<WebhookDeliveryResponse>> listDeliveries(
+            @Parameter(hidden = true) AuthenticatedPrincipal principal,
+            @Parameter(description = "Endpoint unique identifier", example = "550e8400-e29b-41d4-a716-446655440001")
+            @PathVariable UUID id,
+            @Parameter(description = "Maximum number of deliveries, at most 200", example = "50")
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(endpointService.deliveries(principal.accountId(), id, limit));
+    }
+
+    private static void requireAdmin(AuthenticatedPrincipal principal) {
+        if (!principal.hasRole("OWNER") && !principal.hasRole("ADMIN")) {
+            throw new AccessDeniedException("Only account owners and admins can manage webhook endpoints");
+        }
+    }
+}
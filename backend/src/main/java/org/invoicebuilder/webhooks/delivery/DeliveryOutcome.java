@@ -0,0 +1,35 @@
+package org.invoicebuilder.webhooks.delivery;
+
+import java.time.Duration;
+
+/**
+ * Result of handling one claimed delivery, written back by {@link WebhookDeliveryStore#record}.
+ *
+ * @param attempts   attempts made so far, including this one
+ * @param statusCode HTTP status, or {@code null} if no response arrived
+ * @param retryDelay time until the delivery is due again; zero unless {@code status} is PENDING
+ */
+public record DeliveryOutcome(long deliveryId, Status status, boolean attempted, int attempts, Integer statusCode,
+                              int durationMillis, String error, Duration retryDelay) {
+
+    static final int MAX_ERROR_LENGTH = 200;
+
+    public enum Status {
+        PENDING, DELIVERED, DEAD;
+
+        boolean isFinal() {
+            return this != PENDING;
+        }
+    }
+
+    /**
+     * Hands a delivery back without an attempt, e.g. when its endpoint's lane was full.
+     */
+    static DeliveryOutcome released(WebhookDelivery delivery) {
+        return new DeliveryOutcome(delivery.id(), Status.PENDING, false, delivery.attempts(), null, 0, null, Duration.ZERO);
+    }
+
+    static String truncate(String error) {
+        return error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,13 @@
+package org.invoicebuilder.webhooks.delivery;
+
+import java.util.UUID;
+
+/**
+ * A claimed delivery with what is needed to send it.
+ *
+ * @param maxConcurrency the endpoint's limit, or {@code null} for the configured default
+ * @param attempts       attempts made before this one
+ */
+public record WebhookDelivery(long id, UUID endpointId, String url, String secret, Integer maxConcurrency,
+                              String eventType, String payload, int attempts) {
+}
@@ -0,0 +1,222 @@
+package org.invoicebuilder.webhooks.delivery;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.webhooks.dto.WebhookDeliveryResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC access to {@code webhook_deliveries} and their attempt log.
+ * <p>
+ * A delivery row is the durable queue entry: PENDING until claimed, DELIVERING while a node
+ * holds its lease, then DELIVERED or DEAD. Each HTTP attempt adds one narrow row to
+ * {@code webhook_delivery_attempts} (status code, duration, truncated error); response bodies
+ * are never stored.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WebhookDeliveryStore {
+
+    private static final String FIND_ENDPOINTS = """
+        SELECT webhook_endpoint_id, webhook_account_id, webhook_event_types
+        FROM webhook_endpoints
+        WHERE webhook_account_id = ANY (?)
+          AND webhook_enabled
+        """;
+
+    private static final String ENQUEUE = """
+        INSERT INTO webhook_deliveries (webhook_endpoint_id, webhook_event_type, webhook_payload)
+        VALUES (?, ?, ?)
+        """;
+
+    /**
+     * Takes at most {@code lane-capacity} deliveries per endpoint, skipping endpoints whose lane
+     * is full, so one backed-up endpoint cannot fill the whole batch. Deliveries to disabled
+     * endpoints wait until the endpoint is enabled again. The ranking runs in its own CTE
+     * because {@code FOR UPDATE} is not allowed next to a window function.
+     */
+    private static final String CLAIM_DUE = """
+        WITH ranked AS (
+            SELECT d.webhook_delivery_id,
+                   ROW_NUMBER() OVER (PARTITION BY d.webhook_endpoint_id ORDER BY d.webhook_available_at) AS lane_position
+            FROM webhook_deliveries d
+            JOIN webhook_endpoints e ON e.webhook_endpoint_id = d.webhook_endpoint_id
+            WHERE d.webhook_status IN ('PENDING', 'DELIVERING')
+              AND d.webhook_available_at <= LOCALTIMESTAMP
+              AND d.webhook_endpoint_id <> ALL (?)
+              AND e.webhook_enabled
+        ), due AS (
+            SELECT d.webhook_delivery_id
+            FROM webhook_deliveries d
+            JOIN ranked r ON r.webhook_delivery_id = d.webhook_delivery_id
+            WHERE r.lane_position <= ?
+            ORDER BY d.webhook_available_at
+            LIMIT ?
+            FOR UPDATE OF d SKIP LOCKED
+        )
+        UPDATE webhook_deliveries d
+        SET webhook_status = 'DELIVERING',
+            webhook_available_at = LOCALTIMESTAMP + make_interval(secs => ?)
+        FROM due, webhook_endpoints e
+        WHERE d.webhook_delivery_id = due.webhook_delivery_id
+          AND e.webhook_endpoint_id = d.webhook_endpoint_id
+        RETURNING d.webhook_delivery_id, d.webhook_endpoint_id, d.webhook_event_type, d.webhook_payload,
+                  d.webhook_attempts, e.webhook_url, e.webhook_secret, e.webhook_max_concurrency
+        """;
+
+    private static final String INSERT_ATTEMPT = """
+        INSERT INTO webhook_delivery_attempts (webhook_delivery_id, attempt_number, attempt_status_code,
+                                               attempt_duration_ms, attempt_error)
+        VALUES (?, ?, ?, ?, ?)
+        ON CONFLICT DO NOTHING
+        """;
+
+    private static final String UPDATE_DELIVERY = """
+        UPDATE webhook_deliveries
+        SET webhook_status = ?,
+            webhook_attempts = ?,
+            webhook_available_at = LOCALTIMESTAMP + make_interval(secs => ?),
+            webhook_completed_at = CASE WHEN ? THEN LOCALTIMESTAMP END
+        WHERE webhook_delivery_id = ?
+          AND webhook_status = 'DELIVERING'
+        """;
+
+    private static final String RECENT_DELIVERIES = """
+        SELECT d.webhook_delivery_id, d.webhook_event_type, d.webhook_status, d.webhook_attempts,
+               d.webhook_created_at, d.webhook_completed_at, a.attempt_status_code, a.attempt_error
+        FROM webhook_deliveries d
+        LEFT JOIN webhook_delivery_attempts a
+               ON a.webhook_delivery_id = d.webhook_delivery_id
+              AND a.attempt_number = d.webhook_attempts
+        WHERE d.webhook_endpoint_id = ?
+        ORDER BY d.webhook_delivery_id DESC
+        LIMIT ?
+        """;
+
+    private static final String PURGE = """
+        DELETE FROM webhook_deliveries
+        WHERE webhook_delivery_id IN (
+            SELECT webhook_delivery_id
+            FROM webhook_deliveries
+            WHERE webhook_status IN ('DELIVERED', 'DEAD')
+              AND webhook_completed_at < LOCALTIMESTAMP - make_interval(secs => ?)
+            LIMIT ?
+        )
+        """;
+
+    private static final RowMapper<WebhookDelivery> DELIVERY_MAPPER = (rs, rowNum) -> new WebhookDelivery(
+            rs.getLong("webhook_delivery_id"),
+            rs.getObject("webhook_endpoint_id", UUID.class),
+            rs.getString("webhook_url"),
+            rs.getString("webhook_secret"),
+            rs.getObject("webhook_max_concurrency", Integer.class),
+            rs.getString("webhook_event_type"),
+            rs.getString("webhook_payload"),
+            rs.getInt("webhook_attempts"));
+
+    private static final RowMapper<WebhookDeliveryResponse> RESPONSE_MAPPER = (rs, rowNum) -> new WebhookDeliveryResponse(
+            rs.getLong("webhook_delivery_id"),
+            rs.getString("webhook_event_type"),
+            rs.getString("webhook_status"),
+            rs.getInt("webhook_attempts"),
+            rs.getObject("attempt_status_code", Integer.class),
+            rs.getString("attempt_error"),
+            toInstant(rs.getTimestamp("webhook_created_at")),
+            toInstant(rs.getTimestamp("webhook_completed_at")));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the enabled endpoints of the given accounts, by account
+     */
+    public Map<UUID, List<EndpointSubscription>> findEnabledEndpoints(Collection<UUID> accountIds) {
+        Map<UUID, List<EndpointSubscription>> byAccount = new HashMap<>();
+        jdbcTemplate.query(FIND_ENDPOINTS, statement ->
+                statement.setArray(1, statement.getConnection().createArrayOf("uuid", accountIds.toArray())), rs -> {
+            Array types = rs.getArray("webhook_event_types");
+            byAccount.computeIfAbsent(rs.getObject("webhook_account_id", UUID.class), key -> new ArrayList<>())
+                    .add(new EndpointSubscription(rs.getObject("webhook_endpoint_id", UUID.class),
+                            types == null ? List.of() : List.of((String[]) types.getArray())));
+        });
+        return byAccount;
+    }
+
+    public void enqueue(List<NewDelivery> deliveries) {
+        jdbcTemplate.batchUpdate(ENQUEUE, deliveries, deliveries.size(), (statement, delivery) -> {
+            statement.setObject(1, delivery.endpointId());
+            statement.setString(2, delivery.eventType());
+            statement.setString(3, delivery.payload());
+        });
+    }
+
+    /**
+     * Leases due deliveries to this node for {@code lease}; a node that dies mid-delivery
+     * leaves them to be claimed again once the lease runs out.
+     */
+    public List<WebhookDelivery> claimDue(int limit, int perEndpointLimit, Collection<UUID> skippedEndpoints, Duration lease) {
+        return jdbcTemplate.query(CLAIM_DUE, statement -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("uuid", skippedEndpoints.toArray()));
+            statement.setInt(2, perEndpointLimit);
+            statement.setInt(3, limit);
+            statement.setLong(4, lease.toSeconds());
+        }, DELIVERY_MAPPER);
+    }
+
+    /**
+     * Writes a batch of outcomes: one attempt row per HTTP attempt and the new state of each
+     * delivery. Outcomes for deliveries whose lease was already taken over are ignored.
+     */
+    public void record(List<DeliveryOutcome> outcomes) {
+        List<DeliveryOutcome> attempted = outcomes.stream().filter(DeliveryOutcome::attempted).toList();
+        if (!attempted.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ATTEMPT, attempted, attempted.size(), (statement, outcome) -> {
+                statement.setLong(1, outcome.deliveryId());
+                statement.setInt(2, outcome.attempts());
+                statement.setObject(3, outcome.statusCode());
+                statement.setInt(4, outcome.durationMillis());
+                statement.setString(5, outcome.error());
+            });
+        }
+        jdbcTemplate.batchUpdate(UPDATE_DELIVERY, outcomes, outcomes.size(), (statement, outcome) -> {
+            statement.setString(1, outcome.status().name());
+            statement.setInt(2, outcome.attempts());
+            statement.setDouble(3, outcome.retryDelay().toMillis() / 1000.0);
+            statement.setBoolean(4, outcome.status().isFinal());
+            statement.setLong(5, outcome.deliveryId());
+        });
+    }
+
+    public List<WebhookDeliveryResponse> recentDeliveries(UUID endpointId, int limit) {
+        return jdbcTemplate.query(RECENT_DELIVERIES, RESPONSE_MAPPER, endpointId, limit);
+    }
+
+    public int purge(Duration retention, int chunkSize) {
+        return jdbcTemplate.update(PURGE, retention.toSeconds(), chunkSize);
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+
+    public record EndpointSubscription(UUID endpointId, List<String> eventTypes) {
+
+        public boolean accepts(String eventType) {
+            return eventTypes.isEmpty() || eventTypes.contains(eventType);
+        }
+    }
+
+    public record NewDelivery(UUID endpointId, String eventType, String payload) {
+    }
+}
@@ -0,0 +1,342 @@
+package org.invoicebuilder.webhooks.delivery;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.webhooks.WebhookUrlPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Sends claimed webhook deliveries to their endpoints.
+ * <p>
+ * Every endpoint has its own lane: at most {@code max-concurrency} requests in flight and at
+ * most {@code lane-capacity} deliveries held. A receiver that answers slowly only fills its own
+ * lane; once full, the next claim skips that endpoint, so other endpoints keep their throughput.
+ * Requests go out asynchronously on a shared {@link HttpClient}, and their outcomes are queued
+ * and written back in one batch on the next poll. Outcomes lost in a crash are harmless: the
+ * claim lease runs out and the delivery is sent again, which receivers de-duplicate by the
+ * {@code X-Webhook-Delivery} id.
+ * <p>
+ * Failed attempts are retried with exponential backoff and equal jitter, or after the
+ * receiver's {@code Retry-After} if that is longer, and become DEAD after {@code max-attempts}.
+ * <p>
+ * The endpoint's host is resolved again before every request. If any address is not public
+ * (the host was re-pointed at an internal address after registration) the delivery becomes
+ * DEAD without being sent. The request then resolves the host from the JVM's address cache,
+ * which the check has just filled, so it connects to the addresses that were checked.
+ */
+@Component
+@Slf4j
+public class WebhookDispatcher {
+
+    static final String SIGNATURE_HEADER = "X-Webhook-Signature";
+    static final String EVENT_HEADER = "X-Webhook-Event";
+    static final String DELIVERY_HEADER = "X-Webhook-Delivery";
+
+    private final WebhookDeliveryStore store;
+    private final AppProperties.Webhooks settings;
+    private final HttpClient httpClient;
+    private final Predicate<InetAddress> addressAllowed;
+    private final Map<UUID, EndpointLane> lanes = new ConcurrentHashMap<>();
+    private final Queue<DeliveryOutcome> outcomes = new ConcurrentLinkedQueue<>();
+
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter dead;
+    private final Timer requestTimer;
+
+    @Autowired
+    public WebhookDispatcher(WebhookDeliveryStore store, AppProperties appProperties, MeterRegistry meterRegistry) {
+        this(store, appProperties, meterRegistry, WebhookUrlPolicy::isPublic);
+    }
+
+    WebhookDispatcher(WebhookDeliveryStore store, AppProperties appProperties, MeterRegistry meterRegistry,
+                      Predicate<InetAddress> addressAllowed) {
+        this.store = store;
+        this.addressAllowed = addressAllowed;
+        this.settings = appProperties.getWebhooks();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(settings.getRequestTimeout())
+                .build();
+        this.delivered = meterRegistry.counter("webhook.deliveries", "result", "delivered");
+        this.retried = meterRegistry.counter("webhook.deliveries", "result", "retried");
+        this.dead = meterRegistry.counter("webhook.deliveries", "result", "dead");
+        this.requestTimer = meterRegistry.timer("webhook.delivery.duration");
+    }
+
+    @Scheduled(fixedDelayString = "${app.webhooks.poll-interval:PT0.5S}")
+    public void run() {
+        if (settings.isEnabled()) {
+            poll();
+        }
+    }
+
+    /**
+     * Writes back finished outcomes, then claims due deliveries for every endpoint whose lane
+     * has room and hands them to their lanes.
+     *
+     * @return the number of deliveries claimed
+     */
+    public int poll() {
+        flush();
+        List<UUID> saturated = new ArrayList<>();
+        lanes.forEach((endpointId, lane) -> {
+            if (lane.isFull()) {
+                saturated.add(endpointId);
+            }
+        });
+        // Only this thread adds to lanes, so an idle lane cannot receive work while being removed.
+        lanes.values().removeIf(EndpointLane::isIdle);
+
+        List<WebhookDelivery> claimed = store.claimDue(settings.getBatchSize(), settings.getLaneCapacity(),
+                saturated, settings.getLease());
+        for (WebhookDelivery delivery : claimed) {
+            EndpointLane lane = lanes.computeIfAbsent(delivery.endpointId(), id -> new EndpointLane());
+            if (!lane.submit(delivery)) {
+                outcomes.add(DeliveryOutcome.released(delivery));
+            }
+        }
+        return claimed.size();
+    }
+
+    @Scheduled(cron = "${app.webhooks.purge-cron:0 45 * * * *}")
+    public void purge() {
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = store.purge(settings.getRetention(), settings.getPurgeChunkSize());
+            purged += deleted;
+        } while (deleted == settings.getPurgeChunkSize());
+        if (purged > 0) {
+            log.info("Purged {} completed webhook deliveries", purged);
+        }
+    }
+
+    /**
+     * Waits for requests in flight, then writes back their outcomes.
+     */
+    @PreDestroy
+    public void close() {
+        httpClient.close();
+        flush();
+    }
+
+    /**
+     * @return the number of outcomes written
+     */
+    int flush() {
+        List<DeliveryOutcome> batch = new ArrayList<>();
+        DeliveryOutcome outcome;
+        while ((outcome = outcomes.poll()) != null) {
+            batch.add(outcome);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            store.record(batch);
+        } catch (RuntimeException e) {
+            // The leases run out and the deliveries are claimed again.
+            log.error("Failed to record {} webhook delivery outcomes", batch.size(), e);
+        }
+        return batch.size();
+    }
+
+    private void send(WebhookDelivery delivery, EndpointLane lane) {
+        long startNanos = System.nanoTime();
+        HttpRequest request;
+        try {
+            URI uri = URI.create(delivery.url());
+            String blocked = blockedAddress(uri.getHost());
+            if (blocked != null) {
+                reject(delivery, lane, blocked);
+                return;
+            }
+            long timestamp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+            request = HttpRequest.newBuilder(uri)
+                    .timeout(settings.getRequestTimeout())
+                    .header("Content-Type", "application/json")
+                    .header(EVENT_HEADER, delivery.eventType())
+                    .header(DELIVERY_HEADER, Long.toString(delivery.id()))
+                    .header(SIGNATURE_HEADER, WebhookSigner.sign(delivery.secret(), timestamp, delivery.payload()))
+                    .POST(HttpRequest.BodyPublishers.ofString(delivery.payload()))
+                    .build();
+        } catch (IllegalArgumentException | UnknownHostException e) {
+            complete(delivery, lane, null, e, startNanos);
+            return;
+        }
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> complete(delivery, lane, response, error, startNanos));
+    }
+
+    /**
+     * @return a description of the first address of {@code host} that may not be called, or
+     * {@code null} if all may
+     * @throws UnknownHostException if the host does not resolve; the attempt fails and is retried
+     */
+    private String blockedAddress(String host) throws UnknownHostException {
+        if (host == null) {
+            return "URL has no host";
+        }
+        for (InetAddress address : InetAddress.getAllByName(host)) {
+            if (!addressAllowed.test(address)) {
+                return host + " resolves to " + address.getHostAddress() + ", which is not a public address";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ends the delivery without sending it; retrying cannot help.
+     */
+    private void reject(WebhookDelivery delivery, EndpointLane lane, String failure) {
+        try {
+            dead.increment();
+            log.warn("Webhook delivery {} to {} is DEAD, not sent: {}", delivery.id(), delivery.url(), failure);
+            outcomes.add(new DeliveryOutcome(delivery.id(), DeliveryOutcome.Status.DEAD, true, delivery.attempts() + 1,
+                    null, 0, DeliveryOutcome.truncate(failure), Duration.ZERO));
+        } finally {
+            lane.release();
+        }
+    }
+
+    private void complete(WebhookDelivery delivery, EndpointLane lane, HttpResponse<?> response, Throwable error,
+                          long startNanos) {
+        try {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            requestTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            outcomes.add(outcome(delivery, response, error, (int) TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
+        } finally {
+            lane.release();
+        }
+    }
+
+    DeliveryOutcome outcome(WebhookDelivery delivery, HttpResponse<?> response, Throwable error, int durationMillis) {
+        int attempts = delivery.attempts() + 1;
+        Integer statusCode = response == null ? null : response.statusCode();
+        if (statusCode != null && statusCode >= 200 && statusCode < 300) {
+            delivered.increment();
+            return new DeliveryOutcome(delivery.id(), DeliveryOutcome.Status.DELIVERED, true, attempts, statusCode,
+                    durationMillis, null, Duration.ZERO);
+        }
+        String failure = DeliveryOutcome.truncate(statusCode != null ? "HTTP " + statusCode : describe(error));
+        if (attempts >= settings.getMaxAttempts()) {
+            dead.increment();
+            log.warn("Webhook delivery {} to {} is DEAD after {} attempts: {}", delivery.id(), delivery.url(), attempts, failure);
+            return new DeliveryOutcome(delivery.id(), DeliveryOutcome.Status.DEAD, true, attempts, statusCode,
+                    durationMillis, failure, Duration.ZERO);
+        }
+        retried.increment();
+        return new DeliveryOutcome(delivery.id(), DeliveryOutcome.Status.PENDING, true, attempts, statusCode,
+                durationMillis, failure, retryDelay(attempts, response));
+    }
+
+    /**
+     * Equal jitter: half the exponential step is fixed, the other half random, so retries of
+     * deliveries that failed together spread out but never come back sooner than half the step.
+     */
+    Duration retryDelay(int attempts, HttpResponse<?> response) {
+        long maxMillis = settings.getMaxBackoff().toMillis();
+        long step = Math.min(maxMillis, settings.getRetryBackoff().toMillis() << Math.min(attempts - 1, 20));
+        long delay = step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1);
+        if (response != null) {
+            long retryAfterMillis = response.headers().firstValue("Retry-After")
+                    .map(WebhookDispatcher::parseRetryAfterMillis)
+                    .orElse(0L);
+            delay = Math.max(delay, Math.min(retryAfterMillis, maxMillis));
+        }
+        return Duration.ofMillis(delay);
+    }
+
+    private static long parseRetryAfterMillis(String value) {
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            // HTTP-date form; fall back to our own backoff.
+            return 0;
+        }
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause == null) {
+            return "No response";
+        }
+        return cause.getMessage() == null ? cause.getClass().getSimpleName()
+                : cause.getClass().getSimpleName() + ": " + cause.getMessage();
+    }
+
+    /**
+     * Bounds one endpoint's requests in flight and the deliveries waiting behind them.
+     */
+    private final class EndpointLane {
+
+        private final ArrayDeque<WebhookDelivery> waiting = new ArrayDeque<>();
+        private int inFlight;
+        private int maxConcurrency = settings.getDefaultMaxConcurrency();
+
+        boolean submit(WebhookDelivery delivery) {
+            synchronized (this) {
+                if (delivery.maxConcurrency() != null) {
+                    maxConcurrency = delivery.maxConcurrency();
+                }
+                if (inFlight + waiting.size() >= settings.getLaneCapacity()) {
+                    return false;
+                }
+                if (inFlight >= maxConcurrency) {
+                    waiting.add(delivery);
+                    return true;
+                }
+                inFlight++;
+            }
+            send(delivery, this);
+            return true;
+        }
+
+        void release() {
+            WebhookDelivery next;
+            synchronized (this) {
+                next = inFlight <= maxConcurrency ? waiting.poll() : null;
+                if (next == null) {
+                    inFlight--;
+                }
+            }
+            if (next != null) {
+                send(next, this);
+            }
+        }
+
+        synchronized boolean isFull() {
+            return inFlight + waiting.size() >= settings.getLaneCapacity();
+        }
+
+        synchronized boolean isIdle() {
+            return inFlight == 0 && waiting.isEmpty();
+        }
+    }
+}
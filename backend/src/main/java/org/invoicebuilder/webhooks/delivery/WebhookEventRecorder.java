@@ -0,0 +1,92 @@
+package org.invoicebuilder.webhooks.delivery;
+
+import lombok.RequiredArgsConstructor;
+import org.invoicebuilder.events.DomainEvent;
+import org.invoicebuilder.events.DomainEventRecorder;
+import org.invoicebuilder.events.InvoiceCreated;
+import org.invoicebuilder.events.InvoiceStatusChanged;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Turns invoice events into {@code webhook_deliveries} rows, one per subscribed endpoint. The
+ * rows are written in the transaction that changed the invoice, so a delivery exists exactly when
+ * the change committed. All events of a transaction cost one endpoint lookup and one batched
+ * insert, and each event's payload is serialised once and shared by all its deliveries.
+ */
+@Component
+@RequiredArgsConstructor
+public class WebhookEventRecorder implements DomainEventRecorder {
+
+    private final WebhookDeliveryStore store;
+    private final JsonMapper jsonMapper;
+
+    @Override
+    public void record(List<DomainEvent> events) {
+        List<DomainEvent> invoiceEvents = events.stream()
+                .filter(event -> event instanceof InvoiceCreated || event instanceof InvoiceStatusChanged)
+                .toList();
+        if (!invoiceEvents.isEmpty()) {
+            enqueue(invoiceEvents);
+        }
+    }
+
+    private void enqueue(List<DomainEvent> events) {
+        Set<UUID> accountIds = new HashSet<>();
+        for (DomainEvent event : events) {
+            accountIds.add(event.accountId());
+        }
+        Map<UUID, List<WebhookDeliveryStore.EndpointSubscription>> endpoints = store.findEnabledEndpoints(accountIds);
+        if (endpoints.isEmpty()) {
+            return;
+        }
+        List<WebhookDeliveryStore.NewDelivery> deliveries = new ArrayList<>();
+        for (DomainEvent event : events) {
+            String payload = null;
+            for (WebhookDeliveryStore.EndpointSubscription endpoint : endpoints.getOrDefault(event.accountId(), List.of())) {
+                if (endpoint.accepts(event.type())) {
+                    if (payload == null) {
+                        payload = jsonMapper.writeValueAsString(envelope(event));
+                    }
+                    deliveries.add(new WebhookDeliveryStore.NewDelivery(endpoint.endpointId(), event.type(), payload));
+                }
+            }
+        }
+        if (!deliveries.isEmpty()) {
+            store.enqueue(deliveries);
+        }
+    }
+
+    static Map<String, Object> envelope(DomainEvent event) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        switch (event) {
+            case InvoiceCreated created -> {
+                data.put("invoice_id", created.invoiceId());
+                data.put("invoice_number", created.invoiceNumber());
+            }
+            case InvoiceStatusChanged changed -> {
+                data.put("invoice_id", changed.invoiceId());
+                data.put("invoice_number", changed.invoiceNumber());
+                data.put("previous_status", changed.from());
+                data.put("status", changed.to());
+            }
+            default -> {
+            }
+        }
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("id", UUID.randomUUID());
+        envelope.put("type", event.type());
+        envelope.put("created_at", event.occurredAt());
+        envelope.put("account_id", event.accountId());
+        envelope.put("data", data);
+        return envelope;
+    }
+}
@@ -0,0 +1,44 @@
+package org.invoicebuilder.webhooks.delivery;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * Signs webhook bodies as {@code t=<unix seconds>,v1=<hex HMAC-SHA256 of "t.body">}. Receivers
+ * recompute the HMAC with their endpoint secret and reject old timestamps to stop replays.
+ */
+public final class WebhookSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private WebhookSigner() {
+    }
+
+    public static String sign(String secret, long timestampSeconds, String body) {
+        return "t=" + timestampSeconds + ",v1=" + hmac(secret, timestampSeconds + "." + body);
+    }
+
+    /**
+     * @return 32 random bytes as 64 hex characters
+     */
+    public static String newSecret() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    static String hmac(String secret, String content) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return HexFormat.of().formatHex(mac.doFinal(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
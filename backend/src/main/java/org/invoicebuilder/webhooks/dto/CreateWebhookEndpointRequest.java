@@ -0,0 +1,27 @@
+package org.invoicebuilder.webhooks.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.*;
+
+import java.util.List;
+
+@Schema(description = "Request object for registering a webhook endpoint")
+public record CreateWebhookEndpointRequest(
+        @Schema(description = "Public https URL events are POSTed to", example = "https://example.com/hooks/invoices", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotBlank(message = "URL is required")
+        @Size(max = 2048, message = "URL cannot exceed 2048 characters")
+        @Pattern(regexp = "^https://.+", message = "URL must start with https://")
+        String url,
+
+        @Schema(description = "Event types to deliver; omit for all", example = "[\"invoice.paid\", \"invoice.overdue\"]", name = "event_types")
+        @JsonProperty("event_types")
+        List<String> eventTypes,
+
+        @Schema(description = "Requests the endpoint may receive at once", example = "4", name = "max_concurrency")
+        @Min(value = 1, message = "Max concurrency must be at least 1")
+        @Max(value = 64, message = "Max concurrency cannot exceed 64")
+        @JsonProperty("max_concurrency")
+        Integer maxConcurrency
+) {
+}
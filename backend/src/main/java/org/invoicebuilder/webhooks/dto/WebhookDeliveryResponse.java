@@ -0,0 +1,15 @@
+package org.invoicebuilder.webhooks.dto;
+
+import java.time.Instant;
+
+public record WebhookDeliveryResponse(
+        long id,
+        String event_type,
+        String status,
+        int attempts,
+        Integer last_status_code,
+        String last_error,
+        Instant created_at,
+        Instant completed_at
+) {
+}
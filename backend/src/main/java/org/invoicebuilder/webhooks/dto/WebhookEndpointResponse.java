@@ -0,0 +1,38 @@
+package org.invoicebuilder.webhooks.dto;
+
+import org.invoicebuilder.webhooks.WebhookEndpoint;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@code secret} is only returned when the endpoint is created.
+ */
+public record WebhookEndpointResponse(
+        UUID id,
+        String url,
+        List<String> event_types,
+        Integer max_concurrency,
+        boolean enabled,
+        Instant created_at,
+        String secret
+) {
+    public static WebhookEndpointResponse from(WebhookEndpoint endpoint) {
+        return new WebhookEndpointResponse(
+                endpoint.getId(),
+                endpoint.getUrl(),
+                endpoint.getEventTypes(),
+                endpoint.getMaxConcurrency(),
+                endpoint.isEnabled(),
+                endpoint.getCreatedAt(),
+                null
+        );
+    }
+
+    public static WebhookEndpointResponse withSecret(WebhookEndpoint endpoint) {
+        WebhookEndpointResponse response = from(endpoint);
+        return new WebhookEndpointResponse(response.id(), response.url(), response.event_types(),
+                response.max_concurrency(), response.enabled(), response.created_at(), endpoint.getSecret());
+    }
+}
@@ -0,0 +1,65 @@
+package org.invoicebuilder.common.fx;
+
+import org.invoicebuilder.config.AppProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FxRateCsvLoaderTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private FxRateCache fxRateCache;
+
+    @Mock
+    private ResourceLoader resourceLoader;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldInsertValidRowsSkippingConflictsInTheDatabase() {
+        // Given
+        FxRateCsvLoader loader = new FxRateCsvLoader(jdbcTemplate, fxRateCache, resourceLoader, new AppProperties());
+        ByteArrayResource csv = new ByteArrayResource("""
+                rate_date,base_currency,quote_currency,rate
+                2024-01-01,eur,usd,1.104
+                # comment
+                2024-01-01,KES,USD,0
+                2024-01-01,GBP
+                2024-01-02,EUR,USD,1.1
+                """.getBytes(StandardCharsets.UTF_8));
+        // The second row already exists, e.g. imported by another instance.
+        when(jdbcTemplate.batchUpdate(contains("ON CONFLICT"), anyCollection(), eq(500), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][] {{1, 0}});
+
+        // When
+        int imported = loader.importFrom(csv);
+
+        // Then
+        assertEquals(1, imported);
+        ArgumentCaptor<Collection<FxRate>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), eq(500), any(ParameterizedPreparedStatementSetter.class));
+        List<FxRate> parsed = List.copyOf(rows.getValue());
+        assertEquals(2, parsed.size());
+        assertEquals("EUR", parsed.get(0).getBaseCurrency());
+        assertEquals("USD", parsed.get(0).getQuoteCurrency());
+        assertEquals(new BigDecimal("1.104"), parsed.get(0).getRate());
+    }
+}
@@ -0,0 +1,74 @@
+package org.invoicebuilder.common.fx;
+
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.invoices.domain.Invoice;
+import org.invoicebuilder.users.domain.Account;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FxRateServiceTest {
+
+    private static final LocalDate ISSUE_DATE = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private FxRateCache fxRateCache;
+
+    private final AppProperties appProperties = new AppProperties();
+
+    @Test
+    void shouldStampBaseAmountsInAccountReportingCurrency() {
+        // Given
+        FxRateService service = new FxRateService(fxRateCache, appProperties);
+        Invoice invoice = invoice("EUR", Account.builder().reportingCurrency("KES").build());
+        when(fxRateCache.rate("EUR", "KES", ISSUE_DATE)).thenReturn(1_400_000_000_000L);
+
+        // When
+        service.stampBaseAmounts(invoice);
+
+        // Then
+        assertEquals("KES", invoice.getBaseCurrency());
+        assertEquals(new BigDecimal("140.0000000000"), invoice.getFxRate());
+        assertEquals(new BigDecimal("14000.0000"), invoice.getBaseSubtotal());
+        assertEquals(new BigDecimal("2240.0000"), invoice.getBaseTaxAmount());
+        assertEquals(new BigDecimal("16240.0000"), invoice.getBaseTotalAmount());
+    }
+
+    @Test
+    void missingRateShouldClearBaseAmounts() {
+        // Given
+        appProperties.getFx().setReportingCurrency("USD");
+        FxRateService service = new FxRateService(fxRateCache, appProperties);
+        Invoice invoice = invoice("EUR", null);
+        invoice.setBaseCurrency("USD");
+        invoice.setBaseTotalAmount(BigDecimal.TEN);
+        when(fxRateCache.rate("EUR", "USD", ISSUE_DATE)).thenReturn(FxRateTable.MISSING);
+
+        // When
+        service.stampBaseAmounts(invoice);
+
+        // Then
+        assertNull(invoice.getBaseCurrency());
+        assertNull(invoice.getFxRate());
+        assertNull(invoice.getBaseTotalAmount());
+    }
+
+    private static Invoice invoice(String currency, Account account) {
+        Invoice invoice = new Invoice();
+        invoice.setCurrency(currency);
+        invoice.setAccount(account);
+        invoice.setIssueDate(ISSUE_DATE);
+        invoice.setSubtotal(new BigDecimal("100.00"));
+        invoice.setTaxAmount(new BigDecimal("16.00"));
+        invoice.setTotalAmount(new BigDecimal("116.00"));
+        return invoice;
+    }
+}
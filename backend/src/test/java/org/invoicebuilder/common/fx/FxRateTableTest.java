@@ -0,0 +1,78 @@
+package org.invoicebuilder.common.fx;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxRateTableTest {
+
+    private static final LocalDate JAN = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FEB = LocalDate.of(2024, 2, 1);
+
+    @Test
+    void shouldReturnLatestRateOnOrBeforeDate() {
+        // Given
+        FxRateTable table = FxRateTable.from(List.of(
+                rate("EUR", "USD", JAN, "1.10"),
+                rate("EUR", "USD", FEB, "1.20")));
+
+        // When / Then
+        assertEquals(FxRateTable.MISSING, table.rate("EUR", "USD", JAN.minusDays(1)));
+        assertEquals(11_000_000_000L, table.rate("EUR", "USD", JAN));
+        assertEquals(11_000_000_000L, table.rate("EUR", "USD", FEB.minusDays(1)));
+        assertEquals(12_000_000_000L, table.rate("eur", "usd", FEB.plusDays(10)));
+        assertEquals(10_000_000_000L, table.rate("EUR", "EUR", JAN));
+        assertEquals(FxRateTable.MISSING, table.rate("EUR", "GBP", FEB));
+        assertEquals(FxRateTable.MISSING, table.rate("E1R", "USD", FEB));
+    }
+
+    @Test
+    void shouldDeriveInverseUnlessQuotedExplicitly() {
+        // Given
+        FxRateTable table = FxRateTable.from(List.of(
+                rate("USD", "KES", JAN, "125"),
+                rate("USD", "KES", FEB, "160"),
+                rate("KES", "USD", FEB, "0.0065")));
+
+        // When / Then
+        assertEquals(80_000_000L, table.rate("KES", "USD", JAN));
+        assertEquals(65_000_000L, table.rate("KES", "USD", FEB));
+    }
+
+    @Test
+    void nonPositiveRatesShouldBeIgnored() {
+        // Given
+        FxRateTable table = FxRateTable.from(List.of(
+                rate("EUR", "USD", JAN, "1.10"),
+                rate("EUR", "USD", FEB, "0"),
+                rate("GBP", "USD", FEB, "-1")));
+
+        // When / Then
+        assertEquals(11_000_000_000L, table.rate("EUR", "USD", FEB));
+        assertEquals(FxRateTable.MISSING, table.rate("GBP", "USD", FEB));
+        assertEquals(FxRateTable.MISSING, table.rate("USD", "GBP", FEB));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void invertShouldRejectZeroAndOverflow() {
+        assertEquals(FxRateTable.MISSING, FxRateTable.invert(0));
+        assertEquals(FxRateTable.MISSING, FxRateTable.invert(-5));
+        // 1e-10 inverts to 1e10, which does not fit at scale 10.
+        assertEquals(FxRateTable.MISSING, FxRateTable.invert(1));
+        assertEquals(5_000_000_000L, FxRateTable.invert(20_000_000_000L));
+    }
+
+    static FxRate rate(String base, String quote, LocalDate date, String rate) {
+        return FxRate.builder()
+                .baseCurrency(base)
+                .quoteCurrency(quote)
+                .rateDate(date)
+                .rate(new BigDecimal(rate))
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package org.invoicebuilder.common.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private static final long SEED = 0x5EEDL;
+    private static final int SAMPLES = 20_000;
+    private static final RoundingMode[] MODES = {
+            RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+            RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN
+    };
+
+    @Test
+    void shouldResolveIsoMinorDigits() {
+        assertEquals(2, CurrencyMinorUnits.digitsOf("USD"));
+        assertEquals(2, CurrencyMinorUnits.digitsOf("kes"));
+        assertEquals(0, CurrencyMinorUnits.digitsOf("JPY"));
+        assertEquals(3, CurrencyMinorUnits.digitsOf("KWD"));
+        assertEquals(CurrencyMinorUnits.FALLBACK_DIGITS, CurrencyMinorUnits.digitsOf("XAU"));
+        assertThrows(IllegalArgumentException.class, () -> CurrencyMinorUnits.digitsOf("US"));
+    }
+
+    @Test
+    void shouldApplyFractionalTaxRateWithoutTruncatingTheRate() {
+        // Given
+        Money subtotal = Money.of(new BigDecimal("1000.00"), "USD", RoundingMode.HALF_UP);
+
+        // When
+        Money tax = subtotal.percentage(new BigDecimal("7.25"), RoundingMode.HALF_UP);
+
+        // Then
+        assertEquals(new BigDecimal("72.5000"), tax.toBigDecimal());
+    }
+
+    @Test
+    void shouldConvertExactlyToStorageScale() {
+        // Given
+        Money amount = Money.ofMinor(123_456L, "KWD");
+
+        // When
+        BigDecimal stored = amount.toBigDecimal();
+
+        // Then
+        assertEquals(new BigDecimal("123.4560"), stored);
+        assertEquals(amount, Money.ofExact(stored, "KWD"));
+    }
+
+    @Test
+    void shouldRejectInexactConversionWhenRoundingIsUnnecessary() {
+        assertThrows(ArithmeticException.class, () -> Money.ofExact(new BigDecimal("10.005"), "USD"));
+        assertThrows(ArithmeticException.class, () -> Money.ofExact(new BigDecimal("10.5"), "JPY"));
+    }
+
+    @Test
+    void shouldRejectMixedCurrencyArithmetic() {
+        Money usd = Money.ofMinor(100L, "USD");
+        Money eur = Money.ofMinor(100L, "EUR");
+
+        assertThrows(IllegalArgumentException.class, () -> usd.plus(eur));
+    }
+
+    @Test
+    void divisionShouldMatchBigDecimalForEveryRoundingMode() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < SAMPLES; i++) {
+            long dividend = random.nextLong() >> random.nextInt(40);
+            long divisor = (random.nextInt(1_000_000) + 1) * (random.nextBoolean() ? 1L : -1L);
+            for (RoundingMode mode : MODES) {
+                long expected = BigDecimal.valueOf(dividend)
+                        .divide(BigDecimal.valueOf(divisor), 0, mode)
+                        .longValueExact();
+                assertEquals(expected, Money.divide(dividend, divisor, mode),
+                        () -> dividend + " / " + divisor + " " + mode);
+            }
+        }
+    }
+
+    @Test
+    void lineProductShouldMatchBigDecimalRounding() {
+        Random random = new Random(SEED);
+        String[] currencies = {"USD", "JPY", "KWD"};
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal unitPrice = BigDecimal.valueOf(random.nextInt(100_000_000), random.nextInt(7));
+            int quantity = random.nextInt(10_000) + 1;
+            String currency = currencies[random.nextInt(currencies.length)];
+            RoundingMode mode = MODES[random.nextInt(MODES.length)];
+
+            BigDecimal expected = unitPrice.multiply(BigDecimal.valueOf(quantity))
+                    .setScale(CurrencyMinorUnits.digitsOf(currency), mode)
+                    .setScale(Money.STORAGE_SCALE);
+
+            assertEquals(expected, Money.ofProduct(unitPrice, quantity, currency, mode).toBigDecimal(),
+                    () -> unitPrice + " x " + quantity + " " + currency + " " + mode);
+        }
+    }
+
+    @Test
+    void percentageShouldMatchBigDecimalRounding() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < SAMPLES; i++) {
+            long minorUnits = random.nextLong() >> (random.nextInt(30) + 20);
+            BigDecimal rate = BigDecimal.valueOf(random.nextInt(10_000_000), random.nextInt(6));
+            RoundingMode mode = MODES[random.nextInt(MODES.length)];
+
+            long expected = BigDecimal.valueOf(minorUnits)
+                    .multiply(rate)
+                    .divide(BigDecimal.valueOf(100), 0, mode)
+                    .longValueExact();
+
+            assertEquals(expected, Money.percentageOf(minorUnits, rate, mode),
+                    () -> minorUnits + " @ " + rate + "% " + mode);
+        }
+    }
+
+    @Test
+    void percentageShouldFallBackToDecimalArithmeticOnOverflow() {
+        // Given
+        long minorUnits = Long.MAX_VALUE / 10;
+        BigDecimal rate = new BigDecimal("5.5");
+
+        // When
+        long result = Money.percentageOf(minorUnits, rate, RoundingMode.HALF_EVEN);
+
+        // Then
+        long expected = BigDecimal.valueOf(minorUnits).multiply(rate)
+                .divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_EVEN).longValueExact();
+        assertEquals(expected, result);
+    }
+}
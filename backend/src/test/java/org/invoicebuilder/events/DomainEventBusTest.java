@@ -0,0 +1,198 @@
+package org.invoicebuilder.events;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainEventBusTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AppProperties appProperties = new AppProperties();
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.Kind.class)
+    void everySubscriberShouldSeeEveryEventInPublishOrder(WaitStrategy.Kind kind) throws Exception {
+        // Given
+        int producers = 4;
+        int perProducer = 5_000;
+        appProperties.getEventBus().setBufferSize(256);
+        appProperties.getEventBus().setWaitStrategy(kind);
+        appProperties.getEventBus().setPublishTimeout(Duration.ofSeconds(10));
+        RecordingSubscriber first = new RecordingSubscriber("first", producers * perProducer);
+        RecordingSubscriber second = new RecordingSubscriber("second", producers * perProducer);
+        DomainEventBus bus = new DomainEventBus(List.of(first, second), List.of(), appProperties, meterRegistry);
+        bus.start();
+
+        // When
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            UUID producer = new UUID(0, p);
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    assertTrue(bus.publish(new InvoiceCreated(producer, producer, String.valueOf(i), Instant.EPOCH)));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertTrue(first.done.await(10, TimeUnit.SECONDS));
+        assertTrue(second.done.await(10, TimeUnit.SECONDS));
+        for (RecordingSubscriber subscriber : List.of(first, second)) {
+            int[] lastSeen = new int[producers];
+            Arrays.fill(lastSeen, -1);
+            for (InvoiceCreated event : subscriber.events) {
+                int producer = (int) event.invoiceId().getLeastSignificantBits();
+                int index = Integer.parseInt(event.invoiceNumber());
+                assertEquals(lastSeen[producer] + 1, index, "out of order for producer " + producer);
+                lastSeen[producer] = index;
+            }
+        }
+        assertEquals(producers * perProducer,
+                meterRegistry.counter("domain.events.handled", "subscriber", "first", "result", "ok").count());
+        bus.stop();
+    }
+
+    @Test
+    void publishShouldDropAfterTimeoutWhileASubscriberIsStuck() throws Exception {
+        // Given
+        appProperties.getEventBus().setBufferSize(4);
+        appProperties.getEventBus().setPublishTimeout(Duration.ofMillis(20));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        DomainEventSubscriber stuck = (event, sequence, endOfBatch) -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        DomainEventBus bus = new DomainEventBus(List.of(stuck), List.of(), appProperties, meterRegistry);
+        bus.start();
+        assertTrue(bus.publish(event()));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // When: the stuck subscriber still holds the first slot
+        for (int i = 0; i < 4; i++) {
+            bus.publish(event());
+        }
+        boolean accepted = bus.publish(event());
+
+        // Then
+        assertFalse(accepted);
+        assertEquals(2.0, meterRegistry.counter("domain.events.dropped").count());
+        assertEquals(4.0, meterRegistry.get("domain.events.lag").tag("subscriber", stuck.name()).gauge().value());
+        release.countDown();
+        bus.stop();
+    }
+
+    @Test
+    void failingSubscriberShouldNotStopTheOthers() throws Exception {
+        // Given
+        RecordingSubscriber healthy = new RecordingSubscriber("healthy", 3);
+        DomainEventSubscriber failing = new DomainEventSubscriber() {
+            @Override
+            public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+                throw new IllegalStateException("boom");
+            }
+
+            @Override
+            public String name() {
+                return "failing";
+            }
+        };
+        DomainEventBus bus = new DomainEventBus(List.of(failing, healthy), List.of(), appProperties, meterRegistry);
+        bus.start();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            bus.publish(event());
+        }
+
+        // Then
+        assertTrue(healthy.done.await(5, TimeUnit.SECONDS));
+        bus.stop();
+        assertEquals(3.0, meterRegistry.counter("domain.events.handled", "subscriber", "failing", "result", "failed").count());
+    }
+
+    @Test
+    void eventsOfATransactionShouldBeRecordedBeforeCommitAndPublishedAfter() throws Exception {
+        // Given
+        RecordingSubscriber subscriber = new RecordingSubscriber("subscriber", 2);
+        List<List<DomainEvent>> recorded = new ArrayList<>();
+        DomainEventBus bus = new DomainEventBus(List.of(subscriber), List.of(events -> recorded.add(List.copyOf(events))),
+                appProperties, meterRegistry);
+        bus.start();
+        InvoiceCreated first = event();
+        InvoiceCreated second = event();
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bus.publishAfterCommit(first);
+            bus.publishAfterCommit(second);
+            assertTrue(recorded.isEmpty());
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            assertEquals(List.of(List.of(first, second)), recorded);
+            assertEquals(0.0, meterRegistry.counter("domain.events.published").count());
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertTrue(subscriber.done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(first, second), subscriber.events);
+        assertFalse(TransactionSynchronizationManager.hasResource(bus));
+        bus.stop();
+    }
+
+    private static InvoiceCreated event() {
+        return new InvoiceCreated(UUID.randomUUID(), UUID.randomUUID(), "INV-1", Instant.EPOCH);
+    }
+
+    private static final class RecordingSubscriber implements DomainEventSubscriber {
+
+        private final String name;
+        private final List<InvoiceCreated> events = new ArrayList<>();
+        private final CountDownLatch done;
+
+        RecordingSubscriber(String name, int expected) {
+            this.name = name;
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+            events.add((InvoiceCreated) event);
+            done.countDown();
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+    }
+}
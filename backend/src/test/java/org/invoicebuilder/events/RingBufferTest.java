@@ -0,0 +1,53 @@
+package org.invoicebuilder.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void shouldRefuseToOverwriteSlotsTheConsumerHasNotPassed() {
+        // Given
+        RingBuffer<String> ring = new RingBuffer<>(4, new WaitStrategy.BusySpin());
+        AtomicLong consumer = ring.addGatingSequence();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.tryPublish("e" + i));
+        }
+
+        // When
+        boolean overflowed = ring.tryPublish("e4");
+        consumer.set(1);
+        boolean afterRelease = ring.tryPublish("e4");
+
+        // Then
+        assertFalse(overflowed);
+        assertTrue(afterRelease);
+        assertEquals("e4", ring.get(4));
+        assertEquals("e2", ring.get(2));
+        assertEquals(4, ring.highestPublished(2, ring.cursor().get()));
+    }
+
+    @Test
+    void highestPublishedShouldStopBeforeAnUnwrittenSlot() {
+        // Given: sequence 1 claimed by a producer that has not stored its event yet
+        RingBuffer<String> ring = new RingBuffer<>(8, new WaitStrategy.BusySpin());
+        ring.addGatingSequence();
+        ring.tryPublish("e0");
+        ring.cursor().incrementAndGet();
+        ring.tryPublish("e2");
+
+        // When / Then
+        assertEquals(2, ring.cursor().get());
+        assertEquals(0, ring.highestPublished(0, 2));
+        assertEquals(0, ring.highestPublished(1, 2));
+    }
+
+    @Test
+    void capacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(1000, new WaitStrategy.BusySpin()));
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0, new WaitStrategy.BusySpin()));
+    }
+}
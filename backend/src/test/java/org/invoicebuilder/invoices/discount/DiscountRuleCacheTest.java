@@ -0,0 +1,55 @@
+package org.invoicebuilder.invoices.discount;
+
+import org.invoicebuilder.config.AppProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DiscountRuleCacheTest {
+
+    private static final UUID ACCOUNT_ID = UUID.randomUUID();
+
+    @Mock
+    private DiscountRuleRepository discountRuleRepository;
+
+    private final AppProperties appProperties = new AppProperties();
+
+    @Test
+    void rulesShouldBeReusedWithinTtlAndReloadedOnEviction() {
+        // Given
+        when(discountRuleRepository.findByAccountIdAndActiveTrue(ACCOUNT_ID)).thenReturn(List.of());
+        DiscountRuleCache cache = new DiscountRuleCache(discountRuleRepository, appProperties);
+
+        // When
+        cache.rulesFor(ACCOUNT_ID, null);
+        cache.rulesFor(ACCOUNT_ID, UUID.randomUUID());
+        cache.evictAfterCommit(ACCOUNT_ID);
+        cache.rulesFor(ACCOUNT_ID, null);
+
+        // Then
+        verify(discountRuleRepository, times(2)).findByAccountIdAndActiveTrue(ACCOUNT_ID);
+    }
+
+    @Test
+    void expiredRulesShouldBeReloaded() {
+        // Given: changes made on another instance are only seen after the TTL
+        appProperties.getDiscounts().setCacheTtl(Duration.ZERO);
+        when(discountRuleRepository.findByAccountIdAndActiveTrue(ACCOUNT_ID)).thenReturn(List.of());
+        DiscountRuleCache cache = new DiscountRuleCache(discountRuleRepository, appProperties);
+
+        // When
+        cache.rulesFor(ACCOUNT_ID, null);
+        cache.rulesFor(ACCOUNT_ID, null);
+
+        // Then
+        verify(discountRuleRepository, times(2)).findByAccountIdAndActiveTrue(ACCOUNT_ID);
+    }
+}
@@ -0,0 +1,83 @@
+package org.invoicebuilder.invoices.discount;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscountRuleCompilerTest {
+
+    @Test
+    void shouldReturnNoDiscountWithoutActiveRules() {
+        // Given
+        DiscountRule inactive = rule(DiscountRuleType.PERCENTAGE, "10", 0);
+        inactive.setActive(false);
+
+        // When
+        CompiledDiscountRules rules = DiscountRuleCompiler.compile(List.of(inactive));
+
+        // Then
+        assertSame(CompiledDiscountRules.NONE, rules);
+        assertEquals(0L, rules.lineDiscount(10_000L, 1, "Consulting"));
+    }
+
+    @Test
+    void shouldApplyRulesInPriorityOrderOnRemainingAmount() {
+        // Given
+        DiscountRule hosting = rule(DiscountRuleType.PER_LINE, "50", 1);
+        hosting.setLineMatch("hosting");
+        List<DiscountRule> rules = List.of(hosting, rule(DiscountRuleType.PERCENTAGE, "10", 0));
+
+        // When
+        CompiledDiscountRules compiled = DiscountRuleCompiler.compile(rules);
+
+        // Then: 10% of 10000 = 1000, then 50% of 9000 = 4500
+        assertEquals(5_500L, compiled.lineDiscount(10_000L, 1, "Managed HOSTING - June"));
+        assertEquals(1_000L, compiled.lineDiscount(10_000L, 1, "Consulting"));
+    }
+
+    @Test
+    void shouldPickHighestTierReachedByLineQuantity() {
+        // Given
+        DiscountRule tenUnits = rule(DiscountRuleType.TIERED_VOLUME, "5", 0);
+        tenUnits.setMinQuantity(10);
+        DiscountRule hundredUnits = rule(DiscountRuleType.TIERED_VOLUME, "12.5", 0);
+        hundredUnits.setMinQuantity(100);
+
+        // When
+        CompiledDiscountRules compiled = DiscountRuleCompiler.compile(List.of(hundredUnits, tenUnits));
+
+        // Then
+        assertEquals(0L, compiled.lineDiscount(10_000L, 9, "Widgets"));
+        assertEquals(500L, compiled.lineDiscount(10_000L, 10, "Widgets"));
+        assertEquals(1_250L, compiled.lineDiscount(10_000L, 250, "Widgets"));
+    }
+
+    @Test
+    void shouldKeepEarlyPaymentOutOfLineDiscounts() {
+        // Given
+        DiscountRule earlyPayment = rule(DiscountRuleType.EARLY_PAYMENT, "2", 0);
+        earlyPayment.setDays(10);
+
+        // When
+        CompiledDiscountRules compiled = DiscountRuleCompiler.compile(List.of(earlyPayment));
+
+        // Then
+        assertFalse(compiled.hasLineRules());
+        assertEquals(0L, compiled.lineDiscount(10_000L, 1, "Retainer"));
+        assertEquals(233L, compiled.earlyPaymentDiscount(11_699L));
+        assertEquals(LocalDate.of(2024, 6, 11), compiled.earlyPaymentDueDate(LocalDate.of(2024, 6, 1)));
+    }
+
+    private static DiscountRule rule(DiscountRuleType type, String percent, int priority) {
+        return DiscountRule.builder()
+                .name(type.name())
+                .type(type)
+                .percent(new BigDecimal(percent))
+                .priority(priority)
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package org.invoicebuilder.invoices.recurring;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurringCadenceTest {
+
+    @Test
+    void monthlyScheduleShouldKeepMonthEndAnchor() {
+        // Given
+        LocalDate start = LocalDate.of(2024, 1, 31);
+
+        // When / Then
+        assertEquals(LocalDate.of(2024, 2, 29), RecurringCadence.MONTHLY.periodStart(start, 1, 1));
+        assertEquals(LocalDate.of(2024, 3, 31), RecurringCadence.MONTHLY.periodStart(start, 1, 2));
+        assertEquals(LocalDate.of(2024, 4, 30), RecurringCadence.MONTHLY.periodStart(start, 1, 3));
+    }
+
+    @Test
+    void shouldMultiplyIntervalByPeriod() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+
+        assertEquals(LocalDate.of(2024, 1, 29), RecurringCadence.WEEKLY.periodStart(start, 2, 2));
+        assertEquals(LocalDate.of(2024, 7, 1), RecurringCadence.QUARTERLY.periodStart(start, 1, 2));
+        assertEquals(LocalDate.of(2030, 1, 1), RecurringCadence.YEARLY.periodStart(start, 3, 2));
+    }
+}
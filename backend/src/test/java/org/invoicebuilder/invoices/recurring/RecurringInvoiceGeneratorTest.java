@@ -0,0 +1,194 @@
+package org.invoicebuilder.invoices.recurring;
+
+import jakarta.persistence.EntityManager;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.exception.common.InvalidRequestException;
+import org.invoicebuilder.invoices.domain.Invoice;
+import org.invoicebuilder.invoices.recurring.RecurringInvoiceWriter.GeneratedInvoice;
+import org.invoicebuilder.invoices.service.InvoiceNumberAllocator;
+import org.invoicebuilder.invoices.service.InvoiceTotalsCalculator;
+import org.invoicebuilder.invoices.tax.TaxRateCache;
+import org.invoicebuilder.invoices.tax.TaxRateTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecurringInvoiceGeneratorTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 1);
+    private static final String UNKNOWN_TAX_CODE = "UNKNOWN";
+
+    @Mock
+    private RecurringInvoiceScheduleRepository scheduleRepository;
+
+    @Mock
+    private RecurringInvoiceWriter recurringInvoiceWriter;
+
+    @Mock
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+
+    @Mock
+    private InvoiceTotalsCalculator invoiceTotalsCalculator;
+
+    @Mock
+    private TaxRateCache taxRateCache;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final AppProperties appProperties = new AppProperties();
+    private RecurringInvoiceGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new RecurringInvoiceGenerator(scheduleRepository, recurringInvoiceWriter, invoiceNumberAllocator,
+                invoiceTotalsCalculator, taxRateCache, entityManager, transactionTemplate, appProperties);
+        lenient().when(taxRateCache.current()).thenReturn(TaxRateTable.empty());
+        lenient().when(invoiceNumberAllocator.allocate(any(), anyInt())).thenAnswer(invocation ->
+                IntStream.range(0, invocation.<Integer>getArgument(1)).mapToObj(i -> "INV-" + i).toList());
+        lenient().doAnswer(invocation -> {
+            for (Invoice invoice : invocation.<List<Invoice>>getArgument(0)) {
+                if (invoice.getLineItems().stream().anyMatch(line -> UNKNOWN_TAX_CODE.equals(line.getTaxCode()))) {
+                    throw new InvalidRequestException("tax_code: no tax rate '" + UNKNOWN_TAX_CODE + "'");
+                }
+            }
+            return null;
+        }).when(invoiceTotalsCalculator).applyAll(anyList(), any());
+    }
+
+    @Test
+    void badScheduleShouldBeMarkedFailedWithoutHoldingBackTheBatch() {
+        // Given
+        RecurringInvoiceSchedule good = schedule("STANDARD", TODAY.minusMonths(1));
+        RecurringInvoiceSchedule bad = schedule(UNKNOWN_TAX_CODE, TODAY.minusMonths(1));
+        RecurringInvoiceSchedule alsoGood = schedule("STANDARD", TODAY);
+        givenTransactions();
+        when(scheduleRepository.claimDue(eq(TODAY), anyInt())).thenReturn(List.of(good, bad, alsoGood));
+
+        // When
+        int claimed = generator.generateBatch(TODAY);
+
+        // Then
+        assertEquals(3, claimed);
+        List<GeneratedInvoice> inserted = captureInserted();
+        assertEquals(3, inserted.size());
+        assertTrue(inserted.stream().noneMatch(invoice -> bad.getId().equals(invoice.invoice().getScheduleId())));
+
+        assertEquals(RecurringScheduleStatus.FAILED, bad.getStatus());
+        assertTrue(bad.getLastError().contains(UNKNOWN_TAX_CODE));
+        assertEquals(TODAY.minusMonths(1), bad.getNextRunDate());
+        assertEquals(0, bad.getGeneratedCount());
+        assertNotNull(bad.getLastRunAt());
+
+        assertEquals(RecurringScheduleStatus.ACTIVE, good.getStatus());
+        assertEquals(TODAY.plusMonths(1), good.getNextRunDate());
+        assertEquals(2, good.getGeneratedCount());
+        assertEquals(TODAY.plusMonths(1), alsoGood.getNextRunDate());
+        verify(scheduleRepository).saveAll(List.of(good, bad, alsoGood));
+    }
+
+    @Test
+    void failedBatchInsertShouldRetrySchedulesOneAtATime() {
+        // Given
+        RecurringInvoiceSchedule good = schedule("STANDARD", TODAY);
+        RecurringInvoiceSchedule rejected = schedule("STANDARD", TODAY);
+        givenTransactions();
+        when(scheduleRepository.claimDue(eq(TODAY), anyInt())).thenReturn(List.of(good, rejected));
+        // Each retry runs in a fresh transaction and so reads the schedule as it was before the batch.
+        RecurringInvoiceSchedule goodReloaded = schedule(good.getId(), "STANDARD", TODAY);
+        RecurringInvoiceSchedule rejectedReloaded = schedule(rejected.getId(), "STANDARD", TODAY);
+        when(scheduleRepository.claimDueById(good.getId(), TODAY)).thenReturn(Optional.of(goodReloaded));
+        when(scheduleRepository.claimDueById(rejected.getId(), TODAY)).thenReturn(Optional.of(rejectedReloaded));
+        when(scheduleRepository.findById(rejected.getId())).thenReturn(Optional.of(rejectedReloaded));
+        doAnswer(invocation -> {
+            List<GeneratedInvoice> generated = invocation.getArgument(0);
+            if (generated.stream().anyMatch(invoice -> rejected.getId().equals(invoice.invoice().getScheduleId()))) {
+                throw new DataIntegrityViolationException("customer was deleted");
+            }
+            return null;
+        }).when(recurringInvoiceWriter).insert(anyList());
+
+        // When
+        int claimed = generator.generateBatch(TODAY);
+
+        // Then
+        assertEquals(2, claimed);
+        verify(recurringInvoiceWriter, times(3)).insert(anyList());
+        assertEquals(TODAY.plusMonths(1), goodReloaded.getNextRunDate());
+        assertEquals(RecurringScheduleStatus.FAILED, rejectedReloaded.getStatus());
+        assertEquals("customer was deleted", rejectedReloaded.getLastError());
+        verify(scheduleRepository).save(rejectedReloaded);
+    }
+
+    @Test
+    void emptyClaimShouldWriteNothing() {
+        // Given
+        givenTransactions();
+        when(scheduleRepository.claimDue(eq(TODAY), anyInt())).thenReturn(Collections.emptyList());
+
+        // When
+        int claimed = generator.generateBatch(TODAY);
+
+        // Then
+        assertEquals(0, claimed);
+        verifyNoInteractions(recurringInvoiceWriter, invoiceNumberAllocator);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<GeneratedInvoice> captureInserted() {
+        ArgumentCaptor<List<GeneratedInvoice>> captor = ArgumentCaptor.forClass(List.class);
+        verify(recurringInvoiceWriter).insert(captor.capture());
+        return captor.getValue();
+    }
+
+    private void givenTransactions() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static RecurringInvoiceSchedule schedule(String taxCode, LocalDate nextRunDate) {
+        return schedule(UUID.randomUUID(), taxCode, nextRunDate);
+    }
+
+    private static RecurringInvoiceSchedule schedule(UUID id, String taxCode, LocalDate nextRunDate) {
+        RecurringInvoiceTemplate template = new RecurringInvoiceTemplate("EUR", BigDecimal.ZERO, BigDecimal.ZERO,
+                null, false, 30, List.of(new RecurringInvoiceTemplate.Line("Support", 1, new BigDecimal("100.00"), taxCode)));
+        return RecurringInvoiceSchedule.builder()
+                .id(id)
+                .accountId(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .cadence(RecurringCadence.MONTHLY)
+                .startDate(nextRunDate)
+                .nextRunDate(nextRunDate)
+                .template(template)
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package org.invoicebuilder.invoices.service;
+
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.events.DomainEventBus;
+import org.invoicebuilder.events.InvoiceStatusChanged;
+import org.invoicebuilder.notifications.event.EmailEventPublisher;
+import org.invoicebuilder.notifications.event.InvoiceOverdueEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceOverdueSweeperTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EmailEventPublisher emailEventPublisher;
+
+    @Mock
+    private DomainEventBus domainEventBus;
+
+    @Mock
+    private AppProperties appProperties;
+
+    @InjectMocks
+    private InvoiceOverdueSweeper invoiceOverdueSweeper;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties.Overdue overdue = new AppProperties.Overdue();
+        overdue.setChunkSize(2);
+        when(appProperties.getOverdue()).thenReturn(overdue);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void shouldPublishOneEventPerTransitionedInvoiceAndStopOnShortChunk() {
+        // Given
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any()))
+                .thenReturn(List.of(event("INV-1"), event("INV-2")))
+                .thenReturn(List.of(event("INV-3")));
+
+        // When
+        long transitioned = invoiceOverdueSweeper.sweep(LocalDate.of(2024, 6, 1));
+
+        // Then
+        assertEquals(3, transitioned);
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), any(), any());
+        verify(emailEventPublisher, times(3)).publishEmailEvent(any(InvoiceOverdueEvent.class));
+        verify(domainEventBus, times(3)).publishAfterCommit(any(InvoiceStatusChanged.class));
+    }
+
+    @Test
+    void shouldPublishNothingWhenNoInvoiceIsDue() {
+        // Given
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any())).thenReturn(List.of());
+
+        // When
+        long transitioned = invoiceOverdueSweeper.sweep(LocalDate.of(2024, 6, 1));
+
+        // Then
+        assertEquals(0, transitioned);
+        verifyNoInteractions(emailEventPublisher, domainEventBus);
+    }
+
+    private static InvoiceOverdueEvent event(String invoiceNumber) {
+        return InvoiceOverdueEvent.builder()
+                .invoiceNumber(invoiceNumber)
+                .userEmail("billing@example.com")
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package org.invoicebuilder.invoices.service;
+
+import org.invoicebuilder.common.fx.FxRateService;
+import org.invoicebuilder.events.DomainEventBus;
+import org.invoicebuilder.exception.common.ResourceNotFoundException;
+import org.invoicebuilder.invoices.domain.Invoice;
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
+import org.invoicebuilder.invoices.repository.InvoiceRepository;
+import org.invoicebuilder.notifications.event.EmailEventPublisher;
+import org.invoicebuilder.scheduling.ScheduledTaskType;
+import org.invoicebuilder.scheduling.TimingWheelScheduler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceSendAtServiceTest {
+
+    private static final UUID ACCOUNT_ID = UUID.randomUUID();
+    private static final Instant SEND_AT = Instant.parse("2026-11-01T09:00:00Z");
+
+    @Mock
+    private TimingWheelScheduler timingWheelScheduler;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private InvoiceReminderService invoiceReminderService;
+
+    @Mock
+    private EmailEventPublisher emailEventPublisher;
+
+    @Mock
+    private DomainEventBus domainEventBus;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @InjectMocks
+    private InvoiceSendAtService invoiceSendAtService;
+
+    @Test
+    void schedulingAnotherAccountsInvoiceShouldBeNotFound() {
+        // Given
+        UUID invoiceId = UUID.randomUUID();
+        when(invoiceRepository.findByIdAndAccountId(invoiceId, ACCOUNT_ID)).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> invoiceSendAtService.scheduleSend(ACCOUNT_ID, invoiceId, SEND_AT));
+        verifyNoInteractions(timingWheelScheduler);
+    }
+
+    @Test
+    void schedulingOwnDraftShouldReplaceEarlierSendTime() {
+        // Given
+        Invoice invoice = new Invoice();
+        invoice.setId(UUID.randomUUID());
+        invoice.setStatus(InvoiceStatus.DRAFT);
+        when(invoiceRepository.findByIdAndAccountId(invoice.getId(), ACCOUNT_ID)).thenReturn(Optional.of(invoice));
+
+        // When
+        invoiceSendAtService.scheduleSend(ACCOUNT_ID, invoice.getId(), SEND_AT);
+
+        // Then
+        verify(timingWheelScheduler).cancel(ScheduledTaskType.INVOICE_SEND_AT, invoice.getId());
+        verify(timingWheelScheduler).schedule(ScheduledTaskType.INVOICE_SEND_AT, invoice.getId(), SEND_AT, null);
+    }
+}
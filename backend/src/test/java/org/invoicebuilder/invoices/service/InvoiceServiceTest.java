@@ -0,0 +1,160 @@
+package org.invoicebuilder.invoices.service;
+
+import org.invoicebuilder.common.fx.FxRateService;
+import org.invoicebuilder.events.DomainEventBus;
+import org.invoicebuilder.events.InvoiceStatusChanged;
+import org.invoicebuilder.exception.common.ResourceNotFoundException;
+import org.invoicebuilder.invoices.dto.request.invoice.CreateInvoiceRequest;
+import org.invoicebuilder.invoices.domain.Customer;
+import org.invoicebuilder.invoices.domain.Invoice;
+import org.invoicebuilder.invoices.domain.InvoiceStatus;
+import org.invoicebuilder.invoices.repository.CustomerRepository;
+import org.invoicebuilder.invoices.repository.InvoiceLineItemRepository;
+import org.invoicebuilder.invoices.repository.InvoiceRepository;
+import org.invoicebuilder.invoices.repository.SenderRepository;
+import org.invoicebuilder.users.domain.Account;
+import org.invoicebuilder.users.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceServiceTest {
+
+    private static final UUID ACCOUNT_ID = UUID.randomUUID();
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private InvoiceLineItemRepository invoiceLineItemRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private SenderRepository senderRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @Mock
+    private InvoiceTotalsCalculator invoiceTotalsCalculator;
+
+    @Mock
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+
+    @Mock
+    private InvoiceReminderService invoiceReminderService;
+
+    @Mock
+    private InvoiceSendAtService invoiceSendAtService;
+
+    @Mock
+    private DomainEventBus domainEventBus;
+
+    @InjectMocks
+    private InvoiceService invoiceService;
+
+    @Test
+    void updateStatusOfAnotherAccountsInvoiceShouldBeNotFound() {
+        // Given
+        UUID invoiceId = UUID.randomUUID();
+        when(invoiceRepository.findByIdAndAccountId(invoiceId, ACCOUNT_ID)).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> invoiceService.updateStatus(ACCOUNT_ID, invoiceId, InvoiceStatus.ISSUED));
+        verify(invoiceRepository, never()).findById(any());
+        verifyNoInteractions(invoiceSendAtService, invoiceReminderService, domainEventBus);
+    }
+
+    @Test
+    void issuingOwnDraftShouldIssueAndPublishTheTransition() {
+        // Given
+        Invoice invoice = draft();
+        when(invoiceRepository.findByIdAndAccountId(invoice.getId(), ACCOUNT_ID)).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.save(invoice)).thenReturn(invoice);
+
+        // When
+        invoiceService.updateStatus(ACCOUNT_ID, invoice.getId(), InvoiceStatus.ISSUED);
+
+        // Then
+        verify(invoiceSendAtService).cancelSend(invoice.getId());
+        verify(invoiceSendAtService).issue(invoice);
+        verify(domainEventBus).publishAfterCommit(any(InvoiceStatusChanged.class));
+    }
+
+    @Test
+    void createdDraftShouldNotBeStampedWithBaseAmounts() {
+        // Given
+        Customer customer = Customer.builder().id(UUID.randomUUID()).name("Acme").build();
+        when(invoiceNumberAllocator.next(any())).thenReturn("INV-1");
+        when(accountRepository.getReferenceById(ACCOUNT_ID)).thenReturn(Account.builder().accountId(ACCOUNT_ID).build());
+        when(customerRepository.findById(customer.getId())).thenReturn(Optional.of(customer));
+        when(invoiceRepository.save(any(Invoice.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        invoiceService.create(ACCOUNT_ID, request(customer.getId()));
+
+        // Then
+        verifyNoInteractions(fxRateService);
+    }
+
+    @Test
+    void createWithoutAccountShouldBeUnsupported() {
+        // Given
+        CreateInvoiceRequest request = request(UUID.randomUUID());
+
+        // When / Then
+        assertThrows(UnsupportedOperationException.class, () -> invoiceService.create(request));
+        verifyNoInteractions(invoiceNumberAllocator, invoiceRepository);
+    }
+
+    @Test
+    void updatingIssuedInvoiceShouldRestampBaseAmounts() {
+        // Given
+        Invoice invoice = draft();
+        invoice.setStatus(InvoiceStatus.ISSUED);
+        invoice.setLineItems(new ArrayList<>());
+        when(invoiceRepository.findById(invoice.getId())).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.save(invoice)).thenReturn(invoice);
+
+        // When
+        invoiceService.update(invoice.getId(), request(invoice.getCustomer().getId()));
+
+        // Then
+        verify(fxRateService).stampBaseAmounts(invoice);
+    }
+
+    private static CreateInvoiceRequest request(UUID customerId) {
+        return new CreateInvoiceRequest(customerId, UUID.randomUUID(), LocalDate.now(), LocalDate.now().plusDays(30),
+                "EUR", BigDecimal.ZERO, BigDecimal.ZERO, false, null, List.of());
+    }
+
+    private static Invoice draft() {
+        Invoice invoice = new Invoice();
+        invoice.setId(UUID.randomUUID());
+        invoice.setInvoiceNumber("INV-1");
+        invoice.setStatus(InvoiceStatus.DRAFT);
+        invoice.setAccount(Account.builder().accountId(ACCOUNT_ID).build());
+        invoice.setCustomer(Customer.builder().id(UUID.randomUUID()).name("Acme").build());
+        return invoice;
+    }
+}
@@ -0,0 +1,150 @@
+package org.invoicebuilder.invoices.tax;
+
+import org.invoicebuilder.exception.common.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaxEngineTest {
+
+    private static final LocalDate ISSUE_DATE = LocalDate.of(2024, 6, 1);
+
+    private final TaxRateTable table = TaxRateTable.from(List.of(
+            rate("KE-VAT", "VAT", "16", false, 0, LocalDate.of(2020, 1, 1), null),
+            rate("CA-QC", "GST", "5", false, 0, LocalDate.of(2008, 1, 1), null),
+            rate("CA-QC", "QST", "9.975", true, 1, LocalDate.of(2008, 1, 1), null),
+            rate("XX-STEP", "Standard", "10", false, 0, LocalDate.of(2020, 1, 1), LocalDate.of(2024, 1, 1)),
+            rate("XX-STEP", "Standard", "12.5", false, 0, LocalDate.of(2024, 1, 1), null)
+    ), 1L);
+
+    @Test
+    void shouldApplyInvoiceRateToLinesWithoutTaxCode() {
+        // Given
+        TaxEngine engine = new TaxEngine(table);
+        engine.begin(1, new BigDecimal("7.25"));
+        engine.line(0, 100_000L, null, ISSUE_DATE);
+
+        // When
+        engine.compute(false);
+
+        // Then
+        assertEquals(100_000L, engine.net(0));
+        assertEquals(7_250L, engine.tax(0));
+    }
+
+    @Test
+    void shouldApplyCompoundComponentOnTopOfPreviousTax() {
+        // Given
+        TaxEngine engine = new TaxEngine(table);
+        engine.begin(1, BigDecimal.ZERO);
+        engine.line(0, 10_000L, "CA-QC", ISSUE_DATE);
+
+        // When
+        engine.compute(false);
+
+        // Then: GST 500, QST 9.975% of 10500 = 1047.375 -> 1047
+        assertEquals(1_547L, engine.tax(0));
+    }
+
+    @Test
+    void shouldBackTaxOutOfInclusivePrices() {
+        // Given
+        TaxEngine engine = new TaxEngine(table);
+        engine.begin(1, BigDecimal.ZERO);
+        engine.line(0, 11_600L, "KE-VAT", ISSUE_DATE);
+
+        // When
+        engine.compute(true);
+
+        // Then
+        assertEquals(10_000L, engine.net(0));
+        assertEquals(1_600L, engine.tax(0));
+    }
+
+    @Test
+    void shouldUseRateInEffectOnTaxDate() {
+        TaxEngine engine = new TaxEngine(table);
+        engine.begin(1, BigDecimal.ZERO);
+        engine.line(0, 10_000L, "XX-STEP", LocalDate.of(2023, 12, 31));
+        engine.compute(false);
+        assertEquals(1_000L, engine.tax(0));
+
+        engine.begin(1, BigDecimal.ZERO);
+        engine.line(0, 10_000L, "XX-STEP", LocalDate.of(2024, 1, 1));
+        engine.compute(false);
+        assertEquals(1_250L, engine.tax(0));
+    }
+
+    @Test
+    void shouldRejectUnknownOrExpiredTaxCode() {
+        TaxEngine engine = new TaxEngine(table);
+        engine.begin(1, BigDecimal.ZERO);
+
+        InvalidRequestException unknown = assertThrows(InvalidRequestException.class, () -> engine.line(0, 100L, "NOPE", ISSUE_DATE));
+        assertTrue(unknown.getMessage().contains("'NOPE'"));
+        assertThrows(InvalidRequestException.class, () -> engine.line(0, 100L, "XX-STEP", LocalDate.of(2019, 1, 1)));
+    }
+
+    @Test
+    void batchComputationShouldMatchSingleInvoiceComputation() {
+        // Given
+        Random random = new Random(28);
+        String[] codes = {null, "KE-VAT", "CA-QC", "XX-STEP"};
+        int invoices = 500;
+        long[][] amounts = new long[invoices][];
+        String[][] lineCodes = new String[invoices][];
+        boolean[] inclusive = new boolean[invoices];
+        for (int i = 0; i < invoices; i++) {
+            int lines = random.nextInt(40) + 1;
+            amounts[i] = new long[lines];
+            lineCodes[i] = new String[lines];
+            inclusive[i] = random.nextBoolean();
+            for (int j = 0; j < lines; j++) {
+                amounts[i][j] = random.nextInt(5_000_000);
+                lineCodes[i][j] = codes[random.nextInt(codes.length)];
+            }
+        }
+        TaxEngine shared = new TaxEngine(table);
+
+        for (int i = 0; i < invoices; i++) {
+            // When
+            TaxEngine single = new TaxEngine(table);
+            run(single, amounts[i], lineCodes[i], inclusive[i]);
+            run(shared, amounts[i], lineCodes[i], inclusive[i]);
+
+            // Then
+            for (int j = 0; j < amounts[i].length; j++) {
+                assertEquals(single.net(j), shared.net(j));
+                assertEquals(single.tax(j), shared.tax(j));
+                assertEquals(amounts[i][j], inclusive[i] ? single.net(j) + single.tax(j) : single.net(j));
+            }
+        }
+    }
+
+    private static void run(TaxEngine engine, long[] amounts, String[] codes, boolean inclusive) {
+        engine.begin(amounts.length, new BigDecimal("8.5"));
+        for (int j = 0; j < amounts.length; j++) {
+            engine.line(j, amounts[j], codes[j], ISSUE_DATE);
+        }
+        engine.compute(inclusive);
+    }
+
+    private static TaxRate rate(String code, String name, String percent, boolean compound, int priority,
+                                LocalDate validFrom, LocalDate validTo) {
+        return TaxRate.builder()
+                .code(code)
+                .jurisdiction(code.substring(0, 2))
+                .name(name)
+                .percent(new BigDecimal(percent))
+                .compound(compound)
+                .priority(priority)
+                .validFrom(validFrom)
+                .validTo(validTo)
+                .build();
+    }
+}
@@ -0,0 +1,191 @@
+package org.invoicebuilder.notifications;
+
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.delivery.EmailMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SendGridNotificationProviderTest {
+
+    private static final String BOUNCING = "bounce@example.com";
+
+    private final AppProperties appProperties = new AppProperties();
+    private StubSendGridServer server;
+    private SendGridNotificationProvider provider;
+
+    @AfterEach
+    void tearDown() {
+        if (provider != null) {
+            provider.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void sameTemplateShouldBePackedIntoPersonalizations() {
+        // Given
+        provider = start("SG.test-key", 1_000);
+        List<EmailMessage> messages = messages(2_500, "Your March invoice", "Invoice attached");
+
+        // When
+        Map<UUID, Exception> failures = provider.sendBatch(messages);
+
+        // Then
+        assertTrue(failures.isEmpty());
+        assertEquals(3, server.requests().size());
+        Set<String> messageIds = new HashSet<>();
+        int recipients = 0;
+        for (Map<String, Object> request : server.requests()) {
+            for (Map<String, Object> personalization : StubSendGridServer.personalizations(request)) {
+                recipients++;
+                @SuppressWarnings("unchecked")
+                Map<String, Object> customArgs = (Map<String, Object>) personalization.get("custom_args");
+                messageIds.add((String) customArgs.get("message_id"));
+            }
+        }
+        assertEquals(2_500, recipients);
+        assertEquals(2_500, messageIds.size());
+        assertTrue(server.authorizations().stream().allMatch("Bearer SG.test-key"::equals));
+    }
+
+    @Test
+    void differentTemplatesShouldGoInSeparateRequests() {
+        // Given
+        provider = start("SG.test-key", 1_000);
+        List<EmailMessage> messages = new ArrayList<>(messages(3, "Invoice issued", "Body A"));
+        messages.addAll(messages(3, "Payment received", "Body B"));
+
+        // When
+        Map<UUID, Exception> failures = provider.sendBatch(messages);
+
+        // Then
+        assertTrue(failures.isEmpty());
+        assertEquals(2, server.requests().size());
+        assertTrue(server.requests().stream()
+                .allMatch(request -> StubSendGridServer.personalizations(request).size() == 3));
+    }
+
+    @Test
+    void registeredTemplateShouldBatchPerLocaleWithDynamicTemplateData() {
+        // Given
+        appProperties.getEmailTemplates().getSendgridTemplateIds().putAll(Map.of(
+                "invoice-issued", "d-issued",
+                "invoice-issued_fr", "d-issued-fr"));
+        provider = start("SG.test-key", 1_000);
+        List<EmailMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String locale = i < 3 ? "en-GB" : "fr-CA";
+            messages.add(message("customer" + i + "@example.com", "Invoice INV-" + i, "Invoice INV-" + i + " issued")
+                    .withTemplate("invoice-issued", locale, Map.of("invoiceNumber", "INV-" + i)));
+        }
+
+        // When
+        Map<UUID, Exception> failures = provider.sendBatch(messages);
+
+        // Then
+        assertTrue(failures.isEmpty());
+        assertEquals(2, server.requests().size());
+        Map<String, Object> english = server.requests().stream()
+                .filter(request -> "d-issued".equals(request.get("template_id")))
+                .findFirst().orElseThrow();
+        assertFalse(english.containsKey("content"));
+        assertFalse(english.containsKey("subject"));
+        List<Map<String, Object>> personalizations = StubSendGridServer.personalizations(english);
+        assertEquals(3, personalizations.size());
+        assertEquals(Map.of("invoiceNumber", "INV-0"), personalizations.getFirst().get("dynamic_template_data"));
+        assertTrue(server.requests().stream().anyMatch(request -> "d-issued-fr".equals(request.get("template_id"))));
+    }
+
+    @Test
+    void unregisteredTemplateShouldBeSentAsRendered() {
+        // Given
+        appProperties.getEmailTemplates().getSendgridTemplateIds().put("invoice-issued", "d-issued");
+        provider = start("SG.test-key", 1_000);
+        EmailMessage reset = message("customer@example.com", "Reset your password", "Reset link")
+                .withTemplate("password-reset", null, Map.of("resetUrl", "https://example.com/reset"));
+
+        // When
+        Map<UUID, Exception> failures = provider.sendBatch(List.of(reset));
+
+        // Then
+        assertTrue(failures.isEmpty());
+        Map<String, Object> request = server.requests().getFirst();
+        assertFalse(request.containsKey("template_id"));
+        assertEquals("Reset your password", request.get("subject"));
+        assertFalse(StubSendGridServer.personalizations(request).getFirst().containsKey("dynamic_template_data"));
+    }
+
+    @Test
+    void rejectedRecipientShouldFailPermanentlyAndOthersBeRetryable() {
+        // Given
+        provider = start("SG.test-key", 1_000);
+        EmailMessage good = message("good@example.com", "Invoice issued", "Body");
+        EmailMessage bad = message(BOUNCING, "Invoice issued", "Body");
+
+        // When
+        Map<UUID, Exception> failures = provider.sendBatch(List.of(good, bad));
+
+        // Then
+        assertInstanceOf(IllegalArgumentException.class, failures.get(bad.id()));
+        assertInstanceOf(IllegalStateException.class, failures.get(good.id()));
+    }
+
+    @Test
+    void serverErrorShouldFailWholeRequestAsRetryable() {
+        // Given
+        provider = start("SG.test-key", 2);
+        server.respondWith(503);
+        List<EmailMessage> messages = messages(5, "Invoice issued", "Body");
+
+        // When
+        Map<UUID, Exception> failures = provider.sendBatch(messages);
+
+        // Then
+        assertEquals(3, server.requests().size());
+        assertEquals(5, failures.size());
+        assertTrue(failures.values().stream().allMatch(IllegalStateException.class::isInstance));
+    }
+
+    @Test
+    void missingApiKeyShouldMakeProviderUnavailable() {
+        // Given
+        provider = start("", 1_000);
+
+        // When / Then
+        assertFalse(provider.isAvailable());
+        assertThrows(IllegalStateException.class,
+                () -> provider.sendBatch(messages(1, "Invoice issued", "Body")));
+        assertTrue(server.requests().isEmpty());
+    }
+
+    private SendGridNotificationProvider start(String apiKey, int maxPersonalizations) {
+        server = new StubSendGridServer(Set.of(BOUNCING));
+        return new SendGridNotificationProvider(JsonMapper.builder().build(), apiKey, server.baseUrl(),
+                Duration.ofSeconds(5), maxPersonalizations, "billing@invoicebuilder.test", appProperties);
+    }
+
+    private static List<EmailMessage> messages(int count, String subject, String text) {
+        List<EmailMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(message("customer" + i + "@example.com", subject, text));
+        }
+        return messages;
+    }
+
+    private static EmailMessage message(String to, String subject, String text) {
+        return EmailMessage.of("INVOICE_ISSUED", "billing@invoicebuilder.test", to, subject, text);
+    }
+}
@@ -0,0 +1,110 @@
+package org.invoicebuilder.notifications;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process stand-in for {@code POST /v3/mail/send}. Answers 202, or 400 naming the
+ * personalizations addressed to a rejected recipient, or a fixed status when one is set.
+ */
+class StubSendGridServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final Set<String> rejectedRecipients;
+    private final List<Map<String, Object>> requests = new CopyOnWriteArrayList<>();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private volatile int forcedStatus;
+
+    StubSendGridServer(Set<String> rejectedRecipients) {
+        this.rejectedRecipients = rejectedRecipients;
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.createContext("/v3/mail/send", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    void respondWith(int status) {
+        this.forcedStatus = status;
+    }
+
+    List<Map<String, Object>> requests() {
+        return requests;
+    }
+
+    List<String> authorizations() {
+        return authorizations;
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Map<String, Object>> personalizations(Map<String, Object> request) {
+        return (List<Map<String, Object>>) request.get("personalizations");
+    }
+
+    @SuppressWarnings("unchecked")
+    static String recipient(Map<String, Object> personalization) {
+        List<Map<String, Object>> to = (List<Map<String, Object>>) personalization.get("to");
+        return (String) to.getFirst().get("email");
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handle(HttpExchange exchange) throws IOException {
+        Map<String, Object> request = jsonMapper.readValue(exchange.getRequestBody().readAllBytes(), Map.class);
+        requests.add(request);
+        authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+
+        if (forcedStatus != 0) {
+            respond(exchange, forcedStatus, "{\"errors\":[{\"message\":\"unavailable\"}]}");
+            return;
+        }
+        List<Map<String, Object>> personalizations = personalizations(request);
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < personalizations.size(); i++) {
+            if (rejectedRecipients.contains(recipient(personalizations.get(i)))) {
+                errors.add("{\"message\":\"Does not contain a valid address.\",\"field\":\"personalizations." + i + ".to.0.email\"}");
+            }
+        }
+        if (errors.isEmpty()) {
+            respond(exchange, 202, "");
+        } else {
+            respond(exchange, 400, "{\"errors\":[" + String.join(",", errors) + "]}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
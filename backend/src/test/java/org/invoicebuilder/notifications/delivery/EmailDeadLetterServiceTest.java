@@ -0,0 +1,80 @@
+package org.invoicebuilder.notifications.delivery;
+
+import org.invoicebuilder.notifications.delivery.EmailDeadLetterStore.ReplayedDeadLetter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailDeadLetterServiceTest {
+
+    @Mock
+    private EmailDeadLetterStore emailDeadLetterStore;
+
+    @Mock
+    private EmailDeliveryPipeline emailDeliveryPipeline;
+
+    @InjectMocks
+    private EmailDeadLetterService emailDeadLetterService;
+
+    @Test
+    void fullQueueShouldReleaseOnlyTheMessagesNotQueued() {
+        // Given
+        List<ReplayedDeadLetter> claimed = List.of(deadLetter(), deadLetter(), deadLetter());
+        when(emailDeadLetterStore.claimForReplay(10)).thenReturn(claimed);
+        doNothing()
+                .doThrow(new RejectedExecutionException("Email queue is full"))
+                .when(emailDeliveryPipeline).submit(any());
+
+        // When
+        int queued = emailDeadLetterService.replay(10);
+
+        // Then
+        assertEquals(1, queued);
+        verify(emailDeliveryPipeline, times(2)).submit(any());
+        verify(emailDeadLetterStore).release(List.of(claimed.get(1).deadLetterId(), claimed.get(2).deadLetterId()));
+    }
+
+    @Test
+    void queueWithNoRoomShouldReleaseTheClaimAndReject() {
+        // Given
+        List<ReplayedDeadLetter> claimed = List.of(deadLetter(), deadLetter());
+        when(emailDeadLetterStore.claimForReplay(10)).thenReturn(claimed);
+        doThrow(new RejectedExecutionException("Email queue is full")).when(emailDeliveryPipeline).submit(any());
+
+        // When / Then
+        assertThrows(RejectedExecutionException.class, () -> emailDeadLetterService.replay(10));
+        verify(emailDeadLetterStore).release(List.of(claimed.get(0).deadLetterId(), claimed.get(1).deadLetterId()));
+    }
+
+    @Test
+    void replayShouldQueueEveryClaimedMessage() {
+        // Given
+        List<ReplayedDeadLetter> claimed = List.of(deadLetter(), deadLetter());
+        when(emailDeadLetterStore.claimForReplay(10)).thenReturn(claimed);
+
+        // When
+        int queued = emailDeadLetterService.replay(10);
+
+        // Then
+        assertEquals(2, queued);
+        verify(emailDeliveryPipeline).submit(claimed.get(0).message());
+        verify(emailDeliveryPipeline).submit(claimed.get(1).message());
+        verify(emailDeadLetterStore, never()).release(any());
+    }
+
+    private static ReplayedDeadLetter deadLetter() {
+        return new ReplayedDeadLetter(UUID.randomUUID(),
+                EmailMessage.of("INVOICE_ISSUED", "billing@example.com", "customer@example.com", "Invoice", "Body"));
+    }
+}
@@ -0,0 +1,188 @@
+package org.invoicebuilder.notifications.delivery;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.SmtpNotificationProvider;
+import org.invoicebuilder.notifications.routing.NotificationRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailDeliveryPipelineTest {
+
+    private static final String BOUNCING = "bounce@example.com";
+
+    @Mock
+    private EmailDeadLetterStore emailDeadLetterStore;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AppProperties appProperties = new AppProperties();
+    private StubSmtpServer smtpServer;
+    private EmailDeliveryPipeline pipeline;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+        if (smtpServer != null) {
+            smtpServer.close();
+        }
+    }
+
+    @Test
+    void shouldDeliverEveryMessageReusingConnections() {
+        // Given
+        pipeline = startPipeline(1, 1_000, 50);
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            pipeline.submit(message("customer" + i + "@example.com"));
+        }
+
+        // Then
+        awaitDelivered(200);
+        assertTrue(smtpServer.connections() <= 200 / 2,
+                "expected batches to share connections, got " + smtpServer.connections());
+        // The server sees a message before the worker counts it as sent.
+        awaitSent(200);
+        verifyNoInteractions(emailDeadLetterStore);
+    }
+
+    @Test
+    void rejectedMessageShouldBeRetriedThenDeadLettered() {
+        // Given
+        appProperties.getEmail().setMaxAttempts(3);
+        appProperties.getEmail().setRetryBackoff(Duration.ofMillis(10));
+        pipeline = startPipeline(2, 100, 10);
+
+        // When
+        pipeline.submit(message("ok@example.com"));
+        pipeline.submit(message(BOUNCING));
+
+        // Then
+        ArgumentCaptor<EmailMessage> deadLetter = ArgumentCaptor.forClass(EmailMessage.class);
+        verify(emailDeadLetterStore, timeout(5_000)).save(deadLetter.capture(), anyString());
+        assertEquals(BOUNCING, deadLetter.getValue().to());
+        assertEquals(3, deadLetter.getValue().attempts());
+        awaitDelivered(1);
+        assertEquals(2.0, meterRegistry.counter("email.messages", "result", "retried").count());
+    }
+
+    @Test
+    void throttledMessagesShouldBeDeferredWithoutUsingAttempts() {
+        // Given: one message per 50ms, no waiting in the router, and no retries allowed
+        appProperties.getEmail().setMaxAttempts(1);
+        appProperties.getEmail().setRetryBackoff(Duration.ofMillis(10));
+        appProperties.getNotificationRouting().setMaxWait(Duration.ZERO);
+        pipeline = startPipeline(1, 100, 10, 20, 1);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(message("customer" + i + "@example.com"));
+        }
+
+        // Then
+        awaitDelivered(3);
+        assertEquals(3, smtpServer.deliveredRecipients().size());
+        assertTrue(meterRegistry.counter("email.messages", "result", "deferred").count() > 0);
+        assertEquals(0.0, meterRegistry.counter("email.messages", "result", "retried").count());
+        verifyNoInteractions(emailDeadLetterStore);
+    }
+
+    @Test
+    void fullQueueShouldRejectSubmission() {
+        // Given: no workers, so nothing drains the queue
+        appProperties.getEmail().setOfferTimeout(Duration.ofMillis(10));
+        pipeline = startPipeline(0, 1, 10);
+        pipeline.submit(message("first@example.com"));
+
+        // When / Then
+        assertThrows(RejectedExecutionException.class, () -> pipeline.submit(message("second@example.com")));
+    }
+
+    @Test
+    void stopShouldDeadLetterQueuedMessages() {
+        // Given
+        appProperties.getEmail().setShutdownTimeout(Duration.ofMillis(10));
+        pipeline = startPipeline(0, 10, 10);
+        pipeline.submit(message("queued@example.com"));
+
+        // When
+        pipeline.stop();
+        pipeline = null;
+
+        // Then
+        verify(emailDeadLetterStore).save(argThat(m -> m.to().equals("queued@example.com")), anyString());
+    }
+
+    private EmailDeliveryPipeline startPipeline(int workers, int capacity, int batchSize) {
+        return startPipeline(workers, capacity, batchSize, 1_000_000, 1_000_000);
+    }
+
+    private EmailDeliveryPipeline startPipeline(int workers, int capacity, int batchSize, double ratePerSecond, int burst) {
+        smtpServer = new StubSmtpServer(Set.of(BOUNCING));
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.port());
+
+        AppProperties.Email settings = appProperties.getEmail();
+        settings.setWorkers(workers);
+        settings.setQueueCapacity(capacity);
+        settings.setBatchSize(batchSize);
+        AppProperties.NotificationRouting.ProviderLimit limit = new AppProperties.NotificationRouting.ProviderLimit();
+        limit.setRatePerSecond(ratePerSecond);
+        limit.setBurst(burst);
+        appProperties.getNotificationRouting().getProviders().put("smtp", limit);
+        NotificationRouter router = new NotificationRouter(
+                List.of(new SmtpNotificationProvider(mailSender)), appProperties, meterRegistry, "smtp");
+        EmailDeliveryPipeline started = new EmailDeliveryPipeline(router, emailDeadLetterStore, appProperties, meterRegistry);
+        started.start();
+        return started;
+    }
+
+    private void awaitDelivered(int expected) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (smtpServer.deliveredRecipients().size() < expected && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertEquals(expected, smtpServer.deliveredRecipients().size());
+    }
+
+    private void awaitSent(int expected) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (meterRegistry.counter("email.messages", "result", "sent").count() < expected
+                && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertEquals(expected, meterRegistry.counter("email.messages", "result", "sent").count());
+    }
+
+    private static EmailMessage message(String to) {
+        return EmailMessage.of("INVOICE_ISSUED", "billing@invoicebuilder.test", to, "Invoice", "Body");
+    }
+}
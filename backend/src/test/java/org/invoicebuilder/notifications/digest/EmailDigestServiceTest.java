@@ -0,0 +1,176 @@
+package org.invoicebuilder.notifications.digest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.EmailService;
+import org.invoicebuilder.notifications.event.EmailEvent;
+import org.invoicebuilder.notifications.event.InvoiceIssuedEvent;
+import org.invoicebuilder.notifications.event.PasswordResetEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailDigestServiceTest {
+
+    private static final String ISSUED_PAYLOAD = """
+        {"invoiceNumber":"INV-%d","userEmail":"billing@example.com","eventType":"INVOICE_ISSUED"}
+        """;
+
+    @Mock
+    private EmailDigestStore emailDigestStore;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AppProperties appProperties = new AppProperties();
+    private EmailDigestService emailDigestService;
+
+    @BeforeEach
+    void setUp() {
+        emailDigestService = new EmailDigestService(emailDigestStore, emailService, transactionTemplate,
+                JsonMapper.builder().build(), appProperties, meterRegistry);
+    }
+
+    @Test
+    void shouldOnlyAcceptConfiguredEventTypesWhileEnabled() {
+        // Given
+        InvoiceIssuedEvent issued = InvoiceIssuedEvent.builder().userEmail("billing@example.com").build();
+        PasswordResetEvent reset = PasswordResetEvent.builder().userEmail("billing@example.com").build();
+
+        // When / Then
+        assertTrue(emailDigestService.accepts(issued));
+        assertFalse(emailDigestService.accepts(reset));
+        assertFalse(emailDigestService.accepts(InvoiceIssuedEvent.builder().build()));
+
+        appProperties.getDigest().setEnabled(false);
+        assertFalse(emailDigestService.accepts(issued));
+    }
+
+    @Test
+    void appendShouldBufferUnderTheLowercasedRecipient() {
+        // Given
+        appProperties.getDigest().setWindow(Duration.ofMinutes(3));
+        appProperties.getDigest().setMaxEvents(50);
+        InvoiceIssuedEvent issued = InvoiceIssuedEvent.builder()
+                .invoiceNumber("INV-1").userEmail("Billing@Example.com").userName("Ada").build();
+
+        // When
+        emailDigestService.append(issued);
+
+        // Then
+        verify(emailDigestStore).append(eq("billing@example.com"), eq("Ada"), isNull(), eq("INVOICE_ISSUED"),
+                contains("INV-1"), eq(Duration.ofMinutes(3)), eq(50));
+        assertEquals(1.0, meterRegistry.counter("email.digest.events").count());
+    }
+
+    @Test
+    void dueDigestWithSeveralEventsShouldBeSentAsOneEmail() {
+        // Given
+        inTransaction();
+        when(emailDigestStore.claimDue())
+                .thenReturn(Optional.of(digest(event(1), event(2), event(3))))
+                .thenReturn(Optional.empty());
+
+        // When
+        int flushed = emailDigestService.flushDue();
+
+        // Then
+        assertEquals(1, flushed);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EmailEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(emailService).sendDigest(eq("billing@example.com"), eq("Ada"), eq("fr"), events.capture());
+        assertEquals(List.of("INV-1", "INV-2", "INV-3"), events.getValue().stream()
+                .map(event -> ((InvoiceIssuedEvent) event).getInvoiceNumber())
+                .toList());
+        verify(emailService, never()).sendEmailEvent(any());
+        assertEquals(3.0, meterRegistry.summary("email.digest.size").totalAmount());
+    }
+
+    @Test
+    void digestWithASingleEventShouldBeSentAsThatEvent() {
+        // Given
+        inTransaction();
+        when(emailDigestStore.claimDue())
+                .thenReturn(Optional.of(digest(event(7))))
+                .thenReturn(Optional.empty());
+
+        // When
+        emailDigestService.flushDue();
+
+        // Then
+        ArgumentCaptor<EmailEvent> event = ArgumentCaptor.forClass(EmailEvent.class);
+        verify(emailService).sendEmailEvent(event.capture());
+        assertEquals("INV-7", ((InvoiceIssuedEvent) event.getValue()).getInvoiceNumber());
+        verify(emailService, never()).sendDigest(any(), any(), any(), any());
+    }
+
+    @Test
+    void fullDeliveryQueueShouldStopTheRunWithoutPostponing() {
+        // Given
+        inTransaction();
+        when(emailDigestStore.claimDue()).thenReturn(Optional.of(digest(event(1), event(2))));
+        doThrow(new RejectedExecutionException("full")).when(emailService).sendDigest(any(), any(), any(), any());
+
+        // When
+        int flushed = emailDigestService.flushDue();
+
+        // Then
+        assertEquals(0, flushed);
+        verify(emailDigestStore, times(1)).claimDue();
+        verify(emailDigestStore, never()).postpone(any(), any());
+    }
+
+    @Test
+    void failingDigestShouldBePostponedAndOthersStillFlushed() {
+        // Given
+        inTransaction();
+        appProperties.getDigest().setFailureBackoff(Duration.ofMinutes(10));
+        when(emailDigestStore.claimDue())
+                .thenReturn(Optional.of(digest(event(1), event(2))))
+                .thenReturn(Optional.of(digest(event(3))))
+                .thenReturn(Optional.empty());
+        doThrow(new IllegalStateException("template broken"))
+                .when(emailService).sendDigest(any(), any(), any(), any());
+
+        // When
+        int flushed = emailDigestService.flushDue();
+
+        // Then
+        assertEquals(1, flushed);
+        verify(emailDigestStore).postpone("billing@example.com", Duration.ofMinutes(10));
+        verify(emailService).sendEmailEvent(any());
+    }
+
+    private void inTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static EmailDigestStore.DigestEvent event(long id) {
+        return new EmailDigestStore.DigestEvent(id, "INVOICE_ISSUED", ISSUED_PAYLOAD.formatted(id));
+    }
+
+    private static EmailDigestStore.ClaimedDigest digest(EmailDigestStore.DigestEvent... events) {
+        return new EmailDigestStore.ClaimedDigest("billing@example.com", "Ada", "fr", List.of(events));
+    }
+}
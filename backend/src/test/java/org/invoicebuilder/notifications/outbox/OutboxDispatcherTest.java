@@ -0,0 +1,149 @@
+package org.invoicebuilder.notifications.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.event.InvoiceOverdueEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    private static final String OVERDUE_PAYLOAD = """
+        {"invoiceNumber":"INV-%d","userEmail":"billing@example.com","eventType":"INVOICE_OVERDUE"}
+        """;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AppProperties appProperties = new AppProperties();
+    private OutboxDispatcher outboxDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        appProperties.getOutbox().setBatchSize(2);
+        appProperties.getOutbox().setMaxAttempts(3);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(transactionStatus));
+        outboxDispatcher = new OutboxDispatcher(jdbcTemplate, transactionTemplate, applicationEventPublisher,
+                appProperties, JsonMapper.builder().build(), meterRegistry);
+    }
+
+    @Test
+    void shouldPublishDecodedEventsAndStopOnShortBatch() {
+        // Given
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any()))
+                .thenReturn(List.of(row(1, 0), row(2, 0)))
+                .thenReturn(List.of(row(3, 0)));
+
+        // When
+        long claimed = outboxDispatcher.drain();
+
+        // Then
+        assertEquals(3, claimed);
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(applicationEventPublisher, times(3)).publishEvent(events.capture());
+        InvoiceOverdueEvent first = assertInstanceOf(InvoiceOverdueEvent.class, events.getAllValues().getFirst());
+        assertEquals("INV-1", first.getInvoiceNumber());
+        verify(jdbcTemplate, times(2)).update(anyString(), any(PreparedStatementSetter.class));
+        assertEquals(3.0, meterRegistry.counter("outbox.events", "result", "dispatched").count());
+    }
+
+    @Test
+    void failingEventShouldBeRetriedAndThenMovedToDead() {
+        // Given
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any()))
+                .thenReturn(List.of(row(1, 0), row(2, 2)))
+                .thenReturn(List.of());
+        doThrow(new IllegalStateException("listener down")).when(applicationEventPublisher).publishEvent(any(Object.class));
+
+        // When
+        outboxDispatcher.drain();
+
+        // Then
+        verify(jdbcTemplate).update(anyString(), eq("PENDING"), eq(5L), eq("listener down"), eq(1L));
+        verify(jdbcTemplate).update(anyString(), eq("DEAD"), eq(20L), eq("listener down"), eq(2L));
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+        assertEquals(1.0, meterRegistry.counter("outbox.events", "result", "dead").count());
+    }
+
+    @Test
+    void failingListenerShouldOnlyRollBackItsOwnRow() {
+        // Given
+        Object firstSavepoint = new Object();
+        Object secondSavepoint = new Object();
+        when(transactionStatus.createSavepoint()).thenReturn(firstSavepoint, secondSavepoint);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any()))
+                .thenReturn(List.of(row(1, 0), row(2, 0)))
+                .thenReturn(List.of());
+        doThrow(new IllegalStateException("digest write failed"))
+                .doNothing()
+                .when(applicationEventPublisher).publishEvent(any(Object.class));
+
+        // When
+        outboxDispatcher.drain();
+
+        // Then
+        verify(transactionStatus).rollbackToSavepoint(firstSavepoint);
+        verify(transactionStatus).releaseSavepoint(secondSavepoint);
+        verify(transactionStatus, never()).rollbackToSavepoint(secondSavepoint);
+        verify(jdbcTemplate).update(anyString(), eq("PENDING"), eq(5L), eq("digest write failed"), eq(1L));
+        verify(jdbcTemplate).update(anyString(), any(PreparedStatementSetter.class));
+        assertEquals(1.0, meterRegistry.counter("outbox.events", "result", "dispatched").count());
+    }
+
+    @Test
+    void fullPipelineShouldStopTheBatchWithoutUsingAnAttempt() {
+        // Given
+        appProperties.getOutbox().setBatchSize(3);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any()))
+                .thenReturn(List.of(row(1, 0), row(2, 0), row(3, 0)));
+        doNothing()
+                .doThrow(new RejectedExecutionException("Email queue is full"))
+                .when(applicationEventPublisher).publishEvent(any(Object.class));
+
+        // When
+        long handled = outboxDispatcher.drain();
+
+        // Then
+        assertEquals(1, handled);
+        verify(applicationEventPublisher, times(2)).publishEvent(any(Object.class));
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), any());
+        verify(jdbcTemplate).update(anyString(), any(PreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(), any(), any(), any());
+        assertEquals(2.0, meterRegistry.counter("outbox.events", "result", "deferred").count());
+    }
+
+    private static OutboxDispatcher.OutboxRow row(long id, int attempts) {
+        return new OutboxDispatcher.OutboxRow(id, "INVOICE_OVERDUE", OVERDUE_PAYLOAD.formatted(id), attempts, 10L);
+    }
+}
@@ -0,0 +1,191 @@
+package org.invoicebuilder.notifications.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.NotificationProvider;
+import org.invoicebuilder.notifications.delivery.EmailMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationRouterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AppProperties.NotificationRouting settings;
+    private FakeProvider smtp;
+    private FakeProvider sendgrid;
+
+    @BeforeEach
+    void setUp() {
+        settings = new AppProperties.NotificationRouting();
+        settings.setFailureThreshold(2);
+        settings.setOpenDuration(Duration.ofSeconds(30));
+        settings.setMaxWait(Duration.ZERO);
+        settings.getProviders().put("smtp", limit(1, 1_000));
+        settings.getProviders().put("sendgrid", limit(1, 1_000));
+        smtp = new FakeProvider("smtp");
+        sendgrid = new FakeProvider("sendgrid");
+    }
+
+    @Test
+    void openCircuitShouldShiftTrafficToTheOtherProvider() {
+        // Given
+        smtp.failing = true;
+        NotificationRouter router = router("smtp", smtp, sendgrid);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            router.send(List.of(message()));
+        }
+
+        // Then
+        assertEquals(2, smtp.calls, "breaker should open after the failure threshold");
+        assertEquals(48, sendgrid.received.size());
+    }
+
+    @Test
+    void shouldSplitBatchWhenProviderRunsOutOfTokens() {
+        // Given
+        settings.getProviders().put("smtp", limit(1, 3));
+        NotificationRouter router = router("smtp", smtp, sendgrid);
+
+        // When
+        Map<UUID, Exception> failures = router.send(messages(20));
+
+        // Then
+        assertTrue(failures.isEmpty());
+        assertTrue(smtp.received.size() <= 3);
+        assertEquals(20, smtp.received.size() + sendgrid.received.size());
+    }
+
+    @Test
+    void unavailableProviderShouldBeSkipped() {
+        // Given
+        smtp.available = false;
+        NotificationRouter router = router("smtp", smtp, sendgrid);
+
+        // When
+        Map<UUID, Exception> failures = router.send(messages(10));
+
+        // Then
+        assertTrue(failures.isEmpty());
+        assertEquals(0, smtp.calls);
+        assertEquals(10, sendgrid.received.size());
+    }
+
+    @Test
+    void exhaustedRateLimitsShouldFailRemainingMessages() {
+        // Given
+        settings.getProviders().put("smtp", limit(1, 4));
+        NotificationRouter router = router("smtp", smtp);
+
+        // When
+        Map<UUID, Exception> failures = router.send(messages(10));
+
+        // Then
+        assertEquals(4, smtp.received.size());
+        assertEquals(6, failures.size());
+        ProvidersUnavailableException failure =
+                assertInstanceOf(ProvidersUnavailableException.class, failures.values().iterator().next());
+        assertTrue(failure.getRetryAfter().isPositive());
+    }
+
+    @Test
+    void halfOpenTrialShouldCloseCircuitOnSuccess() {
+        // Given
+        smtp.failing = true;
+        NotificationRouter router = router("smtp", smtp);
+        router.send(List.of(message()));
+        router.send(List.of(message()));
+
+        // When: the circuit is open, nothing is attempted
+        Map<UUID, Exception> rejected = router.send(List.of(message()));
+
+        // Then
+        assertEquals(1, rejected.size());
+        assertEquals(2, smtp.calls);
+
+        // When: the open period elapses and the provider has recovered
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        smtp.failing = false;
+        Map<UUID, Exception> trial = router.send(List.of(message()));
+        Map<UUID, Exception> after = router.send(messages(5));
+
+        // Then
+        assertTrue(trial.isEmpty());
+        assertTrue(after.isEmpty());
+        assertEquals(6, smtp.received.size());
+        assertEquals(0.0, meterRegistry.get("notification.provider.circuit.open").tag("provider", "smtp").gauge().value());
+    }
+
+    private NotificationRouter router(String primary, NotificationProvider... providers) {
+        return new NotificationRouter(List.of(providers), settings, primary, meterRegistry, clock::get);
+    }
+
+    private static AppProperties.NotificationRouting.ProviderLimit limit(double ratePerSecond, int burst) {
+        AppProperties.NotificationRouting.ProviderLimit limit = new AppProperties.NotificationRouting.ProviderLimit();
+        limit.setRatePerSecond(ratePerSecond);
+        limit.setBurst(burst);
+        return limit;
+    }
+
+    private static List<EmailMessage> messages(int count) {
+        List<EmailMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(message());
+        }
+        return messages;
+    }
+
+    private static EmailMessage message() {
+        return EmailMessage.of("INVOICE_ISSUED", "billing@invoicebuilder.test", "customer@example.com", "Invoice", "Body");
+    }
+
+    private static final class FakeProvider implements NotificationProvider {
+
+        private final String name;
+        private final List<EmailMessage> received = new ArrayList<>();
+        private boolean available = true;
+        private boolean failing;
+        private int calls;
+
+        FakeProvider(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void sendEmail(String to, String subject, String content) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return available;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public Map<UUID, Exception> sendBatch(List<EmailMessage> messages) {
+            calls++;
+            if (failing) {
+                throw new IllegalStateException(name + " is down");
+            }
+            received.addAll(messages);
+            return new HashMap<>();
+        }
+    }
+}
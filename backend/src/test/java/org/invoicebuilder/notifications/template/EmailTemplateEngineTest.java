@@ -0,0 +1,114 @@
+package org.invoicebuilder.notifications.template;
+
+import org.invoicebuilder.config.AppProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplateEngineTest {
+
+    private final AppProperties appProperties = new AppProperties();
+
+    @Test
+    void shippedTemplatesShouldRenderTextAndHtml() {
+        // Given
+        EmailTemplateEngine engine = new EmailTemplateEngine(new DefaultResourceLoader(), appProperties);
+        Map<String, Object> model = Map.of(
+                "userName", "Ada",
+                "invoiceNumber", "INV-2026-0001",
+                "amountDue", "1250.00 USD",
+                "dueDate", "2026-11-30");
+
+        // When
+        RenderedEmail email = engine.render("invoice-issued", null, model);
+
+        // Then
+        assertEquals("You have a new invoice", email.subject());
+        assertTrue(email.text().contains("Invoice INV-2026-0001 for 1250.00 USD"));
+        assertTrue(email.text().contains("Payment is due by 2026-11-30."));
+        assertNotNull(email.html());
+        assertTrue(email.html().contains("<strong>INV-2026-0001</strong>"));
+    }
+
+    @Test
+    void shippedTemplatesShouldAllCompile() {
+        EmailTemplateEngine engine = new EmailTemplateEngine(new DefaultResourceLoader(), appProperties);
+        for (String name : new String[]{"email-verification", "password-reset", "welcome",
+                "invoice-issued", "invoice-reminder", "invoice-overdue", "invoice-digest", "notification"}) {
+            assertTrue(engine.hasTemplate(name), name);
+            assertDoesNotThrow(() -> engine.render(name, Locale.FRENCH, Map.of()), name);
+        }
+    }
+
+    @Test
+    void localeVariantShouldFallBackPartByPart(@TempDir Path dir) throws IOException {
+        // Given: French subject and text, but only a default HTML part
+        write(dir, "greeting.subject", "Hello");
+        write(dir, "greeting.txt", "Hello {{userName}}");
+        write(dir, "greeting.html", "<p>Hello {{userName}}</p>");
+        write(dir, "greeting_fr.subject", "Bonjour");
+        write(dir, "greeting_fr.txt", "Bonjour {{userName}}");
+        EmailTemplateEngine engine = engine(dir, false);
+
+        // When
+        RenderedEmail canadianFrench = engine.render("greeting", Locale.CANADA_FRENCH, Map.of("userName", "Zoé"));
+        RenderedEmail german = engine.render("greeting", Locale.GERMAN, Map.of("userName", "Zoé"));
+
+        // Then
+        assertEquals("Bonjour", canadianFrench.subject());
+        assertEquals("Bonjour Zoé", canadianFrench.text());
+        assertEquals("<p>Hello Zoé</p>", canadianFrench.html());
+        assertEquals("Hello Zoé", german.text());
+    }
+
+    @Test
+    void templatesShouldBeCachedUnlessHotReloadIsOn(@TempDir Path dir) throws IOException {
+        // Given
+        write(dir, "note.subject", "Note");
+        write(dir, "note.txt", "Version 1");
+        EmailTemplateEngine cached = engine(dir, false);
+        EmailTemplateEngine reloading = engine(dir, true);
+        assertEquals("Version 1", cached.render("note", null, Map.of()).text());
+        assertEquals("Version 1", reloading.render("note", null, Map.of()).text());
+
+        // When
+        write(dir, "note.txt", "Version 2");
+        Files.setLastModifiedTime(dir.resolve("note.txt"), FileTime.from(Instant.now().plusSeconds(60)));
+
+        // Then
+        assertEquals("Version 1", cached.render("note", null, Map.of()).text());
+        assertEquals("Version 2", reloading.render("note", null, Map.of()).text());
+    }
+
+    @Test
+    void templateWithoutTextPartShouldBeRejected(@TempDir Path dir) throws IOException {
+        // Given
+        write(dir, "broken.subject", "Subject only");
+        EmailTemplateEngine engine = engine(dir, false);
+
+        // When / Then
+        assertFalse(engine.hasTemplate("broken"));
+        assertThrows(IllegalArgumentException.class, () -> engine.render("broken", null, Map.of()));
+    }
+
+    private EmailTemplateEngine engine(Path dir, boolean hotReload) {
+        AppProperties properties = new AppProperties();
+        properties.getEmailTemplates().setLocation(dir.toUri().toString());
+        properties.getEmailTemplates().setHotReload(hotReload);
+        return new EmailTemplateEngine(new DefaultResourceLoader(), properties);
+    }
+
+    private static void write(Path dir, String file, String content) throws IOException {
+        Files.writeString(dir.resolve(file), content);
+    }
+}
@@ -0,0 +1,109 @@
+package org.invoicebuilder.notifications.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateCompilerTest {
+
+    @Test
+    void shouldSubstituteVariables() {
+        // Given
+        CompiledTemplate template = TemplateCompiler.compile("t", "Hello {{ name }}, invoice {{number}}.", false);
+
+        // When
+        String rendered = render(template, Map.of("name", "Ada", "number", 42));
+
+        // Then
+        assertEquals("Hello Ada, invoice 42.", rendered);
+    }
+
+    @Test
+    void htmlTemplateShouldEscapeUnlessTripleBraced() {
+        // Given
+        CompiledTemplate template = TemplateCompiler.compile("t", "<p>{{name}}</p>{{{raw}}}", true);
+
+        // When
+        String rendered = render(template, Map.of("name", "<Tom & \"Jerry\">", "raw", "<br>"));
+
+        // Then
+        assertEquals("<p>&lt;Tom &amp; &quot;Jerry&quot;&gt;</p><br>", rendered);
+    }
+
+    @Test
+    void sectionsShouldRenderOnPresenceAndStandaloneTagLinesShouldDisappear() {
+        // Given
+        CompiledTemplate template = TemplateCompiler.compile("t", """
+                Invoice {{number}}
+                {{#dueDate}}
+                Due {{dueDate}}
+                {{/dueDate}}
+                {{^dueDate}}
+                Due on receipt
+                {{/dueDate}}
+                {{! signature }}
+                Thanks
+                """, false);
+
+        // When
+        String withDueDate = render(template, Map.of("number", "INV-1", "dueDate", "2026-11-01"));
+        String withoutDueDate = render(template, Map.of("number", "INV-2", "dueDate", List.of()));
+
+        // Then
+        assertEquals("Invoice INV-1\nDue 2026-11-01\nThanks\n", withDueDate);
+        assertEquals("Invoice INV-2\nDue on receipt\nThanks\n", withoutDueDate);
+    }
+
+    @Test
+    void sectionsShouldIterateListsAndLookUpMapValuesBeforeTheParent() {
+        // Given
+        CompiledTemplate template = TemplateCompiler.compile("t", """
+                {{#overdue}}
+                Overdue ({{count}}) for {{userName}}:
+                {{#items}}
+                - {{invoiceNumber}}
+                {{/items}}
+                {{/overdue}}
+                """, false);
+        Map<String, Object> overdue = Map.of("count", 2,
+                "items", List.of(Map.of("invoiceNumber", "INV-1"), Map.of("invoiceNumber", "INV-2")));
+
+        // When
+        String rendered = render(template, Map.of("userName", "Ada", "count", 5, "overdue", overdue));
+
+        // Then
+        assertEquals("Overdue (2) for Ada:\n- INV-1\n- INV-2\n", rendered);
+    }
+
+    @Test
+    void missingValuesShouldRenderAsNothing() {
+        // Given
+        CompiledTemplate template = TemplateCompiler.compile("t", "[{{missing}}]", false);
+
+        // When / Then
+        assertEquals("[]", render(template, Map.of()));
+    }
+
+    @Test
+    void malformedTemplatesShouldBeRejectedWithLine() {
+        IllegalArgumentException unclosedTag = assertThrows(IllegalArgumentException.class,
+                () -> TemplateCompiler.compile("bad.txt", "line one\n{{name", false));
+        assertTrue(unclosedTag.getMessage().contains("bad.txt at line 2"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TemplateCompiler.compile("t", "{{#a}}text", false));
+        assertThrows(IllegalArgumentException.class,
+                () -> TemplateCompiler.compile("t", "{{#a}}text{{/b}}", false));
+        assertThrows(IllegalArgumentException.class,
+                () -> TemplateCompiler.compile("t", "{{first name}}", false));
+    }
+
+    private static String render(CompiledTemplate template, Map<String, ?> model) {
+        StringBuilder out = new StringBuilder();
+        template.render(model, out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package org.invoicebuilder.performance;
+
+import org.invoicebuilder.invoices.discount.CompiledDiscountRules;
+import org.invoicebuilder.invoices.discount.DiscountRule;
+import org.invoicebuilder.invoices.discount.DiscountRuleCompiler;
+import org.invoicebuilder.invoices.discount.DiscountRuleType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures discount rule evaluation throughput over a 10k-line invoice. Runs without a
+ * Spring context.
+ */
+public class DiscountRulePerformanceTest {
+
+    private static final int LINES = 10_000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+
+    @Test
+    void benchmarkRuleEvaluation() {
+        CompiledDiscountRules rules = DiscountRuleCompiler.compile(sampleRules());
+
+        Random random = new Random(29);
+        long[] amounts = new long[LINES];
+        int[] quantities = new int[LINES];
+        String[] descriptions = new String[LINES];
+        String[] catalogue = {"Consulting hours", "Managed hosting", "Support retainer", "Licence seat", "Widgets"};
+        for (int i = 0; i < LINES; i++) {
+            amounts[i] = random.nextInt(1_000_000);
+            quantities[i] = random.nextInt(500) + 1;
+            descriptions[i] = catalogue[random.nextInt(catalogue.length)] + " #" + i;
+        }
+
+        System.out.println("=== Discount Rule Evaluation Benchmark ===");
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += evaluate(rules, amounts, quantities, descriptions);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += evaluate(rules, amounts, quantities, descriptions);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double lines = (double) LINES * MEASURED_ROUNDS;
+        System.out.printf("Rules: 5 compiled, invoice: %d lines%n", LINES);
+        System.out.printf("Per invoice: %.1f us%n", elapsed / 1_000.0 / MEASURED_ROUNDS);
+        System.out.printf("Per line: %.1f ns (%.1f M lines/s, sink %d)%n",
+                elapsed / lines, lines / (elapsed / 1_000.0), sink);
+    }
+
+    private static long evaluate(CompiledDiscountRules rules, long[] amounts, int[] quantities, String[] descriptions) {
+        long total = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            total += rules.lineDiscount(amounts[i], quantities[i], descriptions[i]);
+        }
+        return total;
+    }
+
+    private static List<DiscountRule> sampleRules() {
+        List<DiscountRule> rules = new ArrayList<>();
+        rules.add(rule(DiscountRuleType.PERCENTAGE, "2.5", 0, null, null));
+        rules.add(rule(DiscountRuleType.TIERED_VOLUME, "5", 1, 50, null));
+        rules.add(rule(DiscountRuleType.TIERED_VOLUME, "10", 1, 200, null));
+        rules.add(rule(DiscountRuleType.PER_LINE, "15", 2, null, "hosting"));
+        rules.add(rule(DiscountRuleType.EARLY_PAYMENT, "2", 3, null, null));
+        return rules;
+    }
+
+    private static DiscountRule rule(DiscountRuleType type, String percent, int priority, Integer minQuantity, String lineMatch) {
+        return DiscountRule.builder()
+                .name(type.name())
+                .type(type)
+                .percent(new BigDecimal(percent))
+                .priority(priority)
+                .minQuantity(minQuantity)
+                .lineMatch(lineMatch)
+                .days(10)
+                .build();
+    }
+}
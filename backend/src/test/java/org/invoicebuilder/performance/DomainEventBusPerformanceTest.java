@@ -0,0 +1,94 @@
+package org.invoicebuilder.performance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.events.DomainEvent;
+import org.invoicebuilder.events.DomainEventBus;
+import org.invoicebuilder.events.DomainEventSubscriber;
+import org.invoicebuilder.events.InvoiceCreated;
+import org.invoicebuilder.events.WaitStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes 1M events from 4 producer threads to two subscribers with each wait strategy and
+ * reports the cost of a publish on the producer thread and the end-to-end throughput.
+ * Runs without a Spring context.
+ */
+public class DomainEventBusPerformanceTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 250_000;
+
+    @Test
+    void benchmarkPublishAndDelivery() throws Exception {
+        System.out.println("=== Domain Event Bus Benchmark ===");
+        InvoiceCreated event = new InvoiceCreated(UUID.randomUUID(), UUID.randomUUID(), "INV-1", Instant.now());
+
+        for (WaitStrategy.Kind kind : WaitStrategy.Kind.values()) {
+            AppProperties appProperties = new AppProperties();
+            appProperties.getEventBus().setWaitStrategy(kind);
+            appProperties.getEventBus().setBufferSize(16_384);
+            appProperties.getEventBus().setPublishTimeout(Duration.ofSeconds(10));
+            int total = PRODUCERS * EVENTS_PER_PRODUCER;
+            CountDownLatch delivered = new CountDownLatch(2);
+            List<DomainEventSubscriber> subscribers = List.of(counting("a", total, delivered), counting("b", total, delivered));
+            DomainEventBus bus = new DomainEventBus(subscribers, List.of(), appProperties, new SimpleMeterRegistry());
+            bus.start();
+
+            long[] publishNanos = new long[PRODUCERS];
+            List<Thread> producers = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int p = 0; p < PRODUCERS; p++) {
+                int producer = p;
+                Thread thread = new Thread(() -> {
+                    long begin = System.nanoTime();
+                    for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                        bus.publish(event);
+                    }
+                    publishNanos[producer] = System.nanoTime() - begin;
+                });
+                producers.add(thread);
+                thread.start();
+            }
+            for (Thread thread : producers) {
+                thread.join();
+            }
+            delivered.await(60, TimeUnit.SECONDS);
+            long elapsed = System.nanoTime() - start;
+            bus.stop();
+
+            long publishTotal = 0;
+            for (long nanos : publishNanos) {
+                publishTotal += nanos;
+            }
+            System.out.printf("%-9s publish: %.1f ns/event per producer, delivered: %,d events/s to 2 subscribers%n",
+                    kind, (double) publishTotal / total, (long) (total / (elapsed / 1_000_000_000.0)));
+        }
+    }
+
+    private static DomainEventSubscriber counting(String name, int expected, CountDownLatch delivered) {
+        return new DomainEventSubscriber() {
+            private int seen;
+
+            @Override
+            public void onEvent(DomainEvent event, long sequence, boolean endOfBatch) {
+                if (++seen == expected) {
+                    delivered.countDown();
+                }
+            }
+
+            @Override
+            public String name() {
+                return name;
+            }
+        };
+    }
+}
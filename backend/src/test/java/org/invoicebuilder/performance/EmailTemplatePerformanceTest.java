@@ -0,0 +1,79 @@
+package org.invoicebuilder.performance;
+
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.notifications.template.EmailTemplateEngine;
+import org.invoicebuilder.notifications.template.RenderedEmail;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renders 100k invoice notices with the previous {@code String.formatted} text block and with
+ * the compiled templates (text and HTML). Runs without a Spring context.
+ */
+public class EmailTemplatePerformanceTest {
+
+    private static final int MESSAGES = 100_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    private static final String FORMAT_TEMPLATE = """
+            Hello %s,
+
+            Invoice %s for %s has been issued to you.
+            Payment is due by %s.
+
+            Best regards,
+            Invoice Builder Team
+            """;
+
+    private final EmailTemplateEngine engine = new EmailTemplateEngine(new DefaultResourceLoader(), new AppProperties());
+
+    @Test
+    void benchmarkInvoiceNoticeRendering() {
+        System.out.println("=== Email Template Rendering Benchmark ===");
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            formatted();
+            compiled();
+        }
+
+        long start = System.nanoTime();
+        long formattedChars = formatted();
+        long formattedNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long compiledChars = compiled();
+        long compiledNanos = System.nanoTime() - start;
+
+        System.out.printf("String.formatted (text only): %,d messages in %d ms (%,d chars)%n",
+                MESSAGES, formattedNanos / 1_000_000, formattedChars);
+        System.out.printf("Compiled templates (text + html): %,d messages in %d ms (%,d chars)%n",
+                MESSAGES, compiledNanos / 1_000_000, compiledChars);
+        System.out.printf("Per message: %.2f us vs %.2f us%n",
+                formattedNanos / 1_000.0 / MESSAGES, compiledNanos / 1_000.0 / MESSAGES);
+    }
+
+    private long formatted() {
+        long chars = 0;
+        for (int i = 0; i < MESSAGES; i++) {
+            chars += FORMAT_TEMPLATE.formatted("Customer " + i, "INV-" + i, "1250.00 USD", "2026-11-30").length();
+        }
+        return chars;
+    }
+
+    private long compiled() {
+        long chars = 0;
+        Map<String, Object> model = new HashMap<>();
+        model.put("amountDue", "1250.00 USD");
+        model.put("dueDate", "2026-11-30");
+        for (int i = 0; i < MESSAGES; i++) {
+            model.put("userName", "Customer " + i);
+            model.put("invoiceNumber", "INV-" + i);
+            RenderedEmail email = engine.render("invoice-issued", null, model);
+            chars += email.text().length() + email.html().length();
+        }
+        return chars;
+    }
+}
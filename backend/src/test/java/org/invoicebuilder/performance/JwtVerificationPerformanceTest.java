@@ -0,0 +1,101 @@
+package org.invoicebuilder.performance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.config.RsaKeyProperties;
+import org.invoicebuilder.config.SecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Decodes one access token over and over, as the SPA does during the token's lifetime, with
+ * an RS256 and an ES256 signature, each verified every time and with the verified-token cache,
+ * and reports the cost of a decode. The decoders are built by {@link SecurityConfig}, so the
+ * numbers include header parsing and claim validation. Runs without a Spring context.
+ */
+public class JwtVerificationPerformanceTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int VERIFIED_DECODES = 5_000;
+    private static final int CACHED_DECODES = 1_000_000;
+
+    @Test
+    void benchmarkDecode() throws Exception {
+        System.out.println("=== JWT Verification Benchmark ===");
+        KeyPairGenerator rsaGenerator = KeyPairGenerator.getInstance("RSA");
+        rsaGenerator.initialize(2048);
+        KeyPair rsa = rsaGenerator.generateKeyPair();
+        KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+        ecGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair ec = ecGenerator.generateKeyPair();
+        RsaKeyProperties rsaKeys = new RsaKeyProperties((RSAPublicKey) rsa.getPublic(), (RSAPrivateKey) rsa.getPrivate());
+
+        for (SignatureAlgorithm algorithm : List.of(SignatureAlgorithm.RS256, SignatureAlgorithm.ES256)) {
+            for (boolean cached : List.of(false, true)) {
+                AppProperties appProperties = new AppProperties();
+                appProperties.getJwt().setSigningAlgorithm(algorithm);
+                appProperties.getJwt().setEcPublicKey(pem("PUBLIC KEY", ec.getPublic()));
+                appProperties.getJwt().setEcPrivateKey(pem("PRIVATE KEY", ec.getPrivate()));
+                appProperties.getJwt().setCacheEnabled(cached);
+                SecurityConfig config = new SecurityConfig(null, rsaKeys, null, appProperties);
+                String token = config.jwtEncoder().encode(JwtEncoderParameters.from(claims())).getTokenValue();
+                JwtDecoder decoder = config.jwtDecoder(new SimpleMeterRegistry());
+
+                int decodes = cached ? CACHED_DECODES : VERIFIED_DECODES;
+                for (int i = 0; i < WARMUP; i++) {
+                    decoder.decode(token);
+                }
+                long start = System.nanoTime();
+                String subject = null;
+                for (int i = 0; i < decodes; i++) {
+                    subject = decoder.decode(token).getSubject();
+                }
+                long elapsed = System.nanoTime() - start;
+
+                assertEquals("owner@example.com", subject);
+                System.out.printf("%s %-8s %,10.0f ns/decode  %,12d decodes/s%n", algorithm,
+                        cached ? "cached" : "verified", (double) elapsed / decodes,
+                        (long) (decodes / (elapsed / 1_000_000_000.0)));
+            }
+        }
+    }
+
+    private static JwtClaimsSet claims() {
+        Instant now = Instant.now();
+        return JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofMinutes(30)))
+                .subject("owner@example.com")
+                .claim("scope", "ROLE_OWNER")
+                .claim("uid", UUID.randomUUID().toString())
+                .claim("aid", UUID.randomUUID().toString())
+                .claim("roles", List.of("OWNER"))
+                .build();
+    }
+
+    private static ByteArrayResource pem(String type, Key key) {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(key.getEncoded());
+        String pem = "-----BEGIN " + type + "-----\n" + body + "\n-----END " + type + "-----\n";
+        return new ByteArrayResource(pem.getBytes(StandardCharsets.US_ASCII));
+    }
+}
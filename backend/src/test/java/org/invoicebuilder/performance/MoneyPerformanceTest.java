@@ -0,0 +1,89 @@
+package org.invoicebuilder.performance;
+
+import org.invoicebuilder.common.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * Compares the previous BigDecimal totals chain with the {@link Money} path used by
+ * {@code InvoiceTotalsCalculator}. Runs without a Spring context.
+ */
+public class MoneyPerformanceTest {
+
+    private static final int INVOICES = 2_000;
+    private static final int LINES_PER_INVOICE = 20;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    private final BigDecimal[][] unitPrices = new BigDecimal[INVOICES][LINES_PER_INVOICE];
+    private final int[][] quantities = new int[INVOICES][LINES_PER_INVOICE];
+    private final BigDecimal taxRate = new BigDecimal("16.00");
+    private final BigDecimal discount = new BigDecimal("5.00");
+
+    @Test
+    void benchmarkTotalsCalculation() {
+        Random random = new Random(42);
+        for (int i = 0; i < INVOICES; i++) {
+            for (int j = 0; j < LINES_PER_INVOICE; j++) {
+                unitPrices[i][j] = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+                quantities[i][j] = random.nextInt(50) + 1;
+            }
+        }
+
+        System.out.println("=== Invoice Totals Benchmark ===");
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            bigDecimalTotals();
+            moneyTotals();
+        }
+
+        long bigDecimalNanos = 0;
+        long moneyNanos = 0;
+        long sink = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink += bigDecimalTotals().signum();
+            bigDecimalNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            sink += moneyTotals();
+            moneyNanos += System.nanoTime() - start;
+        }
+
+        double invoices = (double) INVOICES * MEASURED_ROUNDS;
+        System.out.printf("BigDecimal chain: %.1f ns/invoice%n", bigDecimalNanos / invoices);
+        System.out.printf("Money (long minor units): %.1f ns/invoice%n", moneyNanos / invoices);
+        System.out.printf("Speedup: %.2fx (sink %d)%n", (double) bigDecimalNanos / moneyNanos, sink);
+    }
+
+    private BigDecimal bigDecimalTotals() {
+        BigDecimal grandTotal = BigDecimal.ZERO;
+        BigDecimal rate = taxRate.divide(BigDecimal.valueOf(100), RoundingMode.HALF_UP);
+        for (int i = 0; i < INVOICES; i++) {
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (int j = 0; j < LINES_PER_INVOICE; j++) {
+                subtotal = subtotal.add(unitPrices[i][j].multiply(BigDecimal.valueOf(quantities[i][j])));
+            }
+            BigDecimal taxAmount = subtotal.multiply(rate);
+            grandTotal = grandTotal.add(subtotal.add(taxAmount).subtract(discount));
+        }
+        return grandTotal;
+    }
+
+    private long moneyTotals() {
+        long grandTotal = 0;
+        Money discountMoney = Money.of(discount, "USD", RoundingMode.HALF_UP);
+        for (int i = 0; i < INVOICES; i++) {
+            long subtotal = 0;
+            for (int j = 0; j < LINES_PER_INVOICE; j++) {
+                subtotal += Money.ofProduct(unitPrices[i][j], quantities[i][j], "USD", RoundingMode.HALF_UP).minorUnits();
+            }
+            long taxAmount = Money.percentageOf(subtotal, taxRate, RoundingMode.HALF_UP);
+            grandTotal += subtotal + taxAmount - discountMoney.minorUnits();
+        }
+        return grandTotal;
+    }
+}
@@ -0,0 +1,112 @@
+package org.invoicebuilder.performance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.exception.common.TooManyRequestsException;
+import org.invoicebuilder.users.security.PasswordHashingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs a login burst of 32 concurrent callers checking BCrypt passwords, once hashing on the
+ * caller threads as before and once through {@link PasswordHashingService}, and reports login
+ * throughput, rejections and how long a light request running alongside has to wait for CPU.
+ * Uses cost 8 rather than the production 12 to keep the run short. Runs without a Spring context.
+ */
+public class PasswordHashingPerformanceTest {
+
+    private static final int CALLERS = 32;
+    private static final int LOGINS_PER_CALLER = 10;
+    private static final int STRENGTH = 8;
+
+    @Test
+    void benchmarkLoginBurst() throws Exception {
+        System.out.println("=== Password Hashing Benchmark ===");
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(STRENGTH);
+        String hash = bcrypt.encode("correct horse battery staple");
+
+        run("inline", bcrypt, hash);
+        try (PasswordHashingService pooled = new PasswordHashingService(bcrypt, new AppProperties.Passwords(),
+                new SimpleMeterRegistry())) {
+            run("pooled", pooled, hash);
+        }
+    }
+
+    private static void run(String name, PasswordEncoder encoder, String hash) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicLong matched = new AtomicLong();
+        Probe probe = new Probe();
+        Thread probeThread = new Thread(probe, "probe");
+        probeThread.start();
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < CALLERS; c++) {
+            futures.add(callers.submit(() -> {
+                for (int i = 0; i < LOGINS_PER_CALLER; i++) {
+                    try {
+                        if (encoder.matches("correct horse battery staple", hash)) {
+                            matched.incrementAndGet();
+                        }
+                    } catch (TooManyRequestsException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        probe.running = false;
+        probeThread.join();
+        callers.shutdown();
+
+        assertEquals(CALLERS * LOGINS_PER_CALLER, matched.get() + rejected.get());
+        System.out.printf("%-7s %,6.0f logins/s, %4d rejected, light request wait p50 %.2f ms, p99 %.2f ms%n",
+                name, matched.get() / seconds, rejected.get(), probe.percentile(0.50), probe.percentile(0.99));
+    }
+
+    /**
+     * Stands in for invoice traffic: sleeps 5 ms at a time and records how much later than
+     * that it got the CPU back.
+     */
+    private static final class Probe implements Runnable {
+
+        private volatile boolean running = true;
+        private final List<Long> lateNanos = new ArrayList<>();
+
+        @Override
+        public void run() {
+            while (running) {
+                long start = System.nanoTime();
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                lateNanos.add(System.nanoTime() - start - TimeUnit.MILLISECONDS.toNanos(5));
+            }
+        }
+
+        double percentile(double p) {
+            long[] sorted = lateNanos.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * p)] / 1_000_000.0;
+        }
+    }
+}
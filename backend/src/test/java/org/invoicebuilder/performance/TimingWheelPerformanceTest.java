@@ -0,0 +1,67 @@
+package org.invoicebuilder.performance;
+
+import org.invoicebuilder.scheduling.HierarchicalTimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Measures insert, cancel and firing cost for two million timers spread over a 15 minute
+ * window at the default 100 ms tick. Runs without a Spring context.
+ */
+public class TimingWheelPerformanceTest {
+
+    private static final int TIMERS = 2_000_000;
+    private static final long WINDOW_MILLIS = 15 * 60 * 1000;
+    private static final long TICK_MILLIS = 100;
+
+    @Test
+    void benchmarkMillionsOfTimers() {
+        long start = 1_700_000_000_000L;
+        HierarchicalTimingWheel<UUID> wheel = new HierarchicalTimingWheel<>(TICK_MILLIS, 9, 4, start);
+        Random random = new Random(32);
+        UUID[] ids = new UUID[TIMERS];
+        long[] deadlines = new long[TIMERS];
+        for (int i = 0; i < TIMERS; i++) {
+            ids[i] = new UUID(random.nextLong(), random.nextLong());
+            deadlines[i] = start + (long) (random.nextDouble() * WINDOW_MILLIS);
+        }
+
+        System.out.println("=== Timing Wheel Benchmark ===");
+        List<HierarchicalTimingWheel.Timer<UUID>> timers = new ArrayList<>(TIMERS);
+        long insertStart = System.nanoTime();
+        for (int i = 0; i < TIMERS; i++) {
+            timers.add(wheel.add(deadlines[i], ids[i]));
+        }
+        long insertNanos = System.nanoTime() - insertStart;
+
+        long cancelStart = System.nanoTime();
+        int cancelled = 0;
+        for (int i = 0; i < TIMERS; i += 4) {
+            wheel.cancel(timers.get(i));
+            cancelled++;
+        }
+        long cancelNanos = System.nanoTime() - cancelStart;
+
+        List<UUID> fired = new ArrayList<>();
+        long ticks = WINDOW_MILLIS / TICK_MILLIS + 1;
+        long maxTickNanos = 0;
+        long advanceStart = System.nanoTime();
+        for (long tick = 1; tick <= ticks; tick++) {
+            long tickStart = System.nanoTime();
+            fired.clear();
+            wheel.advanceTo(start + tick * TICK_MILLIS, fired);
+            maxTickNanos = Math.max(maxTickNanos, System.nanoTime() - tickStart);
+        }
+        long advanceNanos = System.nanoTime() - advanceStart;
+
+        System.out.printf("Timers: %d, cancelled: %d, remaining after run: %d%n", TIMERS, cancelled, wheel.size());
+        System.out.printf("Insert: %.1f ns/timer%n", (double) insertNanos / TIMERS);
+        System.out.printf("Cancel: %.1f ns/timer%n", (double) cancelNanos / cancelled);
+        System.out.printf("Advance: %d ticks in %d ms, slowest tick %.2f ms%n",
+                ticks, advanceNanos / 1_000_000, maxTickNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,122 @@
+package org.invoicebuilder.performance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.webhooks.delivery.DeliveryOutcome;
+import org.invoicebuilder.webhooks.delivery.StubWebhookReceiver;
+import org.invoicebuilder.webhooks.delivery.WebhookDelivery;
+import org.invoicebuilder.webhooks.delivery.WebhookDeliveryStore;
+import org.invoicebuilder.webhooks.delivery.WebhookDispatcher;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pushes 20,000 deliveries through the dispatcher to a local receiver spread over 10 endpoints,
+ * one of which answers in 50 ms, and reports sustained deliveries per second. The store is an
+ * in-memory stand-in, so the numbers cover claiming, lanes, signing and HTTP but not Postgres.
+ * Runs without a Spring context.
+ */
+public class WebhookDeliveryPerformanceTest {
+
+    private static final int ENDPOINTS = 10;
+    private static final int DELIVERIES = 20_000;
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    @Test
+    void benchmarkSustainedDeliveries() {
+        System.out.println("=== Webhook Delivery Benchmark ===");
+        try (StubWebhookReceiver receiver = new StubWebhookReceiver()) {
+            receiver.discardBodies();
+            receiver.respond("endpoint-0", 200, 50, null);
+            InMemoryStore store = new InMemoryStore();
+            String payload = "{\"type\":\"invoice.paid\",\"data\":{\"invoice_number\":\"INV-%d\",\"status\":\"PAID\"}}";
+            for (int i = 0; i < DELIVERIES; i++) {
+                // One delivery in a hundred goes to the slow endpoint.
+                int endpoint = i % 100 == 0 ? 0 : 1 + i % (ENDPOINTS - 1);
+                store.add(new WebhookDelivery(i, new UUID(0, endpoint), receiver.url("endpoint-" + endpoint), SECRET,
+                        8, "invoice.paid", payload.formatted(i), 0));
+            }
+            AppProperties appProperties = new AppProperties();
+            WebhookDispatcher dispatcher = StubWebhookReceiver.dispatcher(store, appProperties, new SimpleMeterRegistry());
+
+            long start = System.nanoTime();
+            int polls = 0;
+            while (store.completed.get() < DELIVERIES && System.nanoTime() - start < Duration.ofMinutes(2).toNanos()) {
+                dispatcher.poll();
+                polls++;
+                LockSupport.parkNanos(Duration.ofMillis(5).toNanos());
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            dispatcher.close();
+
+            long slowEndpoint = receiver.received().stream().filter(r -> r.path().equals("/endpoint-0")).count();
+            System.out.printf("Delivered %,d webhooks in %.2f s over %,d polls: %,d deliveries/s%n",
+                    store.completed.get(), seconds, polls, (long) (store.completed.get() / seconds));
+            System.out.printf("Slow endpoint (50 ms, 8 concurrent) received %,d; the other %d endpoints %,d%n",
+                    slowEndpoint, ENDPOINTS - 1, receiver.received().size() - slowEndpoint);
+            assertEquals(DELIVERIES, receiver.received().size());
+        }
+    }
+
+    /**
+     * Per-endpoint FIFO queues honouring the claim limits, like {@code claimDue} does in SQL.
+     * The slow endpoint holds back its own queue only.
+     */
+    private static final class InMemoryStore extends WebhookDeliveryStore {
+
+        private final Map<UUID, Queue<WebhookDelivery>> pending = new LinkedHashMap<>();
+        private final Map<Long, WebhookDelivery> leased = new ConcurrentHashMap<>();
+        private final AtomicLong completed = new AtomicLong();
+
+        InMemoryStore() {
+            super(null);
+        }
+
+        void add(WebhookDelivery delivery) {
+            pending.computeIfAbsent(delivery.endpointId(), id -> new ArrayDeque<>()).add(delivery);
+        }
+
+        @Override
+        public synchronized List<WebhookDelivery> claimDue(int limit, int perEndpointLimit, Collection<UUID> skippedEndpoints,
+                                                           Duration lease) {
+            List<WebhookDelivery> claimed = new ArrayList<>();
+            for (Map.Entry<UUID, Queue<WebhookDelivery>> entry : pending.entrySet()) {
+                if (skippedEndpoints.contains(entry.getKey())) {
+                    continue;
+                }
+                for (int taken = 0; taken < perEndpointLimit && claimed.size() < limit && !entry.getValue().isEmpty(); taken++) {
+                    WebhookDelivery delivery = entry.getValue().poll();
+                    leased.put(delivery.id(), delivery);
+                    claimed.add(delivery);
+                }
+            }
+            return claimed;
+        }
+
+        @Override
+        public synchronized void record(List<DeliveryOutcome> outcomes) {
+            for (DeliveryOutcome outcome : outcomes) {
+                WebhookDelivery delivery = leased.remove(outcome.deliveryId());
+                if (outcome.status() == DeliveryOutcome.Status.PENDING) {
+                    add(delivery);
+                } else {
+                    completed.incrementAndGet();
+                }
+            }
+        }
+    }
+}
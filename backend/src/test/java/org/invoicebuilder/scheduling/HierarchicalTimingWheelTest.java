@@ -0,0 +1,113 @@
+package org.invoicebuilder.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void shouldFireOnTheTickOfTheDeadline() {
+        // Given
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 4, 3, START);
+        wheel.add(START + 250, "a");
+        wheel.add(START + 300, "b");
+        List<String> fired = new ArrayList<>();
+
+        // When
+        wheel.advanceTo(START + 299, fired);
+
+        // Then
+        assertEquals(List.of("a"), fired);
+        wheel.advanceTo(START + 300, fired);
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldCascadeTimersFromHigherLevels() {
+        // Given: 16 slots per level, so these land on levels 1 and 2 and in the overflow list
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 4, 2, START);
+        long[] delays = {5, 17, 255, 256, 1_000, 70_000};
+        for (long delay : delays) {
+            wheel.add(START + delay, delay);
+        }
+
+        // When / Then
+        for (long delay : delays) {
+            List<Long> fired = new ArrayList<>();
+            wheel.advanceTo(START + delay - 1, fired);
+            assertTrue(fired.isEmpty(), "fired early: " + fired);
+            wheel.advanceTo(START + delay, fired);
+            assertEquals(List.of(delay), fired);
+        }
+    }
+
+    @Test
+    void cancelledTimerShouldNotFire() {
+        // Given
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 4, 3, START);
+        HierarchicalTimingWheel.Timer<String> cancelled = wheel.add(START + 5_000, "cancelled");
+        wheel.add(START + 5_000, "kept");
+
+        // When
+        assertTrue(wheel.cancel(cancelled));
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(START + 10_000, fired);
+
+        // Then
+        assertEquals(List.of("kept"), fired);
+        assertFalse(wheel.cancel(cancelled));
+    }
+
+    @Test
+    void pastDeadlineShouldFireOnNextTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 4, 3, START);
+        wheel.advanceTo(START + 1_000, new ArrayList<>());
+
+        wheel.add(START - 60_000, "missed");
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(START + 1_100, fired);
+
+        assertEquals(List.of("missed"), fired);
+    }
+
+    @Test
+    void randomTimersShouldFireExactlyOnceAndNeverEarly() {
+        // Given
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(1, 3, 3, START);
+        Random random = new Random(32);
+        List<HierarchicalTimingWheel.Timer<Long>> timers = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            long deadline = START + random.nextInt(2_000);
+            timers.add(wheel.add(deadline, deadline));
+        }
+        int cancelled = 0;
+        for (int i = 0; i < timers.size(); i += 7) {
+            wheel.cancel(timers.get(i));
+            cancelled++;
+        }
+
+        // When / Then
+        int firedCount = 0;
+        for (long now = START; now <= START + 2_000; now += random.nextInt(20) + 1) {
+            List<Long> fired = new ArrayList<>();
+            wheel.advanceTo(now, fired);
+            for (long deadline : fired) {
+                assertTrue(deadline <= now, "fired early");
+                assertTrue(deadline > now - 21, "fired late");
+            }
+            firedCount += fired.size();
+        }
+        List<Long> rest = new ArrayList<>();
+        wheel.advanceTo(START + 2_000, rest);
+        assertEquals(timers.size() - cancelled, firedCount + rest.size());
+        assertEquals(0, wheel.size());
+    }
+}
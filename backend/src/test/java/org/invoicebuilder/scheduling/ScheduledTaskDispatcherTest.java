@@ -0,0 +1,136 @@
+package org.invoicebuilder.scheduling;
+
+import org.invoicebuilder.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduledTaskDispatcherTest {
+
+    @Mock
+    private ScheduledTaskStore scheduledTaskStore;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ObjectProvider<ScheduledTaskHandler> handlerProvider;
+
+    @Mock
+    private ScheduledTaskHandler reminderHandler;
+
+    @Mock
+    private ScheduledTaskHandler sendAtHandler;
+
+    private final AppProperties appProperties = new AppProperties();
+    private ScheduledTaskDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        appProperties.getScheduler().setRetryBackoff(Duration.ofSeconds(30));
+        appProperties.getScheduler().setMaxAttempts(3);
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(reminderHandler.type()).thenReturn(ScheduledTaskType.PAYMENT_REMINDER);
+        lenient().when(sendAtHandler.type()).thenReturn(ScheduledTaskType.INVOICE_SEND_AT);
+        lenient().when(handlerProvider.iterator()).thenAnswer(invocation -> List.of(reminderHandler, sendAtHandler).iterator());
+        dispatcher = new ScheduledTaskDispatcher(scheduledTaskStore, transactionTemplate, appProperties, handlerProvider);
+    }
+
+    @Test
+    void claimedTasksShouldBeGroupedByTypeInOneTransaction() {
+        // Given
+        ScheduledTask reminder = task(ScheduledTaskType.PAYMENT_REMINDER);
+        ScheduledTask otherReminder = task(ScheduledTaskType.PAYMENT_REMINDER);
+        ScheduledTask sendAt = task(ScheduledTaskType.INVOICE_SEND_AT);
+        List<UUID> ids = List.of(reminder.id(), sendAt.id(), otherReminder.id());
+        when(scheduledTaskStore.claim(eq(ids), any())).thenReturn(List.of(reminder, sendAt, otherReminder));
+
+        // When
+        Map<UUID, Instant> retries = dispatcher.dispatch(ids);
+
+        // Then
+        assertTrue(retries.isEmpty());
+        verify(reminderHandler).handle(List.of(reminder, otherReminder));
+        verify(sendAtHandler).handle(List.of(sendAt));
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+    }
+
+    @Test
+    void failedBatchShouldBeRetriedOneTaskAtATime() {
+        // Given
+        ScheduledTask good = task(ScheduledTaskType.PAYMENT_REMINDER);
+        ScheduledTask bad = task(ScheduledTaskType.PAYMENT_REMINDER);
+        when(scheduledTaskStore.claim(anyCollection(), any())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return List.of(good, bad).stream().filter(task -> ids.contains(task.id())).toList();
+        });
+        doThrow(new IllegalStateException("invoice vanished"))
+                .when(reminderHandler).handle(argThat(tasks -> tasks.contains(bad)));
+        Instant nextFireAt = Instant.now().plusSeconds(30);
+        when(scheduledTaskStore.retry(eq(bad.id()), any(), eq(Duration.ofSeconds(30)), eq(3), eq("invoice vanished")))
+                .thenReturn(Optional.of(nextFireAt));
+
+        // When
+        Map<UUID, Instant> retries = dispatcher.dispatch(List.of(good.id(), bad.id()));
+
+        // Then
+        assertEquals(Map.of(bad.id(), nextFireAt), retries);
+        verify(reminderHandler).handle(List.of(good));
+        verify(scheduledTaskStore, never()).retry(eq(good.id()), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void taskOutOfAttemptsShouldNotBeRescheduled() {
+        // Given
+        ScheduledTask task = task(ScheduledTaskType.INVOICE_SEND_AT);
+        when(scheduledTaskStore.claim(anyCollection(), any())).thenReturn(List.of(task));
+        doThrow(new IllegalStateException("boom")).when(sendAtHandler).handle(anyList());
+        when(scheduledTaskStore.retry(eq(task.id()), any(), any(), anyInt(), any())).thenReturn(Optional.empty());
+
+        // When
+        Map<UUID, Instant> retries = dispatcher.dispatch(List.of(task.id()));
+
+        // Then
+        assertTrue(retries.isEmpty());
+        verify(sendAtHandler, times(1)).handle(anyList());
+    }
+
+    @Test
+    void tasksAlreadyClaimedElsewhereShouldBeSkipped() {
+        // Given
+        when(scheduledTaskStore.claim(anyCollection(), any())).thenReturn(List.of());
+
+        // When
+        Map<UUID, Instant> retries = dispatcher.dispatch(List.of(UUID.randomUUID()));
+
+        // Then
+        assertTrue(retries.isEmpty());
+        verify(reminderHandler, never()).handle(anyList());
+        verify(sendAtHandler, never()).handle(anyList());
+    }
+
+    private static ScheduledTask task(ScheduledTaskType type) {
+        return new ScheduledTask(UUID.randomUUID(), type, UUID.randomUUID(), Instant.now(), null, 0);
+    }
+}
@@ -0,0 +1,165 @@
+package org.invoicebuilder.scheduling;
+
+import org.invoicebuilder.config.AppProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimingWheelSchedulerTest {
+
+    @Mock
+    private ScheduledTaskStore scheduledTaskStore;
+
+    @Mock
+    private ScheduledTaskDispatcher scheduledTaskDispatcher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AppProperties appProperties = new AppProperties();
+    private TimingWheelScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        appProperties.getScheduler().setTick(Duration.ofMillis(10));
+        appProperties.getScheduler().setWorkers(1);
+        scheduler = new TimingWheelScheduler(scheduledTaskStore, scheduledTaskDispatcher,
+                new TransactionTemplate(transactionManager), appProperties);
+        lenient().when(scheduledTaskDispatcher.dispatch(anyList())).thenReturn(Map.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void startShouldLoadTheWindowAndFireDueTasks() {
+        // Given
+        UUID missed = UUID.randomUUID();
+        UUID upcoming = UUID.randomUUID();
+        UUID later = UUID.randomUUID();
+        givenPending(Map.of(
+                missed, Instant.now().minusSeconds(60),
+                upcoming, Instant.now().plusMillis(50),
+                later, Instant.now().plus(Duration.ofMinutes(10))));
+
+        // When
+        scheduler.start();
+
+        // Then
+        verify(scheduledTaskDispatcher, timeout(2_000)).dispatch(List.of(missed));
+        verify(scheduledTaskDispatcher, timeout(2_000)).dispatch(List.of(upcoming));
+        assertEquals(1, scheduler.loadedTaskCount());
+        verify(scheduledTaskStore).forEachPending(eq(Instant.EPOCH), any(), anyInt(), any());
+    }
+
+    @Test
+    void taskScheduledInsideTheWindowShouldFireFromTheWheel() {
+        // Given
+        givenPending(Map.of());
+        scheduler.start();
+        when(scheduledTaskStore.insert(any(), eq(ScheduledTaskType.PAYMENT_REMINDER), any(), any(), isNull()))
+                .thenReturn(true);
+
+        // When
+        scheduler.schedule(ScheduledTaskType.PAYMENT_REMINDER, UUID.randomUUID(), Instant.now().plusMillis(30), null);
+
+        // Then
+        verify(scheduledTaskDispatcher, timeout(2_000)).dispatch(argThat(ids -> ids.size() == 1));
+    }
+
+    @Test
+    void cancelledTaskShouldLeaveTheWheel() {
+        // Given
+        UUID taskId = UUID.randomUUID();
+        UUID referenceId = UUID.randomUUID();
+        givenPending(Map.of(taskId, Instant.now().plus(Duration.ofMinutes(5))));
+        scheduler.start();
+        when(scheduledTaskStore.cancel(ScheduledTaskType.INVOICE_SEND_AT, referenceId)).thenReturn(List.of(taskId));
+
+        // When
+        int cancelled = scheduler.cancel(ScheduledTaskType.INVOICE_SEND_AT, referenceId);
+
+        // Then
+        assertEquals(1, cancelled);
+        assertEquals(0, scheduler.loadedTaskCount());
+    }
+
+    @Test
+    void failedDispatchShouldBeRetriedFromTheWheel() {
+        // Given
+        appProperties.getScheduler().setRetryBackoff(Duration.ofMillis(20));
+        UUID taskId = UUID.randomUUID();
+        givenPending(Map.of(taskId, Instant.now()));
+        when(scheduledTaskDispatcher.dispatch(List.of(taskId)))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(Map.of());
+
+        // When
+        scheduler.start();
+
+        // Then
+        verify(scheduledTaskDispatcher, timeout(2_000).times(2)).dispatch(List.of(taskId));
+    }
+
+    @Test
+    void overdueTasksMissingFromTheWheelShouldBeRecovered() {
+        // Given: tasks another node scheduled inside its window before it went down
+        givenPending(Map.of());
+        scheduler.start();
+        List<UUID> orphaned = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        appProperties.getScheduler().setBatchSize(2);
+        when(scheduledTaskStore.findOverdue(any(), eq(2))).thenReturn(orphaned);
+
+        // When
+        int recovered = scheduler.recoverOverdue();
+
+        // Then
+        assertEquals(3, recovered);
+        verify(scheduledTaskDispatcher, timeout(2_000)).dispatch(orphaned.subList(0, 2));
+        verify(scheduledTaskDispatcher, timeout(2_000)).dispatch(orphaned.subList(2, 3));
+        verify(transactionManager, atLeastOnce()).commit(any());
+    }
+
+    @Test
+    void recoveryShouldDoNothingBeforeStart() {
+        // When
+        int recovered = scheduler.recoverOverdue();
+
+        // Then
+        assertEquals(0, recovered);
+        verifyNoInteractions(scheduledTaskStore);
+    }
+
+    private void givenPending(Map<UUID, Instant> tasks) {
+        doAnswer(invocation -> {
+            Instant from = invocation.getArgument(0);
+            Instant to = invocation.getArgument(1);
+            BiConsumer<UUID, Instant> consumer = invocation.getArgument(3);
+            tasks.forEach((id, fireAt) -> {
+                if (!fireAt.isBefore(from) && fireAt.isBefore(to)) {
+                    consumer.accept(id, fireAt);
+                }
+            });
+            return null;
+        }).when(scheduledTaskStore).forEachPending(any(), any(), anyInt(), any());
+    }
+}
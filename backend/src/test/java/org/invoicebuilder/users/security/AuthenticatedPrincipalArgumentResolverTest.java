@@ -0,0 +1,67 @@
+package org.invoicebuilder.users.security;
+
+import org.invoicebuilder.exception.users.InvalidTokenException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthenticatedPrincipalArgumentResolverTest {
+
+    private final AuthenticatedPrincipalArgumentResolver resolver = new AuthenticatedPrincipalArgumentResolver();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldBuildPrincipalFromJwtOncePerRequest() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID accountId = UUID.randomUUID();
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("owner@example.com")
+                .issuedAt(Instant.now())
+                .claim(AuthenticatedPrincipal.USER_ID_CLAIM, userId.toString())
+                .claim(AuthenticatedPrincipal.ACCOUNT_ID_CLAIM, accountId.toString())
+                .claim(AuthenticatedPrincipal.ROLES_CLAIM, List.of("OWNER"))
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+        NativeWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+        // When
+        AuthenticatedPrincipal first = resolver.resolveArgument(null, null, request, null);
+        SecurityContextHolder.clearContext();
+        AuthenticatedPrincipal second = resolver.resolveArgument(null, null, request, null);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(userId, first.userId());
+        assertEquals(accountId, first.accountId());
+        assertTrue(first.hasRole("OWNER"));
+    }
+
+    @Test
+    void requestWithoutJwtShouldBeRejected() {
+        // Given
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("owner@example.com", null, List.of()));
+        NativeWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+        // When / Then
+        assertThrows(InvalidTokenException.class, () -> resolver.resolveArgument(null, null, request, null));
+    }
+}
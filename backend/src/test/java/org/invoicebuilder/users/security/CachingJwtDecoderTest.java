@@ -0,0 +1,133 @@
+package org.invoicebuilder.users.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    @Mock
+    private JwtDecoder delegate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(NOW.toEpochMilli());
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new CachingJwtDecoder(delegate, 100, meterRegistry, clock::get);
+    }
+
+    @Test
+    void repeatedTokenShouldBeVerifiedOnce() {
+        // Given
+        Jwt jwt = jwt("token-a", Duration.ofMinutes(15));
+        when(delegate.decode("token-a")).thenReturn(jwt);
+
+        // When
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode(new String("token-a".toCharArray()));
+
+        // Then
+        assertSame(jwt, first);
+        assertSame(jwt, second);
+        verify(delegate, times(1)).decode("token-a");
+        assertEquals(1, meterRegistry.counter("jwt.cache", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("jwt.cache", "result", "miss").count());
+    }
+
+    @Test
+    void tokenShouldBeVerifiedAgainAfterExpiry() {
+        // Given
+        when(delegate.decode("token-a")).thenReturn(jwt("token-a", Duration.ofMinutes(15)));
+        decoder.decode("token-a");
+
+        // When
+        clock.addAndGet(Duration.ofMinutes(15).toMillis());
+        decoder.decode("token-a");
+
+        // Then
+        verify(delegate, times(2)).decode("token-a");
+        assertEquals(1, meterRegistry.counter("jwt.cache.evictions", "cause", "expired").count());
+    }
+
+    @Test
+    void rejectedTokenShouldNotBeCached() {
+        // Given
+        when(delegate.decode("forged")).thenThrow(new BadJwtException("Invalid signature"));
+
+        // When / Then
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        verify(delegate, times(2)).decode("forged");
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void fullCacheShouldStayWithinBound() {
+        // Given
+        decoder = new CachingJwtDecoder(delegate, 2, meterRegistry, clock::get);
+        when(delegate.decode(anyString()))
+                .thenAnswer(invocation -> jwt(invocation.getArgument(0), Duration.ofMinutes(15)));
+
+        // When
+        decoder.decode("token-a");
+        decoder.decode("token-b");
+        decoder.decode("token-c");
+
+        // Then
+        assertEquals(2, decoder.size());
+        assertEquals(1, meterRegistry.counter("jwt.cache.evictions", "cause", "capacity").count());
+        decoder.decode("token-c");
+        verify(delegate, times(1)).decode("token-c");
+    }
+
+    @Test
+    void fullCacheShouldSweepExpiredEntriesFirst() {
+        // Given
+        decoder = new CachingJwtDecoder(delegate, 2, meterRegistry, clock::get);
+        when(delegate.decode("short")).thenReturn(jwt("short", Duration.ofMinutes(1)));
+        when(delegate.decode("token-a")).thenReturn(jwt("token-a", Duration.ofMinutes(30)));
+        when(delegate.decode("token-b")).thenReturn(jwt("token-b", Duration.ofMinutes(30)));
+        decoder.decode("short");
+        decoder.decode("token-a");
+
+        // When
+        clock.addAndGet(Duration.ofMinutes(2).toMillis());
+        decoder.decode("token-b");
+        decoder.decode("token-a");
+
+        // Then
+        assertEquals(2, decoder.size());
+        assertEquals(1, meterRegistry.counter("jwt.cache.evictions", "cause", "expired").count());
+        assertEquals(0, meterRegistry.counter("jwt.cache.evictions", "cause", "capacity").count());
+        verify(delegate, times(1)).decode("token-a");
+    }
+
+    private Jwt jwt(String token, Duration lifetime) {
+        Instant issuedAt = Instant.ofEpochMilli(clock.get());
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("owner@example.com")
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plus(lifetime))
+                .build();
+    }
+}
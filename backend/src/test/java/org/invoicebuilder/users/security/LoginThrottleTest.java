@@ -0,0 +1,119 @@
+package org.invoicebuilder.users.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.exception.common.TooManyRequestsException;
+import org.invoicebuilder.users.domain.User;
+import org.invoicebuilder.users.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginThrottleTest {
+
+    private static final String EMAIL = "owner@example.com";
+    private static final String IP = "203.0.113.7";
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final AppProperties appProperties = new AppProperties();
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        appProperties.getLoginThrottle().setMaxFailuresPerEmail(3);
+        appProperties.getLoginThrottle().setMaxFailuresPerIp(5);
+        throttle = new LoginThrottle(userRepository, appProperties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void emailShouldBeThrottledAndLockedOnceAtThreshold() {
+        // Given
+        throttle.checkAllowed(EMAIL, IP);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure(EMAIL, IP);
+        }
+
+        // Then
+        TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class,
+                () -> throttle.checkAllowed("Owner@Example.com ", "198.51.100.1"));
+        assertTrue(rejected.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        verify(userRepository, times(1)).lockOut(eq(EMAIL), eq(3), any(Instant.class));
+
+        throttle.recordFailure(EMAIL, IP);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void failuresBelowThresholdShouldNotTouchDatabase() {
+        // When
+        throttle.recordFailure(EMAIL, IP);
+        throttle.recordFailure(EMAIL, IP);
+
+        // Then
+        assertDoesNotThrow(() -> throttle.checkAllowed(EMAIL, IP));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void ipShouldBeThrottledAcrossEmails() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("user" + i + "@example.com", IP);
+        }
+
+        // Then
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkAllowed("someone@example.com", IP));
+        assertDoesNotThrow(() -> throttle.checkAllowed("someone@example.com", "198.51.100.1"));
+    }
+
+    @Test
+    void successShouldResetCountAndClearPersistedLockout() {
+        // Given
+        User user = User.builder()
+                .userId(UUID.randomUUID())
+                .userEmail(EMAIL)
+                .loginAttempts(3)
+                .lockedUntil(Instant.now().minusSeconds(60))
+                .build();
+        throttle.recordFailure(EMAIL, IP);
+        throttle.recordFailure(EMAIL, IP);
+
+        // When
+        throttle.recordSuccess(user);
+        throttle.recordFailure(EMAIL, IP);
+        throttle.recordFailure(EMAIL, IP);
+
+        // Then
+        verify(userRepository).clearLockout(user.getUserId());
+        verify(userRepository, never()).lockOut(anyString(), anyInt(), any());
+        assertNull(user.getLockedUntil());
+        assertEquals(0, user.getLoginAttempts());
+    }
+
+    @Test
+    void successWithoutLockoutShouldNotWrite() {
+        // Given
+        User user = User.builder().userId(UUID.randomUUID()).userEmail(EMAIL).build();
+
+        // When
+        throttle.recordSuccess(user);
+
+        // Then
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,238 @@
+package org.invoicebuilder.users.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.config.PasswordConfig;
+import org.invoicebuilder.exception.common.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private final AppProperties.Passwords settings = new AppProperties.Passwords();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    void hashingShouldRunOnHashingThread() {
+        // Given
+        AtomicReference<String> hashingThread = new AtomicReference<>();
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        service = new PasswordHashingService(new RecordingEncoder(bcrypt, hashingThread), settings, meterRegistry);
+
+        // When
+        String hash = service.encode("secret");
+
+        // Then
+        assertTrue(hashingThread.get().startsWith("password-hasher-"));
+        assertTrue(service.matches("secret", hash));
+        assertFalse(service.matches("wrong", hash));
+        assertEquals(3, meterRegistry.timer("password.hashing.duration", "operation", "matches").count()
+                + meterRegistry.timer("password.hashing.duration", "operation", "encode").count());
+    }
+
+    @Test
+    void saturatedPoolShouldRejectAtOnce() throws Exception {
+        // Given: one thread busy and one hash queued
+        settings.setThreads(1);
+        settings.setQueueCapacity(1);
+        settings.setMaxWait(Duration.ofSeconds(10));
+        CountDownLatch started = new CountDownLatch(1);
+        service = new PasswordHashingService(blocking(started), settings, meterRegistry);
+        callers.submit(() -> service.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> service.encode("second"));
+        awaitQueued(1);
+
+        // When
+        long start = System.nanoTime();
+        TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class, () -> service.encode("third"));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertTrue(elapsedMillis < 1_000, "rejection took " + elapsedMillis + " ms");
+        assertEquals(Duration.ofSeconds(1), rejected.getRetryAfter());
+        assertEquals(1, meterRegistry.counter("password.hashing.rejected").count());
+    }
+
+    @Test
+    void callerShouldGiveUpAfterMaxWait() throws Exception {
+        // Given
+        settings.setThreads(1);
+        settings.setMaxWait(Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        service = new PasswordHashingService(blocking(started), settings, meterRegistry);
+        callers.submit(() -> service.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When / Then: the queued hash is withdrawn, not left to run later
+        assertThrows(TooManyRequestsException.class, () -> service.encode("second"));
+        assertEquals(0, meterRegistry.get("password.hashing.queue.depth").gauge().value());
+    }
+
+    @Test
+    void legacyAndWeakerHashesShouldBeUpgraded() {
+        // Given
+        settings.setBcryptStrength(5);
+        PasswordEncoder encoder = PasswordConfig.delegatingEncoder(settings);
+        String legacy = new BCryptPasswordEncoder(5).encode("secret");
+        String weaker = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+
+        // When
+        String current = encoder.encode("secret");
+
+        // Then
+        assertTrue(current.startsWith("{bcrypt}"));
+        assertTrue(encoder.matches("secret", legacy));
+        assertTrue(encoder.matches("secret", weaker));
+        assertTrue(encoder.upgradeEncoding(legacy));
+        assertTrue(encoder.upgradeEncoding(weaker));
+        assertFalse(encoder.upgradeEncoding(current));
+    }
+
+    @Test
+    void unknownAlgorithmShouldFailAtStartup() {
+        // Given
+        settings.setAlgorithm("md5");
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> PasswordConfig.delegatingEncoder(settings));
+    }
+
+    @Test
+    void encodeAllShouldKeepOrderAndUseAtMostHalfThePoolAcrossCallers() throws Exception {
+        // Given
+        settings.setThreads(4);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        service = new PasswordHashingService(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        }, settings, meterRegistry);
+
+        // When: two uploads hash at the same time
+        Future<List<String>> other = callers.submit(() -> service.encodeAll(List.of("x", "y", "z", "w")));
+        List<String> hashes = service.encodeAll(List.of("a", "b", "c", "d", "e", "f"));
+
+        // Then
+        assertEquals(List.of("hash:a", "hash:b", "hash:c", "hash:d", "hash:e", "hash:f"), hashes);
+        assertEquals(List.of("hash:x", "hash:y", "hash:z", "hash:w"), other.get(5, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= 2, "ran " + maxRunning.get() + " hashes at once");
+        assertEquals(10, meterRegistry.timer("password.hashing.duration", "operation", "encode").count());
+    }
+
+    @Test
+    void encodeAllShouldFailRatherThanHashOnTheCallerWhenThePoolStaysFull() throws Exception {
+        // Given: every thread busy with a sign-in and another upload's hash queued
+        settings.setThreads(4);
+        settings.setQueueCapacity(1);
+        settings.setMaxWait(Duration.ofMillis(200));
+        CountDownLatch started = new CountDownLatch(4);
+        AtomicInteger encoded = new AtomicInteger();
+        PasswordEncoder blocking = blocking(started);
+        service = new PasswordHashingService(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                encoded.incrementAndGet();
+                return blocking.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        }, settings, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            callers.submit(() -> service.encode("sign-in"));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> service.encodeAll(List.of("queued")));
+        awaitQueued(1);
+
+        // When / Then
+        assertThrows(TooManyRequestsException.class, () -> service.encodeAll(List.of("bulk")));
+        assertEquals(4, encoded.get());
+    }
+
+    private PasswordEncoder blocking(CountDownLatch started) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        };
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("password.hashing.queue.depth").gauge().value() < expected
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private record RecordingEncoder(PasswordEncoder delegate, AtomicReference<String> thread) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            thread.set(Thread.currentThread().getName());
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+    }
+}
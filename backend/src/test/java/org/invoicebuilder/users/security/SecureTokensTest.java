@@ -0,0 +1,32 @@
+package org.invoicebuilder.users.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecureTokensTest {
+
+    @Test
+    void generatedTokensShouldBeUrlSafeAndUnique() {
+        // When
+        String first = SecureTokens.generate(32);
+        String second = SecureTokens.generate(32);
+
+        // Then
+        assertNotEquals(first, second);
+        assertTrue(first.matches("[A-Za-z0-9_-]+"));
+        assertEquals(32, Base64.getUrlDecoder().decode(first).length);
+    }
+
+    @Test
+    void hashShouldMatchTheStoredSha256Format() {
+        // When
+        String hash = SecureTokens.hash("abc");
+
+        // Then: SHA-256("abc"), Base64 encoded as the token_hash columns already hold it
+        assertEquals("ungWv48Bz+pBQUDeXa4iI7ADYaOWF3qctBD/YfIAFa0=", hash);
+        assertEquals(hash, SecureTokens.hash("abc"));
+    }
+}
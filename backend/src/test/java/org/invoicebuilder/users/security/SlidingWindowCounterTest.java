@@ -0,0 +1,149 @@
+package org.invoicebuilder.users.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(10), 10, 100, clock::get);
+
+    @Test
+    void eventsShouldLeaveWindowSlotBySlot() {
+        // Given: 2 events now, 3 events five minutes later
+        counter.increment("a");
+        counter.increment("a");
+        clock.addAndGet(Duration.ofMinutes(5).toMillis());
+        counter.increment("a");
+        counter.increment("a");
+        assertEquals(5, counter.increment("a"));
+
+        // When / Then
+        clock.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertEquals(3, counter.count("a"));
+        clock.addAndGet(Duration.ofMinutes(5).toMillis());
+        assertEquals(0, counter.count("a"));
+    }
+
+    @Test
+    void timeUntilBelowShouldWaitForOldestSlotsToExpire() {
+        // Given: 2 events in the first slot, 3 in the sixth
+        counter.increment("a");
+        counter.increment("a");
+        clock.addAndGet(Duration.ofMinutes(5).toMillis());
+        for (int i = 0; i < 3; i++) {
+            counter.increment("a");
+        }
+
+        // When / Then: below 4 once the first slot expires, below 2 once both have
+        long slotMillis = Duration.ofMinutes(1).toMillis();
+        long slotStart = clock.get() / slotMillis * slotMillis;
+        assertEquals(Duration.ofMillis(slotStart + Duration.ofMinutes(5).toMillis() - clock.get()),
+                counter.timeUntilBelow("a", 4));
+        assertEquals(Duration.ofMillis(slotStart + Duration.ofMinutes(10).toMillis() - clock.get()),
+                counter.timeUntilBelow("a", 2));
+        assertEquals(Duration.ZERO, counter.timeUntilBelow("a", 6));
+        assertEquals(Duration.ZERO, counter.timeUntilBelow("unknown", 1));
+    }
+
+    @Test
+    void compactShouldDropOnlyIdleKeys() {
+        // Given
+        counter.increment("old");
+        clock.addAndGet(Duration.ofMinutes(6).toMillis());
+        counter.increment("recent");
+        clock.addAndGet(Duration.ofMinutes(5).toMillis());
+
+        // When
+        int dropped = counter.compact();
+
+        // Then
+        assertEquals(1, dropped);
+        assertEquals(1, counter.size());
+        assertEquals(1, counter.count("recent"));
+    }
+
+    @Test
+    void fullCounterShouldEvictOldestKeyToTrackNewOne() {
+        // Given
+        SlidingWindowCounter small = new SlidingWindowCounter(Duration.ofMinutes(10), 10, 2, clock::get);
+        small.increment("a");
+        small.increment("b");
+        clock.addAndGet(Duration.ofMinutes(1).toMillis());
+
+        // When
+        int counted = small.increment("c");
+
+        // Then
+        assertEquals(1, counted);
+        assertEquals(2, small.size());
+        assertEquals(0, small.count("a"));
+        assertEquals(1, small.count("b"));
+        assertEquals(2, small.increment("c"));
+    }
+
+    @Test
+    void evictionShouldPassOverKeysActiveInTheCurrentSlot() {
+        // Given: "a" is the oldest key but is still being counted, "b" has gone quiet
+        SlidingWindowCounter small = new SlidingWindowCounter(Duration.ofMinutes(10), 10, 2, clock::get);
+        small.increment("a");
+        small.increment("b");
+        clock.addAndGet(Duration.ofMinutes(1).toMillis());
+        small.increment("a");
+
+        // When
+        small.increment("c");
+
+        // Then
+        assertEquals(2, small.count("a"));
+        assertEquals(0, small.count("b"));
+        assertEquals(1, small.count("c"));
+    }
+
+    @Test
+    void evictionShouldSkipKeysAlreadyReset() {
+        // Given
+        SlidingWindowCounter small = new SlidingWindowCounter(Duration.ofMinutes(10), 10, 2, clock::get);
+        small.increment("a");
+        small.increment("b");
+        small.reset("a");
+        small.increment("a");
+
+        // When: the queue still holds the reset "a" first, then "b", then the new "a"
+        small.increment("c");
+
+        // Then
+        assertEquals(1, small.count("a"));
+        assertEquals(0, small.count("b"));
+        assertEquals(2, small.size());
+    }
+
+    @Test
+    void concurrentIncrementsShouldAllBeCounted() throws Exception {
+        // Given
+        SlidingWindowCounter shared = new SlidingWindowCounter(Duration.ofMinutes(10), 10, 100);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    shared.increment("hot");
+                }
+            }));
+        }
+
+        // When
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(40_000, shared.count("hot"));
+    }
+}
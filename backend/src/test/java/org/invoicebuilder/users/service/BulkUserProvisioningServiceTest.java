@@ -0,0 +1,250 @@
+package org.invoicebuilder.users.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.events.DomainEventBus;
+import org.invoicebuilder.events.UserRegistered;
+import org.invoicebuilder.notifications.event.EmailEventPublisher;
+import org.invoicebuilder.users.domain.Role;
+import org.invoicebuilder.users.dto.user.BulkProvisionRequest;
+import org.invoicebuilder.users.dto.user.BulkProvisionResult;
+import org.invoicebuilder.users.dto.user.BulkProvisionSummary;
+import org.invoicebuilder.users.dto.user.BulkProvisionUser;
+import org.invoicebuilder.users.repository.UserProvisioningStore;
+import org.invoicebuilder.users.repository.UserProvisioningStore.NewUser;
+import org.invoicebuilder.users.repository.UserRepository;
+import org.invoicebuilder.users.security.PasswordHashingService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkUserProvisioningServiceTest {
+
+    private static final UUID ACCOUNT_ID = UUID.randomUUID();
+    private static final ValidatorFactory VALIDATOR_FACTORY = Validation.buildDefaultValidatorFactory();
+
+    @Mock
+    private UserProvisioningStore userProvisioningStore;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleService roleService;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private EmailVerificationTokenService emailVerificationTokenService;
+
+    @Mock
+    private EmailEventPublisher emailEventPublisher;
+
+    @Mock
+    private DomainEventBus domainEventBus;
+
+    @Mock
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final Validator validator = VALIDATOR_FACTORY.getValidator();
+    private final AppProperties appProperties = new AppProperties();
+    private BulkUserProvisioningService service;
+
+    @AfterAll
+    static void closeValidatorFactory() {
+        VALIDATOR_FACTORY.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        service = new BulkUserProvisioningService(userProvisioningStore, userRepository, roleService,
+                passwordHashingService, emailVerificationTokenService, emailEventPublisher, domainEventBus,
+                registeredEmailFilter, transactionTemplate, validator, appProperties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void validRowsShouldBeCreatedAndBadRowsReportedAlone() {
+        // Given
+        givenRoles();
+        givenTransactions();
+        when(userProvisioningStore.findExistingEmails(anyCollection())).thenReturn(Set.of("taken@example.com"));
+        when(passwordHashingService.encodeAll(anyList())).thenAnswer(invocation ->
+                invocation.<List<String>>getArgument(0).stream().map(raw -> "hash:" + raw).toList());
+        givenAllInserted();
+        when(emailVerificationTokenService.createTokens(anyList())).thenAnswer(invocation ->
+                invocation.<List<?>>getArgument(0).stream().map(user -> "token").toList());
+        BulkProvisionRequest request = new BulkProvisionRequest(List.of(
+                new BulkProvisionUser("alice@example.com", "Alice", "password-1", null),
+                new BulkProvisionUser("not-an-email", "Bob", "password-2", null),
+                new BulkProvisionUser("carol@example.com", "Carol", "password-3", "admin"),
+                new BulkProvisionUser("ALICE@example.com", "Alice again", "password-4", null),
+                new BulkProvisionUser("taken@example.com", "Taken", "password-5", null),
+                new BulkProvisionUser("dave@example.com", "Dave", "password-6", "OWNER"),
+                new BulkProvisionUser("erin@example.com", "Erin", null, null)
+        ), null);
+        List<BulkProvisionResult> results = new ArrayList<>();
+
+        // When
+        BulkProvisionSummary summary = service.provision(ACCOUNT_ID, request, Locale.FRANCE, results::addAll);
+
+        // Then
+        assertEquals(7, summary.total());
+        assertEquals(2, summary.created());
+        assertEquals(5, summary.failed());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6), results.stream().map(BulkProvisionResult::row).toList());
+        assertEquals(List.of(BulkProvisionResult.Status.CREATED, BulkProvisionResult.Status.FAILED,
+                        BulkProvisionResult.Status.CREATED, BulkProvisionResult.Status.FAILED,
+                        BulkProvisionResult.Status.FAILED, BulkProvisionResult.Status.FAILED,
+                        BulkProvisionResult.Status.FAILED),
+                results.stream().map(BulkProvisionResult::status).toList());
+        assertEquals("Duplicate email in request", results.get(3).error());
+        assertEquals("Email is already registered", results.get(4).error());
+        assertEquals("Role OWNER cannot be provisioned", results.get(5).error());
+        assertEquals("Password is required", results.get(6).error());
+
+        ArgumentCaptor<List<NewUser>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(userProvisioningStore).insertUsers(eq(ACCOUNT_ID), inserted.capture());
+        assertEquals(List.of("hash:password-1", "hash:password-3"), inserted.getValue().stream()
+                .map(NewUser::passwordHash).toList());
+        verify(userProvisioningStore).insertUserRoles(inserted.getValue());
+        verify(emailEventPublisher).publishEmailEvents(argThat(events -> events.size() == 2));
+        verify(domainEventBus, times(2)).publishAfterCommit(any(UserRegistered.class));
+        verify(registeredEmailFilter).add("alice@example.com");
+        verify(registeredEmailFilter).add("carol@example.com");
+    }
+
+    @Test
+    void chunksShouldCommitSeparatelyAndReportProgressEach() {
+        // Given
+        appProperties.getProvisioning().setChunkSize(2);
+        givenRoles();
+        givenTransactions();
+        when(passwordHashingService.encodeAll(anyList())).thenAnswer(invocation ->
+                new ArrayList<>(invocation.<List<String>>getArgument(0)));
+        givenAllInserted();
+        BulkProvisionRequest request = new BulkProvisionRequest(List.of(
+                new BulkProvisionUser("a@example.com", "A", "password-1", null),
+                new BulkProvisionUser("b@example.com", "B", "password-1", null),
+                new BulkProvisionUser("c@example.com", "C", "password-1", null)
+        ), false);
+        List<Integer> progress = new ArrayList<>();
+
+        // When
+        BulkProvisionSummary summary = service.provision(ACCOUNT_ID, request, Locale.ENGLISH,
+                results -> progress.add(results.size()));
+
+        // Then
+        assertEquals(3, summary.created());
+        assertEquals(List.of(2, 1), progress);
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(userProvisioningStore, times(2)).findExistingEmails(anyCollection());
+        verifyNoInteractions(emailVerificationTokenService, emailEventPublisher);
+    }
+
+    @Test
+    void rowsTakenByConcurrentSignupShouldFailAsAlreadyRegistered() {
+        // Given
+        givenRoles();
+        givenTransactions();
+        when(passwordHashingService.encodeAll(anyList())).thenAnswer(invocation ->
+                new ArrayList<>(invocation.<List<String>>getArgument(0)));
+        when(userProvisioningStore.insertUsers(eq(ACCOUNT_ID), anyList())).thenReturn(Set.of());
+        BulkProvisionRequest request = new BulkProvisionRequest(List.of(
+                new BulkProvisionUser("raced@example.com", "Raced", "password-1", null)), true);
+        List<BulkProvisionResult> results = new ArrayList<>();
+
+        // When
+        BulkProvisionSummary summary = service.provision(ACCOUNT_ID, request, Locale.ENGLISH, results::addAll);
+
+        // Then
+        assertEquals(0, summary.created());
+        assertEquals("Email is already registered", results.get(0).error());
+        verify(userProvisioningStore, never()).insertUserRoles(anyList());
+        verifyNoInteractions(emailVerificationTokenService, domainEventBus, registeredEmailFilter);
+    }
+
+    @Test
+    void failedChunkShouldFailOnlyItsOwnRows() {
+        // Given
+        appProperties.getProvisioning().setChunkSize(1);
+        givenRoles();
+        when(passwordHashingService.encodeAll(anyList())).thenAnswer(invocation ->
+                new ArrayList<>(invocation.<List<String>>getArgument(0)));
+        when(transactionTemplate.execute(any()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        givenAllInserted();
+        BulkProvisionRequest request = new BulkProvisionRequest(List.of(
+                new BulkProvisionUser("first@example.com", "First", "password-1", null),
+                new BulkProvisionUser("second@example.com", "Second", "password-1", null)
+        ), false);
+        List<BulkProvisionResult> results = new ArrayList<>();
+
+        // When
+        BulkProvisionSummary summary = service.provision(ACCOUNT_ID, request, Locale.ENGLISH, results::addAll);
+
+        // Then
+        assertEquals(1, summary.created());
+        assertEquals(BulkProvisionResult.Status.FAILED, results.get(0).status());
+        assertEquals("User could not be created, please retry", results.get(0).error());
+        assertEquals(BulkProvisionResult.Status.CREATED, results.get(1).status());
+    }
+
+    @Test
+    void oversizedRequestShouldBeRejectedBeforeAnyWork() {
+        // Given
+        appProperties.getProvisioning().setMaxRows(1);
+        BulkProvisionRequest request = new BulkProvisionRequest(List.of(
+                new BulkProvisionUser("a@example.com", "A", "password-1", null),
+                new BulkProvisionUser("b@example.com", "B", "password-1", null)
+        ), true);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+                () -> service.provision(ACCOUNT_ID, request, Locale.ENGLISH, results -> fail("no progress expected")));
+        verifyNoInteractions(userProvisioningStore, passwordHashingService, transactionTemplate);
+    }
+
+    private void givenRoles() {
+        lenient().when(roleService.findRoleByName(anyString())).thenAnswer(invocation ->
+                Role.builder().roleId(UUID.randomUUID()).roleName(invocation.getArgument(0)).build());
+    }
+
+    private void givenTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private void givenAllInserted() {
+        when(userProvisioningStore.insertUsers(eq(ACCOUNT_ID), anyList())).thenAnswer(invocation ->
+                invocation.<Collection<NewUser>>getArgument(1).stream().map(NewUser::userId).collect(Collectors.toSet()));
+    }
+}
@@ -0,0 +1,62 @@
+package org.invoicebuilder.users.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredTokenPurgerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final AppProperties appProperties = new AppProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ExpiredTokenPurger purger;
+
+    @BeforeEach
+    void setUp() {
+        appProperties.getTokenPurge().setChunkSize(2);
+        purger = new ExpiredTokenPurger(jdbcTemplate, appProperties, meterRegistry);
+    }
+
+    @Test
+    void shouldDeleteInChunksUntilShortChunkForEachTable() {
+        // Given
+        when(jdbcTemplate.update(contains("refresh_tokens"), eq(2))).thenReturn(2, 2, 1);
+        when(jdbcTemplate.update(contains("email_verification_tokens"), eq(2))).thenReturn(0);
+
+        // When
+        long purged = purger.purge();
+
+        // Then
+        assertEquals(5, purged);
+        verify(jdbcTemplate, times(3)).update(contains("refresh_tokens"), eq(2));
+        assertEquals(5, meterRegistry.counter("auth.tokens.purged", "table", "refresh_tokens").count());
+        assertEquals(1, meterRegistry.timer("auth.tokens.purge.duration").count());
+    }
+
+    @Test
+    void shouldStopAtTimeBudget() {
+        // Given
+        appProperties.getTokenPurge().setMaxDuration(Duration.ZERO);
+
+        // When
+        long purged = purger.purge();
+
+        // Then
+        assertEquals(0, purged);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,149 @@
+package org.invoicebuilder.users.service;
+
+import org.invoicebuilder.config.AppProperties;
+import org.invoicebuilder.config.PasswordConfig;
+import org.invoicebuilder.users.domain.Account;
+import org.invoicebuilder.users.domain.SecurityUser;
+import org.invoicebuilder.users.domain.User;
+import org.invoicebuilder.users.domain.UserStatus;
+import org.invoicebuilder.users.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JpaUserDetailsServiceTest {
+
+    private static final String EMAIL = "owner@example.com";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private JpaUserDetailsService userDetailsService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder()
+                .userId(UUID.randomUUID())
+                .userEmail(EMAIL)
+                .userPassword(new BCryptPasswordEncoder(4).encode("secret"))
+                .userStatus(UserStatus.ACTIVE)
+                .account(Account.builder().accountId(UUID.randomUUID()).accountName("Acme").build())
+                .build();
+    }
+
+    @Test
+    void loginShouldLoadUserAndRolesWithOneQuery() {
+        // Given
+        when(userRepository.findWithAccountAndRoleNamesByEmail(EMAIL))
+                .thenReturn(rows("OWNER", "ADMIN"));
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(new BCryptPasswordEncoder(4));
+
+        // When
+        Authentication authentication = provider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL, "secret"));
+        SecurityUser principal = (SecurityUser) authentication.getPrincipal();
+        for (int i = 0; i < 5; i++) {
+            principal.getAuthorities();
+            authentication.getAuthorities();
+        }
+
+        // Then
+        verify(userRepository, times(1)).findWithAccountAndRoleNamesByEmail(EMAIL);
+        verifyNoMoreInteractions(userRepository);
+        assertSame(user, principal.getUser());
+        // The authentication also carries the FACTOR_PASSWORD authority added by the provider
+        assertEquals(Set.of("ROLE_OWNER", "ROLE_ADMIN"), principal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void loginWithOutdatedHashShouldStoreRehashedPassword() {
+        // Given: the stored hash has no algorithm prefix and a lower cost than configured
+        when(userRepository.findWithAccountAndRoleNamesByEmail(EMAIL)).thenReturn(rows("OWNER"));
+        AppProperties.Passwords settings = new AppProperties.Passwords();
+        settings.setBcryptStrength(5);
+        PasswordEncoder encoder = PasswordConfig.delegatingEncoder(settings);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(userDetailsService);
+
+        // When
+        provider.authenticate(new UsernamePasswordAuthenticationToken(EMAIL, "secret"));
+
+        // Then
+        ArgumentCaptor<String> rehashed = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).updatePasswordHash(eq(user.getUserId()), rehashed.capture());
+        assertTrue(rehashed.getValue().startsWith("{bcrypt}$2a$05$"));
+        assertTrue(encoder.matches("secret", rehashed.getValue()));
+        assertEquals(rehashed.getValue(), user.getUserPassword());
+    }
+
+    @Test
+    void authoritiesShouldBeImmutable() {
+        // Given
+        when(userRepository.findWithAccountAndRoleNamesByEmail(EMAIL)).thenReturn(rows("USER"));
+
+        // When
+        SecurityUser securityUser = (SecurityUser) userDetailsService.loadUserByUsername(EMAIL);
+
+        // Then
+        assertEquals(Set.of("USER"), securityUser.getRoleNames());
+        assertThrows(UnsupportedOperationException.class, () -> securityUser.getRoleNames().add("OWNER"));
+        assertThrows(UnsupportedOperationException.class, () -> securityUser.getAuthorities().clear());
+    }
+
+    @Test
+    void userWithoutRolesShouldHaveNoAuthorities() {
+        // Given
+        when(userRepository.findWithAccountAndRoleNamesByEmail(EMAIL)).thenReturn(rows((String) null));
+
+        // When
+        SecurityUser securityUser = (SecurityUser) userDetailsService.loadUserByUsername(EMAIL);
+
+        // Then
+        assertTrue(securityUser.getAuthorities().isEmpty());
+    }
+
+    @Test
+    void unknownEmailShouldThrowUsernameNotFound() {
+        // Given
+        when(userRepository.findWithAccountAndRoleNamesByEmail(EMAIL)).thenReturn(List.of());
+
+        // When / Then
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(EMAIL));
+    }
+
+    private List<Object[]> rows(String... roleNames) {
+        List<Object[]> rows = new ArrayList<>();
+        for (String roleName : roleNames) {
+            rows.add(new Object[]{user, roleName});
+        }
+        return rows;
+    }
+}
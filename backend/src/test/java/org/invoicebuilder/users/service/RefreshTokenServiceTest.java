@@ -0,0 +1,138 @@
+package org.invoicebuilder.users.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.TokenProperties;
+import org.invoicebuilder.exception.users.InvalidTokenException;
+import org.invoicebuilder.users.domain.RefreshToken;
+import org.invoicebuilder.users.domain.User;
+import org.invoicebuilder.users.domain.UserStatus;
+import org.invoicebuilder.users.repository.RefreshTokenRepository;
+import org.invoicebuilder.users.security.RevokedRefreshTokenFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final User user = User.builder().userId(UUID.randomUUID()).userStatus(UserStatus.ACTIVE).build();
+    private final UUID familyId = UUID.randomUUID();
+    private String tokenHash;
+    private RevokedRefreshTokenFilter revokedTokens;
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        TokenProperties tokenProperties = new TokenProperties();
+        tokenProperties.setRefreshTokenTtl(Duration.ofDays(7));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        revokedTokens = new RevokedRefreshTokenFilter(jdbcTemplate, meterRegistry);
+        service = new RefreshTokenService(refreshTokenRepository, tokenProperties, revokedTokens, meterRegistry);
+    }
+
+    @Test
+    void rotateShouldRevokePresentedTokenAndIssueOneInSameFamily() {
+        // Given
+        String raw = issueToken();
+        RefreshToken stored = storedToken(false);
+        when(refreshTokenRepository.findWithUserByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.revokeIfActive(stored.getRefreshTokenId())).thenReturn(1);
+
+        // When
+        RefreshTokenService.RotatedToken rotated = service.rotate(raw, "203.0.113.7", "test-agent");
+
+        // Then
+        assertNotEquals(raw, rotated.refreshToken());
+        assertSame(user, rotated.user());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(saved.capture());
+        assertEquals(familyId, saved.getValue().getFamilyId());
+        assertEquals("203.0.113.7", saved.getValue().getTokenIp());
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+
+    @Test
+    void reusedTokenShouldRevokeFamilyAndThenBeRejectedFromMemory() {
+        // Given
+        String raw = issueToken();
+        RefreshToken stored = storedToken(true);
+        when(refreshTokenRepository.findWithUserByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.findTokenHashesByFamily(familyId)).thenReturn(List.of(stored.getTokenHash()));
+
+        // When
+        assertThrows(InvalidTokenException.class, () -> service.rotate(raw, null, null));
+
+        // Then
+        verify(refreshTokenRepository).revokeFamily(familyId);
+        assertTrue(revokedTokens.isRevoked(stored.getTokenHash()));
+
+        clearInvocations(refreshTokenRepository);
+        assertThrows(InvalidTokenException.class, () -> service.rotate(raw, null, null));
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    void concurrentlyRotatedTokenShouldCountAsReuse() {
+        // Given
+        String raw = issueToken();
+        RefreshToken stored = storedToken(false);
+        when(refreshTokenRepository.findWithUserByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.revokeIfActive(stored.getRefreshTokenId())).thenReturn(0);
+
+        // When / Then
+        assertThrows(InvalidTokenException.class, () -> service.rotate(raw, null, null));
+        verify(refreshTokenRepository).revokeFamily(familyId);
+    }
+
+    @Test
+    void unknownTokenShouldBeRejected() {
+        // Given
+        when(refreshTokenRepository.findWithUserByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThrows(InvalidTokenException.class, () -> service.rotate("not-a-token", null, null));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    /**
+     * Issues a token through the service and captures the hash it stored.
+     */
+    private String issueToken() {
+        String raw = service.createToken(user, null, null);
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        tokenHash = saved.getValue().getTokenHash();
+        return raw;
+    }
+
+    private RefreshToken storedToken(boolean revoked) {
+        return RefreshToken.builder()
+                .refreshTokenId(UUID.randomUUID())
+                .user(user)
+                .tokenHash(tokenHash)
+                .familyId(familyId)
+                .expiresAt(Instant.now().plus(Duration.ofDays(7)))
+                .revoked(revoked)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package org.invoicebuilder.users.service;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.invoicebuilder.exception.users.InvalidTokenException;
+import org.invoicebuilder.users.domain.Account;
+import org.invoicebuilder.users.domain.SecurityUser;
+import org.invoicebuilder.users.domain.User;
+import org.invoicebuilder.users.security.AuthenticatedPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private TokenService tokenService;
+    private JwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        RSAKey jwk = new RSAKey.Builder(publicKey).privateKey((RSAPrivateKey) keyPair.getPrivate()).build();
+        tokenService = new TokenService(new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk))));
+        decoder = NimbusJwtDecoder.withPublicKey(publicKey).build();
+    }
+
+    @Test
+    void tokenShouldCarryUserAccountAndRoles() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID accountId = UUID.randomUUID();
+        User user = User.builder()
+                .userId(userId)
+                .userEmail("owner@example.com")
+                .account(Account.builder().accountId(accountId).accountName("Acme").build())
+                .build();
+        SecurityUser securityUser = new SecurityUser(user, List.of("OWNER", "ADMIN"));
+        UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                securityUser, null, securityUser.getAuthorities());
+
+        // When
+        Jwt jwt = decoder.decode(tokenService.generateToken(authentication));
+        AuthenticatedPrincipal principal = AuthenticatedPrincipal.from(jwt);
+
+        // Then
+        assertEquals(userId, principal.userId());
+        assertEquals(accountId, principal.accountId());
+        assertEquals("owner@example.com", principal.email());
+        assertEquals(Set.of("OWNER", "ADMIN"), principal.roles());
+        assertTrue(principal.hasRole("OWNER"));
+    }
+
+    @Test
+    void tokenWithoutAccountClaimShouldBeRejected() {
+        // Given: an authentication that is not a SecurityUser gets no user or account claims
+        UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                "legacy@example.com", null, List.of());
+
+        // When
+        Jwt jwt = decoder.decode(tokenService.generateToken(authentication));
+
+        // Then
+        assertThrows(InvalidTokenException.class, () -> AuthenticatedPrincipal.from(jwt));
+    }
+}
@@ -0,0 +1,99 @@
+package org.invoicebuilder.users.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.Collection;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserActivityTrackerTest {
+
+    private static final String EMAIL = "owner@example.com";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final AppProperties appProperties = new AppProperties();
+    private UserActivityTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new UserActivityTracker(jdbcTemplate, appProperties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        tracker.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updatesForOneUserShouldBeCoalescedIntoOneRow() {
+        // Given
+        tracker.recordFailedLogin(EMAIL, 1);
+        tracker.recordFailedLogin(EMAIL, 2);
+        tracker.recordLogin(EMAIL, "203.0.113.7", "agent-1");
+        tracker.recordFailedLogin(EMAIL, 1);
+        tracker.recordLogin("other@example.com", "198.51.100.1", "agent-2");
+
+        // When
+        int written = tracker.flush();
+
+        // Then
+        assertEquals(2, written);
+        ArgumentCaptor<Collection<Map.Entry<String, UserActivityTracker.Activity>>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        UserActivityTracker.Activity owner = batch.getValue().stream()
+                .filter(entry -> entry.getKey().equals(EMAIL))
+                .findFirst().orElseThrow().getValue();
+        assertEquals(1, owner.loginAttempts());
+        assertEquals("203.0.113.7", owner.clientIp());
+        assertNotNull(owner.lastLoginAt());
+        assertEquals(0, tracker.flush());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedFlushShouldKeepUpdatesUnlessSuperseded() {
+        // Given
+        tracker.recordLogin(EMAIL, "203.0.113.7", "agent-1");
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[][]{{1}});
+
+        // When
+        assertEquals(0, tracker.flush());
+
+        // Then
+        assertEquals(1, tracker.flush());
+    }
+
+    @Test
+    void updatesBeyondMaxPendingShouldBeDropped() {
+        // Given
+        appProperties.getUserActivity().setMaxPending(1);
+        tracker.recordLogin(EMAIL, "203.0.113.7", "agent-1");
+
+        // When
+        tracker.recordLogin("other@example.com", "198.51.100.1", "agent-2");
+        tracker.recordFailedLogin(EMAIL, 1);
+
+        // Then
+        assertEquals(1, tracker.flush());
+    }
+}
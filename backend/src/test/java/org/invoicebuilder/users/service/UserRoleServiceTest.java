@@ -50,9 +50,7 @@ class UserRoleServiceTest {
     void testAssignRoleToUser_Success() {
         // Given
         when(roleService.findRoleByName("OWNER")).thenReturn(ownerRole);
-        when(userRoleRepository.existsById_UserIdAndId_RoleId(testUser.getUserId(), ownerRole.getRoleId()))
-                .thenReturn(false);
-        when(userRoleRepository.save(any(UserRole.class))).thenReturn(new UserRole(testUser, ownerRole));
+        when(userRoleRepository.insertIfAbsent(testUser.getUserId(), ownerRole.getRoleId())).thenReturn(1);
 
         // When
         User result = userRoleService.assignRoleToUser(testUser, "OWNER");
@@ -60,7 +58,7 @@ class UserRoleServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(testUser, result);
-        verify(userRoleRepository).save(any(UserRole.class));
+        verify(userRoleRepository).insertIfAbsent(testUser.getUserId(), ownerRole.getRoleId());
         verify(roleService).findRoleByName("OWNER");
     }
 
@@ -68,8 +66,7 @@ class UserRoleServiceTest {
     void testAssignRoleToUser_AlreadyAssigned() {
         // Given
         when(roleService.findRoleByName("OWNER")).thenReturn(ownerRole);
-        when(userRoleRepository.existsById_UserIdAndId_RoleId(testUser.getUserId(), ownerRole.getRoleId()))
-                .thenReturn(true);
+        when(userRoleRepository.insertIfAbsent(testUser.getUserId(), ownerRole.getRoleId())).thenReturn(0);
 
         // When
         User result = userRoleService.assignRoleToUser(testUser, "OWNER");
@@ -77,7 +74,8 @@ class UserRoleServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(testUser, result);
-        verify(userRoleRepository, never()).save(any(UserRole.class)); // Should not save if role already assigned
+        verify(userRoleRepository, never()).save(any(UserRole.class)); // One conditional insert, no separate existence check
+        verify(userRoleRepository, never()).existsById_UserIdAndId_RoleId(any(), any());
     }
 
     @Test
@@ -0,0 +1,44 @@
+package org.invoicebuilder.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void addedValuesShouldBeFoundAcrossResizes() {
+        // Given
+        LongHashSet set = new LongHashSet(4);
+        long[] values = new Random(42).longs(10_000).toArray();
+
+        // When
+        for (long value : values) {
+            set.add(value);
+        }
+
+        // Then
+        assertEquals(10_000, set.size());
+        for (long value : values) {
+            assertTrue(set.contains(value));
+        }
+        assertFalse(set.contains(values[0] + 1));
+    }
+
+    @Test
+    void zeroAndDuplicatesShouldBeHandled() {
+        // Given
+        LongHashSet set = new LongHashSet(8);
+
+        // When / Then
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.add(-1));
+        assertFalse(set.add(-1));
+        assertTrue(set.contains(0));
+        assertEquals(2, set.size());
+    }
+}
@@ -0,0 +1,116 @@
+package org.invoicebuilder.webhooks.delivery;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process webhook receiver. Every path is a separate endpoint that answers 200, or the
+ * status and delay set for it, and records what it received.
+ */
+public class StubWebhookReceiver implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Behaviour> behaviours = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> maxInFlight = new ConcurrentHashMap<>();
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+    private volatile boolean recordBodies = true;
+
+    public StubWebhookReceiver() {
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * A dispatcher that may deliver to this receiver; a production one refuses loopback addresses.
+     */
+    public static WebhookDispatcher dispatcher(WebhookDeliveryStore store, AppProperties appProperties,
+                                               MeterRegistry meterRegistry) {
+        return new WebhookDispatcher(store, appProperties, meterRegistry, address -> true);
+    }
+
+    public String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + "/" + path;
+    }
+
+    public void respond(String path, int status, long delayMillis, String retryAfter) {
+        behaviours.put("/" + path, new Behaviour(status, delayMillis, retryAfter));
+    }
+
+    /**
+     * Keeps only counts, for load tests.
+     */
+    public void discardBodies() {
+        this.recordBodies = false;
+    }
+
+    public List<Received> received() {
+        return received;
+    }
+
+    public int maxInFlight(String path) {
+        AtomicInteger max = maxInFlight.get("/" + path);
+        return max == null ? 0 : max.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        AtomicInteger current = inFlight.computeIfAbsent(path, key -> new AtomicInteger());
+        maxInFlight.computeIfAbsent(path, key -> new AtomicInteger()).accumulateAndGet(current.incrementAndGet(), Math::max);
+        try {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            Behaviour behaviour = behaviours.getOrDefault(path, Behaviour.OK);
+            if (behaviour.delayMillis() > 0) {
+                Thread.sleep(behaviour.delayMillis());
+            }
+            received.add(new Received(path,
+                    recordBodies ? new String(body, StandardCharsets.UTF_8) : null,
+                    exchange.getRequestHeaders().getFirst(WebhookDispatcher.SIGNATURE_HEADER),
+                    exchange.getRequestHeaders().getFirst(WebhookDispatcher.EVENT_HEADER),
+                    exchange.getRequestHeaders().getFirst(WebhookDispatcher.DELIVERY_HEADER)));
+            if (behaviour.retryAfter() != null) {
+                exchange.getResponseHeaders().add("Retry-After", behaviour.retryAfter());
+            }
+            exchange.sendResponseHeaders(behaviour.status(), -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            current.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    public record Received(String path, String body, String signature, String eventType, String deliveryId) {
+    }
+
+    private record Behaviour(int status, long delayMillis, String retryAfter) {
+        static final Behaviour OK = new Behaviour(200, 0, null);
+    }
+}
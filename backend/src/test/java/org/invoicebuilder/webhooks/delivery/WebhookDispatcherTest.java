@@ -0,0 +1,260 @@
+package org.invoicebuilder.webhooks.delivery;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.invoicebuilder.config.AppProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookDispatcherTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final String PAYLOAD = "{\"type\":\"invoice.paid\",\"data\":{\"invoice_number\":\"INV-1\"}}";
+
+    @Mock
+    private WebhookDeliveryStore store;
+
+    private final AppProperties appProperties = new AppProperties();
+    private final List<DeliveryOutcome> recorded = new CopyOnWriteArrayList<>();
+    private StubWebhookReceiver receiver;
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        appProperties.getWebhooks().setMaxAttempts(8);
+        appProperties.getWebhooks().setRetryBackoff(Duration.ofSeconds(10));
+        appProperties.getWebhooks().setMaxBackoff(Duration.ofHours(1));
+        receiver = new StubWebhookReceiver();
+        doAnswer(invocation -> recorded.addAll(invocation.getArgument(0)))
+                .when(store).record(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+        receiver.close();
+    }
+
+    @Test
+    void deliveryShouldCarryVerifiableSignature() {
+        // Given
+        dispatcher = start();
+        claims(List.of(delivery(41, UUID.randomUUID(), "hooks", null, 0)));
+
+        // When
+        dispatcher.poll();
+        awaitOutcomes(1);
+
+        // Then
+        DeliveryOutcome outcome = recorded.getFirst();
+        assertEquals(DeliveryOutcome.Status.DELIVERED, outcome.status());
+        assertEquals(1, outcome.attempts());
+        assertEquals(200, outcome.statusCode());
+
+        StubWebhookReceiver.Received received = receiver.received().getFirst();
+        assertEquals(PAYLOAD, received.body());
+        assertEquals("invoice.paid", received.eventType());
+        assertEquals("41", received.deliveryId());
+        String[] parts = received.signature().split(",");
+        String timestamp = parts[0].substring("t=".length());
+        assertEquals("v1=" + WebhookSigner.hmac(SECRET, timestamp + "." + PAYLOAD), parts[1]);
+    }
+
+    @Test
+    void slowEndpointShouldNotHoldBackOtherEndpoints() {
+        // Given
+        dispatcher = start();
+        receiver.respond("slow", 200, 1_000, null);
+        UUID slow = UUID.randomUUID();
+        UUID fast = UUID.randomUUID();
+        List<WebhookDelivery> deliveries = new ArrayList<>();
+        deliveries.add(delivery(1, slow, "slow", 1, 0));
+        deliveries.add(delivery(2, slow, "slow", 1, 0));
+        for (int i = 3; i <= 7; i++) {
+            deliveries.add(delivery(i, fast, "fast", null, 0));
+        }
+        claims(deliveries);
+
+        // When
+        long start = System.nanoTime();
+        dispatcher.poll();
+        awaitOutcomes(5);
+        long fastMillis = (System.nanoTime() - start) / 1_000_000;
+        awaitOutcomes(7);
+
+        // Then
+        assertTrue(fastMillis < 1_000, "fast endpoint waited " + fastMillis + " ms");
+        assertTrue(recorded.subList(0, 5).stream().allMatch(outcome -> outcome.deliveryId() >= 3));
+        assertTrue(recorded.stream().allMatch(outcome -> outcome.status() == DeliveryOutcome.Status.DELIVERED));
+        assertEquals(1, receiver.maxInFlight("slow"));
+    }
+
+    @Test
+    void failedAttemptShouldBeRetriedWithinJitterBounds() {
+        // Given
+        dispatcher = start();
+        receiver.respond("down", 503, 0, null);
+        claims(List.of(delivery(5, UUID.randomUUID(), "down", null, 2)));
+
+        // When
+        dispatcher.poll();
+        awaitOutcomes(1);
+
+        // Then: third attempt, step is 10s << 2 = 40s and equal jitter keeps at least half of it
+        DeliveryOutcome outcome = recorded.getFirst();
+        assertEquals(DeliveryOutcome.Status.PENDING, outcome.status());
+        assertEquals(3, outcome.attempts());
+        assertEquals(503, outcome.statusCode());
+        assertEquals("HTTP 503", outcome.error());
+        assertTrue(outcome.retryDelay().compareTo(Duration.ofSeconds(20)) >= 0);
+        assertTrue(outcome.retryDelay().compareTo(Duration.ofSeconds(40)) <= 0);
+    }
+
+    @Test
+    void retryAfterShouldExtendBackoff() {
+        // Given
+        dispatcher = start();
+        receiver.respond("busy", 429, 0, "600");
+        claims(List.of(delivery(6, UUID.randomUUID(), "busy", null, 0)));
+
+        // When
+        dispatcher.poll();
+        awaitOutcomes(1);
+
+        // Then
+        assertEquals(Duration.ofSeconds(600), recorded.getFirst().retryDelay());
+    }
+
+    @Test
+    void unreachableEndpointShouldRecordErrorWithoutStatus() {
+        // Given
+        dispatcher = start();
+        // Nothing listens on port 1, so the connection is refused.
+        claims(List.of(new WebhookDelivery(7, UUID.randomUUID(), "http://localhost:1/gone", SECRET, null,
+                "invoice.paid", PAYLOAD, 0)));
+
+        // When
+        dispatcher.poll();
+        awaitOutcomes(1);
+
+        // Then
+        DeliveryOutcome outcome = recorded.getFirst();
+        assertEquals(DeliveryOutcome.Status.PENDING, outcome.status());
+        assertNull(outcome.statusCode());
+        assertNotNull(outcome.error());
+        assertTrue(outcome.error().length() <= DeliveryOutcome.MAX_ERROR_LENGTH);
+    }
+
+    @Test
+    void lastAttemptShouldMarkDeliveryDead() {
+        // Given
+        dispatcher = start();
+        receiver.respond("broken", 500, 0, null);
+        claims(List.of(delivery(8, UUID.randomUUID(), "broken", null, 7)));
+
+        // When
+        dispatcher.poll();
+        awaitOutcomes(1);
+
+        // Then
+        DeliveryOutcome outcome = recorded.getFirst();
+        assertEquals(DeliveryOutcome.Status.DEAD, outcome.status());
+        assertEquals(8, outcome.attempts());
+        assertEquals(Duration.ZERO, outcome.retryDelay());
+    }
+
+    @Test
+    void endpointResolvingToInternalAddressShouldBeDeadWithoutRequest() {
+        // Given: the endpoint's host now resolves to loopback
+        dispatcher = new WebhookDispatcher(store, appProperties, new SimpleMeterRegistry());
+        receiver.respond("internal", 200, 0, null);
+        claims(List.of(delivery(9, UUID.randomUUID(), "internal", null, 0)));
+
+        // When
+        dispatcher.poll();
+        awaitOutcomes(1);
+
+        // Then
+        DeliveryOutcome outcome = recorded.getFirst();
+        assertEquals(DeliveryOutcome.Status.DEAD, outcome.status());
+        assertEquals(1, outcome.attempts());
+        assertNull(outcome.statusCode());
+        assertTrue(outcome.error().contains("not a public address"), outcome.error());
+        assertTrue(receiver.received().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fullLaneShouldReleaseOverflowAndBeSkippedByNextClaim() {
+        // Given
+        appProperties.getWebhooks().setLaneCapacity(2);
+        appProperties.getWebhooks().setDefaultMaxConcurrency(1);
+        dispatcher = start();
+        receiver.respond("slow", 200, 500, null);
+        UUID endpoint = UUID.randomUUID();
+        when(store.claimDue(anyInt(), anyInt(), any(), any()))
+                .thenReturn(List.of(delivery(1, endpoint, "slow", null, 0), delivery(2, endpoint, "slow", null, 0),
+                        delivery(3, endpoint, "slow", null, 4)))
+                .thenReturn(List.of());
+
+        // When
+        dispatcher.poll();
+        dispatcher.poll();
+
+        // Then
+        DeliveryOutcome released = recorded.getFirst();
+        assertEquals(3, released.deliveryId());
+        assertFalse(released.attempted());
+        assertEquals(DeliveryOutcome.Status.PENDING, released.status());
+        assertEquals(4, released.attempts());
+
+        ArgumentCaptor<Collection<UUID>> skipped = ArgumentCaptor.forClass(Collection.class);
+        verify(store, times(2)).claimDue(eq(500), eq(2), skipped.capture(), any());
+        assertTrue(skipped.getAllValues().get(0).isEmpty());
+        assertEquals(List.of(endpoint), List.copyOf(skipped.getAllValues().get(1)));
+
+        awaitOutcomes(3);
+        assertEquals(1, receiver.maxInFlight("slow"));
+    }
+
+    private WebhookDispatcher start() {
+        // The stub receiver listens on loopback, which deliveries may not reach outside tests.
+        return new WebhookDispatcher(store, appProperties, new SimpleMeterRegistry(), address -> true);
+    }
+
+    private void claims(List<WebhookDelivery> deliveries) {
+        when(store.claimDue(anyInt(), anyInt(), any(), any())).thenReturn(deliveries);
+    }
+
+    private WebhookDelivery delivery(long id, UUID endpointId, String path, Integer maxConcurrency, int attempts) {
+        return new WebhookDelivery(id, endpointId, receiver.url(path), SECRET, maxConcurrency, "invoice.paid", PAYLOAD, attempts);
+    }
+
+    private void awaitOutcomes(int expected) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (recorded.size() < expected && System.nanoTime() < deadline) {
+            dispatcher.flush();
+            LockSupport.parkNanos(5_000_000);
+        }
+        assertTrue(recorded.size() >= expected, "expected " + expected + " outcomes, got " + recorded.size());
+    }
+}